@@ -42,6 +42,7 @@ public class BinaryEntryPointProxy extends AbstractFixPProxy
     private static final int SEQUENCE_LEN = BINARY_ENTRYPOINT_HEADER_LENGTH +
         SequenceEncoder.BLOCK_LENGTH;
     private static final int RETRANSMISSION_AND_SEQUENCE_LEN = ARTIO_HEADER_LENGTH + RETRANSMISSION_LEN + SEQUENCE_LEN;
+    private static final int SEQUENCE_TEMPLATE_LENGTH = ARTIO_HEADER_LENGTH + SEQUENCE_LEN;
 
     private static final int NEGOTIATE_REJECT_LENGTH = BINARY_ENTRYPOINT_HEADER_LENGTH +
         NegotiateRejectEncoder.BLOCK_LENGTH;
@@ -84,6 +85,8 @@ public class BinaryEntryPointProxy extends AbstractFixPProxy
     private final Consumer<StringBuilder> businessMessageRejectAppendTo = businessMessageReject::appendTo;
 
     private final UnsafeBuffer buffer = new UnsafeBuffer();
+    // Sequence messages are sent as keepalives, so they're copied from a template rather than encoded each time
+    private final UnsafeBuffer sequenceTemplate = new UnsafeBuffer(new byte[SEQUENCE_TEMPLATE_LENGTH]);
     private final EpochNanoClock clock;
 
     public BinaryEntryPointProxy(
@@ -95,19 +98,29 @@ public class BinaryEntryPointProxy extends AbstractFixPProxy
     {
         super(protocol, dissector, connectionId, publication);
         this.clock = clock;
+        encodeTemplates();
+    }
+
+    protected void encodeTemplates()
+    {
+        encodeTemplate(
+            sequenceTemplate, SequenceEncoder.BLOCK_LENGTH, sequence, BINARY_ENTRYPOINT_HEADER_LENGTH,
+            BINARY_ENTRYPOINT_TYPE);
     }
 
     public long sendSequence(final long sessionId, final long nextSentSeqNo)
     {
         final SequenceEncoder sequence = this.sequence;
 
-        final long position = claimMessage(SequenceEncoder.BLOCK_LENGTH, sequence, clock.nanoTime());
+        final long position = claimTemplate(sequenceTemplate, SEQUENCE_TEMPLATE_LENGTH, clock.nanoTime());
         if (position < 0)
         {
             return position;
         }
 
+        final BufferClaim bufferClaim = this.bufferClaim;
         sequence
+            .wrap(bufferClaim.buffer(), bufferClaim.offset() + BINARY_ENTRYPOINT_MESSAGE_HEADER)
             .nextSeqNo(nextSentSeqNo);
 
         DebugLogger.logSbeDecoder(FIXP_SESSION, "< ", sequenceAppendTo);
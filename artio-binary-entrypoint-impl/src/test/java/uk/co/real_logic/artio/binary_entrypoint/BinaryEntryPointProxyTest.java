@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.binary_entrypoint;
+
+import b3.entrypoint.fixp.sbe.SequenceDecoder;
+import io.aeron.ExclusivePublication;
+import io.aeron.logbuffer.BufferClaim;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import uk.co.real_logic.artio.fixp.FixPMessageDissector;
+import uk.co.real_logic.artio.fixp.SimpleOpenFramingHeader;
+import uk.co.real_logic.artio.messages.FixPMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.co.real_logic.artio.fixp.SimpleOpenFramingHeader.SOFH_LENGTH;
+
+public class BinaryEntryPointProxyTest
+{
+    private static final long CONNECTION_ID = 1;
+    private static final long SESSION_ID = 2;
+    private static final long OTHER_CONNECTION_ID = 3;
+    private static final long OTHER_SESSION_ID = 4;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[256]);
+    private final ExclusivePublication publication = mock(ExclusivePublication.class);
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final FixPMessageDecoder fixPMessage = new FixPMessageDecoder();
+    private final b3.entrypoint.fixp.sbe.MessageHeaderDecoder beHeader =
+        new b3.entrypoint.fixp.sbe.MessageHeaderDecoder();
+    private final SequenceDecoder sequence = new SequenceDecoder();
+    private long timeInNs = 10;
+
+    private final BinaryEntryPointProxy proxy = new BinaryEntryPointProxy(
+        new BinaryEntryPointProtocol(), mock(FixPMessageDissector.class), CONNECTION_ID, publication, () -> timeInNs);
+
+    @Test
+    public void shouldSendSequenceFromTemplate()
+    {
+        givenClaimsSucceed();
+        proxy.ids(CONNECTION_ID, SESSION_ID);
+
+        proxy.sendSequence(SESSION_ID, 5);
+        assertSequence(CONNECTION_ID, SESSION_ID, 5);
+
+        timeInNs = 20;
+        proxy.sendSequence(SESSION_ID, 6);
+        assertSequence(CONNECTION_ID, SESSION_ID, 6);
+    }
+
+    @Test
+    public void shouldUpdateSequenceTemplateWhenIdsChange()
+    {
+        givenClaimsSucceed();
+        proxy.ids(CONNECTION_ID, SESSION_ID);
+        proxy.sendSequence(SESSION_ID, 5);
+
+        proxy.ids(OTHER_CONNECTION_ID, OTHER_SESSION_ID);
+        buffer.setMemory(0, buffer.capacity(), (byte)0);
+        proxy.sendSequence(OTHER_SESSION_ID, 7);
+
+        assertSequence(OTHER_CONNECTION_ID, OTHER_SESSION_ID, 7);
+    }
+
+    private void givenClaimsSucceed()
+    {
+        when(publication.tryClaim(anyInt(), any())).thenAnswer(inv ->
+        {
+            final int length = inv.getArgument(0);
+            final BufferClaim bufferClaim = inv.getArgument(1);
+            bufferClaim.wrap(buffer, 0, HEADER_LENGTH + length);
+            return 1L;
+        });
+    }
+
+    private void assertSequence(final long connectionId, final long sessionId, final long nextSeqNo)
+    {
+        int offset = HEADER_LENGTH;
+        header.wrap(buffer, offset);
+        assertEquals(FixPMessageDecoder.TEMPLATE_ID, header.templateId());
+        offset += MessageHeaderDecoder.ENCODED_LENGTH;
+
+        fixPMessage.wrap(buffer, offset, header.blockLength(), header.version());
+        assertEquals(connectionId, fixPMessage.connection());
+        assertEquals(sessionId, fixPMessage.sessionId());
+        assertEquals(timeInNs, fixPMessage.enqueueTime());
+        offset += header.blockLength();
+
+        final int messageLength = BinaryEntryPointProxy.BINARY_ENTRYPOINT_HEADER_LENGTH + SequenceDecoder.BLOCK_LENGTH;
+        assertEquals(messageLength, SimpleOpenFramingHeader.readSofhMessageSize(buffer, offset));
+        offset += SOFH_LENGTH;
+
+        beHeader.wrap(buffer, offset);
+        assertEquals(SequenceDecoder.TEMPLATE_ID, beHeader.templateId());
+        assertEquals(SequenceDecoder.BLOCK_LENGTH, beHeader.blockLength());
+        offset += b3.entrypoint.fixp.sbe.MessageHeaderDecoder.ENCODED_LENGTH;
+
+        sequence.wrap(buffer, offset, SequenceDecoder.BLOCK_LENGTH, SequenceDecoder.SCHEMA_VERSION);
+        assertEquals(nextSeqNo, sequence.nextSeqNo());
+    }
+}
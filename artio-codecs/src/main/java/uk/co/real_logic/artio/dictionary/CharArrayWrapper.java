@@ -55,6 +55,21 @@ public final class CharArrayWrapper
         hashcode = CodecUtil.hashCode(values, offset, length);
     }
 
+    public char[] values()
+    {
+        return values;
+    }
+
+    public int offset()
+    {
+        return offset;
+    }
+
+    public int length()
+    {
+        return length;
+    }
+
     public boolean equals(final Object o)
     {
         if (this == o)
@@ -64,6 +64,7 @@ public final class SessionConstants
     public static final String REJECT_MESSAGE_TYPE_STR = "3";
     public static final String SEQUENCE_RESET_TYPE_STR = "4";
     public static final String LOGOUT_MESSAGE_TYPE_STR = "5";
+    public static final String USER_REQUEST_MESSAGE_TYPE_STR = "BE";
 
     public static final byte SEQUENCE_RESET_TYPE_BYTE = (byte)'4';
 
@@ -76,4 +77,21 @@ public final class SessionConstants
 
     public static final int INCORRECT_DATA_FORMAT_FOR_VALUE = 6;
 
+    /**
+     * Check whether a packed message type is one of the session level messages that the session itself handles.
+     *
+     * @param messageType the packed message type.
+     * @return true if it's an admin or user request message type, false otherwise.
+     */
+    public static boolean isAdminMessage(final long messageType)
+    {
+        return messageType == HEARTBEAT_MESSAGE_TYPE ||
+            messageType == TEST_REQUEST_MESSAGE_TYPE ||
+            messageType == RESEND_REQUEST_MESSAGE_TYPE ||
+            messageType == REJECT_MESSAGE_TYPE ||
+            messageType == SEQUENCE_RESET_MESSAGE_TYPE ||
+            messageType == LOGOUT_MESSAGE_TYPE ||
+            messageType == LOGON_MESSAGE_TYPE ||
+            messageType == USER_REQUEST_MESSAGE_TYPE;
+    }
 }
@@ -186,6 +186,7 @@ public final class CodecGenerator
 
         new PrinterGenerator(dictionary, decoderPackage, decoderOutput).generate();
         new AcceptorGenerator(dictionary, decoderPackage, decoderOutput).generate();
+        new OtfParserGenerator(dictionary, decoderPackage, decoderOutput).generate();
 
         if (configuration.flyweightsEnabled())
         {
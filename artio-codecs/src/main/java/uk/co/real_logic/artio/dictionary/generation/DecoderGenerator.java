@@ -190,6 +190,10 @@ class DecoderGenerator extends Generator
                 else if (type == HEADER)
                 {
                     out.append(importFor(MessageTypeEncoding.class));
+                }
+
+                if (type == HEADER || type == MESSAGE)
+                {
                     out.append(importFor(SessionHeaderDecoder.class));
                 }
                 out.append(importFor(AsciiNumberFormatException.class));
@@ -276,7 +280,7 @@ class DecoderGenerator extends Generator
             {
                 final List<Field> fields = compileAllFieldsFor(message);
                 final String messageFieldsSet = generateFieldDictionary(fields, MESSAGE_FIELDS, false);
-                out.append(commonCompoundImports("Decoder", true, messageFieldsSet));
+                out.append(commonCompoundImports("Decoder", true, true, messageFieldsSet));
             }
         }
         groupMethods(out, aggregate);
@@ -660,18 +664,6 @@ class DecoderGenerator extends Generator
 
         final boolean isPrimitive = type.isIntBased() || type == Type.CHAR;
 
-        final String enumValidation = String.format(
-            "        if (" + codecRejectUnknownEnumValueEnabled + " && !%1$s.isValid(%2$s%4$s))\n" +
-            "        {\n" +
-            "            invalidTagId = %3$s;\n" +
-            "            rejectReason = " + VALUE_IS_INCORRECT + ";\n" +
-            "            return false;\n" +
-            "        }\n",
-            enumName(name),
-            propertyName,
-            tagNumber,
-            isPrimitive ? "()" : "Wrapper");
-
         final String enumValidationMethod;
         if (type.isMultiValue())
         {
@@ -682,26 +674,22 @@ class DecoderGenerator extends Generator
                     "          {\n" +
                     "              if (this.%1$s()[i] == ' ')\n" +
                     "              {\n" +
-                    "                  %1$sWrapper.wrap(this.%1$s(), %1$sOffset, i - %1$sOffset);\n" +
                     "%2$s" +
                     "                  %1$sOffset = i + 1;\n" +
                     "              }\n" +
                     "          }\n" +
-                    "          %1$sWrapper.wrap(this.%1$s(), %1$sOffset, %1$sLength - %1$sOffset);\n" +
-                    "%2$s",
+                    "%3$s",
                     propertyName,
-                    enumValidation
+                    enumValidation(name, tagNumber,
+                        String.format("this.%1$s(), %1$sOffset, i - %1$sOffset", propertyName)),
+                    enumValidation(name, tagNumber,
+                        String.format("this.%1$s(), %1$sOffset, %1$sLength - %1$sOffset", propertyName))
                 );
         }
         else
         {
-            enumValidationMethod =
-                String.format(
-                    (isPrimitive ? "" : "        %1$sWrapper.wrap(this.%1$s(), %1$sLength);\n") +
-                    "%2$s",
-                    propertyName,
-                    enumValidation
-                );
+            enumValidationMethod = enumValidation(name, tagNumber,
+                String.format(isPrimitive ? "%1$s()" : "this.%1$s(), 0, %1$sLength", propertyName));
         }
 
         return
@@ -716,6 +704,20 @@ class DecoderGenerator extends Generator
             );
     }
 
+    private String enumValidation(final String name, final int tagNumber, final String isValidArguments)
+    {
+        return String.format(
+            "        if (" + codecRejectUnknownEnumValueEnabled + " && !%1$s.isValid(%2$s))\n" +
+            "        {\n" +
+            "            invalidTagId = %3$s;\n" +
+            "            rejectReason = " + VALUE_IS_INCORRECT + ";\n" +
+            "            return false;\n" +
+            "        }\n",
+            enumName(name),
+            isValidArguments,
+            tagNumber);
+    }
+
     private CharSequence generateGroupValidation(final Entry entry)
     {
         final Group group = (Group)entry.element();
@@ -1355,26 +1357,22 @@ class DecoderGenerator extends Generator
 
         final String enumValueDecoder = String.format(
             type.isStringBased() ?
-            "%1$s.decode(%2$sWrapper)" :
+            "%1$s.decode(this.%2$s(), 0, %2$sLength)" :
             // Need to ensure that decode the field
             (flyweightsEnabled && (type.isIntBased() || type.isFloatBased())) ?
             "%1$s.decode(this.%2$s())" :
             "%1$s.decode(%2$s)",
             enumName(name),
             fieldName);
-        final String enumStringBasedWrapperField =
-            String.format("    %2$s final CharArrayWrapper %1$sWrapper = new CharArrayWrapper();\n", fieldName, scope);
         final String enumDecoder = shouldGenerateClassEnumMethods(field) ?
             String.format(
-            "%4$s" +
-            "    %7$spublic %6$s %2$sAsEnum()\n" +
+            "    %6$spublic %5$s %2$sAsEnum()\n" +
             "    {\n" +
-            (!entry.required() ? "        if (!has%1$s)\n return %6$s.%5$s;\n" : "") +
-            (type.isStringBased() ? "        %2$sWrapper.wrap(this.%2$s(), %2$sLength);\n" : "") +
+            (!entry.required() ? "        if (!has%1$s)\n return %5$s.%4$s;\n" : "") +
             "        return %3$s;\n" +
             "    }\n\n",
-            name, fieldName, enumValueDecoder, enumStringBasedWrapperField, NULL_VAL_NAME, enumName(name),
-            javadoc) : (field.type().isMultiValue() || field.type() == Type.STRING) ? enumStringBasedWrapperField : "";
+            name, fieldName, enumValueDecoder, NULL_VAL_NAME, enumName(name),
+            javadoc) : "";
 
         final String lazyInitialisation = fieldLazyInstantialisation(field, fieldName);
 
@@ -1729,7 +1727,8 @@ class DecoderGenerator extends Generator
         final boolean isHeader,
         final String endGroupCheck)
     {
-        return "    public int decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
+        return (hasCommonCompounds ? decodeBodyFromMethods() :
+            "    public int decode(final AsciiBuffer buffer, final int offset, final int length)\n") +
             "    {\n" +
             "        // Decode " + aggregate.name() + "\n" +
             "        int seenFieldCount = 0;\n" +
@@ -1740,9 +1739,8 @@ class DecoderGenerator extends Generator
             "        }\n" +
             "        this.buffer = buffer;\n" +
             "        final int end = offset + length;\n" +
-            "        int position = offset;\n" +
+            (hasCommonCompounds ? "        int position = bodyOffset;\n" : "        int position = offset;\n") +
             "        int positionIter = position;\n" +
-            (hasCommonCompounds ? "        position += header.decode(buffer, position, length);\n" : "") +
             (isGroup ? "        seenFields.clear();\n" : "") +
             "        int tag;\n\n" +
             "        while (position < end)\n" +
@@ -1784,6 +1782,52 @@ class DecoderGenerator extends Generator
             "            {\n";
     }
 
+    private String decodeBodyFromMethods()
+    {
+        return "    public int decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
+            "    {\n" +
+            "        header = ownHeader;\n" +
+            "        final int headerLength = header.decode(buffer, offset, length);\n" +
+            "        return decodeBody(buffer, offset, length, offset + headerLength);\n" +
+            "    }\n\n" +
+            "    /**\n" +
+            "     * Decode the body of this message using a header that has already been decoded, for example\n" +
+            "     * by the session's parser, rather than decoding the standard header fields again. The given\n" +
+            "     * header is returned by header() until this decoder is next decoded or reset. A header that\n" +
+            "     * was decoded by another dictionary's codecs can't be adopted, so the header fields are decoded\n" +
+            "     * again in that case.\n" +
+            "     *\n" +
+            "     * @param header the already decoded header of this message, for example OnMessageInfo.header().\n" +
+            "     * @param buffer the buffer containing the whole message.\n" +
+            "     * @param offset the offset of the start of the message.\n" +
+            "     * @param length the length of the whole message.\n" +
+            "     * @param bodyOffset the offset of the first field after the header.\n" +
+            "     * @return the length of the decoded message.\n" +
+            "     */\n" +
+            "    public int decodeBodyFrom(\n" +
+            "        final SessionHeaderDecoder header,\n" +
+            "        final AsciiBuffer buffer,\n" +
+            "        final int offset,\n" +
+            "        final int length,\n" +
+            "        final int bodyOffset)\n" +
+            "    {\n" +
+            "        if (!(header instanceof HeaderDecoder))\n" +
+            "        {\n" +
+            "            return decode(buffer, offset, length);\n" +
+            "        }\n\n" +
+            "        this.header = (HeaderDecoder)header;\n" +
+            "        return decodeBody(buffer, offset, length, bodyOffset);\n" +
+            "    }\n\n" +
+            "    private int decodeBody(final AsciiBuffer buffer, final int offset, final int length, " +
+            "final int bodyOffset)\n";
+    }
+
+    protected String resetHeader()
+    {
+        return "        header = ownHeader;\n" +
+            "        header.reset();\n";
+    }
+
     private String emptyTagValidation()
     {
         if (allowEmptyTags)
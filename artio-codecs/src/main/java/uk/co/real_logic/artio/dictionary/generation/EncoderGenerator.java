@@ -284,7 +284,7 @@ class EncoderGenerator extends Generator
         out.append(constructor(className, aggregate, type, dictionary));
         if (isMessage && !isSharedParent())
         {
-            out.append(commonCompoundImports("Encoder", false, ""));
+            out.append(commonCompoundImports("Encoder", false, false, ""));
         }
         else if (type == GROUP)
         {
@@ -21,7 +21,6 @@ import org.agrona.generation.OutputManager;
 import uk.co.real_logic.artio.builder.CharRepresentable;
 import uk.co.real_logic.artio.builder.IntRepresentable;
 import uk.co.real_logic.artio.builder.StringRepresentable;
-import uk.co.real_logic.artio.dictionary.CharArrayMap;
 import uk.co.real_logic.artio.dictionary.CharArrayWrapper;
 import uk.co.real_logic.artio.dictionary.Generated;
 import uk.co.real_logic.artio.dictionary.ir.Dictionary;
@@ -31,9 +30,11 @@ import uk.co.real_logic.artio.dictionary.ir.Field.Value;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import static java.lang.String.format;
 import static java.util.stream.Collectors.joining;
@@ -138,11 +139,8 @@ final class EnumGenerator
             try
             {
                 out.append(fileHeader(builderPackage));
-                out.append(importFor(CharArrayMap.class));
                 out.append(importFor(CharArrayWrapper.class));
                 out.append(importFor(IntHashSet.class));
-                out.append(importFor(Map.class));
-                out.append(importFor(HashMap.class));
                 out.append(interfaceToImport);
                 out.append(importFor(Generated.class));
                 out.append("\n" + GENERATED_ANNOTATION);
@@ -257,10 +255,17 @@ final class EnumGenerator
             case EXCHANGE:
             case COUNTRY:
             case LANGUAGE:
-                return "    public static boolean isValid(final CharArrayWrapper key)\n" +
-                       "    {\n" +
-                       "        return charMap.containsKey(key);\n" +
-                       "    }\n";
+                return format(
+                    "    public static boolean isValid(final CharArrayWrapper key)\n" +
+                    "    {\n" +
+                    "        return isValid(key.values(), key.offset(), key.length());\n" +
+                    "    }\n" +
+                    "\n" +
+                    "    public static boolean isValid(final char[] value, final int offset, final int length)\n" +
+                    "    {\n" +
+                    "        return decode(value, offset, length) != %1$s;\n" +
+                    "    }\n",
+                    UNKNOWN_NAME);
             default:
                 final String primitiveValues = allValues
                     .stream()
@@ -293,32 +298,20 @@ final class EnumGenerator
             case EXCHANGE:
             case COUNTRY:
             case LANGUAGE:
-
-                final String entries = allValues
-                    .stream()
-                    .map((v) -> format("        stringMap.put(%s, %s);\n", literal(v, type), v.description()))
-                    .collect(joining());
-
                 return format(
-                    "    private static final CharArrayMap<%1$s> charMap;\n" +
-                    "    static\n" +
+                    "    public static %1$s decode(final CharArrayWrapper key)\n" +
                     "    {\n" +
-                    "        final Map<String, %1$s> stringMap = new HashMap<>();\n" +
-                    "%2$s" +
-                    "        charMap = new CharArrayMap<>(stringMap);\n" +
+                    "        return decode(key.values(), key.offset(), key.length());\n" +
                     "    }\n" +
                     "\n" +
-                    "    public static %1$s decode(final CharArrayWrapper key)\n" +
+                    "    public static %1$s decode(final char[] value, final int offset, final int length)\n" +
                     "    {\n" +
-                            "        final %1$s value = charMap.get(key);\n" +
-                            "        if (value == null)\n" +
-                            "        {\n" +
-                            "            return %3$s;\n" +
-                            "        }\n" +
-                            "        return value;\n" +
-                    "    }\n",
+                    "%2$s" +
+                    "        return %3$s;\n" +
+                    "    }\n" +
+                    "\n",
                     typeName,
-                    entries,
+                    charArrayDecodeSwitch(allValues),
                     UNKNOWN_NAME);
 
             default:
@@ -326,6 +319,100 @@ final class EnumGenerator
         }
     }
 
+    // Switches on the length and then on each character in turn rather than hashing the characters, once there's
+    // only a single candidate value left the remaining characters are compared directly.
+    private String charArrayDecodeSwitch(final List<Value> allValues)
+    {
+        // Later values replace earlier ones with the same representation
+        final Map<String, Value> representationToValue = new LinkedHashMap<>();
+        allValues.forEach((value) -> representationToValue.put(value.representation(), value));
+
+        final Map<Integer, List<Value>> valuesByLength = new TreeMap<>();
+        for (final Value value : representationToValue.values())
+        {
+            valuesByLength.computeIfAbsent(value.representation().length(), (ignore) -> new ArrayList<>()).add(value);
+        }
+
+        final StringBuilder out = new StringBuilder();
+        out.append("        switch (length)\n");
+        out.append("        {\n");
+        valuesByLength.forEach((length, values) ->
+        {
+            out.append(format("            case %d:\n", length));
+            if (!charSwitch(out, values, 0, "                "))
+            {
+                out.append("                break;\n");
+            }
+        });
+        out.append("        }\n");
+        return out.toString();
+    }
+
+    // returns true iff the generated code always returns
+    private boolean charSwitch(
+        final StringBuilder out, final Collection<Value> values, final int index, final String indent)
+    {
+        if (values.size() == 1)
+        {
+            final Value value = values.iterator().next();
+            final String representation = value.representation();
+            if (index == representation.length())
+            {
+                out.append(format("%sreturn %s;\n", indent, value.description()));
+                return true;
+            }
+
+            final StringBuilder condition = new StringBuilder();
+            for (int i = index; i < representation.length(); i++)
+            {
+                if (i > index)
+                {
+                    condition.append(" && ");
+                }
+                condition.append(format("value[offset + %d] == %s", i, charLiteral(representation.charAt(i))));
+            }
+
+            out.append(format(
+                "%1$sif (%2$s)\n" +
+                "%1$s{\n" +
+                "%1$s    return %3$s;\n" +
+                "%1$s}\n",
+                indent,
+                condition,
+                value.description()));
+            return false;
+        }
+
+        final Map<Character, List<Value>> valuesByChar = new TreeMap<>();
+        for (final Value value : values)
+        {
+            valuesByChar.computeIfAbsent(value.representation().charAt(index), (ignore) -> new ArrayList<>())
+                .add(value);
+        }
+
+        out.append(format("%sswitch (value[offset + %d])\n", indent, index));
+        out.append(indent).append("{\n");
+        valuesByChar.forEach((character, charValues) ->
+        {
+            out.append(format("%s    case %s:\n", indent, charLiteral(character)));
+            if (!charSwitch(out, charValues, index + 1, indent + "        "))
+            {
+                out.append(indent).append("        break;\n");
+            }
+        });
+        out.append(indent).append("}\n");
+        return false;
+    }
+
+    private static String charLiteral(final char value)
+    {
+        if (value == '\'' || value == '\\')
+        {
+            return "'\\" + value + "'";
+        }
+        return "'" + value + "'";
+    }
+
     private boolean hasGeneratedValueOf(final Type type)
     {
         switch (type)
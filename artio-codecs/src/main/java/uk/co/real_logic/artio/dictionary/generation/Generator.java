@@ -62,9 +62,14 @@ public abstract class Generator
     public static final String MESSAGE_FIELDS = "messageFields";
 
     protected String commonCompoundImports(final String form, final boolean headerWrapsTrailer,
-        final String messageFieldsSet)
+        final boolean swappableHeader, final String messageFieldsSet)
     {
         final String headerParameter = headerWrapsTrailer ? "trailer" : "";
+        // A decoder's header can be swapped for one that has already been decoded, see decodeBodyFrom()
+        final String headerField = swappableHeader ?
+            "    private final Header%1$s ownHeader = new Header%1$s(%2$s);\n" +
+            "    private Header%1$s header = ownHeader;\n\n" :
+            "    private final Header%1$s header = new Header%1$s(%2$s);\n\n";
         return String.format(
             "%3$s" +
             "    private final Trailer%1$s trailer = new Trailer%1$s();\n\n" +
@@ -73,7 +78,7 @@ public abstract class Generator
             "        return trailer;\n" +
             "    }\n\n" +
 
-            "    private final Header%1$s header = new Header%1$s(%2$s);\n\n" +
+            headerField +
             "    public Header%1$s header()\n" +
             "    {\n" +
             "        return header;\n" +
@@ -208,7 +213,7 @@ public abstract class Generator
             final String reset = isSharedParent() ? "" : String.format(
                 "    public void reset()\n" +
                 "    {\n" +
-                "        header.reset();\n" +
+                resetHeader() +
                 "        trailer.reset();\n" +
                 "        resetMessage();\n" +
                 "%1$s" +
@@ -247,6 +252,11 @@ public abstract class Generator
         }
     }
 
+    protected String resetHeader()
+    {
+        return "        header.reset();\n";
+    }
+
     protected String resetEntries(final List<Entry> entries, final StringBuilder methods)
     {
         return resetFields(entries, methods) +
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.generation.OutputManager;
+import uk.co.real_logic.artio.dictionary.Generated;
+import uk.co.real_logic.artio.dictionary.ir.Aggregate;
+import uk.co.real_logic.artio.dictionary.ir.Dictionary;
+import uk.co.real_logic.artio.dictionary.ir.Entry;
+import uk.co.real_logic.artio.dictionary.ir.Group;
+import uk.co.real_logic.artio.otf.AbstractOtfParser;
+import uk.co.real_logic.artio.otf.OtfMessageAcceptor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.GENERATED_ANNOTATION;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.fileHeader;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.importFor;
+
+/**
+ * Generates an OTF parser with the repeating group structure of the dictionary compiled into switch statements,
+ * rather than being looked up from a {@link uk.co.real_logic.artio.dictionary.LongDictionary} at runtime.
+ */
+class OtfParserGenerator
+{
+    public static final String OTF_PARSER = "OtfParserImpl";
+
+    private final Dictionary dictionary;
+    private final String packageName;
+    private final OutputManager outputManager;
+
+    OtfParserGenerator(
+        final Dictionary dictionary,
+        final String packageName,
+        final OutputManager outputManager)
+    {
+        this.dictionary = dictionary;
+        this.packageName = packageName;
+        this.outputManager = outputManager;
+    }
+
+    public void generate()
+    {
+        if (dictionary.shared())
+        {
+            return;
+        }
+
+        final Map<Integer, Set<Integer>> groupToFields = groupToFields();
+
+        outputManager.withOutput(OTF_PARSER, (out) ->
+        {
+            out.append(fileHeader(packageName));
+            out.append(importFor(AbstractOtfParser.class));
+            out.append(importFor(OtfMessageAcceptor.class));
+            out.append(importFor(Generated.class));
+            out.append(
+                "\n" +
+                GENERATED_ANNOTATION +
+                "public final class " + OTF_PARSER + " extends AbstractOtfParser\n" +
+                "{\n" +
+                "    public " + OTF_PARSER + "(final OtfMessageAcceptor acceptor)\n" +
+                "    {\n" +
+                "        super(acceptor);\n" +
+                "    }\n\n");
+            out.append(generateIsGroupTag(groupToFields));
+            out.append(generateIsGroupField(groupToFields));
+            out.append("}\n");
+        });
+    }
+
+    private Map<Integer, Set<Integer>> groupToFields()
+    {
+        // Groups that share a number of elements tag across messages are merged, as they are in a LongDictionary
+        final Map<Integer, Set<Integer>> groupToFields = new TreeMap<>();
+        dictionary.messages().forEach((message) -> collectGroups(message, groupToFields));
+
+        final Aggregate header = dictionary.header();
+        if (header != null)
+        {
+            collectGroups(header, groupToFields);
+        }
+
+        final Aggregate trailer = dictionary.trailer();
+        if (trailer != null)
+        {
+            collectGroups(trailer, groupToFields);
+        }
+
+        return groupToFields;
+    }
+
+    private void collectGroups(final Aggregate aggregate, final Map<Integer, Set<Integer>> groupToFields)
+    {
+        aggregate.allGroupsIncludingComponents().forEach((entry) ->
+        {
+            final Group group = (Group)entry.element();
+            final Set<Integer> fields = groupToFields.computeIfAbsent(
+                group.numberField().number(), (ignore) -> new TreeSet<>());
+
+            group.allFieldsIncludingComponents().map(Entry::number).forEach(fields::add);
+            // Nested groups start with their number of elements tag within an element of this group
+            group.allGroupsIncludingComponents()
+                .map((nestedEntry) -> ((Group)nestedEntry.element()).numberField().number())
+                .forEach(fields::add);
+
+            collectGroups(group, groupToFields);
+        });
+    }
+
+    private String generateIsGroupTag(final Map<Integer, Set<Integer>> groupToFields)
+    {
+        final StringBuilder out = new StringBuilder(
+            "    protected boolean isGroupTag(final int tag)\n" +
+            "    {\n");
+
+        if (groupToFields.isEmpty())
+        {
+            out.append("        return false;\n");
+        }
+        else
+        {
+            out.append(
+                "        switch (tag)\n" +
+                "        {\n");
+            appendCases(out, groupToFields.keySet(), "            ");
+            out.append(
+                "                return true;\n\n" +
+                "            default:\n" +
+                "                return false;\n" +
+                "        }\n");
+        }
+
+        out.append("    }\n\n");
+        return out.toString();
+    }
+
+    private String generateIsGroupField(final Map<Integer, Set<Integer>> groupToFields)
+    {
+        final StringBuilder out = new StringBuilder(
+            "    protected boolean isGroupField(final int groupTag, final int tag)\n" +
+            "    {\n");
+
+        if (groupToFields.isEmpty())
+        {
+            out.append("        return false;\n");
+        }
+        else
+        {
+            out.append(
+                "        switch (groupTag)\n" +
+                "        {\n");
+
+            for (final Map.Entry<Integer, Set<Integer>> group : groupToFields.entrySet())
+            {
+                out.append(String.format("            case %d:\n", group.getKey()));
+
+                final Set<Integer> fields = group.getValue();
+                if (fields.isEmpty())
+                {
+                    out.append("                return false;\n\n");
+                }
+                else
+                {
+                    out.append(
+                        "                switch (tag)\n" +
+                        "                {\n");
+                    appendCases(out, fields, "                    ");
+                    out.append(
+                        "                        return true;\n\n" +
+                        "                    default:\n" +
+                        "                        return false;\n" +
+                        "                }\n\n");
+                }
+            }
+
+            out.append(
+                "            default:\n" +
+                "                return false;\n" +
+                "        }\n");
+        }
+
+        out.append("    }\n");
+        return out.toString();
+    }
+
+    private static void appendCases(final StringBuilder out, final Set<Integer> tags, final String indent)
+    {
+        for (final int tag : tags)
+        {
+            out.append(indent).append("case ").append(tag).append(":\n");
+        }
+    }
+}
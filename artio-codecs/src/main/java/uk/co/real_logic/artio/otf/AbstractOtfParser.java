@@ -0,0 +1,369 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.otf;
+
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.fields.AsciiFieldFlyweight;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static uk.co.real_logic.artio.ValidationError.INVALID_CHECKSUM;
+import static uk.co.real_logic.artio.ValidationError.PARSE_ERROR;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.*;
+import static uk.co.real_logic.artio.otf.MessageControl.STOP;
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
+
+/**
+ * Zero allocation generic parser for fix messages, subclasses provide the repeating group structure of the
+ * messages that they parse.
+ *
+ * Take care when refactoring:
+ *
+ * There are a lot of places where values are passed as parameters and not assigned to fields in order to
+ * allow stack allocated primitives and avoid allocation.
+ *
+ * @see OtfParser for a parser that looks up the group structure from a {@link
+ * uk.co.real_logic.artio.dictionary.LongDictionary}.
+ */
+public abstract class AbstractOtfParser
+{
+    public static final int MAX_STOP_AFTER_TAGS = Long.SIZE;
+
+    private static final int NO_CHECKSUM = -2;
+    private static final int UNKNOWN = -1;
+    private static final int[] NO_TAGS = new int[0];
+
+    private final AsciiBuffer string = new MutableAsciiBuffer();
+    private final AsciiFieldFlyweight stringField = new AsciiFieldFlyweight();
+
+    private final OtfMessageAcceptor acceptor;
+
+    private int[] stopAfterTags = NO_TAGS;
+    private long allStopAfterTagsFound;
+    private long stopAfterTagsFound;
+    private boolean stoppedEarly;
+
+    private int checksum;
+    private int checksumOffset;
+    private long messageType;
+    private int tag;
+
+    protected AbstractOtfParser(final OtfMessageAcceptor acceptor)
+    {
+        this.acceptor = acceptor;
+    }
+
+    /**
+     * Stop parsing each message as soon as every one of the given tags has been passed to the acceptor, rather
+     * than walking the rest of the message.
+     *
+     * When a message stops early {@link OtfMessageAcceptor#onComplete()} is called straight away, the checksum
+     * isn't validated as it is the last field of the message and any open repeating groups don't get an
+     * {@link OtfMessageAcceptor#onGroupEnd(int, int, int)} callback. Messages that don't contain all of the
+     * tags are parsed and validated as normal.
+     *
+     * @param tags the tags that the acceptor needs from each message, no tags disables stopping early.
+     * @throws IllegalArgumentException if more than {@link #MAX_STOP_AFTER_TAGS} tags are provided.
+     */
+    public void stopAfterTags(final int... tags)
+    {
+        if (tags.length > MAX_STOP_AFTER_TAGS)
+        {
+            throw new IllegalArgumentException(
+                "Can only stop after up to " + MAX_STOP_AFTER_TAGS + " tags, but got " + tags.length);
+        }
+
+        stopAfterTags = tags.clone();
+        allStopAfterTagsFound = tags.length == MAX_STOP_AFTER_TAGS ? -1L : (1L << tags.length) - 1;
+    }
+
+    public void onMessage(final DirectBuffer buffer, final int offset, final int length)
+    {
+        string.wrap(buffer);
+        if (acceptor.onNext() == STOP)
+        {
+            return;
+        }
+
+        tag = UNKNOWN;
+        this.messageType = UNKNOWN;
+
+        checksum = NO_CHECKSUM;
+        checksumOffset = 0;
+
+        stopAfterTagsFound = 0;
+        stoppedEarly = false;
+
+        try
+        {
+            if (parseFields(offset, offset + length, UNKNOWN, 0) < 0)
+            {
+                if (stoppedEarly)
+                {
+                    acceptor.onComplete();
+                }
+
+                return;
+            }
+
+            if (validChecksum(offset, checksum))
+            {
+                acceptor.onComplete();
+            }
+            else
+            {
+                invalidChecksum(this.messageType);
+            }
+        }
+        catch (final NumberFormatException ex)
+        {
+            parseError(this.messageType, tag);
+        }
+    }
+
+    /**
+     * Check whether a tag is the number of elements field of a repeating group.
+     *
+     * @param tag the tag to check.
+     * @return true if the tag starts a repeating group, false otherwise.
+     */
+    protected abstract boolean isGroupTag(int tag);
+
+    /**
+     * Check whether a tag belongs within a repeating group.
+     *
+     * @param groupTag the number of elements tag of the repeating group.
+     * @param tag the tag to check.
+     * @return true if the tag can occur within an element of the group, false if it ends the group.
+     */
+    protected abstract boolean isGroupField(int groupTag, int tag);
+
+    private int parseFields(
+        final int offset,
+        final int end,
+        final int groupTag,
+        final int numberOfElementsInGroup)
+    {
+        int firstFieldInGroup = UNKNOWN;
+        int indexOfGroupElement = 0;
+
+        int position = offset;
+
+        while (position < end)
+        {
+            final int equalsPosition = string.scan(position, end, '=');
+            if (!validatePosition(equalsPosition, acceptor))
+            {
+                return position;
+            }
+
+            tag = string.getNatural(position, equalsPosition);
+            final int valueOffset = equalsPosition + 1;
+            final int endOfField = string.scan(valueOffset, end, START_OF_HEADER);
+            if (!validatePosition(endOfField, acceptor))
+            {
+                return position;
+            }
+
+            final int valueLength = endOfField - valueOffset;
+
+            if (!isGroupTag(tag))
+            {
+                if (insideAGroup(groupTag))
+                {
+                    if (isEndOfGroup(groupTag))
+                    {
+                        groupEnd(groupTag, numberOfElementsInGroup, indexOfGroupElement);
+                        return position;
+                    }
+                    else
+                    {
+                        // First field first iteration
+                        if (firstFieldInGroup == UNKNOWN)
+                        {
+                            firstFieldInGroup = tag;
+                        }
+                        // We've seen the first field again - its a new group iteration
+                        else if (tag == firstFieldInGroup)
+                        {
+                            if (groupEnd(groupTag, numberOfElementsInGroup, indexOfGroupElement) == STOP)
+                            {
+                                return position;
+                            }
+                            indexOfGroupElement++;
+                            if (groupBegin(groupTag, numberOfElementsInGroup, indexOfGroupElement) == STOP)
+                            {
+                                return position;
+                            }
+                        }
+                    }
+                }
+                final MessageControl control = acceptor.onField(tag, string, valueOffset, valueLength);
+
+                collectImportantFields(equalsPosition, valueOffset, endOfField, valueLength);
+
+                position = endOfField + 1;
+
+                if (control == STOP || foundAllStopAfterTags())
+                {
+                    return ~position;
+                }
+            }
+            else
+            {
+                if (insideAGroup(groupTag) && isEndOfGroup(groupTag))
+                {
+                    groupEnd(groupTag, numberOfElementsInGroup, indexOfGroupElement);
+                    return position;
+                }
+                else
+                {
+                    position = parseGroup(tag, valueOffset, endOfField, end);
+
+                    if (position < 0)
+                    {
+                        return position;
+                    }
+                }
+            }
+        }
+
+        return position;
+    }
+
+    private int parseGroup(
+        final int tag,
+        final int valueOffset,
+        final int endOfField,
+        final int end)
+    {
+        final int numberOfElements = string.getNatural(valueOffset, endOfField);
+
+        acceptor.onGroupHeader(tag, numberOfElements);
+
+        if (numberOfElements > 0)
+        {
+            if (groupBegin(tag, numberOfElements, 0) == STOP)
+            {
+                return ~endOfField;
+            }
+
+            final int position = parseFields(endOfField + 1, end, tag, numberOfElements);
+            if (position == end)
+            {
+                if (groupEnd(tag, numberOfElements, numberOfElements - 1) == STOP)
+                {
+                    return ~position;
+                }
+            }
+            return position;
+        }
+
+        return endOfField;
+    }
+
+    private boolean foundAllStopAfterTags()
+    {
+        final int[] stopAfterTags = this.stopAfterTags;
+        final int tag = this.tag;
+        for (int i = 0; i < stopAfterTags.length; i++)
+        {
+            if (stopAfterTags[i] == tag)
+            {
+                final long stopAfterTagsFound = this.stopAfterTagsFound | (1L << i);
+                this.stopAfterTagsFound = stopAfterTagsFound;
+                if (stopAfterTagsFound == allStopAfterTagsFound)
+                {
+                    stoppedEarly = true;
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isEndOfGroup(final int groupTag)
+    {
+        return !isGroupField(groupTag, tag);
+    }
+
+    private void collectImportantFields(
+        final int equalsPosition,
+        final int valueOffset,
+        final int endOfField,
+        final int valueLength)
+    {
+        if (tag == CHECKSUM)
+        {
+            checksum = string.getNatural(valueOffset, endOfField);
+            checksumOffset = equalsPosition - 2;
+        }
+        else if (tag == MESSAGE_TYPE)
+        {
+            messageType = string.getMessageType(valueOffset, valueLength);
+        }
+    }
+
+    private boolean insideAGroup(final int tag)
+    {
+        return tag != UNKNOWN;
+    }
+
+    private MessageControl groupBegin(final int tag, final int numberOfElements, final int index)
+    {
+        return acceptor.onGroupBegin(tag, numberOfElements, index);
+    }
+
+    private MessageControl groupEnd(final int tag, final int numberOfElements, final int index)
+    {
+        return acceptor.onGroupEnd(tag, numberOfElements, index);
+    }
+
+    private boolean parseError(final long messageType, final int tag)
+    {
+        return acceptor.onError(PARSE_ERROR, messageType, tag, stringField);
+    }
+
+    private boolean invalidChecksum(final long messageType)
+    {
+        return acceptor.onError(INVALID_CHECKSUM, messageType, CHECKSUM, stringField);
+    }
+
+    private boolean validatePosition(final int position, final OtfMessageAcceptor acceptor)
+    {
+        if (position == UNKNOWN_INDEX)
+        {
+            // null because there's no actual field data at this point.
+            acceptor.onError(PARSE_ERROR, messageType, tag, null);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean validChecksum(final int offset, final int messageChecksum)
+    {
+        if (messageChecksum == NO_CHECKSUM)
+        {
+            return false;
+        }
+
+        final int correctChecksum = string.computeChecksum(offset, checksumOffset);
+        return correctChecksum == messageChecksum;
+    }
+}
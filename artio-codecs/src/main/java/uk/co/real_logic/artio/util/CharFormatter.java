@@ -15,10 +15,13 @@
  */
 package uk.co.real_logic.artio.util;
 
+import org.agrona.MutableDirectBuffer;
+
 import java.util.Arrays;
 import java.util.regex.Pattern;
 
 import static org.agrona.AsciiEncoding.digitCount;
+import static org.agrona.BitUtil.SIZE_OF_INT;
 import static uk.co.real_logic.artio.util.AsciiBuffer.LONGEST_INT_LENGTH;
 import static uk.co.real_logic.artio.util.AsciiBuffer.LONGEST_LONG_LENGTH;
 
@@ -128,6 +131,63 @@ public class CharFormatter
         return this;
     }
 
+    public String formatString()
+    {
+        return formatString;
+    }
+
+    public int valueCount()
+    {
+        return encodedSoFar;
+    }
+
+    /**
+     * Gets the length of the values encoded by {@link #putValuesAscii(MutableDirectBuffer, int)}.
+     *
+     * @return the length of the values in bytes.
+     */
+    public int valuesAsciiLength()
+    {
+        final int[] lengths = this.lengths;
+        final int encodedSoFar = this.encodedSoFar;
+        int length = encodedSoFar * SIZE_OF_INT;
+        for (int i = 0; i < encodedSoFar; i++)
+        {
+            length += lengths[i];
+        }
+        return length;
+    }
+
+    /**
+     * Copies the values of this formatter, without formatting them into the format string, into a buffer. Each value
+     * is written as an int length followed by its characters as ASCII bytes. Values can be read back with
+     * {@link #with(byte[], int)}.
+     *
+     * @param buffer the buffer to write the values into.
+     * @param offset the offset within the buffer to start writing at.
+     * @return the number of bytes written.
+     */
+    public int putValuesAscii(final MutableDirectBuffer buffer, final int offset)
+    {
+        final char[][] values = this.values;
+        final int[] lengths = this.lengths;
+        final int encodedSoFar = this.encodedSoFar;
+        int position = offset;
+        for (int i = 0; i < encodedSoFar; i++)
+        {
+            final char[] value = values[i];
+            final int length = lengths[i];
+            buffer.putInt(position, length);
+            position += SIZE_OF_INT;
+            for (int j = 0; j < length; j++)
+            {
+                buffer.putByte(position + j, (byte)value[j]);
+            }
+            position += length;
+        }
+        return position - offset;
+    }
+
     public void appendTo(final StringBuilder builder)
     {
         final char[][] values = this.values;
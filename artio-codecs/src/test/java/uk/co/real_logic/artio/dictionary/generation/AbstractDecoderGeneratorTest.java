@@ -26,6 +26,7 @@ import uk.co.real_logic.artio.dictionary.ExampleDictionary;
 import uk.co.real_logic.artio.fields.DecimalFloat;
 import uk.co.real_logic.artio.fields.RejectReason;
 import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
+import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.util.Reflection;
 
@@ -42,6 +43,7 @@ import static org.agrona.generation.CompilerUtil.compileInMemory;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
 import static uk.co.real_logic.artio.builder.Decoder.NO_ERROR;
 import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.*;
@@ -457,6 +459,50 @@ public abstract class AbstractDecoderGeneratorTest
         assertEquals("199", getChecksum(trailer));
     }
 
+    @Test
+    public void shouldDecodeBodyFromAlreadyDecodedHeader() throws Exception
+    {
+        final Class<?> headerClass = heartbeat.getClassLoader().loadClass(HEADER_DECODER);
+        final SessionHeaderDecoder header = (SessionHeaderDecoder)headerClass.getConstructor().newInstance();
+        buffer.putAscii(1, ENCODED_MESSAGE);
+        final int headerLength = header.decode(buffer, 1, ENCODED_MESSAGE.length());
+
+        final Decoder decoder = newHeartbeat();
+        decodeBodyFrom(decoder, header, 1 + headerLength);
+
+        assertSame(header, getHeader(decoder));
+        assertArrayEquals(ABC, getTestReqId(decoder));
+        assertEquals("199", getChecksum(getTrailer(decoder)));
+        assertValid(decoder);
+
+        decoder.reset();
+        assertNotSame(header, getHeader(decoder));
+    }
+
+    @Test
+    public void shouldDecodeOwnHeaderWhenGivenAHeaderFromAnotherDictionary() throws Exception
+    {
+        final SessionHeaderDecoder otherHeader = mock(SessionHeaderDecoder.class);
+        buffer.putAscii(1, ENCODED_MESSAGE);
+
+        final Decoder decoder = newHeartbeat();
+        decodeBodyFrom(decoder, otherHeader, 1);
+
+        final SessionHeaderDecoder header = getHeader(decoder);
+        assertNotSame(otherHeader, header);
+        assertEquals(81, getBodyLength(header));
+        assertArrayEquals(ABC, getTestReqId(decoder));
+        assertValid(decoder);
+    }
+
+    private void decodeBodyFrom(final Decoder decoder, final SessionHeaderDecoder header, final int bodyOffset)
+        throws Exception
+    {
+        heartbeat
+            .getMethod("decodeBodyFrom", SessionHeaderDecoder.class, AsciiBuffer.class, int.class, int.class, int.class)
+            .invoke(decoder, header, buffer, 1, ENCODED_MESSAGE.length(), bodyOffset);
+    }
+
     @Test
     public void shouldResetFields() throws Exception
     {
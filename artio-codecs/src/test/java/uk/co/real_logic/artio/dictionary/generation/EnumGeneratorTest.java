@@ -153,6 +153,34 @@ public class EnumGeneratorTest
         assertEquals(values[2], decode.invoke(null, wrapper));
     }
 
+    @Test
+    public void generatesCharArrayDecodeWithoutWrapper() throws Exception
+    {
+        final Enum<?>[] values = getStringEnumConstants();
+        final Method decode = stringEnumClass.getMethod("decode", char[].class, int.class, int.class);
+
+        final char[] chars = "xAA0".toCharArray();
+        assertEquals(values[2], decode.invoke(null, chars, 1, 2));
+        assertEquals(values[1], decode.invoke(null, chars, 1, 1));
+        assertEquals(values[0], decode.invoke(null, chars, 3, 1));
+        assertEquals(values[values.length - 1], decode.invoke(null, chars, 0, 2));
+    }
+
+    @Test
+    public void shouldCompareEveryCharOfMultiCharRepresentations() throws Exception
+    {
+        final Enum<?>[] values = (Enum<?>[])currencyEnumClass.getEnumConstants();
+        final Method decode = currencyEnumClass.getMethod("decode", char[].class, int.class, int.class);
+        final Method isValid = currencyEnumClass.getMethod("isValid", char[].class, int.class, int.class);
+
+        assertEquals(values[0], decode.invoke(null, "USD".toCharArray(), 0, 3));
+        assertEquals(values[1], decode.invoke(null, "GBP".toCharArray(), 0, 3));
+        assertEquals(true, isValid.invoke(null, "GBP".toCharArray(), 0, 3));
+        assertEquals(false, isValid.invoke(null, "GBD".toCharArray(), 0, 3));
+        assertEquals(false, isValid.invoke(null, "USDX".toCharArray(), 0, 4));
+        assertEquals(false, isValid.invoke(null, "US".toCharArray(), 0, 2));
+    }
+
     @Test
     public void shouldReturnSentinelValueWhenDecodingUnknownRepresentation() throws Exception
     {
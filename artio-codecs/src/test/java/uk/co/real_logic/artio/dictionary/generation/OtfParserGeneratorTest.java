@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.generation.StringWriterOutputManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.InOrder;
+import uk.co.real_logic.artio.otf.AbstractOtfParser;
+import uk.co.real_logic.artio.otf.OtfMessageAcceptor;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.Map;
+import java.util.Objects;
+
+import static org.agrona.generation.CompilerUtil.compileInMemory;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
+import static uk.co.real_logic.artio.dictionary.generation.OtfParserGenerator.OTF_PARSER;
+
+public class OtfParserGeneratorTest
+{
+    private static final StringWriterOutputManager OUTPUT_MANAGER = new StringWriterOutputManager();
+    private static final OtfParserGenerator OTF_PARSER_GENERATOR = new OtfParserGenerator(
+        MESSAGE_EXAMPLE, TEST_PACKAGE, OUTPUT_MANAGER);
+    private static Class<?> parserClass;
+
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+    private final OtfMessageAcceptor acceptor = mock(OtfMessageAcceptor.class);
+    private final InOrder inOrder = inOrder(acceptor);
+
+    @BeforeClass
+    public static void generate() throws Exception
+    {
+        OTF_PARSER_GENERATOR.generate();
+        final Map<String, CharSequence> sources = OUTPUT_MANAGER.getSources();
+        parserClass = compileInMemory(TEST_PACKAGE + "." + OTF_PARSER, sources);
+        if (parserClass == null)
+        {
+            System.out.println(sources);
+        }
+        Objects.requireNonNull(parserClass, "parserClass must not be null");
+    }
+
+    @Test
+    public void shouldParseNestedGroupsWithoutGroupDictionary() throws Exception
+    {
+        parse(newParser(), MULTI_ENTRY_NESTED_GROUP_MESSAGE);
+
+        inOrder.verify(acceptor).onGroupHeader(120, 2);
+        inOrder.verify(acceptor).onGroupBegin(120, 2, 0);
+        verifyField(121);
+        verifyNestedGroup();
+        inOrder.verify(acceptor).onGroupEnd(120, 2, 0);
+        inOrder.verify(acceptor).onGroupBegin(120, 2, 1);
+        verifyField(121);
+        verifyNestedGroup();
+        inOrder.verify(acceptor).onGroupEnd(120, 2, 1);
+        verifyField(10);
+    }
+
+    @Test
+    public void shouldStopOnceAllRequestedTagsAreFound() throws Exception
+    {
+        final AbstractOtfParser parser = newParser();
+        parser.stopAfterTags(115, 35);
+
+        parse(parser, ENCODED_MESSAGE);
+
+        verifyField(35);
+        verifyField(115);
+        inOrder.verify(acceptor).onComplete();
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void shouldParseWholeMessageWhenRequestedTagsAreMissing() throws Exception
+    {
+        final AbstractOtfParser parser = newParser();
+        parser.stopAfterTags(35, 9999);
+
+        parse(parser, ENCODED_MESSAGE);
+
+        verifyField(35);
+        verifyField(127);
+        verifyField(10);
+    }
+
+    private void verifyNestedGroup()
+    {
+        inOrder.verify(acceptor).onGroupHeader(122, 2);
+        inOrder.verify(acceptor).onGroupBegin(122, 2, 0);
+        verifyField(123);
+        inOrder.verify(acceptor).onGroupEnd(122, 2, 0);
+        inOrder.verify(acceptor).onGroupBegin(122, 2, 1);
+        verifyField(123);
+        inOrder.verify(acceptor).onGroupEnd(122, 2, 1);
+    }
+
+    private void verifyField(final int tag)
+    {
+        inOrder.verify(acceptor).onField(eq(tag), any(), anyInt(), anyInt());
+    }
+
+    private void parse(final AbstractOtfParser parser, final String message)
+    {
+        buffer.putAscii(1, message);
+        parser.onMessage(buffer, 1, message.length());
+    }
+
+    private AbstractOtfParser newParser() throws Exception
+    {
+        return (AbstractOtfParser)parserClass.getConstructor(OtfMessageAcceptor.class).newInstance(acceptor);
+    }
+}
@@ -120,6 +120,23 @@ public class OtfParserTest
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Theory
+    public void stopsParsingOnceAllStopAfterTagsAreFound(final int offset)
+    {
+        putMessage(offset);
+        parser.stopAfterTags(34, 35);
+
+        parser.onMessage(buffer, offset, MSG_LEN);
+
+        //35=D
+        inOrder.verify(mockAcceptor).onField(eq(35), any(), eq(offset + 19), eq(1));
+        //34=4
+        inOrder.verify(mockAcceptor).onField(eq(34), any(), eq(offset + 24), eq(1));
+        inOrder.verify(mockAcceptor).onComplete();
+
+        inOrder.verifyNoMoreInteractions();
+    }
+
     @Theory
     public void notifiesAcceptorOfValidMessageEnd(final int offset)
     {
@@ -15,6 +15,11 @@
  */
 package uk.co.real_logic.artio;
 
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.util.CharFormatter;
+
+import java.nio.ByteBuffer;
+
 /**
  * API to enable integrate the DebugLogger API into log4j / slf4j. Extend this class in
  * order to implement custom logging backends.
@@ -30,6 +35,70 @@ public abstract class AbstractDebugAppender
     public abstract static class ThreadLocalAppender
     {
         public abstract void log(LogTag logTag, StringBuilder stringBuilder);
+
+        /**
+         * Optionally log the arguments of a formatter without formatting it as text. By default this isn't handled
+         * and the formatted text is passed to {@link #log(LogTag, StringBuilder)} instead.
+         *
+         * @param logTag the tag being logged.
+         * @param formatter the formatter with all but the last of its values set if buffer isn't null or all its
+         *                  values set otherwise.
+         * @param buffer the buffer holding an ASCII final value for the formatter, or null if there isn't one.
+         * @param offset the offset within the buffer at which the final value starts.
+         * @param length the length of the final value.
+         * @return true if the log call has been handled, false otherwise.
+         */
+        public boolean logFormatter(
+            final LogTag logTag,
+            final CharFormatter formatter,
+            final DirectBuffer buffer,
+            final int offset,
+            final int length)
+        {
+            return false;
+        }
+
+        /**
+         * Optionally log a prefix followed by an ASCII encoded message, eg: a FIX message, without copying it into
+         * text. By default this isn't handled and the text is passed to {@link #log(LogTag, StringBuilder)} instead.
+         *
+         * @param logTag the tag being logged.
+         * @param prefix the prefix of the log line.
+         * @param buffer the buffer holding the message.
+         * @param offset the offset within the buffer at which the message starts.
+         * @param length the length of the message.
+         * @return true if the log call has been handled, false otherwise.
+         */
+        public boolean logAscii(
+            final LogTag logTag,
+            final String prefix,
+            final DirectBuffer buffer,
+            final int offset,
+            final int length)
+        {
+            return false;
+        }
+
+        /**
+         * Optionally log a prefix followed by raw bytes, eg: a FIXP message, without copying it into text. By default
+         * this isn't handled and the text is passed to {@link #log(LogTag, StringBuilder)} instead.
+         *
+         * @param logTag the tag being logged.
+         * @param prefix the prefix of the log line.
+         * @param buffer the buffer holding the bytes, its position and limit must not be altered.
+         * @param offset the offset within the buffer at which the bytes start.
+         * @param length the number of bytes.
+         * @return true if the log call has been handled, false otherwise.
+         */
+        public boolean logBytes(
+            final LogTag logTag,
+            final String prefix,
+            final ByteBuffer buffer,
+            final int offset,
+            final int length)
+        {
+            return false;
+        }
     }
 
     /**
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.SystemNanoClock;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link IdleStrategy} that busy spins whilst work is arriving and backs off once it stops.
+ *
+ * After any duty cycle that does work, for example receiving bytes from a TCP connection or sending outbound
+ * fragments, the strategy busy spins for <code>busySpinPeriodInNs</code>. So during a burst of trading activity, where
+ * the gaps between messages are shorter than that period, the thread never yields or parks. Once the period passes
+ * without work it yields <code>maxYields</code> times and then parks, doubling the park period from
+ * <code>minParkPeriodInNs</code> up to <code>maxParkPeriodInNs</code>, so idle sessions don't pin a core.
+ *
+ * The Framer also tells this strategy when its next timer is due, see {@link #nextDeadlineIn(long)}, so that it
+ * never parks past a deadline.
+ *
+ * Like other stateful idle strategies an instance should only be used by a single thread.
+ */
+public final class AdaptiveIdleStrategy implements IdleStrategy
+{
+    public static final String ALIAS = "adaptive";
+
+    static final int SPINNING = 0;
+    static final int YIELDING = 1;
+    static final int PARKING = 2;
+
+    private final NanoClock clock;
+    private final long busySpinPeriodInNs;
+    private final int maxYields;
+    private final long minParkPeriodInNs;
+    private final long maxParkPeriodInNs;
+
+    private int state = SPINNING;
+    private boolean workDone = true;
+    private long lastWorkTimeInNs;
+    private int yields;
+    private long parkPeriodInNs;
+    private long nextDeadlineInNs = Long.MAX_VALUE;
+
+    /**
+     * Create an adaptive idle strategy using the system nano clock.
+     *
+     * @param busySpinPeriodInNs how long to busy spin for after the last work was done.
+     * @param maxYields the number of times to yield before parking.
+     * @param minParkPeriodInNs the initial park period.
+     * @param maxParkPeriodInNs the maximum park period.
+     */
+    public AdaptiveIdleStrategy(
+        final long busySpinPeriodInNs,
+        final int maxYields,
+        final long minParkPeriodInNs,
+        final long maxParkPeriodInNs)
+    {
+        this(busySpinPeriodInNs, maxYields, minParkPeriodInNs, maxParkPeriodInNs, SystemNanoClock.INSTANCE);
+    }
+
+    /**
+     * Create an adaptive idle strategy.
+     *
+     * @param busySpinPeriodInNs how long to busy spin for after the last work was done.
+     * @param maxYields the number of times to yield before parking.
+     * @param minParkPeriodInNs the initial park period.
+     * @param maxParkPeriodInNs the maximum park period.
+     * @param clock the clock used to time the busy spin period.
+     */
+    public AdaptiveIdleStrategy(
+        final long busySpinPeriodInNs,
+        final int maxYields,
+        final long minParkPeriodInNs,
+        final long maxParkPeriodInNs,
+        final NanoClock clock)
+    {
+        if (busySpinPeriodInNs < 0 || maxYields < 0 || minParkPeriodInNs < 1 || maxParkPeriodInNs < minParkPeriodInNs)
+        {
+            throw new IllegalArgumentException(String.format(
+                "Invalid adaptive idle strategy: busySpinPeriodInNs=%d, maxYields=%d, minParkPeriodInNs=%d, " +
+                "maxParkPeriodInNs=%d",
+                busySpinPeriodInNs,
+                maxYields,
+                minParkPeriodInNs,
+                maxParkPeriodInNs));
+        }
+
+        this.clock = clock;
+        this.busySpinPeriodInNs = busySpinPeriodInNs;
+        this.maxYields = maxYields;
+        this.minParkPeriodInNs = minParkPeriodInNs;
+        this.maxParkPeriodInNs = maxParkPeriodInNs;
+        parkPeriodInNs = minParkPeriodInNs;
+    }
+
+    /**
+     * Notify the strategy of the time until the next deadline that the polling thread has to act upon, parking is
+     * limited so that it doesn't overshoot this deadline. Applies to the next call to idle.
+     *
+     * @param periodInNs the time until the next deadline, or {@link Long#MAX_VALUE} if there isn't one.
+     */
+    public void nextDeadlineIn(final long periodInNs)
+    {
+        nextDeadlineInNs = periodInNs;
+    }
+
+    public void idle(final int workCount)
+    {
+        if (workCount > 0)
+        {
+            // Avoid reading the clock whilst busy, the time of the last work is read on the next idle duty cycle
+            workDone = true;
+            state = SPINNING;
+        }
+        else
+        {
+            idle();
+        }
+    }
+
+    public void idle()
+    {
+        if (state == SPINNING)
+        {
+            final long timeInNs = clock.nanoTime();
+            if (workDone)
+            {
+                workDone = false;
+                lastWorkTimeInNs = timeInNs;
+            }
+
+            if (timeInNs - lastWorkTimeInNs < busySpinPeriodInNs)
+            {
+                Thread.onSpinWait();
+                return;
+            }
+
+            state = YIELDING;
+            yields = 0;
+        }
+
+        if (state == YIELDING)
+        {
+            if (yields < maxYields)
+            {
+                yields++;
+                Thread.yield();
+                return;
+            }
+
+            state = PARKING;
+            parkPeriodInNs = minParkPeriodInNs;
+        }
+
+        final long parkPeriodInNs = Math.min(this.parkPeriodInNs, nextDeadlineInNs);
+        if (parkPeriodInNs > 0)
+        {
+            LockSupport.parkNanos(parkPeriodInNs);
+        }
+        else
+        {
+            Thread.onSpinWait();
+        }
+
+        this.parkPeriodInNs = Math.min(this.parkPeriodInNs << 1, maxParkPeriodInNs);
+    }
+
+    public void reset()
+    {
+        workDone = true;
+        state = SPINNING;
+    }
+
+    public String alias()
+    {
+        return ALIAS;
+    }
+
+    int state()
+    {
+        return state;
+    }
+
+    long parkPeriodInNs()
+    {
+        return parkPeriodInNs;
+    }
+
+    public String toString()
+    {
+        return "AdaptiveIdleStrategy{" +
+            "alias=" + ALIAS +
+            ", busySpinPeriodInNs=" + busySpinPeriodInNs +
+            ", maxYields=" + maxYields +
+            ", minParkPeriodInNs=" + minParkPeriodInNs +
+            ", maxParkPeriodInNs=" + maxParkPeriodInNs +
+            '}';
+    }
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import uk.co.real_logic.artio.util.CharFormatter;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * A debug appender that doesn't format log lines on the logging thread. Compact binary records holding the log tag,
+ * a timestamp, the id of the formatter or prefix and the raw bytes of the arguments are written into a memory mapped
+ * ring buffer. A background thread drains the ring buffer into a file that can be rendered as text using
+ * {@link BinaryDebugLogDecoder}.
+ *
+ * Strings, such as format strings, prefixes and thread names, are only written out once and referred to by id.
+ * Logging is allocation free once every string has been seen. If the ring buffer is full then records are dropped
+ * rather than blocking the logging thread, see {@link #droppedRecordCount()}.
+ *
+ * This can be enabled by setting {@link CommonConfiguration#DEBUG_BINARY_FILE_PROPERTY} or used as a custom appender
+ * via the service loader.
+ */
+public class BinaryDebugAppender extends AbstractDebugAppender implements AutoCloseable
+{
+    static final int FILE_MAGIC = 0xA27D_B10C;
+    static final int FILE_VERSION = 1;
+    static final int FILE_HEADER_LENGTH = 2 * SIZE_OF_INT;
+
+    static final int STRING_DEFINITION = 1;
+    static final int TEXT = 2;
+    static final int ASCII = 3;
+    static final int BYTES = 4;
+    static final int FORMATTER = 5;
+
+    // timestamp, thread name id, log tag ordinal
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int THREAD_NAME_ID_OFFSET = TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    static final int LOG_TAG_OFFSET = THREAD_NAME_ID_OFFSET + SIZE_OF_INT;
+    static final int RECORD_HEADER_LENGTH = LOG_TAG_OFFSET + SIZE_OF_INT;
+    // for ASCII, BYTES and FORMATTER records: prefix or format string id
+    static final int STRING_ID_OFFSET = RECORD_HEADER_LENGTH;
+    static final int RECORD_BODY_OFFSET = STRING_ID_OFFSET + SIZE_OF_INT;
+
+    static final String RING_BUFFER_FILE_SUFFIX = ".ring";
+
+    private final ConcurrentHashMap<String, Integer> stringToId = new ConcurrentHashMap<>();
+    private final AtomicInteger nextStringId = new AtomicInteger();
+    private final AtomicLong droppedRecordCount = new AtomicLong();
+
+    private final RingBuffer ringBuffer;
+    private final AgentRunner drainRunner;
+
+    public BinaryDebugAppender()
+    {
+        this(CommonConfiguration.DEBUG_BINARY_FILE, CommonConfiguration.DEBUG_BINARY_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Create the appender and start the thread that drains it.
+     *
+     * @param logFile the file to write binary records to, the ring buffer is mapped alongside it with a
+     *                {@link #RING_BUFFER_FILE_SUFFIX} suffix.
+     * @param ringBufferCapacity the capacity of the ring buffer, must be a power of two.
+     */
+    public BinaryDebugAppender(final String logFile, final int ringBufferCapacity)
+    {
+        if (logFile == null)
+        {
+            throw new IllegalArgumentException("Unable to configure BinaryDebugAppender, please set " +
+                CommonConfiguration.DEBUG_BINARY_FILE_PROPERTY);
+        }
+
+        final File ringBufferFile = new File(logFile + RING_BUFFER_FILE_SUFFIX);
+        drainExistingRingBuffer(ringBufferFile, new File(logFile));
+        final MappedByteBuffer mappedBuffer = IoUtil.mapNewFile(
+            ringBufferFile, ringBufferCapacity + RingBufferDescriptor.TRAILER_LENGTH);
+        // The mapping is never unmapped as threads may still be logging whilst the appender is closed.
+        final AtomicBuffer buffer = new UnsafeBuffer(mappedBuffer);
+        ringBuffer = new ManyToOneRingBuffer(buffer);
+
+        final BinaryDebugLogDrainAgent drainAgent = new BinaryDebugLogDrainAgent(ringBuffer, new File(logFile));
+        drainRunner = new AgentRunner(
+            new BackoffIdleStrategy(1, 1, 1_000, 1_000_000), Throwable::printStackTrace, null, drainAgent);
+        AgentRunner.startOnThread(drainRunner, runnable ->
+        {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "BinaryDebugAppender-shutdown"));
+    }
+
+    // Records that a previous process logged but didn't drain before it stopped, eg: because it crashed, are written
+    // out before the ring buffer is reinitialised rather than being lost.
+    private static void drainExistingRingBuffer(final File ringBufferFile, final File logFile)
+    {
+        if (!ringBufferFile.exists() || ringBufferFile.length() <= RingBufferDescriptor.TRAILER_LENGTH)
+        {
+            return;
+        }
+
+        final MappedByteBuffer mappedBuffer = IoUtil.mapExistingFile(ringBufferFile, "binary debug ring buffer");
+        try
+        {
+            final RingBuffer existingRingBuffer = new ManyToOneRingBuffer(new UnsafeBuffer(mappedBuffer));
+            new BinaryDebugLogDrainAgent(existingRingBuffer, logFile).onClose();
+        }
+        catch (final IllegalStateException e)
+        {
+            // Not a valid ring buffer, so there's nothing that can be drained from it.
+        }
+        finally
+        {
+            IoUtil.unmap(mappedBuffer);
+        }
+    }
+
+    /**
+     * Gets the number of records that have been dropped because the ring buffer was full.
+     *
+     * @return the number of records that have been dropped.
+     */
+    public long droppedRecordCount()
+    {
+        return droppedRecordCount.get();
+    }
+
+    /**
+     * Stops the drain thread, writing out any records in the ring buffer beforehand.
+     */
+    public void close()
+    {
+        CloseHelper.close(drainRunner);
+    }
+
+    public ThreadLocalAppender makeLocalAppender()
+    {
+        return new BinaryThreadLocalAppender(stringId(DebugLogger.threadName()));
+    }
+
+    int stringId(final String value)
+    {
+        final Integer id = stringToId.get(value);
+        if (id != null)
+        {
+            return id;
+        }
+
+        // Holds the lock for the string until its definition is in the ring buffer so no record can refer to an id
+        // before the definition of that id.
+        final Integer newId = stringToId.computeIfAbsent(value, this::defineString);
+        return newId == null ? RingBuffer.INSUFFICIENT_CAPACITY : newId;
+    }
+
+    private Integer defineString(final String value)
+    {
+        final byte[] bytes = value.getBytes(UTF_8);
+        final int length = Math.min(bytes.length, ringBuffer.maxMsgLength() - SIZE_OF_INT);
+        final int index = ringBuffer.tryClaim(STRING_DEFINITION, SIZE_OF_INT + length);
+        if (index <= 0)
+        {
+            droppedRecordCount.incrementAndGet();
+            return null;
+        }
+
+        final int id = nextStringId.getAndIncrement();
+        final AtomicBuffer buffer = ringBuffer.buffer();
+        buffer.putInt(index, id);
+        buffer.putBytes(index + SIZE_OF_INT, bytes, 0, length);
+        ringBuffer.commit(index);
+        return id;
+    }
+
+    class BinaryThreadLocalAppender extends ThreadLocalAppender
+    {
+        private int threadNameId;
+
+        BinaryThreadLocalAppender(final int threadNameId)
+        {
+            this.threadNameId = threadNameId;
+        }
+
+        public void log(final LogTag logTag, final StringBuilder stringBuilder)
+        {
+            final int length = Math.min(stringBuilder.length(), maxBodyLength(RECORD_HEADER_LENGTH));
+            final int index = claim(TEXT, logTag, RECORD_HEADER_LENGTH + length);
+            if (index > 0)
+            {
+                final AtomicBuffer buffer = ringBuffer.buffer();
+                final int bodyOffset = index + RECORD_HEADER_LENGTH;
+                for (int i = 0; i < length; i++)
+                {
+                    buffer.putByte(bodyOffset + i, (byte)stringBuilder.charAt(i));
+                }
+                ringBuffer.commit(index);
+            }
+        }
+
+        public boolean logFormatter(
+            final LogTag logTag,
+            final CharFormatter formatter,
+            final DirectBuffer buffer,
+            final int offset,
+            final int length)
+        {
+            final int formatId = stringId(formatter.formatString());
+            if (formatId < 0)
+            {
+                return true;
+            }
+
+            final int valuesLength = formatter.valuesAsciiLength();
+            final int finalValueLength = buffer == null ? 0 : SIZE_OF_INT + length;
+            final int recordLength = RECORD_BODY_OFFSET + SIZE_OF_INT + valuesLength + finalValueLength;
+            if (recordLength > ringBuffer.maxMsgLength())
+            {
+                // Too large to be worth the complexity of truncating the individual values
+                return false;
+            }
+
+            final int index = claim(FORMATTER, logTag, recordLength);
+            if (index > 0)
+            {
+                final AtomicBuffer recordBuffer = ringBuffer.buffer();
+                recordBuffer.putInt(index + STRING_ID_OFFSET, formatId);
+
+                int position = index + RECORD_BODY_OFFSET;
+                recordBuffer.putInt(position, formatter.valueCount() + (buffer == null ? 0 : 1));
+                position += SIZE_OF_INT;
+                position += formatter.putValuesAscii(recordBuffer, position);
+
+                if (buffer != null)
+                {
+                    recordBuffer.putInt(position, length);
+                    recordBuffer.putBytes(position + SIZE_OF_INT, buffer, offset, length);
+                }
+                ringBuffer.commit(index);
+            }
+
+            return true;
+        }
+
+        public boolean logAscii(
+            final LogTag logTag,
+            final String prefix,
+            final DirectBuffer buffer,
+            final int offset,
+            final int length)
+        {
+            final int index = claimPrefixed(ASCII, logTag, prefix, length);
+            if (index > 0)
+            {
+                final int bodyLength = Math.min(length, maxBodyLength(RECORD_BODY_OFFSET));
+                ringBuffer.buffer().putBytes(index + RECORD_BODY_OFFSET, buffer, offset, bodyLength);
+                ringBuffer.commit(index);
+            }
+            return true;
+        }
+
+        public boolean logBytes(
+            final LogTag logTag,
+            final String prefix,
+            final ByteBuffer buffer,
+            final int offset,
+            final int length)
+        {
+            final int index = claimPrefixed(BYTES, logTag, prefix, length);
+            if (index > 0)
+            {
+                final int bodyLength = Math.min(length, maxBodyLength(RECORD_BODY_OFFSET));
+                ringBuffer.buffer().putBytes(index + RECORD_BODY_OFFSET, buffer, offset, bodyLength);
+                ringBuffer.commit(index);
+            }
+            return true;
+        }
+
+        private int claimPrefixed(final int msgTypeId, final LogTag logTag, final String prefix, final int length)
+        {
+            final int prefixId = stringId(prefix);
+            if (prefixId < 0)
+            {
+                return RingBuffer.INSUFFICIENT_CAPACITY;
+            }
+
+            final int bodyLength = Math.min(length, maxBodyLength(RECORD_BODY_OFFSET));
+            final int index = claim(msgTypeId, logTag, RECORD_BODY_OFFSET + bodyLength);
+            if (index > 0)
+            {
+                ringBuffer.buffer().putInt(index + STRING_ID_OFFSET, prefixId);
+            }
+            return index;
+        }
+
+        private int claim(final int msgTypeId, final LogTag logTag, final int length)
+        {
+            int threadNameId = this.threadNameId;
+            if (threadNameId < 0)
+            {
+                // The thread name was dropped when this appender was created
+                threadNameId = this.threadNameId = stringId(DebugLogger.threadName());
+                if (threadNameId < 0)
+                {
+                    return RingBuffer.INSUFFICIENT_CAPACITY;
+                }
+            }
+
+            final RingBuffer ringBuffer = BinaryDebugAppender.this.ringBuffer;
+            final int index = ringBuffer.tryClaim(msgTypeId, length);
+            if (index <= 0)
+            {
+                droppedRecordCount.incrementAndGet();
+                return index;
+            }
+
+            final AtomicBuffer buffer = ringBuffer.buffer();
+            buffer.putLong(index + TIMESTAMP_OFFSET, System.currentTimeMillis());
+            buffer.putInt(index + THREAD_NAME_ID_OFFSET, threadNameId);
+            buffer.putInt(index + LOG_TAG_OFFSET, logTag.ordinal());
+            return index;
+        }
+
+        private int maxBodyLength(final int headerLength)
+        {
+            return ringBuffer.maxMsgLength() - headerLength;
+        }
+    }
+}
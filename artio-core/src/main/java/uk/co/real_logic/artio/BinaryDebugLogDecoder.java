@@ -0,0 +1,310 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.util.CharFormatter;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.concurrent.ringbuffer.RecordDescriptor.*;
+import static org.agrona.concurrent.ringbuffer.RingBuffer.PADDING_MSG_TYPE_ID;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.*;
+import static uk.co.real_logic.artio.BinaryDebugAppender.*;
+import static uk.co.real_logic.artio.CommonConfiguration.DEBUG_LOGGING_SEPARATOR;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_DEBUG_LOGGING_SEPARATOR;
+
+/**
+ * Renders the binary debug log written by the {@link BinaryDebugAppender} as text, in the same format as the
+ * {@link PrintingDebugAppender}.
+ *
+ * Records are read from the log file and then from any records that are still in its memory mapped ring buffer, for
+ * example if the process crashed before they were drained. The ring buffer isn't modified.
+ */
+public final class BinaryDebugLogDecoder
+{
+    private static final LogTag[] LOG_TAGS = LogTag.values();
+
+    private final Int2ObjectHashMap<String> idToString = new Int2ObjectHashMap<>();
+    private final Int2ObjectHashMap<CharFormatter> idToFormatter = new Int2ObjectHashMap<>();
+    private final StringBuilder line = new StringBuilder();
+    private final Consumer<StringBuilder> lineHandler;
+    private byte[] bytes = new byte[0];
+
+    public static void main(final String[] args)
+    {
+        if (args.length != 1)
+        {
+            System.err.println("Usage: BinaryDebugLogDecoder <binary-debug-log-file>");
+            System.exit(-1);
+        }
+
+        decode(new File(args[0]), System.out::print);
+    }
+
+    /**
+     * Decode a binary debug log file and any records still within its ring buffer.
+     *
+     * @param logFile the file written by the {@link BinaryDebugAppender}.
+     * @param lineHandler the handler that is passed each line of text. The builder is reused between lines.
+     */
+    public static void decode(final File logFile, final Consumer<StringBuilder> lineHandler)
+    {
+        final BinaryDebugLogDecoder decoder = new BinaryDebugLogDecoder(lineHandler);
+        decoder.decodeLogFile(logFile);
+
+        final File ringBufferFile = new File(logFile.getPath() + RING_BUFFER_FILE_SUFFIX);
+        if (ringBufferFile.exists())
+        {
+            decoder.decodeRingBuffer(ringBufferFile);
+        }
+    }
+
+    private BinaryDebugLogDecoder(final Consumer<StringBuilder> lineHandler)
+    {
+        this.lineHandler = lineHandler;
+    }
+
+    private void decodeLogFile(final File logFile)
+    {
+        final MappedByteBuffer mappedBuffer = IoUtil.mapExistingFile(logFile, "binary debug log");
+        try
+        {
+            final UnsafeBuffer buffer = new UnsafeBuffer(mappedBuffer);
+            final int capacity = buffer.capacity();
+            if (capacity < FILE_HEADER_LENGTH || buffer.getInt(0) != FILE_MAGIC)
+            {
+                throw new IllegalArgumentException(logFile + " isn't a binary debug log file");
+            }
+
+            final int version = buffer.getInt(SIZE_OF_INT);
+            if (version != FILE_VERSION)
+            {
+                throw new IllegalArgumentException("Unsupported binary debug log version: " + version);
+            }
+
+            int offset = FILE_HEADER_LENGTH;
+            while (offset + 2 * SIZE_OF_INT <= capacity)
+            {
+                final int recordType = buffer.getInt(offset);
+                final int length = buffer.getInt(offset + SIZE_OF_INT);
+                final int recordOffset = offset + 2 * SIZE_OF_INT;
+                if (recordOffset + length > capacity)
+                {
+                    // Incomplete record at the end of the file
+                    break;
+                }
+
+                onRecord(recordType, buffer, recordOffset, length);
+                offset = recordOffset + length;
+            }
+        }
+        finally
+        {
+            IoUtil.unmap(mappedBuffer);
+        }
+    }
+
+    private void decodeRingBuffer(final File ringBufferFile)
+    {
+        final MappedByteBuffer mappedBuffer = IoUtil.mapExistingFile(ringBufferFile, "binary debug ring buffer");
+        try
+        {
+            final UnsafeBuffer buffer = new UnsafeBuffer(mappedBuffer);
+            final int capacity = buffer.capacity() - TRAILER_LENGTH;
+            final long head = buffer.getLongVolatile(capacity + HEAD_POSITION_OFFSET);
+            final long tail = buffer.getLongVolatile(capacity + TAIL_POSITION_OFFSET);
+
+            long position = head;
+            while (position < tail)
+            {
+                final int index = (int)position & (capacity - 1);
+                final int recordLength = buffer.getIntVolatile(lengthOffset(index));
+                if (recordLength <= 0)
+                {
+                    // Claimed but never committed
+                    break;
+                }
+
+                final int recordType = buffer.getInt(typeOffset(index));
+                if (recordType != PADDING_MSG_TYPE_ID)
+                {
+                    onRecord(recordType, buffer, encodedMsgOffset(index), recordLength - HEADER_LENGTH);
+                }
+
+                position += BitUtil.align(recordLength, ALIGNMENT);
+            }
+        }
+        finally
+        {
+            IoUtil.unmap(mappedBuffer);
+        }
+    }
+
+    private void onRecord(final int recordType, final DirectBuffer buffer, final int offset, final int length)
+    {
+        if (recordType == STRING_DEFINITION)
+        {
+            final int id = buffer.getInt(offset);
+            final byte[] value = new byte[length - SIZE_OF_INT];
+            buffer.getBytes(offset + SIZE_OF_INT, value);
+            // Ids are reused when the appender is restarted and carries on appending to the same file
+            idToString.put(id, new String(value, UTF_8));
+            idToFormatter.remove(id);
+            return;
+        }
+
+        final StringBuilder line = this.line;
+        line.setLength(0);
+        line.append(buffer.getLong(offset + TIMESTAMP_OFFSET));
+        line.append(':');
+        line.append(lookupString(buffer.getInt(offset + THREAD_NAME_ID_OFFSET)));
+
+        final int logTag = buffer.getInt(offset + LOG_TAG_OFFSET);
+        if (logTag >= 0 && logTag < LOG_TAGS.length)
+        {
+            line.append(LOG_TAGS[logTag].logStr());
+        }
+        else
+        {
+            line.append("[UNKNOWN_TAG_").append(logTag).append(']');
+        }
+
+        switch (recordType)
+        {
+            case TEXT:
+                appendAscii(buffer, offset + RECORD_HEADER_LENGTH, length - RECORD_HEADER_LENGTH, false);
+                break;
+
+            case ASCII:
+                line.append(lookupString(buffer.getInt(offset + STRING_ID_OFFSET)));
+                appendAscii(buffer, offset + RECORD_BODY_OFFSET, length - RECORD_BODY_OFFSET, true);
+                line.append(System.lineSeparator());
+                break;
+
+            case BYTES:
+                line.append(lookupString(buffer.getInt(offset + STRING_ID_OFFSET)));
+                appendBytes(buffer, offset + RECORD_BODY_OFFSET, length - RECORD_BODY_OFFSET);
+                line.append(System.lineSeparator());
+                break;
+
+            case FORMATTER:
+                appendFormatter(buffer, offset);
+                line.append(System.lineSeparator());
+                break;
+
+            default:
+                line.append("Unknown record type: ").append(recordType).append(System.lineSeparator());
+        }
+
+        lineHandler.accept(line);
+    }
+
+    private void appendFormatter(final DirectBuffer buffer, final int offset)
+    {
+        final int formatId = buffer.getInt(offset + STRING_ID_OFFSET);
+        CharFormatter formatter = idToFormatter.get(formatId);
+        if (formatter == null)
+        {
+            formatter = new CharFormatter(lookupString(formatId));
+            idToFormatter.put(formatId, formatter);
+        }
+
+        formatter.clear();
+        int position = offset + RECORD_BODY_OFFSET;
+        final int valueCount = buffer.getInt(position);
+        position += SIZE_OF_INT;
+        for (int i = 0; i < valueCount; i++)
+        {
+            final int valueLength = buffer.getInt(position);
+            position += SIZE_OF_INT;
+            formatter.with(copyBytes(buffer, position, valueLength, true), valueLength);
+            position += valueLength;
+        }
+
+        formatter.appendTo(line);
+    }
+
+    private void appendAscii(
+        final DirectBuffer buffer, final int offset, final int length, final boolean substituteSeparator)
+    {
+        final byte[] bytes = copyBytes(buffer, offset, length, substituteSeparator);
+        final StringBuilder line = this.line;
+        for (int i = 0; i < length; i++)
+        {
+            line.append((char)bytes[i]);
+        }
+    }
+
+    private void appendBytes(final DirectBuffer buffer, final int offset, final int length)
+    {
+        final StringBuilder line = this.line;
+        if (length == 0)
+        {
+            line.append("{}");
+            return;
+        }
+
+        line.append('{');
+        for (int i = 0; i < length; i++)
+        {
+            if (i > 0)
+            {
+                line.append(", ");
+            }
+            line.append(buffer.getByte(offset + i));
+        }
+        line.append('}');
+    }
+
+    private byte[] copyBytes(
+        final DirectBuffer buffer, final int offset, final int length, final boolean substituteSeparator)
+    {
+        byte[] bytes = this.bytes;
+        if (bytes.length < length)
+        {
+            bytes = new byte[length];
+            this.bytes = bytes;
+        }
+
+        buffer.getBytes(offset, bytes, 0, length);
+        if (substituteSeparator && DEBUG_LOGGING_SEPARATOR != DEFAULT_DEBUG_LOGGING_SEPARATOR)
+        {
+            for (int i = 0; i < length; i++)
+            {
+                if (bytes[i] == DEFAULT_DEBUG_LOGGING_SEPARATOR)
+                {
+                    bytes[i] = DEBUG_LOGGING_SEPARATOR;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private String lookupString(final int id)
+    {
+        final String value = idToString.get(id);
+        return value == null ? "<unknown string " + id + ">" : value;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.CloseHelper;
+import org.agrona.LangUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.file.StandardOpenOption.*;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static uk.co.real_logic.artio.BinaryDebugAppender.*;
+
+/**
+ * Drains the ring buffer of a {@link BinaryDebugAppender} into a file. The file consists of a magic number and
+ * version followed by records, each of which is an int record type, an int length and then the record itself.
+ */
+class BinaryDebugLogDrainAgent implements Agent
+{
+    private static final int RECORD_PREFIX_LENGTH = 2 * SIZE_OF_INT;
+    private static final int READ_LIMIT = 1024;
+
+    private final MessageHandler onRecord = this::onRecord;
+    private final RingBuffer ringBuffer;
+    private final FileChannel fileChannel;
+    private final ByteBuffer outputBuffer;
+    private final UnsafeBuffer output;
+
+    BinaryDebugLogDrainAgent(final RingBuffer ringBuffer, final File file)
+    {
+        this.ringBuffer = ringBuffer;
+        outputBuffer = ByteBuffer.allocateDirect(Math.max(64 * 1024, 2 * ringBuffer.maxMsgLength()));
+        output = new UnsafeBuffer(outputBuffer);
+
+        try
+        {
+            fileChannel = FileChannel.open(file.toPath(), CREATE, WRITE, APPEND);
+            // Carry on from an existing file, eg: after a restart, rather than losing what was logged before.
+            if (fileChannel.size() == 0)
+            {
+                output.putInt(0, FILE_MAGIC);
+                output.putInt(SIZE_OF_INT, FILE_VERSION);
+                outputBuffer.limit(FILE_HEADER_LENGTH);
+                write();
+            }
+        }
+        catch (final IOException e)
+        {
+            throw new IllegalStateException("Unable to open binary debug log file: " + file, e);
+        }
+    }
+
+    public int doWork()
+    {
+        final int read = ringBuffer.read(onRecord, READ_LIMIT);
+        if (outputBuffer.position() > 0)
+        {
+            flush();
+        }
+        return read;
+    }
+
+    private void onRecord(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length)
+    {
+        final ByteBuffer outputBuffer = this.outputBuffer;
+        if (outputBuffer.remaining() < RECORD_PREFIX_LENGTH + length)
+        {
+            flush();
+        }
+
+        final int position = outputBuffer.position();
+        final UnsafeBuffer output = this.output;
+        output.putInt(position, msgTypeId);
+        output.putInt(position + SIZE_OF_INT, length);
+        output.putBytes(position + RECORD_PREFIX_LENGTH, buffer, index, length);
+        outputBuffer.position(position + RECORD_PREFIX_LENGTH + length);
+    }
+
+    private void flush()
+    {
+        outputBuffer.flip();
+        write();
+    }
+
+    private void write()
+    {
+        final ByteBuffer outputBuffer = this.outputBuffer;
+        try
+        {
+            while (outputBuffer.hasRemaining())
+            {
+                fileChannel.write(outputBuffer);
+            }
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+        finally
+        {
+            outputBuffer.clear();
+        }
+    }
+
+    public void onClose()
+    {
+        int read;
+        do
+        {
+            read = ringBuffer.read(onRecord, READ_LIMIT);
+        }
+        while (read > 0);
+
+        if (outputBuffer.position() > 0)
+        {
+            flush();
+        }
+
+        CloseHelper.close(fileChannel);
+    }
+
+    public String roleName()
+    {
+        return "BinaryDebugLogDrain";
+    }
+}
@@ -47,6 +47,7 @@ import java.util.stream.Stream;
 
 import static java.lang.Integer.getInteger;
 import static java.lang.System.getProperty;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toCollection;
@@ -110,6 +111,16 @@ public class CommonConfiguration
      * Property name for the file to log debug messages to, default is standard output
      */
     public static final String DEBUG_FILE_PROPERTY = "fix.core.debug.file";
+    /**
+     * Property name for the file to log binary debug records to. When set debug logging is written in a compact binary
+     * form by the {@link BinaryDebugAppender} and can be rendered as text with {@link BinaryDebugLogDecoder}.
+     */
+    public static final String DEBUG_BINARY_FILE_PROPERTY = "fix.core.debug.binary_file";
+    /**
+     * Property name for the capacity of the memory mapped ring buffer used by the {@link BinaryDebugAppender}, must be
+     * a power of two.
+     */
+    public static final String DEBUG_BINARY_BUFFER_CAPACITY_PROPERTY = "fix.core.debug.binary_buffer_capacity";
     /**
      * Property name for the period at which histogram intervals are polled and logged
      */
@@ -229,11 +240,17 @@ public class CommonConfiguration
     }
 
     public static final String DEBUG_FILE = System.getProperty(DEBUG_FILE_PROPERTY);
+    public static final String DEBUG_BINARY_FILE = System.getProperty(DEBUG_BINARY_FILE_PROPERTY);
+    public static final int DEFAULT_DEBUG_BINARY_BUFFER_CAPACITY = 8 * 1024 * 1024;
+    public static final int DEBUG_BINARY_BUFFER_CAPACITY = Integer.getInteger(
+        DEBUG_BINARY_BUFFER_CAPACITY_PROPERTY, DEFAULT_DEBUG_BINARY_BUFFER_CAPACITY);
     public static final boolean TIME_MESSAGES = Boolean.getBoolean(TIME_MESSAGES_PROPERTY);
     public static final boolean FORCE_WRITES = Boolean.getBoolean(FORCE_WRITES_MESSAGES_PROPERTY);
 
     public static final int BACKOFF_SPINS = Integer.getInteger("fix.core.spins", 100);
     public static final int BACKOFF_YIELDS = Integer.getInteger("fix.core.yields", 100);
+    public static final long ADAPTIVE_BUSY_SPIN_PERIOD_IN_NS = Long.getLong(
+        "fix.core.adaptive_busy_spin_period_ns", MILLISECONDS.toNanos(10));
 
     // ------------------------------------------------
     //          Configuration Defaults
@@ -1069,6 +1086,19 @@ public class CommonConfiguration
         return new BackoffIdleStrategy(BACKOFF_SPINS, BACKOFF_YIELDS, 1, 1 << 20);
     }
 
+    /**
+     * Create an idle strategy that busy spins for {@link #ADAPTIVE_BUSY_SPIN_PERIOD_IN_NS} after work was last done
+     * and then backs off in the same way as {@link #backoffIdleStrategy()}. Suitable for the Framer and for polling
+     * a FixLibrary when latency matters during bursts of activity, but a core shouldn't be pinned when idle.
+     *
+     * @return a new adaptive idle strategy.
+     * @see AdaptiveIdleStrategy
+     */
+    public static AdaptiveIdleStrategy adaptiveIdleStrategy()
+    {
+        return new AdaptiveIdleStrategy(ADAPTIVE_BUSY_SPIN_PERIOD_IN_NS, BACKOFF_YIELDS, 1, 1 << 20);
+    }
+
     public EpochNanoClock epochNanoClock()
     {
         return epochNanoClock;
@@ -58,6 +58,10 @@ public final class DebugLogger
                     "The file property will be ignored by Artio and your customer appender used instead.");
             }
         }
+        else if (DEBUG_BINARY_FILE != null)
+        {
+            APPENDER = new BinaryDebugAppender(DEBUG_BINARY_FILE, DEBUG_BINARY_BUFFER_CAPACITY);
+        }
         else
         {
             APPENDER = new PrintingDebugAppender();
@@ -1432,6 +1436,11 @@ public final class DebugLogger
             final int offset,
             final int length)
         {
+            if (appender.logBytes(tag, prefixString, byteBuffer, offset, length))
+            {
+                return;
+            }
+
             appendStart();
             final StringBuilder builder = this.builder;
             builder.append(prefixString);
@@ -1485,6 +1494,11 @@ public final class DebugLogger
         public void log(
             final LogTag tag, final String prefixString, final DirectBuffer buffer, final int offset, final int length)
         {
+            if (appender.logAscii(tag, prefixString, buffer, offset, length))
+            {
+                return;
+            }
+
             appendStart();
             builder.append(prefixString);
 
@@ -1511,6 +1525,11 @@ public final class DebugLogger
             final int bufferOffset,
             final int bufferLength)
         {
+            if (appender.logFormatter(tag, formatter, buffer, bufferOffset, bufferLength))
+            {
+                return;
+            }
+
             final byte[] data = getByteArray(bufferLength);
             buffer.getBytes(bufferOffset, data, 0, bufferLength);
             substituteSeparator(data);
@@ -1536,6 +1555,11 @@ public final class DebugLogger
             final LogTag tag,
             final CharFormatter formatter)
         {
+            if (appender.logFormatter(tag, formatter, null, 0, 0))
+            {
+                return;
+            }
+
             appendStart();
             formatter.appendTo(builder);
             finish(tag);
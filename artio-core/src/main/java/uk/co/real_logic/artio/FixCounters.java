@@ -18,6 +18,7 @@ package uk.co.real_logic.artio;
 import io.aeron.Aeron;
 import io.aeron.Counter;
 import org.agrona.collections.IntHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersReader;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
@@ -27,6 +28,8 @@ import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
 import static uk.co.real_logic.artio.FixCounters.FixCountersId.*;
 import static uk.co.real_logic.artio.GatewayProcess.NO_CONNECTION_ID;
 
@@ -34,6 +37,12 @@ public class FixCounters implements AutoCloseable
 {
     private static final int MINIMUM_ARTIO_TYPE_ID = 10_000;
 
+    /**
+     * Offset within the key of per connection counters, such as {@link FixCountersId#MESSAGES_READ_TYPE_ID} and the
+     * session statistics counters, that the connection id is stored at.
+     */
+    public static final int CONNECTION_ID_KEY_OFFSET = 0;
+
     public enum FixCountersId
     {
         FAILED_INBOUND_TYPE_ID(MINIMUM_ARTIO_TYPE_ID),
@@ -47,7 +56,16 @@ public class FixCounters implements AutoCloseable
         CURRENT_REPLAY_COUNT_TYPE_ID(10_008),
         NEGATIVE_TIMESTAMP_TYPE_ID(10_009),
         FAILED_ADMIN_TYPE_ID(10_010),
-        FAILED_ADMIN_REPLY_TYPE_ID(10_011);
+        FAILED_ADMIN_REPLY_TYPE_ID(10_011),
+        SESSION_ID_TYPE_ID(10_012),
+        BYTES_READ_TYPE_ID(10_013),
+        BYTES_WRITTEN_TYPE_ID(10_014),
+        MESSAGES_WRITTEN_TYPE_ID(10_015),
+        THROTTLE_REJECTS_TYPE_ID(10_016),
+        SLOW_CONSUMER_TIME_TYPE_ID(10_017),
+        RESEND_REQUESTS_SERVED_TYPE_ID(10_018),
+        LAST_RECEIVED_TIME_TYPE_ID(10_019),
+        LAST_SENT_TIME_TYPE_ID(10_020);
 
         final int id;
 
@@ -151,10 +169,66 @@ public class FixCounters implements AutoCloseable
 
     public AtomicCounter messagesRead(final long connectionId, final String address)
     {
-        return newCounter(FixCountersId.MESSAGES_READ_TYPE_ID.id(),
+        return newConnectionCounter(FixCountersId.MESSAGES_READ_TYPE_ID.id(), connectionId,
                 "Messages Read from " + address + " id = " + connectionId);
     }
 
+    public AtomicCounter sessionId(final long connectionId, final String address)
+    {
+        final AtomicCounter counter = newConnectionCounter(SESSION_ID_TYPE_ID.id(), connectionId,
+            "Session Id for " + address + " id = " + connectionId);
+        counter.setOrdered(Session.UNKNOWN);
+        return counter;
+    }
+
+    public AtomicCounter bytesRead(final long connectionId, final String address)
+    {
+        return newConnectionCounter(BYTES_READ_TYPE_ID.id(), connectionId,
+            "Bytes Read from " + address + " id = " + connectionId);
+    }
+
+    public AtomicCounter bytesWritten(final long connectionId, final String address)
+    {
+        return newConnectionCounter(BYTES_WRITTEN_TYPE_ID.id(), connectionId,
+            "Bytes Written to " + address + " id = " + connectionId);
+    }
+
+    public AtomicCounter messagesWritten(final long connectionId, final String address)
+    {
+        return newConnectionCounter(MESSAGES_WRITTEN_TYPE_ID.id(), connectionId,
+            "Messages Written to " + address + " id = " + connectionId);
+    }
+
+    public AtomicCounter throttleRejects(final long connectionId, final String address)
+    {
+        return newConnectionCounter(THROTTLE_REJECTS_TYPE_ID.id(), connectionId,
+            "Throttle Rejects for " + address + " id = " + connectionId);
+    }
+
+    public AtomicCounter slowConsumerTime(final long connectionId, final String address)
+    {
+        return newConnectionCounter(SLOW_CONSUMER_TIME_TYPE_ID.id(), connectionId,
+            "Slow Consumer Time for " + address + " id = " + connectionId);
+    }
+
+    public AtomicCounter resendRequestsServed(final long connectionId, final String address)
+    {
+        return newConnectionCounter(RESEND_REQUESTS_SERVED_TYPE_ID.id(), connectionId,
+            "Resend Requests Served for " + address + " id = " + connectionId);
+    }
+
+    public AtomicCounter lastReceivedTime(final long connectionId, final String address)
+    {
+        return newConnectionCounter(LAST_RECEIVED_TIME_TYPE_ID.id(), connectionId,
+            "Last Received Time from " + address + " id = " + connectionId);
+    }
+
+    public AtomicCounter lastSentTime(final long connectionId, final String address)
+    {
+        return newConnectionCounter(LAST_SENT_TIME_TYPE_ID.id(), connectionId,
+            "Last Sent Time to " + address + " id = " + connectionId);
+    }
+
     public AtomicCounter bytesInBuffer(final long connectionId, final String address)
     {
         return newCounter(FixCountersId.BYTES_IN_BUFFER_TYPE_ID.id(),
@@ -213,6 +287,18 @@ public class FixCounters implements AutoCloseable
         return counter;
     }
 
+    private AtomicCounter newConnectionCounter(final int typeId, final long connectionId, final String label)
+    {
+        final UnsafeBuffer keyBuffer = new UnsafeBuffer(new byte[SIZE_OF_LONG]);
+        keyBuffer.putLong(CONNECTION_ID_KEY_OFFSET, connectionId);
+        final UnsafeBuffer labelBuffer = new UnsafeBuffer(label.getBytes(US_ASCII));
+
+        final Counter counter = aeron.addCounter(
+            typeId, keyBuffer, 0, keyBuffer.capacity(), labelBuffer, 0, labelBuffer.capacity());
+        counters.add(counter);
+        return counter;
+    }
+
     public void close()
     {
         Exceptions.closeAll(counters);
@@ -94,6 +94,28 @@ public interface Reply<T>
      */
     State state();
 
+    /**
+     * Hand this reply back to the library once its outcome has been read. Pooled replies, see
+     * {@link uk.co.real_logic.artio.library.LibraryConfiguration#pooledReplies(boolean)}, are reused for later
+     * requests after this has been called and must not be accessed again. This is a no-op for other replies.
+     *
+     * @throws IllegalStateException if the reply is still executing or has already been released.
+     */
+    default void release()
+    {
+    }
+
+    /**
+     * Gets the number of times that this reply object has been released. A pooled reply can be reused for a later
+     * request, so code that holds on to one can compare generations to check that it's still the same request.
+     *
+     * @return the number of times that this reply object has been released, always 0 for replies that aren't pooled.
+     */
+    default long generation()
+    {
+        return 0;
+    }
+
     enum State
     {
         /** The operation is currently being executed and its result is unknown. */
@@ -21,6 +21,7 @@ import io.aeron.ExclusivePublication;
 import io.aeron.Subscription;
 import io.aeron.exceptions.TimeoutException;
 import org.agrona.CloseHelper;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.EpochNanoClock;
 import org.agrona.concurrent.IdleStrategy;
 import uk.co.real_logic.artio.FixGatewayException;
@@ -92,6 +93,9 @@ public final class ArtioAdmin implements AutoCloseable
      * receives many messages in a short time period will have advanced to new sequence numbers by the time that the
      * API operation returns. Similarly a client could connect or disconnect immediately after the Engine replies
      * to this API operation, leaving its data stale.
+     * <p>
+     * Connected sessions include their {@link FixAdminSession#statistics() statistics} if the engine has
+     * {@link uk.co.real_logic.artio.engine.EngineConfiguration#sessionStatistics(boolean) session statistics} enabled.
      *
      * @return the list of FIX sessions.
      * @throws TimeoutException      if the operation times out.
@@ -99,7 +103,55 @@ public final class ArtioAdmin implements AutoCloseable
      */
     public List<FixAdminSession> allFixSessions()
     {
-        return exchangeMessage(saveRequestAllFixSessionsFunc, allFixSessionsResultFunc);
+        final List<FixAdminSession> allFixSessions =
+            exchangeMessage(saveRequestAllFixSessionsFunc, allFixSessionsResultFunc);
+
+        final List<FixSessionStatistics> allSessionStatistics = FixSessionStatistics.readAll(aeron.countersReader());
+        if (!allSessionStatistics.isEmpty())
+        {
+            final Long2ObjectHashMap<FixSessionStatistics> connectionIdToStatistics = new Long2ObjectHashMap<>();
+            for (final FixSessionStatistics statistics : allSessionStatistics)
+            {
+                connectionIdToStatistics.put(statistics.connectionId(), statistics);
+            }
+
+            for (final FixAdminSession session : allFixSessions)
+            {
+                if (session.isConnected())
+                {
+                    session.statistics(connectionIdToStatistics.get(session.connectionId()));
+                }
+            }
+        }
+
+        return allFixSessions;
+    }
+
+    /**
+     * Queries the statistics of all connected FIX sessions from the Aeron counters file. This needs
+     * {@link uk.co.real_logic.artio.engine.EngineConfiguration#sessionStatistics(boolean)} to be enabled on the
+     * engine and the admin instance to use the same media driver as the engine. It doesn't send a request to the
+     * engine, so it can be called frequently without interfering with the engine's work.
+     * <p>
+     * The counters are read one at a time whilst the engine updates them, so the statistics of a session aren't an
+     * atomic snapshot.
+     *
+     * @return the statistics of all connected FIX sessions, ordered by connection id.
+     * @throws IllegalStateException if the instance has been closed.
+     */
+    public List<FixSessionStatistics> allSessionStatistics()
+    {
+        lock.lock();
+        try
+        {
+            checkOpen();
+
+            return FixSessionStatistics.readAll(aeron.countersReader());
+        }
+        finally
+        {
+            lock.unlock();
+        }
     }
 
     /**
@@ -37,6 +37,8 @@ public class FixAdminSession implements SessionInfo
     private final int sequenceIndex;
     private final boolean isSlow;
 
+    private FixSessionStatistics statistics;
+
     public FixAdminSession(
         final long sessionId,
         final long connectionId,
@@ -176,6 +178,22 @@ public class FixAdminSession implements SessionInfo
         return isSlow;
     }
 
+    /**
+     * Gets the statistics counters of the session, see {@link ArtioAdmin#allSessionStatistics()}.
+     *
+     * @return the statistics of the session, or null if the session isn't connected or the engine doesn't have
+     * session statistics enabled.
+     */
+    public FixSessionStatistics statistics()
+    {
+        return statistics;
+    }
+
+    void statistics(final FixSessionStatistics statistics)
+    {
+        this.statistics = statistics;
+    }
+
     public String toString()
     {
         return "FixAdminSession{" +
@@ -189,6 +207,7 @@ public class FixAdminSession implements SessionInfo
             ", connectedPort=" + connectedPort +
             ", sequenceIndex=" + sequenceIndex +
             ", isSlow=" + isSlow +
+            ", statistics=" + statistics +
             '}';
     }
 }
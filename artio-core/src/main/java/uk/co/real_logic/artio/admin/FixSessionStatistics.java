@@ -0,0 +1,267 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.admin;
+
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.status.CountersReader;
+import uk.co.real_logic.artio.FixCounters.FixCountersId;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.session.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static uk.co.real_logic.artio.FixCounters.CONNECTION_ID_KEY_OFFSET;
+import static uk.co.real_logic.artio.FixCounters.FixCountersId.*;
+
+/**
+ * A snapshot of the statistics counters of a connected FIX session, see
+ * {@link EngineConfiguration#sessionStatistics(boolean)}. Times are in the units of the engine's
+ * {@link EngineConfiguration#epochNanoClock()}, and are 0 if nothing has been received or sent.
+ */
+public final class FixSessionStatistics
+{
+    private final long connectionId;
+
+    private long sessionId = Session.UNKNOWN;
+    private long bytesRead;
+    private long messagesRead;
+    private long bytesWritten;
+    private long messagesWritten;
+    private long throttleRejects;
+    private long slowConsumerTime;
+    private long resendRequestsServed;
+    private long lastReceivedTime;
+    private long lastSentTime;
+    private boolean hasSessionStatistics;
+
+    FixSessionStatistics(final long connectionId)
+    {
+        this.connectionId = connectionId;
+    }
+
+    static List<FixSessionStatistics> readAll(final CountersReader countersReader)
+    {
+        final Long2ObjectHashMap<FixSessionStatistics> connectionIdToStatistics = new Long2ObjectHashMap<>();
+        countersReader.forEach((counterId, typeId, keyBuffer, label) ->
+        {
+            if (isConnectionCounter(typeId))
+            {
+                final long connectionId = keyBuffer.getLong(CONNECTION_ID_KEY_OFFSET);
+                FixSessionStatistics statistics = connectionIdToStatistics.get(connectionId);
+                if (statistics == null)
+                {
+                    statistics = new FixSessionStatistics(connectionId);
+                    connectionIdToStatistics.put(connectionId, statistics);
+                }
+
+                statistics.onCounter(typeId, countersReader.getCounterValue(counterId));
+            }
+        });
+
+        final List<FixSessionStatistics> allStatistics = new ArrayList<>();
+        for (final FixSessionStatistics statistics : connectionIdToStatistics.values())
+        {
+            // Messages read counters are allocated whether statistics are enabled or not
+            if (statistics.hasSessionStatistics)
+            {
+                allStatistics.add(statistics);
+            }
+        }
+        allStatistics.sort((first, second) -> Long.compare(first.connectionId, second.connectionId));
+        return allStatistics;
+    }
+
+    private static boolean isConnectionCounter(final int typeId)
+    {
+        return typeId == MESSAGES_READ_TYPE_ID.id() ||
+            (typeId >= SESSION_ID_TYPE_ID.id() && typeId <= LAST_SENT_TIME_TYPE_ID.id());
+    }
+
+    private void onCounter(final int typeId, final long value)
+    {
+        if (typeId == MESSAGES_READ_TYPE_ID.id())
+        {
+            messagesRead = value;
+        }
+        else if (typeId == SESSION_ID_TYPE_ID.id())
+        {
+            sessionId = value;
+            hasSessionStatistics = true;
+        }
+        else if (typeId == BYTES_READ_TYPE_ID.id())
+        {
+            bytesRead = value;
+        }
+        else if (typeId == BYTES_WRITTEN_TYPE_ID.id())
+        {
+            bytesWritten = value;
+        }
+        else if (typeId == MESSAGES_WRITTEN_TYPE_ID.id())
+        {
+            messagesWritten = value;
+        }
+        else if (typeId == THROTTLE_REJECTS_TYPE_ID.id())
+        {
+            throttleRejects = value;
+        }
+        else if (typeId == SLOW_CONSUMER_TIME_TYPE_ID.id())
+        {
+            slowConsumerTime = value;
+        }
+        else if (typeId == RESEND_REQUESTS_SERVED_TYPE_ID.id())
+        {
+            resendRequestsServed = value;
+        }
+        else if (typeId == LAST_RECEIVED_TIME_TYPE_ID.id())
+        {
+            lastReceivedTime = value;
+        }
+        else if (typeId == LAST_SENT_TIME_TYPE_ID.id())
+        {
+            lastSentTime = value;
+        }
+    }
+
+    /**
+     * Get the identification number of the connection in question.
+     *
+     * @return the identification number of the connection in question.
+     */
+    public long connectionId()
+    {
+        return connectionId;
+    }
+
+    /**
+     * Get the id of the session, or {@link Session#UNKNOWN} if the connection hasn't logged on yet.
+     *
+     * @return the id of the session.
+     */
+    public long sessionId()
+    {
+        return sessionId;
+    }
+
+    /**
+     * Get the number of bytes read from the connection.
+     *
+     * @return the number of bytes read from the connection.
+     */
+    public long bytesRead()
+    {
+        return bytesRead;
+    }
+
+    /**
+     * Get the number of messages read from the connection, this is the {@link FixCountersId#MESSAGES_READ_TYPE_ID}
+     * counter.
+     *
+     * @return the number of messages read from the connection.
+     */
+    public long messagesRead()
+    {
+        return messagesRead;
+    }
+
+    /**
+     * Get the number of bytes written to the connection, including resent messages.
+     *
+     * @return the number of bytes written to the connection.
+     */
+    public long bytesWritten()
+    {
+        return bytesWritten;
+    }
+
+    /**
+     * Get the number of messages written to the connection, including resent messages.
+     *
+     * @return the number of messages written to the connection.
+     */
+    public long messagesWritten()
+    {
+        return messagesWritten;
+    }
+
+    /**
+     * Get the number of messages that have been rejected by the engine's message throttle.
+     *
+     * @return the number of messages that have been rejected by the engine's message throttle.
+     */
+    public long throttleRejects()
+    {
+        return throttleRejects;
+    }
+
+    /**
+     * Get the total time that the session has been a slow consumer for, including the current period if the session
+     * is still slow.
+     *
+     * @return the total time that the session has been a slow consumer for.
+     */
+    public long slowConsumerTime()
+    {
+        return slowConsumerTime;
+    }
+
+    /**
+     * Get the number of valid resend requests from the counter-party that the engine has started replaying.
+     *
+     * @return the number of resend requests served.
+     */
+    public long resendRequestsServed()
+    {
+        return resendRequestsServed;
+    }
+
+    /**
+     * Get the time that the last message was received from the connection.
+     *
+     * @return the time that the last message was received from the connection.
+     */
+    public long lastReceivedTime()
+    {
+        return lastReceivedTime;
+    }
+
+    /**
+     * Get the time that the last message was written to the connection.
+     *
+     * @return the time that the last message was written to the connection.
+     */
+    public long lastSentTime()
+    {
+        return lastSentTime;
+    }
+
+    public String toString()
+    {
+        return "FixSessionStatistics{" +
+            "connectionId=" + connectionId +
+            ", sessionId=" + sessionId +
+            ", bytesRead=" + bytesRead +
+            ", messagesRead=" + messagesRead +
+            ", bytesWritten=" + bytesWritten +
+            ", messagesWritten=" + messagesWritten +
+            ", throttleRejects=" + throttleRejects +
+            ", slowConsumerTime=" + slowConsumerTime +
+            ", resendRequestsServed=" + resendRequestsServed +
+            ", lastReceivedTime=" + lastReceivedTime +
+            ", lastSentTime=" + lastSentTime +
+            '}';
+    }
+}
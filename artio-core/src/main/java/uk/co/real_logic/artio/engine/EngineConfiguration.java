@@ -232,6 +232,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final int DEFAULT_ARCHIVE_SCANNER_STREAM = 5;
     public static final int DEFAULT_REPRODUCTION_LOG_STREAM = 6;
     public static final int DEFAULT_REPRODUCTION_REPLAY_STREAM = 7;
+    public static final int DEFAULT_COLD_ARCHIVE_STREAM = 8;
+
+    public static final long NO_COLD_ARCHIVE = 0;
+    public static final long DEFAULT_COLD_ARCHIVE_CHECK_INTERVAL_IN_MS = TimeUnit.MINUTES.toMillis(1);
+    public static final int DEFAULT_COLD_ARCHIVE_BLOCK_SIZE = 1024 * 1024;
 
     public static final int DEFAULT_INITIAL_SEQUENCE_INDEX = 0;
     public static final int DEFAULT_CANCEL_ON_DISCONNECT_TIMEOUT_WINDOW_IN_MS = 0;
@@ -308,6 +313,9 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private boolean deleteLogFileDirOnStart = false;
     private long authenticationTimeoutInMs = DEFAULT_AUTHENTICATION_TIMEOUT_IN_MS;
     private boolean bindAtStartup = false;
+    private boolean reusePort = false;
+    private String sharedSessionOwnershipDir = null;
+    private boolean sessionStatistics = false;
     private int initialSequenceIndex = DEFAULT_INITIAL_SEQUENCE_INDEX;
     private MessageTimingHandler messageTimingHandler = null;
     private int maxConcurrentSessionReplays = DEFAULT_MAX_CONCURRENT_SESSION_REPLAYS;
@@ -321,7 +329,20 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private FixPCancelOnDisconnectTimeoutHandler fixPCancelOnDisconnectTimeoutHandler = null;
     private int throttleWindowInMs = NO_THROTTLE_WINDOW;
     private int throttleLimitOfMessages = NO_THROTTLE_WINDOW;
+    private boolean tokenBucketMessageThrottle = false;
+    private int compIdGroupThrottleWindowInMs = NO_THROTTLE_WINDOW;
+    private int compIdGroupThrottleLimitOfMessages = NO_THROTTLE_WINDOW;
+    private int engineThrottleWindowInMs = NO_THROTTLE_WINDOW;
+    private int engineThrottleLimitOfMessages = NO_THROTTLE_WINDOW;
+    private final Map<String, Integer> messageThrottleWeights = new HashMap<>();
+    private final List<MessageRoute> messageRoutes = new ArrayList<>();
     private long timeIndexReplayFlushIntervalInNs = DEFAULT_TIME_INDEX_FLUSH_INTERVAL_IN_NS;
+    private boolean secondaryIndexMessageTypes = false;
+    private long coldArchiveAfterInMs = NO_COLD_ARCHIVE;
+    private long coldArchiveCheckIntervalInMs = DEFAULT_COLD_ARCHIVE_CHECK_INTERVAL_IN_MS;
+    private int coldArchiveBlockSize = DEFAULT_COLD_ARCHIVE_BLOCK_SIZE;
+    private int coldArchiveStream = DEFAULT_COLD_ARCHIVE_STREAM;
+    private int[] secondaryIndexTags = new int[0];
     private CancelOnDisconnectOption cancelOnDisconnectOption = DO_NOT_CANCEL_ON_DISCONNECT_OR_LOGOUT;
     private int cancelOnDisconnectTimeoutWindowInMs = DEFAULT_CANCEL_ON_DISCONNECT_TIMEOUT_WINDOW_IN_MS;
 
@@ -369,6 +390,56 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets SO_REUSEPORT on the socket that accepts connections, so that several engines on the same host can bind to
+     * the same {@link #bindTo(String, int) port}. The operating system then balances new connections between them.
+     * Each engine needs its own {@link #logFileDir(String)} and Aeron streams, and should be given a
+     * {@link #sharedSessionOwnershipDir(String)} so that a session can't be logged on to more than one of them.
+     * <p>
+     * The engines don't share archives or sequence number indices. A session that reconnects to a different engine
+     * starts from that engine's sequence numbers for it, so sessions should reset their sequence numbers on logon.
+     *
+     * @param reusePort true to set SO_REUSEPORT, false by default.
+     * @return this
+     */
+    public EngineConfiguration reusePort(final boolean reusePort)
+    {
+        this.reusePort = reusePort;
+        return this;
+    }
+
+    /**
+     * Sets a directory that's shared by engines that {@link #reusePort(boolean) accept on the same port}. Engines take
+     * an operating system file lock in it for each session while it's logged on, and a logon for a session that's
+     * logged on to another engine is treated like a duplicate logon on the same engine.
+     *
+     * @param sharedSessionOwnershipDir the shared directory, or null to only check sessions of this engine.
+     * @return this
+     */
+    public EngineConfiguration sharedSessionOwnershipDir(final String sharedSessionOwnershipDir)
+    {
+        this.sharedSessionOwnershipDir = sharedSessionOwnershipDir;
+        return this;
+    }
+
+    /**
+     * Allocates counters in the Aeron counters file for each FIX connection that count the bytes and messages
+     * received and sent, throttle rejects, time spent as a slow consumer and resend requests served, and record
+     * the time that messages were last received and sent. They're updated by the framer and can be queried with
+     * {@link uk.co.real_logic.artio.admin.ArtioAdmin#allSessionStatistics()} or an external counters reader.
+     * <p>
+     * Each connection uses several counters so the Aeron counters file may need to be sized for the number of
+     * connections.
+     *
+     * @param sessionStatistics true to allocate per session counters, false by default.
+     * @return this
+     */
+    public EngineConfiguration sessionStatistics(final boolean sessionStatistics)
+    {
+        this.sessionStatistics = sessionStatistics;
+        return this;
+    }
+
     /**
      * Configures the engine to accept the provided FIXP connections. The Engine no longer accepts
      * regular FIX protocol connections and only accepts this binary protocol. Protocol must be a valid acceptor
@@ -502,8 +573,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     }
 
     /**
-     * Sets the set size of the logger's caches. This is currently only used by the ReplayQuery size. See
-     * {@link Long2ObjectCache} for guidance on how to adjust the number of sets and the set size.
+     * Sets the set size of the logger's caches. This is used by the ReplayQuery and the secondary index's open files.
+     * See {@link Long2ObjectCache} for guidance on how to adjust the number of sets and the set size.
      * <p>
      * The ReplayQuery class has a caches of open memory mapped files which it queries
      * into. Replay queries are used by Artio in response to FIX resend requests, the memory mapped files themselves
@@ -581,6 +652,10 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     /**
      * Sets the idle strategy for the Framer thread.
      *
+     * An {@link uk.co.real_logic.artio.AdaptiveIdleStrategy}, see {@link #adaptiveIdleStrategy()}, busy spins while
+     * the Framer is receiving or sending messages and backs off when it's idle. The Framer also limits how long it
+     * parks for to the next timer deadline.
+     *
      * @param framerIdleStrategy the idle strategy for the Framer thread.
      * @return this
      */
@@ -1015,6 +1090,163 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Throttle messages using token buckets rather than a rolling window of message timestamps. Each session's bucket
+     * holds up to the throttleLimitOfMessages set by {@link #enableMessageThrottle(int, int)} or
+     * {@link uk.co.real_logic.artio.session.Session#throttleMessagesAt(int, int)} and refills at that many messages per
+     * throttle window, so bursts are capped at the limit. Token buckets can be layered with
+     * {@link #compIdGroupMessageThrottle(int, int)} and {@link #engineMessageThrottle(int, int)} limits and
+     * weighted per message type with {@link #messageThrottleWeight(String, int)}. The comp id group and engine limits
+     * apply to sessions that don't have a throttle limit of their own as well. FIX and FIXP sessions share the same
+     * engine limit.
+     *
+     * @param tokenBucketMessageThrottle true to throttle using token buckets.
+     * @return this
+     */
+    public EngineConfiguration tokenBucketMessageThrottle(final boolean tokenBucketMessageThrottle)
+    {
+        this.tokenBucketMessageThrottle = tokenBucketMessageThrottle;
+        return this;
+    }
+
+    /**
+     * Limit the aggregate message rate of all of the sessions that share the same remote comp id, in addition to each
+     * session's own limit. Requires {@link #tokenBucketMessageThrottle(boolean)}.
+     *
+     * @param throttleWindowInMs the time window that the limit refills over.
+     * @param throttleLimitOfMessages the maximum number of messages that can be received within the time window.
+     * @throws IllegalArgumentException if either parameter is &lt; 1.
+     * @return this
+     */
+    public EngineConfiguration compIdGroupMessageThrottle(
+        final int throttleWindowInMs, final int throttleLimitOfMessages)
+    {
+        validateMessageThrottleOptions(throttleWindowInMs, throttleLimitOfMessages);
+
+        this.compIdGroupThrottleWindowInMs = throttleWindowInMs;
+        this.compIdGroupThrottleLimitOfMessages = throttleLimitOfMessages;
+        return this;
+    }
+
+    /**
+     * Limit the aggregate message rate of every session on this engine, in addition to each session's own limit.
+     * Requires {@link #tokenBucketMessageThrottle(boolean)}.
+     *
+     * @param throttleWindowInMs the time window that the limit refills over.
+     * @param throttleLimitOfMessages the maximum number of messages that can be received within the time window.
+     * @throws IllegalArgumentException if either parameter is &lt; 1.
+     * @return this
+     */
+    public EngineConfiguration engineMessageThrottle(final int throttleWindowInMs, final int throttleLimitOfMessages)
+    {
+        validateMessageThrottleOptions(throttleWindowInMs, throttleLimitOfMessages);
+
+        this.engineThrottleWindowInMs = throttleWindowInMs;
+        this.engineThrottleLimitOfMessages = throttleLimitOfMessages;
+        return this;
+    }
+
+    /**
+     * Set how many messages a received message of the given type counts as against the token bucket throttle limits,
+     * message types default to a weight of 1. A weight of 0 exempts a message type from throttling. Requires
+     * {@link #tokenBucketMessageThrottle(boolean)}.
+     *
+     * @param messageType the FIX MsgType, eg "D".
+     * @param weight the weight of the message type.
+     * @throws IllegalArgumentException if weight is &lt; 0.
+     * @return this
+     */
+    public EngineConfiguration messageThrottleWeight(final String messageType, final int weight)
+    {
+        if (weight < 0)
+        {
+            throw new IllegalArgumentException(
+                "Unable to configure message throttle, weight must be >= 0 but is " + weight);
+        }
+
+        messageThrottleWeights.put(messageType, weight);
+        return this;
+    }
+
+    /**
+     * Route received application messages of the given type to a library rather than to the owner of the session.
+     *
+     * Routes only apply to sessions that are owned by the engine, for example ones released with
+     * {@link uk.co.real_logic.artio.library.FixLibrary#releaseToEngineManagement}, as the engine handles their admin
+     * messages and sequence numbers. The library receives routed messages through its
+     * {@link uk.co.real_logic.artio.library.EngineManagedSessionHandler}, a library that hasn't configured one
+     * drops the messages that are routed to it. Routed messages aren't passed to the session's owner as well, but
+     * are archived like any other received message. Admin messages and UserRequest can't be routed. Routes that
+     * match a tag value take precedence over routes that only match the message type, otherwise the first matching
+     * route that was configured is used.
+     *
+     * @param messageType the FIX MsgType, eg "D".
+     * @param libraryId the id of the library to route the messages to.
+     * @throws IllegalArgumentException if messageType is an admin message type or UserRequest, or libraryId is the
+     *                                  engine's.
+     * @return this
+     */
+    public EngineConfiguration messageRoute(final String messageType, final int libraryId)
+    {
+        Objects.requireNonNull(messageType, "messageType");
+        return addMessageRoute(messageType, MessageRoute.ANY_TAG, null, libraryId);
+    }
+
+    /**
+     * Route received application messages whose tag has the given value to a library rather than to the owner of the
+     * session, eg all NewOrderSingle messages with a SecurityExchange of "XCME". Fields within repeating groups are
+     * matched as well. See {@link #messageRoute(String, int)} for which sessions and messages can be routed.
+     *
+     * @param messageType the FIX MsgType, eg "D", or null to match every application message.
+     * @param tag the tag of the field to match.
+     * @param value the value of the field to match.
+     * @param libraryId the id of the library to route the messages to.
+     * @throws IllegalArgumentException if messageType is an admin message type or UserRequest, tag is &lt; 1 or
+     *                                  libraryId is the engine's.
+     * @return this
+     */
+    public EngineConfiguration messageRoute(
+        final String messageType, final int tag, final String value, final int libraryId)
+    {
+        Objects.requireNonNull(value, "value");
+        if (tag < 1)
+        {
+            throw new IllegalArgumentException("Unable to configure message route, tag must be >= 1 but is " + tag);
+        }
+
+        return addMessageRoute(messageType, tag, value, libraryId);
+    }
+
+    private EngineConfiguration addMessageRoute(
+        final String messageType, final int tag, final String value, final int libraryId)
+    {
+        if (libraryId == FixEngine.ENGINE_LIBRARY_ID)
+        {
+            throw new IllegalArgumentException("Unable to configure message route to the engine's library id");
+        }
+
+        if (isAdminMessageType(messageType))
+        {
+            throw new IllegalArgumentException(
+                "Unable to configure message route, admin messages can't be routed but got " + messageType);
+        }
+
+        messageRoutes.add(new MessageRoute(messageType, tag, value, libraryId));
+        return this;
+    }
+
+    private static boolean isAdminMessageType(final String messageType)
+    {
+        return SessionConstants.LOGON_MESSAGE_TYPE_STR.equals(messageType) ||
+            SessionConstants.HEARTBEAT_MESSAGE_TYPE_STR.equals(messageType) ||
+            SessionConstants.TEST_REQUEST_MESSAGE_TYPE_STR.equals(messageType) ||
+            SessionConstants.RESEND_REQUEST_MESSAGE_TYPE_STR.equals(messageType) ||
+            SessionConstants.REJECT_MESSAGE_TYPE_STR.equals(messageType) ||
+            SessionConstants.SEQUENCE_RESET_TYPE_STR.equals(messageType) ||
+            SessionConstants.LOGOUT_MESSAGE_TYPE_STR.equals(messageType) ||
+            SessionConstants.USER_REQUEST_MESSAGE_TYPE_STR.equals(messageType);
+    }
+
     public static void validateMessageThrottleOptions(final int throttleWindowInMs, final int throttleLimitOfMessages)
     {
         if (throttleWindowInMs < 1)
@@ -1168,6 +1400,95 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Enables the secondary index of messages by message type, used for optimizing {@link FixArchiveScanner} queries
+     * that use {@link uk.co.real_logic.artio.engine.logger.FixMessagePredicates#messageTypeOf(String...)}.
+     *
+     * Disabled by default. Each indexed message costs an additional 20 bytes of disk space.
+     *
+     * @param secondaryIndexMessageTypes true to index message types, false otherwise.
+     * @return this
+     */
+    public EngineConfiguration secondaryIndexMessageTypes(final boolean secondaryIndexMessageTypes)
+    {
+        this.secondaryIndexMessageTypes = secondaryIndexMessageTypes;
+        return this;
+    }
+
+    /**
+     * Sets the tags whose values are stored in the secondary index, for example ClOrdID (11), used for optimizing
+     * {@link FixArchiveScanner} queries that use
+     * {@link uk.co.real_logic.artio.engine.logger.FixMessagePredicates#tagValueOf(int, String)}.
+     *
+     * Empty by default. Each occurrence of an indexed tag costs an additional 20 bytes of disk space.
+     *
+     * @param secondaryIndexTags the tags to index.
+     * @return this
+     */
+    public EngineConfiguration secondaryIndexTags(final int... secondaryIndexTags)
+    {
+        this.secondaryIndexTags = secondaryIndexTags;
+        return this;
+    }
+
+    /**
+     * Enables the cold archive tier. Whole segments of the logged FIX messages that are older than this age are
+     * moved out of the Aeron Archive and into block compressed files in the {@link #logFileDir(String)}. Resends and
+     * {@link FixArchiveScanner} scans that read these positions transparently decompress them.
+     *
+     * The age of messages is determined using the time index, so this requires messages to be logged. Defaults to
+     * {@link #NO_COLD_ARCHIVE}, which disables the tier. When enabled the tiering runs on its own thread, created
+     * with the {@link #threadFactory()} and using the {@link #monitoringThreadIdleStrategy()}.
+     *
+     * @param coldArchiveAfterInMs the age after which recorded messages are moved to the cold archive.
+     * @return this
+     */
+    public EngineConfiguration coldArchiveAfterInMs(final long coldArchiveAfterInMs)
+    {
+        this.coldArchiveAfterInMs = coldArchiveAfterInMs;
+        return this;
+    }
+
+    /**
+     * Sets how often the engine checks for recorded messages that can be moved to the cold archive.
+     *
+     * @param coldArchiveCheckIntervalInMs the interval between checks.
+     * @return this
+     * @see #coldArchiveAfterInMs(long)
+     */
+    public EngineConfiguration coldArchiveCheckIntervalInMs(final long coldArchiveCheckIntervalInMs)
+    {
+        this.coldArchiveCheckIntervalInMs = coldArchiveCheckIntervalInMs;
+        return this;
+    }
+
+    /**
+     * Sets the uncompressed size of the blocks in the cold archive. Larger blocks compress better, but more data
+     * needs to be decompressed in order to read a message from them.
+     *
+     * @param coldArchiveBlockSize the uncompressed size of the blocks in bytes.
+     * @return this
+     * @see #coldArchiveAfterInMs(long)
+     */
+    public EngineConfiguration coldArchiveBlockSize(final int coldArchiveBlockSize)
+    {
+        this.coldArchiveBlockSize = coldArchiveBlockSize;
+        return this;
+    }
+
+    /**
+     * Sets the stream id that the archive replays recordings on in order to move them to the cold archive.
+     *
+     * @param coldArchiveStream the stream id.
+     * @return this
+     * @see #coldArchiveAfterInMs(long)
+     */
+    public EngineConfiguration coldArchiveStream(final int coldArchiveStream)
+    {
+        this.coldArchiveStream = coldArchiveStream;
+        return this;
+    }
+
     /**
      * Allows disabling of the checksum calculation and validation of index files. Note: this does not affect the
      * checksum calculation for AeronArchiver - only artio itself.
@@ -1691,6 +2012,21 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this.bindAtStartup;
     }
 
+    public boolean reusePort()
+    {
+        return reusePort;
+    }
+
+    public String sharedSessionOwnershipDir()
+    {
+        return sharedSessionOwnershipDir;
+    }
+
+    public boolean sessionStatistics()
+    {
+        return sessionStatistics;
+    }
+
     public String logFileDir()
     {
         return logFileDir;
@@ -2010,6 +2346,41 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return throttleLimitOfMessages;
     }
 
+    public boolean tokenBucketMessageThrottle()
+    {
+        return tokenBucketMessageThrottle;
+    }
+
+    public int compIdGroupThrottleWindowInMs()
+    {
+        return compIdGroupThrottleWindowInMs;
+    }
+
+    public int compIdGroupThrottleLimitOfMessages()
+    {
+        return compIdGroupThrottleLimitOfMessages;
+    }
+
+    public int engineThrottleWindowInMs()
+    {
+        return engineThrottleWindowInMs;
+    }
+
+    public int engineThrottleLimitOfMessages()
+    {
+        return engineThrottleLimitOfMessages;
+    }
+
+    public Map<String, Integer> messageThrottleWeights()
+    {
+        return messageThrottleWeights;
+    }
+
+    public List<MessageRoute> messageRoutes()
+    {
+        return messageRoutes;
+    }
+
     public long timeIndexReplayFlushIntervalInNs()
     {
         return timeIndexReplayFlushIntervalInNs;
@@ -2030,6 +2401,46 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return indexChecksumEnabled;
     }
 
+    public boolean secondaryIndexMessageTypes()
+    {
+        return secondaryIndexMessageTypes;
+    }
+
+    public int[] secondaryIndexTags()
+    {
+        return secondaryIndexTags;
+    }
+
+    public boolean secondaryIndexEnabled()
+    {
+        return secondaryIndexMessageTypes || secondaryIndexTags.length > 0;
+    }
+
+    public long coldArchiveAfterInMs()
+    {
+        return coldArchiveAfterInMs;
+    }
+
+    public long coldArchiveCheckIntervalInMs()
+    {
+        return coldArchiveCheckIntervalInMs;
+    }
+
+    public int coldArchiveBlockSize()
+    {
+        return coldArchiveBlockSize;
+    }
+
+    public int coldArchiveStream()
+    {
+        return coldArchiveStream;
+    }
+
+    public boolean coldArchiveEnabled()
+    {
+        return coldArchiveAfterInMs != NO_COLD_ARCHIVE && (logInboundMessages() || logOutboundMessages());
+    }
+
     public EngineReproductionConfiguration reproductionConfiguration()
     {
         return reproductionConfiguration;
@@ -2094,6 +2505,14 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
                 sessionBufferSize()));
         }
 
+        if (!tokenBucketMessageThrottle && (compIdGroupThrottleWindowInMs != NO_THROTTLE_WINDOW ||
+            engineThrottleWindowInMs != NO_THROTTLE_WINDOW || !messageThrottleWeights.isEmpty()))
+        {
+            throw new IllegalArgumentException(
+                "Comp id group and engine message throttles and message throttle weights require " +
+                "tokenBucketMessageThrottle(true)");
+        }
+
         if (acceptsFixP() && !logAllMessages())
         {
             throw new IllegalArgumentException("FIXP acceptor is not supported without logging messages");
@@ -22,6 +22,7 @@ import io.aeron.UnavailableImageHandler;
 import io.aeron.archive.client.AeronArchive;
 import io.aeron.logbuffer.BufferClaim;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.IntArrayList;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.*;
 import uk.co.real_logic.artio.FixCounters;
@@ -39,6 +40,7 @@ import uk.co.real_logic.artio.protocol.Streams;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.agrona.concurrent.AgentRunner.startOnThread;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
 import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
 
@@ -50,6 +52,7 @@ public class EngineContext implements AutoCloseable
     private final CompletionPosition outboundLibraryCompletionPosition = new CompletionPosition();
     private final SequenceNumberExtractor sentSequenceNumberExtractor = new SequenceNumberExtractor();
     private final SequenceNumberExtractor recvSequenceNumberExtractor = new SequenceNumberExtractor();
+    private final ColdArchiveCuts coldArchiveCuts = new ColdArchiveCuts();
 
     private final EpochNanoClock clock;
     private final EngineConfiguration configuration;
@@ -74,6 +77,7 @@ public class EngineContext implements AutoCloseable
     private Indexer inboundIndexer;
     private Indexer outboundIndexer;
     private Agent indexingAgent;
+    private AgentRunner coldArchiveTieringRunner;
     private ReplayQuery pruneInboundReplayQuery;
     private ReplayQuery outboundReplayQuery;
     private FramerContext framerContext;
@@ -204,6 +208,25 @@ public class EngineContext implements AutoCloseable
             evictionHandler);
     }
 
+    private SecondaryIndexWriter newSecondaryIndexWriter(
+        final String logFileDir,
+        final int streamId,
+        final RecordingIdLookup recordingIdLookup,
+        final boolean indexChecksumEnabled)
+    {
+        return new SecondaryIndexWriter(
+            logFileDir,
+            streamId,
+            configuration.loggerCacheNumSets(),
+            configuration.loggerCacheSetSize(),
+            configuration.secondaryIndexMessageTypes(),
+            configuration.secondaryIndexTags(),
+            SecondaryIndexWriter.positionBuffer(logFileDir, streamId, configuration.replayPositionBufferSize()),
+            recordingIdLookup,
+            errorHandler,
+            indexChecksumEnabled);
+    }
+
     private ReplayQuery newReplayQuery(final IdleStrategy idleStrategy, final int streamId)
     {
         final String logFileDir = configuration.logFileDir();
@@ -223,7 +246,9 @@ public class EngineContext implements AutoCloseable
             NoOpReplayQueryListener.INSTANCE,
             archiveReplayStream,
             configuration.replayIndexFileRecordCapacity(),
-            configuration.replayIndexSegmentRecordCapacity());
+            configuration.replayIndexSegmentRecordCapacity(),
+            coldArchiveCuts,
+            configuration.replayFragmentLimit());
     }
 
     private Replayer newReplayer(
@@ -259,11 +284,14 @@ public class EngineContext implements AutoCloseable
     {
         ReplayIndex inboundReplayIndex = null;
         ReplayIndex outboundReplayIndex = null;
+        SecondaryIndexWriter inboundSecondaryIndex = null;
+        SecondaryIndexWriter outboundSecondaryIndex = null;
 
         try
         {
             final String logFileDir = configuration.logFileDir();
             final boolean indexChecksumEnabled = configuration.indexChecksumEnabled();
+            final boolean secondaryIndexEnabled = configuration.secondaryIndexEnabled();
 
             final Long2LongHashMap connectionIdToILinkUuid = new Long2LongHashMap(UNK_SESSION);
             final List<Index> inboundIndices = new ArrayList<>();
@@ -279,6 +307,16 @@ public class EngineContext implements AutoCloseable
                     indexChecksumEnabled,
                     inboundEvictionHandler);
                 inboundIndices.add(inboundReplayIndex);
+
+                if (secondaryIndexEnabled)
+                {
+                    inboundSecondaryIndex = newSecondaryIndexWriter(
+                        logFileDir,
+                        configuration.inboundLibraryStream(),
+                        recordingCoordinator.indexerInboundRecordingIdLookup(),
+                        indexChecksumEnabled);
+                    inboundIndices.add(inboundSecondaryIndex);
+                }
             }
             inboundIndices.add(receivedSequenceNumberIndex);
 
@@ -305,6 +343,16 @@ public class EngineContext implements AutoCloseable
                     indexChecksumEnabled,
                     outboundEvictionHandler);
                 outboundIndices.add(outboundReplayIndex);
+
+                if (secondaryIndexEnabled)
+                {
+                    outboundSecondaryIndex = newSecondaryIndexWriter(
+                        logFileDir,
+                        configuration.outboundLibraryStream(),
+                        recordingCoordinator.indexerOutboundRecordingIdLookup(),
+                        indexChecksumEnabled);
+                    outboundIndices.add(outboundSecondaryIndex);
+                }
             }
             outboundIndices.add(sentSequenceNumberIndex);
 
@@ -322,6 +370,8 @@ public class EngineContext implements AutoCloseable
         {
             suppressingClose(inboundReplayIndex, e);
             suppressingClose(outboundReplayIndex, e);
+            suppressingClose(inboundSecondaryIndex, e);
+            suppressingClose(outboundSecondaryIndex, e);
             throw e;
         }
     }
@@ -383,6 +433,56 @@ public class EngineContext implements AutoCloseable
         indexingAgent = new CompositeAgent(agents);
     }
 
+    // Tiering makes blocking archive requests and compresses whole segments, so it has its own thread rather than
+    // sharing one with the indexers and replayer, where it would delay resends.
+    void startColdArchiveTiering()
+    {
+        if (configuration.coldArchiveEnabled())
+        {
+            coldArchiveTieringRunner = new AgentRunner(
+                configuration.monitoringThreadIdleStrategy(), errorHandler, null, newColdArchiveTieringAgent());
+            startOnThread(coldArchiveTieringRunner, configuration.threadFactory());
+        }
+    }
+
+    // Must be called before the archive client is closed as an in progress task stops its replay.
+    void stopColdArchiveTiering()
+    {
+        final AgentRunner coldArchiveTieringRunner = this.coldArchiveTieringRunner;
+        if (coldArchiveTieringRunner != null)
+        {
+            EngineScheduler.awaitRunnerStart(coldArchiveTieringRunner);
+            coldArchiveTieringRunner.close();
+            this.coldArchiveTieringRunner = null;
+        }
+    }
+
+    private ColdArchiveTieringAgent newColdArchiveTieringAgent()
+    {
+        final IntArrayList streamIds = new IntArrayList();
+        if (configuration.logInboundMessages())
+        {
+            streamIds.addInt(configuration.inboundLibraryStream());
+        }
+        if (configuration.logOutboundMessages())
+        {
+            streamIds.addInt(configuration.outboundLibraryStream());
+        }
+
+        return new ColdArchiveTieringAgent(
+            aeronArchive,
+            configuration.logFileDir(),
+            streamIds.toIntArray(),
+            configuration.coldArchiveAfterInMs(),
+            configuration.coldArchiveCheckIntervalInMs(),
+            configuration.coldArchiveBlockSize(),
+            configuration.coldArchiveStream(),
+            clock,
+            errorHandler,
+            coldArchiveCuts,
+            configuration.agentNamePrefix());
+    }
+
     public void catchupIndices()
     {
         // when inbound logging disabled
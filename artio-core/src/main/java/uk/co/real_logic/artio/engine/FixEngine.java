@@ -403,6 +403,7 @@ public final class FixEngine extends GatewayProcess
             monitoringCompositeAgent,
             conductorAgent(),
             recordingCoordinator);
+        engineContext.startColdArchiveTiering();
 
         launched = true;
 
@@ -439,7 +440,13 @@ public final class FixEngine extends GatewayProcess
 
                 try
                 {
-                    closeAll(scheduler, engineContext, configuration, super::close, duplicateEngineChecker::finalClose);
+                    closeAll(
+                        this::stopColdArchiveTiering,
+                        scheduler,
+                        engineContext,
+                        configuration,
+                        super::close,
+                        duplicateEngineChecker::finalClose);
                 }
                 finally
                 {
@@ -449,6 +456,14 @@ public final class FixEngine extends GatewayProcess
         }
     }
 
+    private void stopColdArchiveTiering()
+    {
+        if (engineContext != null)
+        {
+            engineContext.stopColdArchiveTiering();
+        }
+    }
+
     /**
      * Find out whether the {@link #close()} operation has been called.
      *
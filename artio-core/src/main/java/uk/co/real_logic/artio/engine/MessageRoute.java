@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+/**
+ * A rule that routes received application messages to a library, configured with
+ * {@link EngineConfiguration#messageRoute(String, int)} or
+ * {@link EngineConfiguration#messageRoute(String, int, String, int)}.
+ */
+public final class MessageRoute
+{
+    public static final int ANY_TAG = 0;
+
+    private final String messageType;
+    private final int tag;
+    private final String value;
+    private final int libraryId;
+
+    MessageRoute(final String messageType, final int tag, final String value, final int libraryId)
+    {
+        this.messageType = messageType;
+        this.tag = tag;
+        this.value = value;
+        this.libraryId = libraryId;
+    }
+
+    /**
+     * Gets the FIX MsgType that this route applies to.
+     *
+     * @return the FIX MsgType that this route applies to, or null if it applies to every application message.
+     */
+    public String messageType()
+    {
+        return messageType;
+    }
+
+    /**
+     * Gets the tag whose value is matched by this route.
+     *
+     * @return the tag whose value is matched by this route, or {@link #ANY_TAG} if it only matches the message type.
+     */
+    public int tag()
+    {
+        return tag;
+    }
+
+    public String value()
+    {
+        return value;
+    }
+
+    public int libraryId()
+    {
+        return libraryId;
+    }
+
+    public String toString()
+    {
+        return "MessageRoute{" +
+            "messageType='" + messageType + '\'' +
+            ", tag=" + tag +
+            ", value='" + value + '\'' +
+            ", libraryId=" + libraryId +
+            '}';
+    }
+}
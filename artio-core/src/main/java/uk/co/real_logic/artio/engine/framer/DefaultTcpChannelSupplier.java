@@ -126,6 +126,17 @@ public class DefaultTcpChannelSupplier extends TcpChannelSupplier
         if (hasBindAddress && listeningChannel == null)
         {
             listeningChannel = ServerSocketChannel.open();
+            if (configuration.reusePort())
+            {
+                if (!listeningChannel.supportedOptions().contains(SO_REUSEPORT))
+                {
+                    listeningChannel.close();
+                    listeningChannel = null;
+                    throw new IllegalStateException("SO_REUSEPORT isn't supported on this platform");
+                }
+
+                listeningChannel.setOption(SO_REUSEPORT, true);
+            }
             listeningChannel.bind(configuration.bindAddress()).configureBlocking(false);
             listeningChannel.register(selector, SelectionKey.OP_ACCEPT);
         }
@@ -15,6 +15,7 @@
  */
 package uk.co.real_logic.artio.engine.framer;
 
+import org.agrona.CloseHelper;
 import org.agrona.ErrorHandler;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.AtomicBuffer;
@@ -109,6 +110,7 @@ public class FixContexts implements SessionContexts
 
     private int filePosition;
     private long counter = LOWEST_VALID_SESSION_ID;
+    private SharedSessionOwnership sharedSessionOwnership;
 
     public FixContexts(
         final MappedFile mappedFile,
@@ -284,15 +286,41 @@ public class FixContexts implements SessionContexts
     public SessionContext onLogon(final CompositeKey compositeKey, final FixDictionary fixDictionary)
     {
         final SessionContext sessionContext = newSessionContext(compositeKey, fixDictionary);
+        final long sessionId = sessionContext.sessionId();
 
-        if (!currentlyAuthenticatedSessionIds.add(sessionContext.sessionId()))
+        if (!currentlyAuthenticatedSessionIds.add(sessionId))
         {
             return DUPLICATE_SESSION;
         }
 
+        final SharedSessionOwnership sharedSessionOwnership = this.sharedSessionOwnership;
+        if (sharedSessionOwnership != null && !sharedSessionOwnership.tryAcquire(sessionId, compositeKey))
+        {
+            currentlyAuthenticatedSessionIds.remove(sessionId);
+            return DUPLICATE_SESSION;
+        }
+
         return sessionContext;
     }
 
+    /**
+     * Also treat sessions that are logged on to other engines sharing the same ownership directory as duplicates.
+     *
+     * @param sharedSessionOwnership the session locks shared with other engines, or null to only check this engine.
+     */
+    void sharedSessionOwnership(final SharedSessionOwnership sharedSessionOwnership)
+    {
+        this.sharedSessionOwnership = sharedSessionOwnership;
+    }
+
+    /**
+     * Release the shared locks of any sessions that are still logged on when the engine closes.
+     */
+    public void close()
+    {
+        CloseHelper.close(errorHandler, sharedSessionOwnership);
+    }
+
     SessionContext newSessionContext(final CompositeKey compositeKey, final FixDictionary fixDictionary)
     {
         final SessionContext context = compositeToContext.computeIfAbsent(
@@ -447,7 +475,10 @@ public class FixContexts implements SessionContexts
 
     public void onDisconnect(final long sessionId)
     {
-        currentlyAuthenticatedSessionIds.remove(sessionId);
+        if (currentlyAuthenticatedSessionIds.remove(sessionId) && sharedSessionOwnership != null)
+        {
+            sharedSessionOwnership.release(sessionId);
+        }
     }
 
     public void reset(final File backupLocation)
@@ -38,6 +38,8 @@ class FixEndPointFactory
     private final FixGatewaySessions gatewaySessions;
     private final SenderSequenceNumbers senderSequenceNumbers;
     private final MessageTimingHandler messageTimingHandler;
+    private final TokenBucketThrottle tokenBucketThrottle;
+    private final MessageRouter messageRouter;
 
     FixEndPointFactory(
         final EngineConfiguration configuration,
@@ -59,6 +61,13 @@ class FixEndPointFactory
         this.gatewaySessions = gatewaySessions;
         this.senderSequenceNumbers = senderSequenceNumbers;
         this.messageTimingHandler = messageTimingHandler;
+        tokenBucketThrottle = TokenBucketThrottle.of(configuration);
+        messageRouter = MessageRouter.of(configuration);
+    }
+
+    TokenBucketThrottle tokenBucketThrottle()
+    {
+        return tokenBucketThrottle;
     }
 
     FixReceiverEndPoint receiverEndPoint(
@@ -69,7 +78,7 @@ class FixEndPointFactory
         final int libraryId,
         final Framer framer)
     {
-        return new FixReceiverEndPoint(
+        final FixReceiverEndPoint receiverEndPoint = new FixReceiverEndPoint(
             channel,
             configuration.receiverBufferSize(),
             inboundLibraryPublication,
@@ -88,6 +97,11 @@ class FixEndPointFactory
             configuration.throttleWindowInMs(),
             configuration.throttleLimitOfMessages(),
             configuration.isReproductionEnabled());
+        receiverEndPoint.tokenBucketThrottle(tokenBucketThrottle);
+        receiverEndPoint.messageRouter(messageRouter);
+        receiverEndPoint.sessionStatistics(
+            SessionStatistics.of(configuration, fixCounters, connectionId, channel.remoteAddr()));
+        return receiverEndPoint;
     }
 
     FixSenderEndPoint senderEndPoint(
@@ -99,7 +113,7 @@ class FixEndPointFactory
     {
         final String remoteAddress = channel.remoteAddr();
         final AtomicCounter bytesInBuffer = fixCounters.bytesInBuffer(connectionId, remoteAddress);
-        return new FixSenderEndPoint(
+        final FixSenderEndPoint senderEndPoint = new FixSenderEndPoint(
             connectionId,
             libraryId,
             inboundLibraryPublication.dataPublication(),
@@ -116,5 +130,7 @@ class FixEndPointFactory
             messageTimingHandler,
             receiverEndPoint,
             senderFormatters);
+        senderEndPoint.sessionStatistics(receiverEndPoint.sessionStatistics());
+        return senderEndPoint;
     }
 }
@@ -45,6 +45,7 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.agrona.BitUtil.SIZE_OF_CHAR;
 import static uk.co.real_logic.artio.LogTag.*;
 import static uk.co.real_logic.artio.dictionary.SessionConstants.*;
+import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
 import static uk.co.real_logic.artio.messages.MessageStatus.*;
 import static uk.co.real_logic.artio.session.Session.UNKNOWN;
 import static uk.co.real_logic.artio.util.AsciiBuffer.SEPARATOR;
@@ -173,6 +174,13 @@ class FixReceiverEndPoint extends ReceiverEndPoint
     private long lastReadTimestampInNs;
     private String address;
     private boolean requiresProxyCheck = true;
+    private MessageRouter messageRouter;
+    private SessionStatistics sessionStatistics;
+
+    // Checksum of the bytes received so far of a partially received message at the start of the buffer, so that
+    // large messages that are read over many polls don't get checksummed from scratch when the final bytes arrive.
+    private int partialMessageChecksumTotal;
+    private int partialMessageChecksummedLength;
 
     FixReceiverEndPoint(
         final TcpChannel channel,
@@ -221,6 +229,12 @@ class FixReceiverEndPoint extends ReceiverEndPoint
             if (dataRead > 0)
             {
                 DebugLogger.log(FIX_MESSAGE_TCP, "Read     ", buffer, usedBufferData, dataRead);
+
+                final SessionStatistics sessionStatistics = this.sessionStatistics;
+                if (sessionStatistics != null)
+                {
+                    sessionStatistics.onBytesRead(dataRead);
+                }
             }
             usedBufferData += dataRead;
         }
@@ -433,6 +447,7 @@ class FixReceiverEndPoint extends ReceiverEndPoint
                 final int endOfChecksumTag = startOfChecksumTag + MIN_CHECKSUM_SIZE;
                 if (endOfChecksumTag >= usedBufferData)
                 {
+                    checksumPartialMessage(offset, startOfChecksumTag);
                     if (isMessageOversized(offset))
                     {
                         return saveOversizedMessageAndDisconnect(offset, readTimestampInNs);
@@ -454,6 +469,7 @@ class FixReceiverEndPoint extends ReceiverEndPoint
                 final int endOfMessage = scanEndOfMessage(startOfChecksumValue);
                 if (endOfMessage == UNKNOWN_INDEX)
                 {
+                    checksumPartialMessage(offset, startOfChecksumTag);
                     if (isMessageOversized(offset))
                     {
                         return saveOversizedMessageAndDisconnect(offset, readTimestampInNs);
@@ -475,6 +491,11 @@ class FixReceiverEndPoint extends ReceiverEndPoint
                 else
                 {
                     final boolean firstMessage = messagesRead.incrementOrdered() == 0;
+                    final SessionStatistics sessionStatistics = this.sessionStatistics;
+                    if (sessionStatistics != null)
+                    {
+                        sessionStatistics.onMessageReceived(readTimestampInNs);
+                    }
                     if (requiresAuthentication())
                     {
                         startAuthenticationFlow(offset, length, messageType);
@@ -732,10 +753,57 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         final int startOfChecksumTag)
     {
         final int expectedChecksum = buffer.getInt(startOfChecksumValue - 1, endOfMessage);
-        final int computedChecksum = buffer.computeChecksum(offset, startOfChecksumTag + 1);
+        final int endOfChecksummedData = startOfChecksumTag + 1;
+        final int computedChecksum;
+        final int partialMessageChecksummedLength = this.partialMessageChecksummedLength;
+        if (offset == 0 && partialMessageChecksummedLength > 0)
+        {
+            computedChecksum = (partialMessageChecksumTotal +
+                byteTotal(partialMessageChecksummedLength, endOfChecksummedData)) % 256;
+            resetPartialMessageChecksum();
+        }
+        else
+        {
+            computedChecksum = buffer.computeChecksum(offset, endOfChecksummedData);
+        }
+
         return expectedChecksum == computedChecksum;
     }
 
+    // Only messages that have already been moved to the start of the buffer are checksummed as they arrive, as
+    // moving data to the start of the buffer invalidates the partial checksum.
+    private void checksumPartialMessage(final int offset, final int startOfChecksumTag)
+    {
+        if (offset == 0)
+        {
+            final int endOfChecksummedData = Math.min(usedBufferData, startOfChecksumTag + 1);
+            final int partialMessageChecksummedLength = this.partialMessageChecksummedLength;
+            if (endOfChecksummedData > partialMessageChecksummedLength)
+            {
+                partialMessageChecksumTotal += byteTotal(partialMessageChecksummedLength, endOfChecksummedData);
+                this.partialMessageChecksummedLength = endOfChecksummedData;
+            }
+        }
+    }
+
+    private int byteTotal(final int startInclusive, final int endExclusive)
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        int total = 0;
+        for (int index = startInclusive; index < endExclusive; index++)
+        {
+            total += buffer.getByte(index);
+        }
+
+        return total;
+    }
+
+    private void resetPartialMessageChecksum()
+    {
+        partialMessageChecksumTotal = 0;
+        partialMessageChecksummedLength = 0;
+    }
+
     private int scanEndOfMessage(final int startOfChecksumValue)
     {
         return buffer.scan(startOfChecksumValue, usedBufferData, START_OF_HEADER);
@@ -838,7 +906,7 @@ class FixReceiverEndPoint extends ReceiverEndPoint
     {
         DirectBuffer buffer = this.buffer;
 
-        if (shouldThrottle(readTimestamp))
+        if (shouldThrottle(readTimestamp, messageType))
         {
             return throttleMessage(messageOffset, messageType, messageLength, buffer);
         }
@@ -867,7 +935,7 @@ class FixReceiverEndPoint extends ReceiverEndPoint
                 buffer,
                 offset,
                 length,
-                libraryId,
+                routedLibraryId(messageType, buffer, offset, length),
                 messageType,
                 sessionId,
                 sequenceIndex,
@@ -889,6 +957,22 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         }
     }
 
+    // Only messages of engine owned sessions are routed, library owned sessions need every message to validate
+    // their sequence numbers.
+    private int routedLibraryId(
+        final long messageType, final DirectBuffer buffer, final int offset, final int length)
+    {
+        final int libraryId = this.libraryId;
+        final MessageRouter messageRouter = this.messageRouter;
+        if (messageRouter == null || libraryId != ENGINE_LIBRARY_ID)
+        {
+            return libraryId;
+        }
+
+        final int routedLibraryId = messageRouter.route(messageType, buffer, offset, length);
+        return routedLibraryId == MessageRouter.NO_ROUTE ? libraryId : routedLibraryId;
+    }
+
     private boolean throttleMessage(
         final int messageOffset, final long messageType, final int messageLength, final DirectBuffer buffer)
     {
@@ -911,10 +995,18 @@ class FixReceiverEndPoint extends ReceiverEndPoint
 
         if (position > 0)
         {
-            return gatewaySession.onThrottleNotification(
+            final boolean rejected = gatewaySession.onThrottleNotification(
                 messageType,
                 refSeqNum,
                 refIdBuffer, refIdOffset, refIdLength);
+
+            final SessionStatistics sessionStatistics = this.sessionStatistics;
+            if (rejected && sessionStatistics != null)
+            {
+                sessionStatistics.onThrottleReject();
+            }
+
+            return rejected;
         }
         else
         {
@@ -1045,8 +1137,12 @@ class FixReceiverEndPoint extends ReceiverEndPoint
 
     private void moveRemainingDataToBufferStart(final int offset)
     {
-        usedBufferData -= offset;
-        buffer.putBytes(0, buffer, offset, usedBufferData);
+        if (offset != 0)
+        {
+            usedBufferData -= offset;
+            buffer.putBytes(0, buffer, offset, usedBufferData);
+            resetPartialMessageChecksum();
+        }
         // position set to ensure that back pressure is applied to TCP when read(byteBuffer) called.
         ByteBufferUtil.position(byteBuffer, usedBufferData);
     }
@@ -1113,11 +1209,41 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         gatewaySessions.onDisconnect(sessionId, connectionId, reason);
     }
 
+    String throttleCompId()
+    {
+        final FixGatewaySession gatewaySession = this.gatewaySession;
+        if (gatewaySession != null)
+        {
+            final CompositeKey sessionKey = gatewaySession.sessionKey();
+            if (sessionKey != null)
+            {
+                return sessionKey.remoteCompId();
+            }
+        }
+
+        return null;
+    }
+
     void gatewaySession(final FixGatewaySession gatewaySession)
     {
         this.gatewaySession = gatewaySession;
     }
 
+    void messageRouter(final MessageRouter messageRouter)
+    {
+        this.messageRouter = messageRouter;
+    }
+
+    void sessionStatistics(final SessionStatistics sessionStatistics)
+    {
+        this.sessionStatistics = sessionStatistics;
+    }
+
+    SessionStatistics sessionStatistics()
+    {
+        return sessionStatistics;
+    }
+
     void pause()
     {
         isPaused = true;
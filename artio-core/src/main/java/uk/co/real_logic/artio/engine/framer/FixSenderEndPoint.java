@@ -17,6 +17,7 @@ package uk.co.real_logic.artio.engine.framer;
 
 import io.aeron.ExclusivePublication;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.ExpandableDirectByteBuffer;
@@ -107,6 +108,7 @@ class FixSenderEndPoint extends SenderEndPoint
     private int reattemptBytesWritten = NO_REATTEMPT;
 
     private boolean disconnected;
+    private SessionStatistics sessionStatistics;
 
     FixSenderEndPoint(
         final long connectionId,
@@ -141,6 +143,11 @@ class FixSenderEndPoint extends SenderEndPoint
         sendingTimeoutTimeInMs = timeInMs + slowConsumerTimeoutInMs;
     }
 
+    void sessionStatistics(final SessionStatistics sessionStatistics)
+    {
+        this.sessionStatistics = sessionStatistics;
+    }
+
     void onOutboundMessage(
         final int libraryId,
         final DirectBuffer directBuffer,
@@ -285,6 +292,8 @@ class FixSenderEndPoint extends SenderEndPoint
                         seqNum, connectionId, directBuffer, metaDataOffset, metaDataLength);
                 }
 
+                onMessageSent();
+
                 if (reattemptBytesWritten != NO_REATTEMPT)
                 {
                     // Completed write of a back-pressured message
@@ -336,6 +345,12 @@ class FixSenderEndPoint extends SenderEndPoint
         final int written = channel.write(buffer, seqNum, replay);
         DebugLogger.log(FIX_MESSAGE_TCP, "Written  ", directBuffer, offset + reattemptBytesWritten, written);
 
+        final SessionStatistics sessionStatistics = this.sessionStatistics;
+        if (sessionStatistics != null && written > 0)
+        {
+            sessionStatistics.onBytesWritten(written);
+        }
+
         buffer.limit(startLimit).position(startPosition);
 
         return written;
@@ -548,11 +563,22 @@ class FixSenderEndPoint extends SenderEndPoint
                 sequenceNumber, connectionId, buffer, metaDataOffset, metaDataLength);
         }
 
+        onMessageSent();
+
         this.reattemptBytesWritten = NO_REATTEMPT;
 
         return offset + ENQ_MESSAGE_BLOCK_LEN + totalWritten + metaDataLength;
     }
 
+    private void onMessageSent()
+    {
+        final SessionStatistics sessionStatistics = this.sessionStatistics;
+        if (sessionStatistics != null)
+        {
+            sessionStatistics.onMessageSent();
+        }
+    }
+
     public boolean reattempt()
     {
         return reattempt(replaying);
@@ -615,6 +641,7 @@ class FixSenderEndPoint extends SenderEndPoint
     {
         senderSequenceNumber.close();
         invalidLibraryAttempts.close();
+        CloseHelper.close(sessionStatistics);
         super.close();
     }
 
@@ -642,6 +669,12 @@ class FixSenderEndPoint extends SenderEndPoint
     void sessionId(final long sessionId)
     {
         this.sessionId = sessionId;
+
+        final SessionStatistics sessionStatistics = this.sessionStatistics;
+        if (sessionStatistics != null)
+        {
+            sessionStatistics.onSessionId(sessionId);
+        }
     }
 
     long sessionId()
@@ -653,6 +686,12 @@ class FixSenderEndPoint extends SenderEndPoint
     {
         reattempt();
 
+        final SessionStatistics sessionStatistics = this.sessionStatistics;
+        if (sessionStatistics != null)
+        {
+            sessionStatistics.onSlowPoll();
+        }
+
         if (isSlowConsumer() && timeInMs > sendingTimeoutTimeInMs)
         {
             if (IS_SLOW_CONSUMER_LOG_TAG_ENABLED)
@@ -721,6 +760,12 @@ class FixSenderEndPoint extends SenderEndPoint
             DebugLogger.log(LogTag.REPLAY, formatters.validResendRequest.clear()
                 .with(connectionId).with(correlationId));
         }
+
+        final SessionStatistics sessionStatistics = this.sessionStatistics;
+        if (sessionStatistics != null)
+        {
+            sessionStatistics.onResendRequestServed();
+        }
     }
 
     // Receive from replayer
@@ -831,6 +876,12 @@ class FixSenderEndPoint extends SenderEndPoint
                 .with(hasBecomeSlow));
         }
 
+        final SessionStatistics sessionStatistics = this.sessionStatistics;
+        if (sessionStatistics != null)
+        {
+            sessionStatistics.onSlowStatus(hasBecomeSlow);
+        }
+
         super.sendSlowStatus(hasBecomeSlow);
     }
 }
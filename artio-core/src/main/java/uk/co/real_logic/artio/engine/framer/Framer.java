@@ -39,6 +39,7 @@ import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import org.agrona.DeadlineTimerWheel;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.ExpandableArrayBuffer;
 import org.agrona.collections.Int2ObjectHashMap;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.collections.Long2LongHashMap.KeyIterator;
@@ -131,6 +132,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final Long2LongHashMap resendSlowStatus = new Long2LongHashMap(-1);
     private final Long2LongHashMap resendNotSlowStatus = new Long2LongHashMap(-1);
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
+    private final ExpandableArrayBuffer readMetaDataBuffer = new ExpandableArrayBuffer();
 
     private final ReproductionPoller reproductionPoller;
     private final TcpChannelSupplier channelSupplier;
@@ -156,6 +158,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final EngineConfiguration configuration;
     private final AdminReplyPublication adminReplyPublication;
     private final FixEndPointFactory endPointFactory;
+    private final TokenBucketThrottle tokenBucketThrottle;
     private final Subscription librarySubscription;
     private final Image replayImage;
     private final GatewayPublication inboundPublication;
@@ -190,6 +193,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final long replyTimeoutInNs;
     private final DeadlineTimerWheel timerWheel;
     private final TimerEventHandler timerEventHandler;
+    private final AdaptiveIdleStrategy adaptiveIdleStrategy;
 
     private long nextConnectionId = (long)(Math.random() * Long.MAX_VALUE);
     private FixPProtocol fixPProtocol;
@@ -248,6 +252,11 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.adminEngineSubscription = adminEngineSubscription;
         this.adminReplyPublication = adminReplyPublication;
         this.endPointFactory = endPointFactory;
+        final IdleStrategy framerIdleStrategy = configuration.framerIdleStrategy();
+        adaptiveIdleStrategy = framerIdleStrategy instanceof AdaptiveIdleStrategy ?
+            (AdaptiveIdleStrategy)framerIdleStrategy : null;
+        // FIX and FIXP sessions share the engine and comp id group limits.
+        tokenBucketThrottle = endPointFactory.tokenBucketThrottle();
         this.librarySubscription = librarySubscription;
         this.replayImage = replayImage;
         this.gatewaySessions = gatewaySessions;
@@ -414,10 +423,36 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
     private int checkDutyCycle(final long timeInMs)
     {
-        return removeIf(replies, ResetSequenceNumberCommand::poll) +
+        final int workCount = removeIf(replies, ResetSequenceNumberCommand::poll) +
             resendSaveNotifications(resendSlowStatus, SlowStatus.SLOW) +
             resendSaveNotifications(resendNotSlowStatus, SlowStatus.NOT_SLOW) +
             timerWheel.poll(timeInMs, timerEventHandler, 10);
+
+        final AdaptiveIdleStrategy adaptiveIdleStrategy = this.adaptiveIdleStrategy;
+        if (adaptiveIdleStrategy != null)
+        {
+            adaptiveIdleStrategy.nextDeadlineIn(timeUntilNextTimerInNs(timeInMs));
+        }
+
+        return workCount;
+    }
+
+    private long timeUntilNextTimerInNs(final long timeInMs)
+    {
+        final DeadlineTimerWheel timerWheel = this.timerWheel;
+        if (timerWheel.timerCount() == 0)
+        {
+            return Long.MAX_VALUE;
+        }
+
+        // Timers expire on tick boundaries, so the next tick is the earliest that a timer can be due
+        long nextTickTimeInMs = timerWheel.currentTickTime();
+        if (nextTickTimeInMs <= timeInMs)
+        {
+            nextTickTimeInMs += timerWheel.tickResolution();
+        }
+
+        return MILLISECONDS.toNanos(Math.max(0, nextTickTimeInMs - timeInMs));
     }
 
     private int resendSaveNotifications(final Long2LongHashMap resend, final SlowStatus status)
@@ -666,6 +701,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             ENGINE_LIBRARY_ID, configuration.epochNanoClock(), connectionId, fixPProtocol,
             configuration.throttleWindowInMs(), configuration.throttleLimitOfMessages(),
             fixPRejectRefIdExtractor);
+        receiverEndPoint.tokenBucketThrottle(tokenBucketThrottle);
         receiverEndPoints.add(receiverEndPoint);
 
         final FixPSenderEndPoint senderEndPoint = FixPSenderEndPoint.of(
@@ -845,6 +881,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                         configuration.epochNanoClock(), correlationId, fixPContexts, fixPProtocol,
                         configuration.throttleWindowInMs(), configuration.throttleLimitOfMessages(),
                         fixPRejectRefIdExtractor);
+                    receiverEndPoint.tokenBucketThrottle(tokenBucketThrottle);
                     receiverEndPoints.add(receiverEndPoint);
                     fixPSenderEndPoints.add(FixPSenderEndPoint.of(
                         connectionId, channel, errorHandler, inboundPublication.dataPublication(),
@@ -3278,16 +3315,24 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final long sessionId,
         final long correlationId)
     {
-        final DirectBuffer metaDataBuffer = new UnsafeBuffer();
-        final MetaDataStatus status = sentSequenceNumberIndex.readMetaData(sessionId, metaDataBuffer);
+        final ExpandableArrayBuffer metaDataBuffer = readMetaDataBuffer;
+        final MetaDataStatus status = sentSequenceNumberIndex.readMetaData(sessionId, metaDataBuffer, 0);
+        final int metaDataLength = sentSequenceNumberIndex.metaDataLength();
 
-        schedule(() -> inboundPublication.saveReadMetaDataReply(
-            libraryId,
-            correlationId,
-            status,
-            metaDataBuffer,
-            0,
-            metaDataBuffer.capacity()));
+        if (inboundPublication.saveReadMetaDataReply(
+            libraryId, correlationId, status, metaDataBuffer, 0, metaDataLength) < 0)
+        {
+            // Back pressured, so take a copy as the buffer is reused by the next read.
+            final UnsafeBuffer metaDataCopy = new UnsafeBuffer(new byte[metaDataLength]);
+            metaDataCopy.putBytes(0, metaDataBuffer, 0, metaDataLength);
+            schedule(() -> inboundPublication.saveReadMetaDataReply(
+                libraryId,
+                correlationId,
+                status,
+                metaDataCopy,
+                0,
+                metaDataLength));
+        }
 
         return CONTINUE;
     }
@@ -3303,7 +3348,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             fixPSenderEndPoints,
             channelSupplier,
             sentSequenceNumberIndex,
-            receivedSequenceNumberIndex);
+            receivedSequenceNumberIndex,
+            fixContexts::close);
     }
 
     private void quiesce()
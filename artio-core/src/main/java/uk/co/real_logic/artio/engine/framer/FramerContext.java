@@ -82,6 +82,7 @@ public class FramerContext
         this.fixContexts = new FixContexts(
             configuration.sessionIdBuffer(), sessionIdStrategy, configuration.initialSequenceIndex(), errorHandler,
             configuration.isReproductionEnabled());
+        fixContexts.sharedSessionOwnership(SharedSessionOwnership.of(configuration, errorHandler));
         this.fixPContexts = new FixPContexts(
             configuration.fixPIdBuffer(),
             errorHandler,
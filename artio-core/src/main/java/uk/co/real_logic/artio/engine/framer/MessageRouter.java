@@ -0,0 +1,248 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.Long2ObjectHashMap;
+import uk.co.real_logic.artio.ValidationError;
+import uk.co.real_logic.artio.dictionary.LongDictionary;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.MessageRoute;
+import uk.co.real_logic.artio.fields.AsciiFieldFlyweight;
+import uk.co.real_logic.artio.otf.MessageControl;
+import uk.co.real_logic.artio.otf.OtfMessageAcceptor;
+import uk.co.real_logic.artio.otf.OtfParser;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.*;
+import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
+import static uk.co.real_logic.artio.otf.AbstractOtfParser.MAX_STOP_AFTER_TAGS;
+import static uk.co.real_logic.artio.util.MessageTypeEncoding.packMessageType;
+
+/**
+ * Engine wide routes of received application messages to libraries, shared by the receiver end points on the
+ * framer thread.
+ *
+ * Routes are grouped by message type, so a message only has its fields scanned if there's a tag value route for its
+ * type. The scan stops as soon as every tag that a route could match on has been seen.
+ */
+final class MessageRouter
+{
+    static final int NO_ROUTE = ENGINE_LIBRARY_ID;
+
+    private final Long2ObjectHashMap<Routes> messageTypeToRoutes = new Long2ObjectHashMap<>();
+    private final Routes anyMessageTypeRoutes;
+
+    static MessageRouter of(final EngineConfiguration configuration)
+    {
+        final List<MessageRoute> messageRoutes = configuration.messageRoutes();
+        return messageRoutes.isEmpty() ? null : new MessageRouter(messageRoutes);
+    }
+
+    MessageRouter(final List<MessageRoute> messageRoutes)
+    {
+        boolean hasAnyMessageTypeRoutes = false;
+        for (final MessageRoute route : messageRoutes)
+        {
+            final String messageType = route.messageType();
+            if (messageType == null)
+            {
+                hasAnyMessageTypeRoutes = true;
+            }
+            else
+            {
+                messageTypeToRoutes.computeIfAbsent(
+                    packMessageType(messageType), ignore -> new Routes(messageRoutes, messageType));
+            }
+        }
+        anyMessageTypeRoutes = hasAnyMessageTypeRoutes ? new Routes(messageRoutes, null) : null;
+    }
+
+    /**
+     * Find the library that a received message should be routed to.
+     *
+     * @param messageType the packed message type of the message.
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the message within the buffer.
+     * @param length the length of the message.
+     * @return the id of the library to route the message to, or {@link #NO_ROUTE} if it isn't routed.
+     */
+    int route(final long messageType, final DirectBuffer buffer, final int offset, final int length)
+    {
+        Routes routes = messageTypeToRoutes.get(messageType);
+        if (routes == null)
+        {
+            routes = anyMessageTypeRoutes;
+            if (routes == null || isAdminMessage(messageType))
+            {
+                return NO_ROUTE;
+            }
+        }
+
+        return routes.route(buffer, offset, length);
+    }
+
+    /**
+     * The routes that apply to a single message type: the tag value routes, in the order that they were configured,
+     * and the library that messages go to if none of them match.
+     */
+    static final class Routes implements OtfMessageAcceptor
+    {
+        private final int[] tags;
+        private final byte[][] values;
+        private final int[] libraryIds;
+        private final int messageTypeLibraryId;
+        private final OtfParser parser = new OtfParser(this, new LongDictionary());
+
+        private int matchedIndex;
+
+        Routes(final List<MessageRoute> messageRoutes, final String messageType)
+        {
+            final List<MessageRoute> tagRoutes = new ArrayList<>();
+            final IntArrayList distinctTags = new IntArrayList();
+            int messageTypeLibraryId = NO_ROUTE;
+            for (final MessageRoute route : messageRoutes)
+            {
+                final String routeMessageType = route.messageType();
+                if (routeMessageType != null && !routeMessageType.equals(messageType))
+                {
+                    continue;
+                }
+
+                final int tag = route.tag();
+                if (tag == MessageRoute.ANY_TAG)
+                {
+                    if (messageTypeLibraryId == NO_ROUTE)
+                    {
+                        messageTypeLibraryId = route.libraryId();
+                    }
+                }
+                else
+                {
+                    tagRoutes.add(route);
+                    if (!distinctTags.containsInt(tag))
+                    {
+                        distinctTags.addInt(tag);
+                    }
+                }
+            }
+
+            final int size = tagRoutes.size();
+            tags = new int[size];
+            values = new byte[size][];
+            libraryIds = new int[size];
+            for (int i = 0; i < size; i++)
+            {
+                final MessageRoute route = tagRoutes.get(i);
+                tags[i] = route.tag();
+                values[i] = route.value().getBytes(US_ASCII);
+                libraryIds[i] = route.libraryId();
+            }
+            this.messageTypeLibraryId = messageTypeLibraryId;
+
+            if (distinctTags.size() <= MAX_STOP_AFTER_TAGS)
+            {
+                parser.stopAfterTags(distinctTags.toIntArray());
+            }
+        }
+
+        int route(final DirectBuffer buffer, final int offset, final int length)
+        {
+            final int[] tags = this.tags;
+            if (tags.length == 0)
+            {
+                return messageTypeLibraryId;
+            }
+
+            matchedIndex = tags.length;
+            parser.onMessage(buffer, offset, length);
+            final int matchedIndex = this.matchedIndex;
+            return matchedIndex < tags.length ? libraryIds[matchedIndex] : messageTypeLibraryId;
+        }
+
+        public MessageControl onField(final int tag, final AsciiBuffer buffer, final int offset, final int length)
+        {
+            final int[] tags = this.tags;
+            final int matchedIndex = this.matchedIndex;
+            for (int i = 0; i < matchedIndex; i++)
+            {
+                if (tags[i] == tag && valueEquals(buffer, offset, length, values[i]))
+                {
+                    this.matchedIndex = i;
+                    // No earlier route left that could match
+                    return i == 0 ? MessageControl.STOP : MessageControl.CONTINUE;
+                }
+            }
+
+            return MessageControl.CONTINUE;
+        }
+
+        private static boolean valueEquals(
+            final AsciiBuffer buffer, final int offset, final int length, final byte[] expected)
+        {
+            if (length != expected.length)
+            {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++)
+            {
+                if (buffer.getByte(offset + i) != expected[i])
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        public MessageControl onNext()
+        {
+            return MessageControl.CONTINUE;
+        }
+
+        public MessageControl onComplete()
+        {
+            return MessageControl.CONTINUE;
+        }
+
+        public MessageControl onGroupHeader(final int tag, final int numInGroup)
+        {
+            return MessageControl.CONTINUE;
+        }
+
+        public MessageControl onGroupBegin(final int tag, final int numInGroup, final int index)
+        {
+            return MessageControl.CONTINUE;
+        }
+
+        public MessageControl onGroupEnd(final int tag, final int numInGroup, final int index)
+        {
+            return MessageControl.CONTINUE;
+        }
+
+        public boolean onError(
+            final ValidationError error, final long messageType, final int tagNumber, final AsciiFieldFlyweight value)
+        {
+            return false;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import java.util.Objects;
 
 import static java.nio.channels.SelectionKey.OP_READ;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_LONG;
 import static uk.co.real_logic.artio.messages.DisconnectReason.*;
@@ -37,6 +38,8 @@ public abstract class ReceiverEndPoint
 {
     protected static final int SOCKET_DISCONNECTED = -1;
 
+    private static final long UNKNOWN_MESSAGE_TYPE = 0;
+
     protected final GatewayPublication publication;
     protected final TcpChannel channel;
     protected final long connectionId;
@@ -57,6 +60,11 @@ public abstract class ReceiverEndPoint
     private int lastMessageTimestampsInNsMask;
     private int throttlePosition;
 
+    private TokenBucketThrottle tokenBucketThrottle;
+    private TokenBucket sessionTokenBucket;
+    private TokenBucket compIdGroupTokenBucket;
+    private String compIdGroupCompId;
+
     public ReceiverEndPoint(
         final GatewayPublication publication,
         final TcpChannel channel,
@@ -83,8 +91,34 @@ public abstract class ReceiverEndPoint
         configureThrottle(throttleWindowInMs, throttleLimitOfMessages);
     }
 
+    void tokenBucketThrottle(final TokenBucketThrottle tokenBucketThrottle)
+    {
+        this.tokenBucketThrottle = tokenBucketThrottle;
+        if (tokenBucketThrottle != null && throttleWindowInNs != MISSING_LONG)
+        {
+            sessionTokenBucket = new TokenBucket(
+                (int)NANOSECONDS.toMillis(throttleWindowInNs), throttleLimitOfMessages);
+        }
+    }
+
     void configureThrottle(final int throttleWindowInMs, final int throttleLimitOfMessages)
     {
+        if (tokenBucketThrottle != null)
+        {
+            if (throttleWindowInMs == MISSING_INT)
+            {
+                sessionTokenBucket = null;
+            }
+            else if (sessionTokenBucket == null)
+            {
+                sessionTokenBucket = new TokenBucket(throttleWindowInMs, throttleLimitOfMessages);
+            }
+            else
+            {
+                sessionTokenBucket.configure(throttleWindowInMs, throttleLimitOfMessages);
+            }
+        }
+
         if (this.throttleWindowInNs == throttleWindowInMs && this.throttleLimitOfMessages == throttleLimitOfMessages)
         {
             return;
@@ -127,6 +161,28 @@ public abstract class ReceiverEndPoint
 
     final boolean shouldThrottle(final long readTimestampInNs)
     {
+        return shouldThrottle(readTimestampInNs, UNKNOWN_MESSAGE_TYPE);
+    }
+
+    final boolean shouldThrottle(final long readTimestampInNs, final long messageType)
+    {
+        // The comp id group and engine limits apply even if this session has no throttle of its own.
+        final TokenBucketThrottle tokenBucketThrottle = this.tokenBucketThrottle;
+        if (tokenBucketThrottle != null)
+        {
+            TokenBucket compIdGroupTokenBucket = this.compIdGroupTokenBucket;
+            if (compIdGroupTokenBucket == null)
+            {
+                final String compId = throttleCompId();
+                compIdGroupTokenBucket = tokenBucketThrottle.acquireCompIdGroupBucket(compId);
+                this.compIdGroupTokenBucket = compIdGroupTokenBucket;
+                compIdGroupCompId = compId;
+            }
+
+            return tokenBucketThrottle.shouldThrottle(
+                sessionTokenBucket, compIdGroupTokenBucket, messageType, readTimestampInNs);
+        }
+
         final long throttleWindowInNs = this.throttleWindowInNs;
         if (throttleWindowInNs == MISSING_LONG)
         {
@@ -149,6 +205,16 @@ public abstract class ReceiverEndPoint
         return timeAgoOfOldestMessageInNs < throttleWindowInNs;
     }
 
+    /**
+     * The comp id that groups sessions for the comp id group throttle limit.
+     *
+     * @return the comp id or null if there isn't one, or it isn't known yet.
+     */
+    String throttleCompId()
+    {
+        return null;
+    }
+
     long connectionId()
     {
         return connectionId;
@@ -199,6 +265,7 @@ public abstract class ReceiverEndPoint
         Objects.requireNonNull(reason);
         framer.schedule(() -> publication.saveDisconnect(libraryId, connectionId, reason));
         cleanupDisconnectState(reason);
+        releaseCompIdGroupBucket();
         if (selectionKey != null)
         {
             selectionKey.cancel();
@@ -206,6 +273,16 @@ public abstract class ReceiverEndPoint
         hasDisconnected = true;
     }
 
+    private void releaseCompIdGroupBucket()
+    {
+        if (compIdGroupTokenBucket != null)
+        {
+            tokenBucketThrottle.releaseCompIdGroupBucket(compIdGroupCompId);
+            compIdGroupTokenBucket = null;
+            compIdGroupCompId = null;
+        }
+    }
+
     abstract void cleanupDisconnectState(DisconnectReason reason);
 
     abstract int poll();
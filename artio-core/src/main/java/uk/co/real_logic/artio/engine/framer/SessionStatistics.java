@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+
+/**
+ * Counters of the traffic of a single FIX connection, shared by its receiver and sender end points and updated on
+ * the framer thread. Times are in the units of the configured {@link EngineConfiguration#epochNanoClock()}.
+ */
+final class SessionStatistics implements AutoCloseable
+{
+    private static final long NOT_SLOW = Long.MIN_VALUE;
+
+    private final EpochNanoClock clock;
+    private final AtomicCounter sessionId;
+    private final AtomicCounter bytesRead;
+    private final AtomicCounter bytesWritten;
+    private final AtomicCounter messagesWritten;
+    private final AtomicCounter throttleRejects;
+    private final AtomicCounter slowConsumerTime;
+    private final AtomicCounter resendRequestsServed;
+    private final AtomicCounter lastReceivedTime;
+    private final AtomicCounter lastSentTime;
+
+    private long slowSinceTime = NOT_SLOW;
+    private long slowConsumerTimeBeforeCurrentSlowPeriod;
+
+    static SessionStatistics of(
+        final EngineConfiguration configuration,
+        final FixCounters fixCounters,
+        final long connectionId,
+        final String address)
+    {
+        return configuration.sessionStatistics() ?
+            new SessionStatistics(configuration.epochNanoClock(), fixCounters, connectionId, address) : null;
+    }
+
+    SessionStatistics(
+        final EpochNanoClock clock,
+        final FixCounters fixCounters,
+        final long connectionId,
+        final String address)
+    {
+        this.clock = clock;
+        sessionId = fixCounters.sessionId(connectionId, address);
+        bytesRead = fixCounters.bytesRead(connectionId, address);
+        bytesWritten = fixCounters.bytesWritten(connectionId, address);
+        messagesWritten = fixCounters.messagesWritten(connectionId, address);
+        throttleRejects = fixCounters.throttleRejects(connectionId, address);
+        slowConsumerTime = fixCounters.slowConsumerTime(connectionId, address);
+        resendRequestsServed = fixCounters.resendRequestsServed(connectionId, address);
+        lastReceivedTime = fixCounters.lastReceivedTime(connectionId, address);
+        lastSentTime = fixCounters.lastSentTime(connectionId, address);
+    }
+
+    void onSessionId(final long sessionId)
+    {
+        this.sessionId.setOrdered(sessionId);
+    }
+
+    void onBytesRead(final int bytesRead)
+    {
+        this.bytesRead.getAndAddOrdered(bytesRead);
+    }
+
+    void onMessageReceived(final long timestamp)
+    {
+        lastReceivedTime.setOrdered(timestamp);
+    }
+
+    void onThrottleReject()
+    {
+        throttleRejects.incrementOrdered();
+    }
+
+    void onBytesWritten(final int bytesWritten)
+    {
+        this.bytesWritten.getAndAddOrdered(bytesWritten);
+    }
+
+    void onMessageSent()
+    {
+        messagesWritten.incrementOrdered();
+        lastSentTime.setOrdered(clock.nanoTime());
+    }
+
+    void onResendRequestServed()
+    {
+        resendRequestsServed.incrementOrdered();
+    }
+
+    void onSlowStatus(final boolean hasBecomeSlow)
+    {
+        if (hasBecomeSlow)
+        {
+            if (slowSinceTime == NOT_SLOW)
+            {
+                slowSinceTime = clock.nanoTime();
+            }
+        }
+        else if (slowSinceTime != NOT_SLOW)
+        {
+            updateSlowConsumerTime();
+            slowConsumerTimeBeforeCurrentSlowPeriod = slowConsumerTime.get();
+            slowSinceTime = NOT_SLOW;
+        }
+    }
+
+    /**
+     * Called periodically so that the slow consumer time of a session that stays slow keeps increasing.
+     */
+    void onSlowPoll()
+    {
+        if (slowSinceTime != NOT_SLOW)
+        {
+            updateSlowConsumerTime();
+        }
+    }
+
+    private void updateSlowConsumerTime()
+    {
+        slowConsumerTime.setOrdered(slowConsumerTimeBeforeCurrentSlowPeriod + clock.nanoTime() - slowSinceTime);
+    }
+
+    public void close()
+    {
+        CloseHelper.closeAll(
+            sessionId,
+            bytesRead,
+            bytesWritten,
+            messagesWritten,
+            throttleRejects,
+            slowConsumerTime,
+            resendRequestsServed,
+            lastReceivedTime,
+            lastSentTime);
+    }
+}
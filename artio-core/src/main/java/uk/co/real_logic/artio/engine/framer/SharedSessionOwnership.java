@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.session.CompositeKey;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Locks the sessions that are logged on to this engine in a directory that's shared by the engines that accept
+ * connections on the same port, so that a session is only logged on to one of them at a time.
+ *
+ * Each session has a lock file named after its composite key that's held with an operating system file lock while
+ * it's logged on, so the sessions of an engine process that dies are released straight away. Closing releases the
+ * sessions that are still locked, so that an engine restarted within the same process can lock them again.
+ */
+final class SharedSessionOwnership implements AutoCloseable
+{
+    private static final String LOCK_FILE_SUFFIX = ".lock";
+
+    // Closing any channel of a file releases every lock that this process holds on it, so a file that's already
+    // locked by an engine within this process mustn't be opened again.
+    private static final Set<String> LOCKED_BY_THIS_PROCESS = ConcurrentHashMap.newKeySet();
+
+    private final Long2ObjectHashMap<LockedSession> sessionIdToLock = new Long2ObjectHashMap<>();
+    private final File directory;
+    private final ErrorHandler errorHandler;
+
+    static SharedSessionOwnership of(final EngineConfiguration configuration, final ErrorHandler errorHandler)
+    {
+        final String sharedSessionOwnershipDir = configuration.sharedSessionOwnershipDir();
+        return sharedSessionOwnershipDir == null ? null :
+            new SharedSessionOwnership(new File(sharedSessionOwnershipDir), errorHandler);
+    }
+
+    SharedSessionOwnership(final File directory, final ErrorHandler errorHandler)
+    {
+        IoUtil.ensureDirectoryExists(directory, "shared session ownership");
+        this.directory = directory;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Try to lock a session for this engine.
+     *
+     * @param sessionId this engine's id for the session.
+     * @param compositeKey the key of the session, which is the same on every engine.
+     * @return true if the session is now locked by this engine, false if another engine has it logged on or it
+     *         couldn't be locked.
+     */
+    boolean tryAcquire(final long sessionId, final CompositeKey compositeKey)
+    {
+        final String path = new File(directory, lockFileName(compositeKey)).getAbsolutePath();
+        if (!LOCKED_BY_THIS_PROCESS.add(path))
+        {
+            return false;
+        }
+
+        FileChannel channel = null;
+        try
+        {
+            channel = FileChannel.open(new File(path).toPath(), CREATE, WRITE);
+            final FileLock lock = channel.tryLock();
+            if (lock != null)
+            {
+                sessionIdToLock.put(sessionId, new LockedSession(path, channel));
+                return true;
+            }
+        }
+        catch (final OverlappingFileLockException e)
+        {
+            // Shouldn't happen as locks within this process are tracked, but it still means the session is locked
+        }
+        catch (final IOException e)
+        {
+            errorHandler.onError(e);
+        }
+
+        CloseHelper.close(channel);
+        LOCKED_BY_THIS_PROCESS.remove(path);
+        return false;
+    }
+
+    void release(final long sessionId)
+    {
+        final LockedSession lockedSession = sessionIdToLock.remove(sessionId);
+        if (lockedSession != null)
+        {
+            CloseHelper.close(errorHandler, lockedSession.channel);
+            LOCKED_BY_THIS_PROCESS.remove(lockedSession.path);
+        }
+    }
+
+    public void close()
+    {
+        for (final LockedSession lockedSession : sessionIdToLock.values())
+        {
+            CloseHelper.close(errorHandler, lockedSession.channel);
+            LOCKED_BY_THIS_PROCESS.remove(lockedSession.path);
+        }
+        sessionIdToLock.clear();
+    }
+
+    static String lockFileName(final CompositeKey compositeKey)
+    {
+        return encode(compositeKey.localCompId()) + ',' +
+            encode(compositeKey.localSubId()) + ',' +
+            encode(compositeKey.localLocationId()) + ',' +
+            encode(compositeKey.remoteCompId()) + ',' +
+            encode(compositeKey.remoteSubId()) + ',' +
+            encode(compositeKey.remoteLocationId()) +
+            LOCK_FILE_SUFFIX;
+    }
+
+    private static String encode(final String value)
+    {
+        // Commas are encoded so the fields can't run into each other
+        return value == null ? "" : URLEncoder.encode(value, UTF_8);
+    }
+
+    static final class LockedSession
+    {
+        private final String path;
+        private final FileChannel channel;
+
+        LockedSession(final String path, final FileChannel channel)
+        {
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+}
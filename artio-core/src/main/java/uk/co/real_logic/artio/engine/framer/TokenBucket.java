@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A token bucket that holds up to a limit of messages and refills at that limit per window.
+ *
+ * Rather than counting tokens this tracks the time at which the bucket would be full again, the equivalent generic
+ * cell rate algorithm, so refilling needs no periodic work and the state is a single timestamp.
+ */
+final class TokenBucket
+{
+    private long emissionIntervalInNs;
+    private long burstToleranceInNs;
+    private long fullAtTimeInNs;
+
+    TokenBucket(final int windowInMs, final int limitOfMessages)
+    {
+        configure(windowInMs, limitOfMessages);
+    }
+
+    /**
+     * Change the limit of the bucket, without resetting the tokens that have already been used.
+     *
+     * @param windowInMs the time window that the limit refills over.
+     * @param limitOfMessages the maximum number of messages within the time window.
+     */
+    void configure(final int windowInMs, final int limitOfMessages)
+    {
+        final long emissionIntervalInNs = Math.max(1, MILLISECONDS.toNanos(windowInMs) / limitOfMessages);
+        this.emissionIntervalInNs = emissionIntervalInNs;
+        burstToleranceInNs = emissionIntervalInNs * limitOfMessages;
+    }
+
+    boolean hasTokens(final long timeInNs, final long weight)
+    {
+        final long fullAtTimeInNs = Math.max(this.fullAtTimeInNs, timeInNs);
+        return fullAtTimeInNs + weight * emissionIntervalInNs - timeInNs <= burstToleranceInNs;
+    }
+
+    void take(final long timeInNs, final long weight)
+    {
+        fullAtTimeInNs = Math.max(fullAtTimeInNs, timeInNs) + weight * emissionIntervalInNs;
+    }
+}
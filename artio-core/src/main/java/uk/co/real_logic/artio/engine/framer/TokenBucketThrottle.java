@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.collections.Long2LongHashMap;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static uk.co.real_logic.artio.engine.EngineConfiguration.NO_THROTTLE_WINDOW;
+import static uk.co.real_logic.artio.util.MessageTypeEncoding.packMessageType;
+
+/**
+ * Engine wide state of the token bucket message throttle, shared by the receiver end points of both FIX and FIXP
+ * sessions on the framer thread.
+ *
+ * A message is only accepted if the session's bucket, the bucket of its comp id group and the engine's bucket all
+ * have enough tokens for it, in which case the tokens are taken from all of them. Any of these limits can be left
+ * unset. Comp id group buckets are removed once the last session in their group has disconnected.
+ */
+final class TokenBucketThrottle
+{
+    static final long DEFAULT_MESSAGE_WEIGHT = 1;
+
+    private final Long2LongHashMap messageTypeToWeight = new Long2LongHashMap(DEFAULT_MESSAGE_WEIGHT);
+    private final Map<String, CompIdGroup> compIdToGroup = new HashMap<>();
+    private final int compIdGroupThrottleWindowInMs;
+    private final int compIdGroupThrottleLimitOfMessages;
+    private final TokenBucket engineBucket;
+
+    static TokenBucketThrottle of(final EngineConfiguration configuration)
+    {
+        return configuration.tokenBucketMessageThrottle() ? new TokenBucketThrottle(configuration) : null;
+    }
+
+    TokenBucketThrottle(final EngineConfiguration configuration)
+    {
+        compIdGroupThrottleWindowInMs = configuration.compIdGroupThrottleWindowInMs();
+        compIdGroupThrottleLimitOfMessages = configuration.compIdGroupThrottleLimitOfMessages();
+
+        final int engineThrottleWindowInMs = configuration.engineThrottleWindowInMs();
+        engineBucket = engineThrottleWindowInMs == NO_THROTTLE_WINDOW ? null :
+            new TokenBucket(engineThrottleWindowInMs, configuration.engineThrottleLimitOfMessages());
+
+        configuration.messageThrottleWeights().forEach((messageType, weight) ->
+        {
+            if (weight != DEFAULT_MESSAGE_WEIGHT)
+            {
+                messageTypeToWeight.put(packMessageType(messageType), weight);
+            }
+        });
+    }
+
+    /**
+     * Acquire the bucket shared by sessions with the same comp id, creating it on first use. Every acquired bucket
+     * must be released with {@link #releaseCompIdGroupBucket(String)} when its session disconnects.
+     *
+     * @param compId the comp id of the session, or null if it isn't known yet.
+     * @return the bucket or null if there's no comp id group limit or the comp id isn't known.
+     */
+    TokenBucket acquireCompIdGroupBucket(final String compId)
+    {
+        if (compIdGroupThrottleWindowInMs == NO_THROTTLE_WINDOW || compId == null)
+        {
+            return null;
+        }
+
+        CompIdGroup group = compIdToGroup.get(compId);
+        if (group == null)
+        {
+            group = new CompIdGroup(
+                new TokenBucket(compIdGroupThrottleWindowInMs, compIdGroupThrottleLimitOfMessages));
+            compIdToGroup.put(compId, group);
+        }
+        group.sessionCount++;
+
+        return group.bucket;
+    }
+
+    void releaseCompIdGroupBucket(final String compId)
+    {
+        final CompIdGroup group = compIdToGroup.get(compId);
+        if (group != null && --group.sessionCount <= 0)
+        {
+            compIdToGroup.remove(compId);
+        }
+    }
+
+    int compIdGroupCount()
+    {
+        return compIdToGroup.size();
+    }
+
+    boolean shouldThrottle(
+        final TokenBucket sessionBucket,
+        final TokenBucket compIdGroupBucket,
+        final long messageType,
+        final long timeInNs)
+    {
+        final long weight = messageTypeToWeight.get(messageType);
+        if (weight == 0)
+        {
+            return false;
+        }
+
+        final TokenBucket engineBucket = this.engineBucket;
+        if ((sessionBucket != null && !sessionBucket.hasTokens(timeInNs, weight)) ||
+            (compIdGroupBucket != null && !compIdGroupBucket.hasTokens(timeInNs, weight)) ||
+            (engineBucket != null && !engineBucket.hasTokens(timeInNs, weight)))
+        {
+            return true;
+        }
+
+        if (sessionBucket != null)
+        {
+            sessionBucket.take(timeInNs, weight);
+        }
+        if (compIdGroupBucket != null)
+        {
+            compIdGroupBucket.take(timeInNs, weight);
+        }
+        if (engineBucket != null)
+        {
+            engineBucket.take(timeInNs, weight);
+        }
+
+        return false;
+    }
+
+    private static final class CompIdGroup
+    {
+        private final TokenBucket bucket;
+        private int sessionCount;
+
+        private CompIdGroup(final TokenBucket bucket)
+        {
+            this.bucket = bucket;
+        }
+    }
+}
@@ -15,8 +15,12 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import org.agrona.collections.LongHashSet;
 import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.FilterBy;
 import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.From;
+import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.MessageTypeOf;
+import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.SessionConsistentWhereHeader;
+import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.TagValueOf;
 import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.To;
 
 final class ArchiveScanPlanner
@@ -37,9 +41,46 @@ final class ArchiveScanPlanner
     {
         final IndexQuery indexQuery = new IndexQuery();
         extractIndexQuery(queryPredicate, indexQuery);
+        extractSecondaryKeys(queryPredicate, indexQuery);
         return indexQuery.needed() ? indexQuery : null;
     }
 
+    private static void extractSecondaryKeys(final FixMessagePredicate predicate, final IndexQuery indexQuery)
+    {
+        // Only conjunctions can be narrowed down to the messages matching one of their operands.
+        if (predicate instanceof FixMessageAnd)
+        {
+            final FixMessageAnd and = (FixMessageAnd)predicate;
+            extractSecondaryKeys(and.left(), indexQuery);
+            extractSecondaryKeys(and.right(), indexQuery);
+        }
+        else if (predicate instanceof SessionConsistentWhereHeader)
+        {
+            final FixMessagePredicate compiledMatches = ((SessionConsistentWhereHeader)predicate).compiledMatches();
+            if (compiledMatches != null)
+            {
+                extractSecondaryKeys(compiledMatches, indexQuery);
+            }
+        }
+        else if (predicate instanceof TagValueOf)
+        {
+            final TagValueOf tagValueOf = (TagValueOf)predicate;
+            final LongHashSet keys = new LongHashSet();
+            keys.add(SecondaryIndexKey.tagValueKey(tagValueOf.tag(), tagValueOf.value()));
+            indexQuery.secondaryKeys(keys, tagValueOf.tag());
+        }
+        else if (predicate instanceof MessageTypeOf)
+        {
+            final LongHashSet keys = new LongHashSet();
+            final LongHashSet.LongIterator it = ((MessageTypeOf)predicate).messageTypes().iterator();
+            while (it.hasNext())
+            {
+                keys.add(SecondaryIndexKey.messageTypeKey(it.nextValue()));
+            }
+            indexQuery.secondaryKeys(keys, SecondaryIndexWriter.MESSAGE_TYPE_KIND);
+        }
+    }
+
     private static void extractIndexQuery(final FixMessagePredicate predicate, final IndexQuery indexQuery)
     {
         // NB: range returned by the index plan still needs filtering afterwards to ensure correctness
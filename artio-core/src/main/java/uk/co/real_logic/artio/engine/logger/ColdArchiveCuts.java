@@ -0,0 +1,37 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the cuts made by the {@link ColdArchiveTieringAgent}, each of which moves more of a recording into the cold
+ * archive. Readers on other threads cache the end positions of cold archives until the count changes.
+ */
+public final class ColdArchiveCuts
+{
+    private final AtomicLong count = new AtomicLong();
+
+    void onCut()
+    {
+        count.incrementAndGet();
+    }
+
+    long count()
+    {
+        return count.get();
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.LangUtil;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.storage.messages.ColdArchiveBlockDecoder;
+import uk.co.real_logic.artio.storage.messages.ColdArchiveIndexHeaderDecoder;
+import uk.co.real_logic.artio.storage.messages.MessageHeaderDecoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static uk.co.real_logic.artio.engine.logger.ColdArchiveWriter.*;
+
+/**
+ * Looks up the positions held in the cold archive of recordings written by the {@link ColdArchiveTieringAgent} and
+ * replays ranges of them.
+ *
+ * Indices are cached and only re-read when their file grows, this object isn't thread-safe.
+ */
+class ColdArchiveReader
+{
+    private static final long MISSING_POSITION = Long.MIN_VALUE;
+
+    private final Long2ObjectHashMap<BlockIndex> recordingIdToIndex = new Long2ObjectHashMap<>();
+    private final Long2LongHashMap recordingIdToEndPosition = new Long2LongHashMap(MISSING_POSITION);
+    private final String logFileDir;
+    private final ColdArchiveCuts cuts;
+
+    private long cutCount;
+
+    ColdArchiveReader(final String logFileDir)
+    {
+        this(logFileDir, null);
+    }
+
+    ColdArchiveReader(final String logFileDir, final ColdArchiveCuts cuts)
+    {
+        this.logFileDir = logFileDir;
+        this.cuts = cuts;
+    }
+
+    /**
+     * Gets the position at which the cold archive of a recording starts.
+     *
+     * @param recordingId the recording to lookup.
+     * @return the start position or {@link io.aeron.archive.client.AeronArchive#NULL_POSITION} if it has no cold
+     * archive.
+     */
+    long startPosition(final long recordingId)
+    {
+        final BlockIndex index = index(recordingId);
+        return index == null ? NULL_POSITION : index.startPosition();
+    }
+
+    /**
+     * Gets the position at which the cold archive of a recording ends.
+     *
+     * @param recordingId the recording to lookup.
+     * @return the end position or {@link io.aeron.archive.client.AeronArchive#NULL_POSITION} if it has no cold
+     * archive.
+     */
+    long endPosition(final long recordingId)
+    {
+        final BlockIndex index = index(recordingId);
+        return index == null ? NULL_POSITION : index.endPosition();
+    }
+
+    /**
+     * Gets the position at which the cold archive of a recording ends without checking its file, unless the
+     * {@link ColdArchiveTieringAgent} has made a cut since the position was cached.
+     *
+     * @param recordingId the recording to lookup.
+     * @return the end position or {@link io.aeron.archive.client.AeronArchive#NULL_POSITION} if it has no cold
+     * archive.
+     */
+    long cachedEndPosition(final long recordingId)
+    {
+        final ColdArchiveCuts cuts = this.cuts;
+        if (cuts == null)
+        {
+            return endPosition(recordingId);
+        }
+
+        final long cutCount = cuts.count();
+        if (cutCount != this.cutCount)
+        {
+            recordingIdToEndPosition.clear();
+            this.cutCount = cutCount;
+        }
+
+        long endPosition = recordingIdToEndPosition.get(recordingId);
+        if (endPosition == MISSING_POSITION)
+        {
+            endPosition = endPosition(recordingId);
+            recordingIdToEndPosition.put(recordingId, endPosition);
+        }
+
+        return endPosition;
+    }
+
+    /**
+     * Starts replaying frames from the cold archive of a recording.
+     *
+     * @param recordingId the recording to replay.
+     * @param position the frame aligned position to start replaying at.
+     * @param length the length to replay.
+     * @return the replay, or null if the recording has no cold archive.
+     */
+    ColdArchiveReplay replay(final long recordingId, final long position, final long length)
+    {
+        final BlockIndex index = index(recordingId);
+        if (index == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return new ColdArchiveReplay(
+                index, new RandomAccessFile(dataFile(logFileDir, recordingId), "r"), position, position + length);
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+            return null;
+        }
+    }
+
+    private BlockIndex index(final long recordingId)
+    {
+        final File file = indexFile(logFileDir, recordingId);
+        final long fileLength = file.length();
+        if (fileLength <= HEADER_LENGTH)
+        {
+            return null;
+        }
+
+        BlockIndex index = recordingIdToIndex.get(recordingId);
+        if (index == null || index.fileLength != fileLength)
+        {
+            try
+            {
+                index = BlockIndex.read(file, fileLength);
+            }
+            catch (final IOException e)
+            {
+                LangUtil.rethrowUnchecked(e);
+            }
+            recordingIdToIndex.put(recordingId, index);
+        }
+
+        return index;
+    }
+
+    static final class BlockIndex
+    {
+        final long fileLength;
+        final int initialTermId;
+        final int positionBitsToShift;
+        final int blockCount;
+        final long[] positions;
+        final long[] fileOffsets;
+        final int[] compressedLengths;
+        final int[] uncompressedLengths;
+
+        private BlockIndex(
+            final long fileLength, final int initialTermId, final int positionBitsToShift, final int blockCount)
+        {
+            this.fileLength = fileLength;
+            this.initialTermId = initialTermId;
+            this.positionBitsToShift = positionBitsToShift;
+            this.blockCount = blockCount;
+            positions = new long[blockCount];
+            fileOffsets = new long[blockCount];
+            compressedLengths = new int[blockCount];
+            uncompressedLengths = new int[blockCount];
+        }
+
+        static BlockIndex read(final File file, final long fileLength) throws IOException
+        {
+            final int blockCount = (int)((fileLength - HEADER_LENGTH) / BLOCK_RECORD_LENGTH);
+            final UnsafeBuffer buffer = new UnsafeBuffer(new byte[HEADER_LENGTH + blockCount * BLOCK_RECORD_LENGTH]);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r"))
+            {
+                raf.readFully(buffer.byteArray());
+            }
+
+            final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder().wrap(buffer, 0);
+            final ColdArchiveIndexHeaderDecoder header = new ColdArchiveIndexHeaderDecoder().wrap(
+                buffer, MessageHeaderDecoder.ENCODED_LENGTH, messageHeader.blockLength(), messageHeader.version());
+
+            final BlockIndex index = new BlockIndex(
+                fileLength,
+                header.initialTermId(),
+                Integer.numberOfTrailingZeros(header.termBufferLength()),
+                blockCount);
+
+            final ColdArchiveBlockDecoder block = new ColdArchiveBlockDecoder();
+            for (int i = 0; i < blockCount; i++)
+            {
+                block.wrap(
+                    buffer, HEADER_LENGTH + i * BLOCK_RECORD_LENGTH, BLOCK_RECORD_LENGTH, messageHeader.version());
+                index.positions[i] = block.position();
+                index.fileOffsets[i] = block.fileOffset();
+                index.compressedLengths[i] = block.compressedLength();
+                index.uncompressedLengths[i] = block.uncompressedLength();
+            }
+
+            return index;
+        }
+
+        long startPosition()
+        {
+            return positions[0];
+        }
+
+        long endPosition()
+        {
+            final int last = blockCount - 1;
+            return positions[last] + uncompressedLengths[last];
+        }
+
+        /**
+         * Find the block containing a position or, if the position falls in a gap between blocks, the next block.
+         *
+         * @param position the position to search for.
+         * @return the index of the block or blockCount if there's no block at or after the position.
+         */
+        int findBlock(final long position)
+        {
+            int low = 0;
+            int high = blockCount - 1;
+            while (low <= high)
+            {
+                final int mid = (low + high) >>> 1;
+                if (positions[mid] <= position)
+                {
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid - 1;
+                }
+            }
+
+            // high is now the last block starting at or before the position.
+            if (high >= 0 && position < positions[high] + uncompressedLengths[high])
+            {
+                return high;
+            }
+
+            return high + 1;
+        }
+    }
+}
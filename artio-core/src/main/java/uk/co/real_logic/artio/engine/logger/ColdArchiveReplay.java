@@ -0,0 +1,246 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.logbuffer.FrameDescriptor.isPaddingFrame;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Replays frames from a cold archive, decompressing one block at a time. Polled in the same way as an Aeron
+ * {@link io.aeron.Image} and delivers fragments with the {@link Header} that they were originally recorded with.
+ */
+class ColdArchiveReplay implements AutoCloseable
+{
+    private final UnsafeBuffer blockBuffer = new UnsafeBuffer(0, 0);
+    private final Inflater inflater = new Inflater();
+
+    private final ColdArchiveReader.BlockIndex index;
+    private final RandomAccessFile dataFile;
+    private final Header header;
+    private final long limitPosition;
+
+    private byte[] compressed = new byte[0];
+    private byte[] uncompressed = new byte[0];
+    private int blockIndex;
+    private int blockOffset;
+    private int blockLength;
+    private long position;
+    private boolean endOfStream;
+
+    ColdArchiveReplay(
+        final ColdArchiveReader.BlockIndex index,
+        final RandomAccessFile dataFile,
+        final long position,
+        final long limitPosition)
+    {
+        this.index = index;
+        this.dataFile = dataFile;
+        this.limitPosition = limitPosition;
+        header = new Header(index.initialTermId, index.positionBitsToShift);
+
+        blockIndex = index.findBlock(position);
+        if (loadBlock())
+        {
+            final long blockPosition = index.positions[blockIndex];
+            if (position > blockPosition)
+            {
+                blockOffset = (int)(position - blockPosition);
+                this.position = position;
+            }
+        }
+    }
+
+    long position()
+    {
+        return position;
+    }
+
+    boolean isEndOfStream()
+    {
+        return endOfStream;
+    }
+
+    int poll(final FragmentHandler handler, final int fragmentLimit)
+    {
+        int fragments = 0;
+        while (fragments < fragmentLimit && nextFrame())
+        {
+            final int frameOffset = blockOffset;
+            final int frameLength = frameLength(blockBuffer, frameOffset);
+            if (!isPaddingFrame(blockBuffer, frameOffset))
+            {
+                header.offset(frameOffset);
+                handler.onFragment(blockBuffer, frameOffset + HEADER_LENGTH, frameLength - HEADER_LENGTH, header);
+                fragments++;
+            }
+            advance(frameLength);
+        }
+
+        return fragments;
+    }
+
+    int controlledPoll(final ControlledFragmentHandler handler, final int fragmentLimit)
+    {
+        int fragments = 0;
+        while (fragments < fragmentLimit && nextFrame())
+        {
+            final int frameOffset = blockOffset;
+            final int frameLength = frameLength(blockBuffer, frameOffset);
+            if (isPaddingFrame(blockBuffer, frameOffset))
+            {
+                advance(frameLength);
+                continue;
+            }
+
+            header.offset(frameOffset);
+            final ControlledFragmentHandler.Action action = handler.onFragment(
+                blockBuffer, frameOffset + HEADER_LENGTH, frameLength - HEADER_LENGTH, header);
+            if (action == ControlledFragmentHandler.Action.ABORT)
+            {
+                break;
+            }
+
+            fragments++;
+            advance(frameLength);
+
+            if (action == ControlledFragmentHandler.Action.BREAK)
+            {
+                break;
+            }
+        }
+
+        return fragments;
+    }
+
+    private boolean nextFrame()
+    {
+        while (!endOfStream)
+        {
+            if (position >= limitPosition)
+            {
+                endOfStream = true;
+            }
+            else if (blockOffset + HEADER_LENGTH <= blockLength && frameLength(blockBuffer, blockOffset) > 0)
+            {
+                return true;
+            }
+            else
+            {
+                blockIndex++;
+                loadBlock();
+            }
+        }
+
+        return false;
+    }
+
+    private static int frameLength(final UnsafeBuffer buffer, final int frameOffset)
+    {
+        return buffer.getInt(frameOffset, LITTLE_ENDIAN);
+    }
+
+    private void advance(final int frameLength)
+    {
+        final int alignedLength = BitUtil.align(frameLength, FRAME_ALIGNMENT);
+        blockOffset += alignedLength;
+        position += alignedLength;
+    }
+
+    private boolean loadBlock()
+    {
+        final ColdArchiveReader.BlockIndex index = this.index;
+        final int blockIndex = this.blockIndex;
+        if (blockIndex >= index.blockCount)
+        {
+            endOfStream = true;
+            close();
+            return false;
+        }
+
+        final int compressedLength = index.compressedLengths[blockIndex];
+        final int uncompressedLength = index.uncompressedLengths[blockIndex];
+        if (compressed.length < compressedLength)
+        {
+            compressed = new byte[compressedLength];
+        }
+        if (uncompressed.length < uncompressedLength)
+        {
+            uncompressed = new byte[uncompressedLength];
+            blockBuffer.wrap(uncompressed);
+            header.buffer(blockBuffer);
+        }
+
+        try
+        {
+            dataFile.seek(index.fileOffsets[blockIndex]);
+            dataFile.readFully(compressed, 0, compressedLength);
+
+            final Inflater inflater = this.inflater;
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            int inflatedLength = 0;
+            while (inflatedLength < uncompressedLength && !inflater.finished())
+            {
+                final int length = inflater.inflate(uncompressed, inflatedLength, uncompressedLength - inflatedLength);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    break;
+                }
+                inflatedLength += length;
+            }
+
+            if (inflatedLength != uncompressedLength)
+            {
+                close();
+                throw new IllegalStateException("Corrupt cold archive block at position " +
+                    index.positions[blockIndex] + ", expected " + uncompressedLength + " bytes but was " +
+                    inflatedLength);
+            }
+        }
+        catch (final IOException | DataFormatException e)
+        {
+            close();
+            LangUtil.rethrowUnchecked(e);
+        }
+
+        blockOffset = 0;
+        blockLength = uncompressedLength;
+        position = index.positions[blockIndex];
+        return true;
+    }
+
+    public void close()
+    {
+        endOfStream = true;
+        inflater.end();
+        CloseHelper.quietClose(dataFile);
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.ArchiveException;
+import io.aeron.archive.client.RecordingDescriptorConsumer;
+import io.aeron.logbuffer.LogBufferDescriptor;
+import io.aeron.logbuffer.RawBlockHandler;
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.LangUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.DebugLogger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.archive.client.AeronArchive.segmentFileBasePosition;
+import static io.aeron.logbuffer.FrameDescriptor.isPaddingFrame;
+import static uk.co.real_logic.artio.LogTag.STATE_CLEANUP;
+
+/**
+ * Moves old segments of the FIX message recordings out of the Aeron Archive and into a block compressed cold archive
+ * within the log file directory, see {@link ColdArchiveWriter} for the format.
+ *
+ * Periodically checks the time index of each stream for recorded positions that are older than the configured age,
+ * replays the whole segments before that position from the archive, compresses them and then purges them from the
+ * archive once they have been forced to disk. {@link ReplayQuery} and {@link FixArchiveScanner} read positions before
+ * the start of a recording from the cold archive. Work is done incrementally on the duty cycle, a block at a time.
+ */
+public class ColdArchiveTieringAgent implements Agent, RecordingDescriptorConsumer
+{
+    private final RawBlockHandler onBlock = this::onBlock;
+    private final ArrayDeque<TieringTask> tasks = new ArrayDeque<>();
+    private final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange = new Long2ObjectHashMap<>();
+
+    private final AeronArchive aeronArchive;
+    private final String logFileDir;
+    private final TimeIndexReader[] timeIndexReaders;
+    private final ColdArchiveReader coldArchiveReader;
+    private final ColdArchiveCuts cuts;
+    private final long tierAfterInNs;
+    private final long checkIntervalInNs;
+    private final int blockSize;
+    private final int tieringStream;
+    private final EpochNanoClock clock;
+    private final ErrorHandler errorHandler;
+    private final String agentNamePrefix;
+
+    private Subscription subscription;
+    private long nextCheckTimeInNs;
+
+    // fields set from the recording descriptor
+    private long descriptorStartPosition;
+    private int descriptorInitialTermId;
+    private int descriptorTermBufferLength;
+    private int descriptorSegmentFileLength;
+    private int descriptorMtuLength;
+
+    // fields for the current task
+    private TieringTask task;
+    private ColdArchiveWriter writer;
+    private long replaySessionId;
+    private Image image;
+
+    public ColdArchiveTieringAgent(
+        final AeronArchive aeronArchive,
+        final String logFileDir,
+        final int[] streamIds,
+        final long tierAfterInMs,
+        final long checkIntervalInMs,
+        final int blockSize,
+        final int tieringStream,
+        final EpochNanoClock clock,
+        final ErrorHandler errorHandler,
+        final ColdArchiveCuts cuts,
+        final String agentNamePrefix)
+    {
+        this.aeronArchive = aeronArchive;
+        this.logFileDir = logFileDir;
+        this.tierAfterInNs = TimeUnit.MILLISECONDS.toNanos(tierAfterInMs);
+        this.checkIntervalInNs = TimeUnit.MILLISECONDS.toNanos(checkIntervalInMs);
+        this.blockSize = blockSize;
+        this.tieringStream = tieringStream;
+        this.clock = clock;
+        this.errorHandler = errorHandler;
+        this.cuts = cuts;
+        this.agentNamePrefix = agentNamePrefix;
+
+        timeIndexReaders = new TimeIndexReader[streamIds.length];
+        for (int i = 0; i < streamIds.length; i++)
+        {
+            timeIndexReaders[i] = new TimeIndexReader(logFileDir, streamIds[i]);
+        }
+        coldArchiveReader = new ColdArchiveReader(logFileDir);
+    }
+
+    public int doWork()
+    {
+        if (task != null)
+        {
+            return pollTask();
+        }
+
+        final long timeInNs = clock.nanoTime();
+        if (tasks.isEmpty() && timeInNs >= nextCheckTimeInNs)
+        {
+            nextCheckTimeInNs = timeInNs + checkIntervalInNs;
+            findTasks(timeInNs);
+            return 1;
+        }
+
+        final TieringTask task = tasks.poll();
+        if (task != null)
+        {
+            startTask(task);
+            return 1;
+        }
+
+        return 0;
+    }
+
+    private void findTasks(final long timeInNs)
+    {
+        final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange = this.recordingIdToPositionRange;
+        recordingIdToPositionRange.clear();
+        final IndexQuery indexQuery = new IndexQuery();
+        indexQuery.from(timeInNs - tierAfterInNs);
+
+        for (final TimeIndexReader timeIndexReader : timeIndexReaders)
+        {
+            timeIndexReader.findPositionRange(indexQuery, recordingIdToPositionRange);
+        }
+
+        final Long2ObjectHashMap<PositionRange>.EntryIterator it = recordingIdToPositionRange.entrySet().iterator();
+        while (it.hasNext())
+        {
+            it.next();
+            final long recordingId = it.getLongKey();
+            // Everything recorded before the start of the time range is older than the cutoff
+            final long oldPosition = it.getValue().startPosition();
+            if (oldPosition > 0)
+            {
+                findTask(recordingId, oldPosition);
+            }
+        }
+    }
+
+    void findTask(final long recordingId, final long oldPosition)
+    {
+        try
+        {
+            if (aeronArchive.listRecording(recordingId, this) != 1)
+            {
+                return;
+            }
+        }
+        catch (final ArchiveException e)
+        {
+            errorHandler.onError(e);
+            return;
+        }
+
+        // Only whole segments can be purged from the archive
+        final long stopPosition = segmentFileBasePosition(
+            descriptorStartPosition, oldPosition, descriptorTermBufferLength, descriptorSegmentFileLength);
+
+        final long coldEndPosition = coldArchiveReader.endPosition(recordingId);
+        final long startPosition = Math.max(descriptorStartPosition, coldEndPosition);
+        if (stopPosition > startPosition)
+        {
+            tasks.add(new TieringTask(
+                recordingId,
+                startPosition,
+                stopPosition,
+                descriptorInitialTermId,
+                descriptorTermBufferLength,
+                descriptorMtuLength));
+        }
+    }
+
+    public void onRecordingDescriptor(
+        final long controlSessionId, final long correlationId, final long recordingId, final long startTimestamp,
+        final long stopTimestamp, final long startPosition, final long stopPosition, final int initialTermId,
+        final int segmentFileLength, final int termBufferLength, final int mtuLength, final int sessionId,
+        final int streamId, final String strippedChannel, final String originalChannel, final String sourceIdentity)
+    {
+        descriptorStartPosition = startPosition;
+        descriptorInitialTermId = initialTermId;
+        descriptorTermBufferLength = termBufferLength;
+        descriptorSegmentFileLength = segmentFileLength;
+        descriptorMtuLength = mtuLength;
+    }
+
+    private void startTask(final TieringTask task)
+    {
+        if (subscription == null)
+        {
+            subscription = aeronArchive.context().aeron().addSubscription(IPC_CHANNEL, tieringStream);
+        }
+
+        try
+        {
+            // Every block must be able to hold at least one whole frame.
+            writer = new ColdArchiveWriter(
+                logFileDir,
+                task.recordingId,
+                task.initialTermId,
+                task.termBufferLength,
+                Math.max(blockSize, task.mtuLength));
+            replaySessionId = aeronArchive.startReplay(
+                task.recordingId,
+                task.startPosition,
+                task.stopPosition - task.startPosition,
+                IPC_CHANNEL,
+                tieringStream);
+            this.task = task;
+
+            DebugLogger.log(STATE_CLEANUP, "ColdArchiveTieringAgent: started ", task.toString());
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            errorHandler.onError(e);
+            abandonTask();
+        }
+    }
+
+    private int pollTask()
+    {
+        if (image == null)
+        {
+            image = subscription.imageBySessionId((int)replaySessionId);
+            return image == null ? 0 : 1;
+        }
+
+        try
+        {
+            final ColdArchiveWriter writer = this.writer;
+            if (writer.remainingCapacity() < task.mtuLength)
+            {
+                writer.flushBlock();
+            }
+
+            final int work = image.rawPoll(onBlock, writer.remainingCapacity());
+
+            if (image.position() >= task.stopPosition)
+            {
+                completeTask();
+                return 1;
+            }
+
+            if (image.isClosed() || image.isEndOfStream())
+            {
+                throw new IllegalStateException("Replay ended early at " + image.position() + " for " + task);
+            }
+
+            return work;
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            errorHandler.onError(e);
+            abandonTask();
+            return 1;
+        }
+    }
+
+    private void onBlock(
+        final FileChannel fileChannel,
+        final long fileOffset,
+        final UnsafeBuffer termBuffer,
+        final int termOffset,
+        final int length,
+        final int sessionId,
+        final int termId)
+    {
+        final Image image = this.image;
+        final long position = LogBufferDescriptor.computePosition(
+            termId, termOffset, image.positionBitsToShift(), image.initialTermId());
+
+        try
+        {
+            // Padding frames are kept so that the cold archive ends exactly where the purged segments end.
+            if (isPaddingFrame(termBuffer, termOffset))
+            {
+                writer.appendPadding(termBuffer, termOffset, length, position);
+            }
+            else
+            {
+                writer.append(termBuffer, termOffset, length, position);
+            }
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    private void completeTask() throws IOException
+    {
+        final TieringTask task = this.task;
+        final ColdArchiveWriter writer = this.writer;
+        writer.force();
+
+        // Replays carry on from the archive at the end of the cold archive, so the two must meet exactly.
+        if (writer.endPosition() != task.stopPosition)
+        {
+            throw new IllegalStateException(
+                "Cold archive ended at " + writer.endPosition() + " rather than the purge position for " + task);
+        }
+
+        // Replays switch to the cold archive before the segments are purged, whilst both still hold the data.
+        cuts.onCut();
+
+        // Only remove data from the archive once it is durable in the cold archive.
+        aeronArchive.purgeSegments(task.recordingId, task.stopPosition);
+
+        DebugLogger.log(STATE_CLEANUP, "ColdArchiveTieringAgent: completed ", task.toString());
+
+        closeTask();
+    }
+
+    private void abandonTask()
+    {
+        // Anything already written is valid, the next check will carry on from the end of the cold archive.
+        if (writer != null)
+        {
+            try
+            {
+                writer.force();
+            }
+            catch (final IOException e)
+            {
+                errorHandler.onError(e);
+            }
+        }
+
+        if (replaySessionId != 0)
+        {
+            try
+            {
+                aeronArchive.stopReplay(replaySessionId);
+            }
+            catch (final ArchiveException e)
+            {
+                // The replay session may have already ended.
+                if (e.errorCode() != ArchiveException.UNKNOWN_REPLAY)
+                {
+                    errorHandler.onError(e);
+                }
+            }
+        }
+
+        closeTask();
+    }
+
+    private void closeTask()
+    {
+        CloseHelper.close(errorHandler, writer);
+        writer = null;
+        task = null;
+        image = null;
+        replaySessionId = 0;
+    }
+
+    public void onClose()
+    {
+        if (task != null)
+        {
+            abandonTask();
+        }
+
+        CloseHelper.close(errorHandler, subscription);
+    }
+
+    public String roleName()
+    {
+        return agentNamePrefix + "ColdArchiveTiering";
+    }
+
+    static final class TieringTask
+    {
+        final long recordingId;
+        final long startPosition;
+        final long stopPosition;
+        final int initialTermId;
+        final int termBufferLength;
+        final int mtuLength;
+
+        TieringTask(
+            final long recordingId,
+            final long startPosition,
+            final long stopPosition,
+            final int initialTermId,
+            final int termBufferLength,
+            final int mtuLength)
+        {
+            this.recordingId = recordingId;
+            this.startPosition = startPosition;
+            this.stopPosition = stopPosition;
+            this.initialTermId = initialTermId;
+            this.termBufferLength = termBufferLength;
+            this.mtuLength = mtuLength;
+        }
+
+        public String toString()
+        {
+            return "TieringTask{" +
+                "recordingId=" + recordingId +
+                ", startPosition=" + startPosition +
+                ", stopPosition=" + stopPosition +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.storage.messages.ColdArchiveBlockDecoder;
+import uk.co.real_logic.artio.storage.messages.ColdArchiveBlockEncoder;
+import uk.co.real_logic.artio.storage.messages.ColdArchiveIndexHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.MessageHeaderEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+
+/**
+ * Appends blocks of recorded Aeron frames to the cold archive of a recording, compressing each block.
+ *
+ * The data file, at {@link #dataFile(String, long)}, consists of compressed blocks back to back. The index file, at
+ * {@link #indexFile(String, long)}, consists of:
+ *
+ * MessageHeader
+ * ColdArchiveIndexHeader
+ * Multiple ColdArchiveBlock entries, in position order
+ *
+ * Every block starts and ends on a frame boundary. A block's index entry is only appended once the block itself has
+ * been written so readers never see an incomplete block.
+ */
+class ColdArchiveWriter implements AutoCloseable
+{
+    static final String DATA_FILE_NAME = "cold-archive-";
+    static final String INDEX_FILE_NAME = "cold-archive-index-";
+    static final int HEADER_LENGTH = MessageHeaderEncoder.ENCODED_LENGTH + ColdArchiveIndexHeaderEncoder.BLOCK_LENGTH;
+    static final int BLOCK_RECORD_LENGTH = ColdArchiveBlockEncoder.BLOCK_LENGTH;
+
+    static File dataFile(final String logFileDir, final long recordingId)
+    {
+        return new File(logFileDir + File.separator + DATA_FILE_NAME + recordingId);
+    }
+
+    static File indexFile(final String logFileDir, final long recordingId)
+    {
+        return new File(logFileDir + File.separator + INDEX_FILE_NAME + recordingId);
+    }
+
+    private final ColdArchiveBlockEncoder blockEncoder = new ColdArchiveBlockEncoder();
+    private final UnsafeBuffer recordBuffer = new UnsafeBuffer(new byte[BLOCK_RECORD_LENGTH]);
+    private final Deflater deflater = new Deflater();
+
+    private final UnsafeBuffer blockBuffer;
+    private final RandomAccessFile dataFile;
+    private final RandomAccessFile indexFile;
+
+    private byte[] compressed;
+    private long blockPosition = NULL_POSITION;
+    private int blockLength;
+    private long fileOffset;
+    private long endPosition = NULL_POSITION;
+
+    ColdArchiveWriter(
+        final String logFileDir,
+        final long recordingId,
+        final int initialTermId,
+        final int termBufferLength,
+        final int blockSize) throws IOException
+    {
+        blockBuffer = new UnsafeBuffer(new byte[blockSize]);
+        compressed = new byte[blockSize];
+
+        final File indexLocation = indexFile(logFileDir, recordingId);
+        final boolean exists = indexLocation.exists();
+        dataFile = new RandomAccessFile(dataFile(logFileDir, recordingId), "rw");
+        indexFile = new RandomAccessFile(indexLocation, "rw");
+
+        try
+        {
+            if (exists)
+            {
+                recover();
+            }
+            else
+            {
+                writeHeader(initialTermId, termBufferLength);
+                dataFile.setLength(0);
+            }
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            CloseHelper.quietCloseAll(dataFile, indexFile);
+            throw e;
+        }
+    }
+
+    private void writeHeader(final int initialTermId, final int termBufferLength) throws IOException
+    {
+        final UnsafeBuffer headerBuffer = new UnsafeBuffer(new byte[HEADER_LENGTH]);
+        new ColdArchiveIndexHeaderEncoder()
+            .wrapAndApplyHeader(headerBuffer, 0, new MessageHeaderEncoder())
+            .initialTermId(initialTermId)
+            .termBufferLength(termBufferLength);
+        indexFile.write(headerBuffer.byteArray());
+    }
+
+    // Discard anything written after the last complete index entry, for example due to a crash.
+    private void recover() throws IOException
+    {
+        final long length = indexFile.length();
+        final long completeLength = length - ((length - HEADER_LENGTH) % BLOCK_RECORD_LENGTH);
+        indexFile.setLength(completeLength);
+        indexFile.seek(completeLength);
+
+        if (completeLength > HEADER_LENGTH)
+        {
+            indexFile.seek(completeLength - BLOCK_RECORD_LENGTH);
+            indexFile.readFully(recordBuffer.byteArray());
+            indexFile.seek(completeLength);
+
+            final ColdArchiveBlockDecoder lastBlock = new ColdArchiveBlockDecoder()
+                .wrap(recordBuffer, 0, BLOCK_RECORD_LENGTH, ColdArchiveBlockDecoder.SCHEMA_VERSION);
+            fileOffset = lastBlock.fileOffset() + lastBlock.compressedLength();
+            endPosition = lastBlock.position() + lastBlock.uncompressedLength();
+        }
+
+        dataFile.setLength(fileOffset);
+        dataFile.seek(fileOffset);
+    }
+
+    /**
+     * Gets the position up to which frames have been written to disk.
+     *
+     * @return the position up to which frames have been written to disk or {@link
+     * io.aeron.archive.client.AeronArchive#NULL_POSITION} if nothing has been written.
+     */
+    long endPosition()
+    {
+        return endPosition;
+    }
+
+    int remainingCapacity()
+    {
+        return blockBuffer.capacity() - blockLength;
+    }
+
+    /**
+     * Append whole frames to the current block. The frames must fit within the {@link #remainingCapacity()}.
+     *
+     * @param buffer the buffer containing the frames.
+     * @param offset the offset within the buffer at which the frames start.
+     * @param length the length of the frames.
+     * @param position the recording position of the first frame.
+     * @throws IOException if the current block needs to be written out and that fails.
+     */
+    void append(final DirectBuffer buffer, final int offset, final int length, final long position)
+        throws IOException
+    {
+        startAppend(length, position);
+        buffer.getBytes(offset, blockBuffer, blockLength, length);
+        blockLength += length;
+    }
+
+    /**
+     * Append a padding frame to the current block. Only the header is copied as the body of a padding frame has
+     * no content, so it's zeroed in order to compress well. The frame must fit within the
+     * {@link #remainingCapacity()}.
+     *
+     * @param buffer the buffer containing the padding frame.
+     * @param offset the offset within the buffer at which the padding frame starts.
+     * @param length the length of the padding frame.
+     * @param position the recording position of the padding frame.
+     * @throws IOException if the current block needs to be written out and that fails.
+     */
+    void appendPadding(final DirectBuffer buffer, final int offset, final int length, final long position)
+        throws IOException
+    {
+        startAppend(length, position);
+        final int headerLength = Math.min(length, DataHeaderFlyweight.HEADER_LENGTH);
+        buffer.getBytes(offset, blockBuffer, blockLength, headerLength);
+        blockBuffer.setMemory(blockLength + headerLength, length - headerLength, (byte)0);
+        blockLength += length;
+    }
+
+    private void startAppend(final int length, final long position) throws IOException
+    {
+        if (blockLength > 0 && position != blockPosition + blockLength)
+        {
+            // Blocks cover a contiguous range of positions.
+            flushBlock();
+        }
+
+        if (length > remainingCapacity())
+        {
+            throw new IllegalArgumentException(
+                "Frames of length " + length + " don't fit in remaining capacity " + remainingCapacity());
+        }
+
+        if (blockLength == 0)
+        {
+            blockPosition = position;
+        }
+    }
+
+    void flushBlock() throws IOException
+    {
+        final int blockLength = this.blockLength;
+        if (blockLength == 0)
+        {
+            return;
+        }
+
+        final int compressedLength = compress(blockLength);
+        dataFile.write(compressed, 0, compressedLength);
+
+        blockEncoder
+            .wrap(recordBuffer, 0)
+            .position(blockPosition)
+            .fileOffset(fileOffset)
+            .compressedLength(compressedLength)
+            .uncompressedLength(blockLength);
+        indexFile.write(recordBuffer.byteArray(), 0, BLOCK_RECORD_LENGTH);
+
+        fileOffset += compressedLength;
+        endPosition = blockPosition + blockLength;
+        this.blockLength = 0;
+        blockPosition = NULL_POSITION;
+    }
+
+    private int compress(final int blockLength)
+    {
+        final Deflater deflater = this.deflater;
+        deflater.reset();
+        deflater.setInput(blockBuffer.byteArray(), 0, blockLength);
+        deflater.finish();
+
+        int compressedLength = 0;
+        while (!deflater.finished())
+        {
+            if (compressedLength == compressed.length)
+            {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        return compressedLength;
+    }
+
+    /**
+     * Flushes the current block and forces all data to the storage device.
+     *
+     * @throws IOException if writing fails.
+     */
+    void force() throws IOException
+    {
+        flushBlock();
+        dataFile.getChannel().force(false);
+        indexFile.getChannel().force(false);
+    }
+
+    public void close()
+    {
+        deflater.end();
+        CloseHelper.closeAll(dataFile, indexFile);
+    }
+}
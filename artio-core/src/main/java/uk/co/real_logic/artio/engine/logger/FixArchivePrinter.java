@@ -270,7 +270,7 @@ public final class FixArchivePrinter
             scanner.scan(
                 aeronChannel,
                 queryStreamIds,
-                filterBy(this::print, predicate),
+                filterBy(this::print, compile(predicate)),
                 new LazyFixPMessagePrinter(DEFAULT_INBOUND_LIBRARY_STREAM, fixPProtocolType),
                 follow,
                 archiveScannerStreamId);
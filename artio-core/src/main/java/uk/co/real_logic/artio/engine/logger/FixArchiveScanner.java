@@ -136,7 +136,12 @@ public class FixArchiveScanner implements AutoCloseable
         /**
          * Sets the logFileDir used by your {@link EngineConfiguration}. This configuration option isn't required, it
          * allows faster FixArchiveScanner operations for predicates where you're searching by time by using the
-         * {@link FixMessagePredicates#to(long)} or {@link FixMessagePredicates#from(long)} predicates.
+         * {@link FixMessagePredicates#to(long)} or {@link FixMessagePredicates#from(long)} predicates. If the
+         * secondary index is enabled in the {@link EngineConfiguration} then searches using the
+         * {@link FixMessagePredicates#messageTypeOf(String...)} or
+         * {@link FixMessagePredicates#tagValueOf(int, String)} predicates are also faster. It is required in order
+         * to scan messages that have been moved to the cold archive, see
+         * {@link EngineConfiguration#coldArchiveAfterInMs(long)}.
          * Setting this configuration option automatically enables index scanning.
          *
          * @param logFileDir the logFileDir configured in your {@link EngineConfiguration}.
@@ -27,6 +27,7 @@ import uk.co.real_logic.artio.fixp.FixPMessageConsumer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
 import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
@@ -45,6 +46,8 @@ public class FixArchiveScanningAgent implements AutoCloseable
     private final String logFileDir;
 
     private final Long2ObjectHashMap<TimeIndexReader> streamIdToInboundTimeIndex = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<SecondaryIndexReader> streamIdToSecondaryIndex = new Long2ObjectHashMap<>();
+    private final ColdArchiveReader coldArchiveReader;
 
     private StreamTimestampZipper timestampZipper;
     private Subscription replaySubscription;
@@ -67,6 +70,7 @@ public class FixArchiveScanningAgent implements AutoCloseable
         this.aeron = aeron;
         this.aeronArchive = aeronArchive;
         this.logFileDir = logFileDir;
+        coldArchiveReader = logFileDir == null ? null : new ColdArchiveReader(logFileDir);
     }
 
     public void setup(
@@ -82,13 +86,21 @@ public class FixArchiveScanningAgent implements AutoCloseable
             fixHandler.reset();
         }
 
+        final IndexQuery indexQuery = planIndexQueryIfPossible(fixHandler, follow);
         final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange =
-            scanIndexIfPossible(fixHandler, follow, queryStreamIds);
+            scanTimeIndexIfPossible(indexQuery, queryStreamIds);
+        final Long2ObjectHashMap<List<PositionRange>> recordingIdToSecondaryRanges =
+            scanSecondaryIndexIfPossible(indexQuery, queryStreamIds);
 
         this.follow = follow;
         replaySubscription = aeron.addSubscription(IPC_CHANNEL, archiveScannerStreamId);
         pollers = makeRecordingPollers(
-            aeronChannel, queryStreamIds, follow, recordingIdToPositionRange, replaySubscription);
+            aeronChannel,
+            queryStreamIds,
+            follow,
+            recordingIdToPositionRange,
+            recordingIdToSecondaryRanges,
+            replaySubscription);
 
         if (DEBUG_LOG_ARCHIVE_SCAN)
         {
@@ -122,13 +134,14 @@ public class FixArchiveScanningAgent implements AutoCloseable
         final IntHashSet queryStreamIds,
         final boolean follow,
         final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange,
+        final Long2ObjectHashMap<List<PositionRange>> recordingIdToSecondaryRanges,
         final Subscription replaySubscription)
     {
         return queryStreamIds
             .stream()
             .flatMap(id ->
                 lookupArchiveLocations(
-                    id, follow, aeronChannel, recordingIdToPositionRange)
+                    id, follow, aeronChannel, recordingIdToPositionRange, recordingIdToSecondaryRanges)
                     .stream()
                     // filter out empty streams as
                     // 1) they are empty - we don't need to poll them
@@ -138,16 +151,14 @@ public class FixArchiveScanningAgent implements AutoCloseable
             .toArray(RecordingPoller[]::new);
     }
 
-    private Long2ObjectHashMap<PositionRange> scanIndexIfPossible(
-        final FixMessageConsumer fixHandler, final boolean follow, final IntHashSet queryStreamIds)
+    private IndexQuery planIndexQueryIfPossible(final FixMessageConsumer fixHandler, final boolean follow)
     {
         if (DEBUG_LOG_ARCHIVE_SCAN)
         {
             DebugLogger.log(ARCHIVE_SCAN,
                 "checking index,follow=" +
                 follow +
-                ",logFileDir=" + logFileDir +
-                ",queryStreamIds=" + queryStreamIds);
+                ",logFileDir=" + logFileDir);
         }
 
         // Don't support scan + continuous update query for now
@@ -170,39 +181,78 @@ public class FixArchiveScanningAgent implements AutoCloseable
                 DebugLogger.log(ARCHIVE_SCAN, "indexQuery = " + indexQuery);
             }
 
-            if (indexQuery == null)
+            return indexQuery;
+        }
+        catch (final IllegalArgumentException e)
+        {
+            // Unable to create query plan
+            return null;
+        }
+    }
+
+    private Long2ObjectHashMap<PositionRange> scanTimeIndexIfPossible(
+        final IndexQuery indexQuery, final IntHashSet queryStreamIds)
+    {
+        if (indexQuery == null || !indexQuery.needsTimeIndex())
+        {
+            return null;
+        }
+
+        final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange = new Long2ObjectHashMap<>();
+        for (final int streamId : queryStreamIds)
+        {
+            TimeIndexReader reader = streamIdToInboundTimeIndex.get(streamId);
+            if (reader == null)
             {
-                return null;
+                reader = new TimeIndexReader(logFileDir, streamId);
+                streamIdToInboundTimeIndex.put(streamId, reader);
             }
 
-            final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange = new Long2ObjectHashMap<>();
-            for (final int streamId : queryStreamIds)
+            if (!reader.findPositionRange(indexQuery, recordingIdToPositionRange))
             {
-                TimeIndexReader reader = streamIdToInboundTimeIndex.get(streamId);
-                if (reader == null)
-                {
-                    reader = new TimeIndexReader(logFileDir, streamId);
-                    streamIdToInboundTimeIndex.put(streamId, reader);
-                }
-
-                if (!reader.findPositionRange(indexQuery, recordingIdToPositionRange))
-                {
-                    return null;
-                }
+                return null;
             }
+        }
 
-            if (DEBUG_LOG_ARCHIVE_SCAN)
+        if (DEBUG_LOG_ARCHIVE_SCAN)
+        {
+            DebugLogger.log(ARCHIVE_SCAN, "recordingIdToPositionRange = " + recordingIdToPositionRange);
+        }
+
+        return recordingIdToPositionRange;
+    }
+
+    private Long2ObjectHashMap<List<PositionRange>> scanSecondaryIndexIfPossible(
+        final IndexQuery indexQuery, final IntHashSet queryStreamIds)
+    {
+        if (indexQuery == null || indexQuery.secondaryKeys() == null)
+        {
+            return null;
+        }
+
+        final Long2ObjectHashMap<List<PositionRange>> recordingIdToSecondaryRanges = new Long2ObjectHashMap<>();
+        for (final int streamId : queryStreamIds)
+        {
+            SecondaryIndexReader reader = streamIdToSecondaryIndex.get(streamId);
+            if (reader == null)
             {
-                DebugLogger.log(ARCHIVE_SCAN, "recordingIdToPositionRange = " + recordingIdToPositionRange);
+                reader = new SecondaryIndexReader(logFileDir, streamId);
+                streamIdToSecondaryIndex.put(streamId, reader);
             }
 
-            return recordingIdToPositionRange;
+            if (!reader.findPositionRanges(
+                indexQuery.secondaryKeys(), indexQuery.secondaryKeyKind(), recordingIdToSecondaryRanges))
+            {
+                return null;
+            }
         }
-        catch (final IllegalArgumentException e)
+
+        if (DEBUG_LOG_ARCHIVE_SCAN)
         {
-            // Unable to create query plan
-            return null;
+            DebugLogger.log(ARCHIVE_SCAN, "recordingIdToSecondaryRanges = " + recordingIdToSecondaryRanges);
         }
+
+        return recordingIdToSecondaryRanges;
     }
 
     private boolean checkCompletion(final RecordingPoller[] pollers)
@@ -227,7 +277,8 @@ public class FixArchiveScanningAgent implements AutoCloseable
         final int queryStreamId,
         final boolean follow,
         final String aeronChannel,
-        final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange)
+        final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange,
+        final Long2ObjectHashMap<List<PositionRange>> recordingIdToSecondaryRanges)
     {
         final List<ArchiveLocation> archiveLocations = new ArrayList<>();
 
@@ -259,6 +310,19 @@ public class FixArchiveScanningAgent implements AutoCloseable
             }
         }
 
+        // Positions before the start of the recording may have been moved to the cold archive
+        if (coldArchiveReader != null)
+        {
+            for (final ArchiveLocation location : archiveLocations)
+            {
+                final long coldStartPosition = coldArchiveReader.startPosition(location.recordingId);
+                if (coldStartPosition != NULL_POSITION && coldStartPosition < location.startPosition)
+                {
+                    location.startPosition = coldStartPosition;
+                }
+            }
+        }
+
         // try to narrow down the scan range using the index
         if (recordingIdToPositionRange != null)
         {
@@ -290,15 +354,104 @@ public class FixArchiveScanningAgent implements AutoCloseable
             }
         }
 
+        // Only replay the messages that the secondary index says could match
+        if (recordingIdToSecondaryRanges != null)
+        {
+            final ListIterator<ArchiveLocation> iterator = archiveLocations.listIterator();
+            while (iterator.hasNext())
+            {
+                final ArchiveLocation location = iterator.next();
+
+                final List<PositionRange> ranges = recordingIdToSecondaryRanges.get(location.recordingId);
+                // Recordings without a secondary index still need to be fully scanned.
+                if (ranges != null)
+                {
+                    final ArchiveLocation restrictedLocation = restrict(location, ranges);
+                    if (restrictedLocation == null)
+                    {
+                        iterator.remove();
+                    }
+                    else
+                    {
+                        iterator.set(restrictedLocation);
+                    }
+                }
+            }
+        }
+
+        if (coldArchiveReader != null)
+        {
+            for (final ArchiveLocation location : archiveLocations)
+            {
+                splitColdLocations(location);
+            }
+        }
+
         return archiveLocations;
     }
 
+    private void splitColdLocations(final ArchiveLocation firstLocation)
+    {
+        final long coldEndPosition = coldArchiveReader.endPosition(firstLocation.recordingId);
+        if (coldEndPosition == NULL_POSITION)
+        {
+            return;
+        }
+
+        for (ArchiveLocation location = firstLocation; location != null; location = location.next)
+        {
+            if (location.startPosition < coldEndPosition)
+            {
+                location.cold = true;
+                if (location.stopPosition == NULL_POSITION || location.stopPosition > coldEndPosition)
+                {
+                    final ArchiveLocation archivedLocation = new ArchiveLocation(
+                        location.recordingId, coldEndPosition, location.stopPosition);
+                    archivedLocation.next = location.next;
+                    location.stopPosition = coldEndPosition;
+                    location.next = archivedLocation;
+                }
+            }
+        }
+    }
+
+    private static ArchiveLocation restrict(final ArchiveLocation location, final List<PositionRange> ranges)
+    {
+        ArchiveLocation head = null;
+        ArchiveLocation tail = null;
+        for (final PositionRange range : ranges)
+        {
+            final long startPosition = Math.max(location.startPosition, range.startPosition());
+            final long stopPosition = Math.min(location.stopPosition, range.endPosition());
+            if (startPosition < stopPosition)
+            {
+                final ArchiveLocation restrictedLocation = new ArchiveLocation(
+                    location.recordingId, startPosition, stopPosition);
+                if (head == null)
+                {
+                    head = restrictedLocation;
+                }
+                else
+                {
+                    tail.next = restrictedLocation;
+                }
+                tail = restrictedLocation;
+            }
+        }
+
+        return head;
+    }
+
     static class ArchiveLocation
     {
         final long recordingId;
 
         long startPosition;
         long stopPosition;
+        // Subsequent locations within the same recording to replay after this one.
+        ArchiveLocation next;
+        // Whether this location is replayed from the cold archive rather than the Aeron Archive.
+        boolean cold;
 
         ArchiveLocation(
             final long recordingId, final long startPosition, final long stopPosition)
@@ -324,6 +477,8 @@ public class FixArchiveScanningAgent implements AutoCloseable
                 "recordingId=" + recordingId +
                 ", startPosition=" + startPosition +
                 ", stopPosition=" + stopPosition +
+                ", cold=" + cold +
+                ", next=" + next +
                 '}';
         }
     }
@@ -337,6 +492,7 @@ public class FixArchiveScanningAgent implements AutoCloseable
 
         long stopPosition;
         Image image;
+        ColdArchiveReplay coldReplay;
 
         RecordingPoller(
             final Subscription replaySubscription,
@@ -350,11 +506,23 @@ public class FixArchiveScanningAgent implements AutoCloseable
 
         public boolean isComplete()
         {
-            return stopPosition != NULL_POSITION && image == null && archiveLocation == null;
+            return stopPosition != NULL_POSITION && image == null && coldReplay == null && archiveLocation == null;
         }
 
         public int poll(final FragmentAssembler fragmentAssembler, final int fragmentLimit)
         {
+            if (coldReplay != null)
+            {
+                final int fragments = coldReplay.poll(fragmentAssembler, FixArchiveScanningAgent.this.fragmentLimit);
+                if (coldReplay.isEndOfStream())
+                {
+                    coldReplay.close();
+                    coldReplay = null;
+                    return fragments + 1;
+                }
+                return fragments;
+            }
+
             if (image == null)
             {
                 if (archiveLocation == null)
@@ -362,7 +530,13 @@ public class FixArchiveScanningAgent implements AutoCloseable
                     return 0;
                 }
 
-                if (archiveLocation.length() != 0)
+                if (archiveLocation.cold)
+                {
+                    coldReplay = coldArchiveReader.replay(
+                        archiveLocation.recordingId, archiveLocation.startPosition, archiveLocation.length());
+                    stopPosition = archiveLocation.stopPosition;
+                }
+                else if (archiveLocation.length() != 0)
                 {
                     final int sessionId = (int)aeronArchive.startReplay(
                         archiveLocation.recordingId,
@@ -373,8 +547,8 @@ public class FixArchiveScanningAgent implements AutoCloseable
 
                     image = lookupImage(sessionId);
                     stopPosition = archiveLocation.stopPosition;
-                    archiveLocation = null;
                 }
+                archiveLocation = archiveLocation.next;
 
                 return 1;
             }
@@ -414,6 +588,11 @@ public class FixArchiveScanningAgent implements AutoCloseable
         public void close()
         {
             // don't own replay subscription so no need to close it.
+            if (coldReplay != null)
+            {
+                coldReplay.close();
+                coldReplay = null;
+            }
         }
 
         public String toString()
@@ -424,6 +603,7 @@ public class FixArchiveScanningAgent implements AutoCloseable
                 ", originalStreamId=" + originalStreamId +
                 ", stopPosition=" + stopPosition +
                 ", image=" + image +
+                ", coldReplay=" + coldReplay +
                 '}';
         }
     }
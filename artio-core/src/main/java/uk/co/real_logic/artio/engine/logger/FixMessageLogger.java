@@ -207,9 +207,10 @@ public class FixMessageLogger implements Agent
 
         /**
          * Provide the compaction size to within the reorder buffer. The FixMessageLogger re-orders its messages
-         * internally in order to hand them off the consumer in timestamp order. A larger compaction size allows it's
-         * internal reorder buffer to grow larger before compaction is attempted. A larger compaction size results in
-         * less compaction and thus less CPU usage at the cost of more memory being consumed.
+         * internally in order to hand them off the consumer in timestamp order, buffering out of order messages
+         * in a ring buffer per stream. The compaction size bounds the initial capacity of each of these ring
+         * buffers, which grow on demand up to the {@link #maximumBufferSize(int)}, so a large compaction size no
+         * longer results in a large up-front allocation.
          *
          * @param compactionSize the compaction size to within the reorder buffer.
          * @return this
@@ -223,8 +224,8 @@ public class FixMessageLogger implements Agent
         }
 
         /**
-         * Sets the maximum size that the internal reorder buffer can grow to. If this is exceeded then all the
-         * messages within the reorder buffer are simply dumped out in their current order.
+         * Sets the maximum number of bytes that can be buffered for reordering across all streams. If this is exceeded
+         * then all the buffered messages are simply dumped out in the best timestamp order available.
          *
          * @param maximumBufferSize the maximum reorder buffer size in bytes
          * @return this
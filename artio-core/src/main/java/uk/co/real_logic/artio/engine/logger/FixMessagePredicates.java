@@ -29,6 +29,9 @@ import uk.co.real_logic.artio.util.BufferAsciiSequence;
 import uk.co.real_logic.artio.util.MessageTypeEncoding;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
@@ -36,6 +39,13 @@ import java.util.regex.Pattern;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.SENDER_COMP_ID;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.SENDER_LOCATION_ID;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.SENDER_SUB_ID;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.TARGET_COMP_ID;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.TARGET_LOCATION_ID;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.TARGET_SUB_ID;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataSinceVersion;
 
 /**
@@ -43,6 +53,16 @@ import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataSinceVer
  */
 public final class FixMessagePredicates
 {
+    static final int NO_TAG = 0;
+
+    // Relative costs of evaluating different predicates, used to order the operands of compiled predicates.
+    private static final int SBE_FIELD_COST = 0;
+    private static final int MESSAGE_TYPE_COST = 1;
+    private static final int SESSION_CACHED_COST = 2;
+    private static final int FIELD_SCAN_COST = 3;
+    private static final int HEADER_DECODE_COST = 4;
+    private static final int UNKNOWN_COST = 5;
+
     private FixMessagePredicates()
     {
     }
@@ -109,6 +129,141 @@ public final class FixMessagePredicates
         }
     }
 
+    /**
+     * Compiles a predicate into an equivalent one that is cheaper to evaluate, this is useful for filtering large
+     * archive scans with {@link #filterBy(FixMessageConsumer, FixMessagePredicate)}.
+     *
+     * <ul>
+     *     <li>{@link #whereHeader(FixDictionary, Predicate)} predicates that are made up of the comp id, sub id and
+     *     location id predicates in this class, combined with and or or, match the raw bytes of those fields rather
+     *     than decoding the whole header of every message.</li>
+     *     <li>The operands of and and or predicates are reordered so that the cheapest ones are evaluated first. For
+     *     example timestamp, session id and message type checks only read fields of the {@link FixMessageDecoder}
+     *     and are evaluated before anything that reads the FIX message itself.</li>
+     * </ul>
+     *
+     * Since the order of evaluation can change, custom predicates combined into the predicate being compiled should
+     * be free of side effects.
+     *
+     * @param predicate the predicate to compile.
+     * @return a predicate that matches the same messages as the predicate that was passed in.
+     */
+    public static FixMessagePredicate compile(final FixMessagePredicate predicate)
+    {
+        final boolean isAnd = predicate instanceof FixMessageAnd;
+        if (isAnd || predicate instanceof FixMessageOr)
+        {
+            final List<FixMessagePredicate> operands = new ArrayList<>();
+            flatten(predicate, isAnd, operands);
+
+            final List<FixMessagePredicate> compiledOperands = new ArrayList<>();
+            for (final FixMessagePredicate operand : operands)
+            {
+                flatten(compile(operand), isAnd, compiledOperands);
+            }
+
+            // Stable sort, so equally cheap operands are evaluated in the order that they were written.
+            compiledOperands.sort(Comparator.comparingInt(FixMessagePredicates::cost));
+
+            final int last = compiledOperands.size() - 1;
+            FixMessagePredicate compiled = compiledOperands.get(last);
+            for (int i = last - 1; i >= 0; i--)
+            {
+                final FixMessagePredicate operand = compiledOperands.get(i);
+                compiled = isAnd ? new FixMessageAnd(operand, compiled) : new FixMessageOr(operand, compiled);
+            }
+            return compiled;
+        }
+
+        if (predicate instanceof WhereHeader)
+        {
+            final FixMessagePredicate fieldMatcher = compileHeader(((WhereHeader)predicate).matches());
+            if (fieldMatcher != null)
+            {
+                final FixMessagePredicate compiled = compile(fieldMatcher);
+                return predicate instanceof SessionConsistentWhereHeader ?
+                    ((SessionConsistentWhereHeader)predicate).withCompiledMatches(compiled) : compiled;
+            }
+        }
+
+        return predicate;
+    }
+
+    private static void flatten(
+        final FixMessagePredicate predicate, final boolean isAnd, final List<FixMessagePredicate> operands)
+    {
+        if (isAnd ? predicate instanceof FixMessageAnd : predicate instanceof FixMessageOr)
+        {
+            final CompositeFixMessagePredicate composite = (CompositeFixMessagePredicate)predicate;
+            flatten(composite.left(), isAnd, operands);
+            flatten(composite.right(), isAnd, operands);
+        }
+        else
+        {
+            operands.add(predicate);
+        }
+    }
+
+    // Returns a predicate that matches the raw header fields or null if the header predicate can't be compiled.
+    private static FixMessagePredicate compileHeader(final Predicate<SessionHeaderDecoder> predicate)
+    {
+        if (predicate instanceof HeaderMatches)
+        {
+            final HeaderMatches matches = (HeaderMatches)predicate;
+            // A decoded header has an empty value for missing fields, whereas a missing field never matches a tag.
+            if (matches.tag == NO_TAG || matches.value.isEmpty())
+            {
+                return null;
+            }
+            return new TagValueOf(matches.tag, matches.value);
+        }
+
+        if (predicate instanceof HeaderAnd || predicate instanceof HeaderOr)
+        {
+            final CompositeHeaderPredicate composite = (CompositeHeaderPredicate)predicate;
+            final FixMessagePredicate left = compileHeader(composite.left);
+            final FixMessagePredicate right = compileHeader(composite.right);
+            if (left == null || right == null)
+            {
+                return null;
+            }
+            return predicate instanceof HeaderAnd ? new FixMessageAnd(left, right) : new FixMessageOr(left, right);
+        }
+
+        return null;
+    }
+
+    static int cost(final FixMessagePredicate predicate)
+    {
+        if (predicate instanceof From || predicate instanceof To || predicate instanceof SessionIdOf)
+        {
+            return SBE_FIELD_COST;
+        }
+        else if (predicate instanceof MessageTypeOf)
+        {
+            return MESSAGE_TYPE_COST;
+        }
+        else if (predicate instanceof SessionConsistentWhereHeader)
+        {
+            return SESSION_CACHED_COST;
+        }
+        else if (predicate instanceof TagValueOf)
+        {
+            return FIELD_SCAN_COST;
+        }
+        else if (predicate instanceof WhereHeader)
+        {
+            return HEADER_DECODE_COST;
+        }
+        else if (predicate instanceof CompositeFixMessagePredicate)
+        {
+            final CompositeFixMessagePredicate composite = (CompositeFixMessagePredicate)predicate;
+            return Math.max(cost(composite.left()), cost(composite.right()));
+        }
+
+        return UNKNOWN_COST;
+    }
+
     /**
      * Filters a timestamp to be between these begin and end times.
      *
@@ -199,7 +354,9 @@ public final class FixMessagePredicates
     /**
      * Filter messages by the message type of their fix message.
      *
-     * Timestamps filtered in precision of CommonConfiguration.clock().
+     * If the {@link uk.co.real_logic.artio.engine.EngineConfiguration#secondaryIndexMessageTypes(boolean)}
+     * configuration option is enabled then {@link FixArchiveScanner} scans that are filtered by this predicate use
+     * the secondary index to only read the matching messages from the archive.
      *
      * @param messageTypes the fix message type strings that you see in the message.
      * @return the resulting predicate
@@ -229,11 +386,100 @@ public final class FixMessagePredicates
 
     private static FixMessagePredicate messageTypeOf(final LongHashSet hashSet)
     {
-        return (message) ->
+        return new MessageTypeOf(hashSet);
+    }
+
+    static class MessageTypeOf implements FixMessagePredicate
+    {
+        private final LongHashSet messageTypes;
+
+        MessageTypeOf(final LongHashSet messageTypes)
+        {
+            this.messageTypes = messageTypes;
+        }
+
+        public boolean test(final FixMessageDecoder message)
         {
             final long messageType = MessageTypeExtractor.getMessageType(message);
-            return hashSet.contains(messageType);
-        };
+            return messageTypes.contains(messageType);
+        }
+
+        LongHashSet messageTypes()
+        {
+            return messageTypes;
+        }
+    }
+
+    /**
+     * Filter messages by the value of a tag within their fix message. The first occurrence of the tag within the
+     * message is compared against the value.
+     *
+     * If the {@link uk.co.real_logic.artio.engine.EngineConfiguration#secondaryIndexTags(int...)} configuration
+     * option includes this tag then {@link FixArchiveScanner} scans that are filtered by this predicate use the
+     * secondary index to only read the matching messages from the archive.
+     *
+     * @param tag the tag number of the field, for example 11 for ClOrdID.
+     * @param value the value that the field should have.
+     * @return the resulting predicate.
+     */
+    public static FixMessagePredicate tagValueOf(final int tag, final String value)
+    {
+        return new TagValueOf(tag, value);
+    }
+
+    static class TagValueOf implements FixMessagePredicate, SecondaryIndexKey.FieldHandler
+    {
+        private final int tag;
+        private final String value;
+        private final byte[] expectedValue;
+
+        private boolean matches;
+
+        TagValueOf(final int tag, final String value)
+        {
+            this.tag = tag;
+            this.value = value;
+            this.expectedValue = value.getBytes(US_ASCII);
+        }
+
+        public boolean test(final FixMessageDecoder message)
+        {
+            final DirectBuffer buffer = message.buffer();
+            final int length = message.bodyLength();
+            final int bodyOffset = message.limit() + FixMessageDecoder.bodyHeaderLength();
+            matches = false;
+            SecondaryIndexKey.scanFields(buffer, bodyOffset, length, this);
+            return matches;
+        }
+
+        public boolean onField(final int tag, final DirectBuffer buffer, final int valueOffset, final int valueLength)
+        {
+            if (tag == this.tag)
+            {
+                matches = SecondaryIndexKey.valueEquals(buffer, valueOffset, valueLength, expectedValue);
+                return false;
+            }
+
+            return true;
+        }
+
+        int tag()
+        {
+            return tag;
+        }
+
+        String value()
+        {
+            return value;
+        }
+
+        public String toString()
+        {
+            return "TagValueOf{" +
+                "tag=" + tag +
+                ", value='" + value + '\'' +
+                '}';
+        }
     }
 
     /**
@@ -258,6 +504,7 @@ public final class FixMessagePredicates
         return headerMatches(
             senderCompId,
             HeaderField.SENDER_COMP_ID,
+            SENDER_COMP_ID,
             SessionHeaderDecoder::senderCompID,
             SessionHeaderDecoder::senderCompIDLength,
             true);
@@ -268,6 +515,7 @@ public final class FixMessagePredicates
         return headerMatches(
             targetCompId,
             HeaderField.TARGET_COMP_ID,
+            TARGET_COMP_ID,
             SessionHeaderDecoder::targetCompID,
             SessionHeaderDecoder::targetCompIDLength,
             true);
@@ -276,25 +524,31 @@ public final class FixMessagePredicates
     public static Predicate<SessionHeaderDecoder> senderSubIdOf(final String senderSubId)
     {
         return headerMatchesConsistent(
-            senderSubId, SessionHeaderDecoder::senderSubID, SessionHeaderDecoder::senderSubIDLength);
+            senderSubId, SENDER_SUB_ID, SessionHeaderDecoder::senderSubID, SessionHeaderDecoder::senderSubIDLength);
     }
 
     public static Predicate<SessionHeaderDecoder> targetSubIdOf(final String targetSubId)
     {
         return headerMatchesConsistent(
-            targetSubId, SessionHeaderDecoder::targetSubID, SessionHeaderDecoder::targetSubIDLength);
+            targetSubId, TARGET_SUB_ID, SessionHeaderDecoder::targetSubID, SessionHeaderDecoder::targetSubIDLength);
     }
 
     public static Predicate<SessionHeaderDecoder> senderLocationIdOf(final String senderLocationId)
     {
         return headerMatchesConsistent(
-            senderLocationId, SessionHeaderDecoder::senderLocationID, SessionHeaderDecoder::senderLocationIDLength);
+            senderLocationId,
+            SENDER_LOCATION_ID,
+            SessionHeaderDecoder::senderLocationID,
+            SessionHeaderDecoder::senderLocationIDLength);
     }
 
     public static Predicate<SessionHeaderDecoder> targetLocationIdOf(final String targetLocationId)
     {
         return headerMatchesConsistent(
-            targetLocationId, SessionHeaderDecoder::targetLocationID, SessionHeaderDecoder::targetLocationIDLength);
+            targetLocationId,
+            TARGET_LOCATION_ID,
+            SessionHeaderDecoder::targetLocationID,
+            SessionHeaderDecoder::targetLocationIDLength);
     }
 
     public static Predicate<SessionHeaderDecoder> headerMatches(
@@ -302,25 +556,27 @@ public final class FixMessagePredicates
         final Function<SessionHeaderDecoder, char[]> charExtractor,
         final ToIntFunction<SessionHeaderDecoder> lengthExtractor)
     {
-        return headerMatches(value, HeaderField.NOT_OPTIMISED, charExtractor, lengthExtractor, false);
+        return headerMatches(value, HeaderField.NOT_OPTIMISED, NO_TAG, charExtractor, lengthExtractor, false);
     }
 
     private static Predicate<SessionHeaderDecoder> headerMatchesConsistent(
         final String value,
+        final int tag,
         final Function<SessionHeaderDecoder, char[]> charExtractor,
         final ToIntFunction<SessionHeaderDecoder> lengthExtractor)
     {
-        return headerMatches(value, HeaderField.NOT_OPTIMISED, charExtractor, lengthExtractor, true);
+        return headerMatches(value, HeaderField.NOT_OPTIMISED, tag, charExtractor, lengthExtractor, true);
     }
 
     private static Predicate<SessionHeaderDecoder> headerMatches(
         final String value,
         final HeaderField headerField,
+        final int tag,
         final Function<SessionHeaderDecoder, char[]> charExtractor,
         final ToIntFunction<SessionHeaderDecoder> lengthExtractor,
         final boolean sessionConsistent)
     {
-        return new HeaderMatches(value, headerField, sessionConsistent, charExtractor, lengthExtractor);
+        return new HeaderMatches(value, headerField, tag, sessionConsistent, charExtractor, lengthExtractor);
     }
 
     abstract static class HeaderPredicate implements Predicate<SessionHeaderDecoder>
@@ -336,13 +592,7 @@ public final class FixMessagePredicates
         {
             if (other instanceof HeaderPredicate)
             {
-                return new CompositeHeaderPredicate(this, (HeaderPredicate)other)
-                {
-                    public boolean test(final SessionHeaderDecoder sessionHeaderDecoder)
-                    {
-                        return left.test(sessionHeaderDecoder) && right.test(sessionHeaderDecoder);
-                    }
-                };
+                return new HeaderAnd(this, (HeaderPredicate)other);
             }
             else
             {
@@ -354,13 +604,7 @@ public final class FixMessagePredicates
         {
             if (other instanceof HeaderPredicate)
             {
-                return new CompositeHeaderPredicate(this, (HeaderPredicate)other)
-                {
-                    public boolean test(final SessionHeaderDecoder sessionHeaderDecoder)
-                    {
-                        return left.test(sessionHeaderDecoder) || right.test(sessionHeaderDecoder);
-                    }
-                };
+                return new HeaderOr(this, (HeaderPredicate)other);
             }
             else
             {
@@ -401,11 +645,39 @@ public final class FixMessagePredicates
 
     }
 
+    static class HeaderAnd extends CompositeHeaderPredicate
+    {
+        HeaderAnd(final HeaderPredicate left, final HeaderPredicate right)
+        {
+            super(left, right);
+        }
+
+        public boolean test(final SessionHeaderDecoder sessionHeaderDecoder)
+        {
+            return left.test(sessionHeaderDecoder) && right.test(sessionHeaderDecoder);
+        }
+    }
+
+    static class HeaderOr extends CompositeHeaderPredicate
+    {
+        HeaderOr(final HeaderPredicate left, final HeaderPredicate right)
+        {
+            super(left, right);
+        }
+
+        public boolean test(final SessionHeaderDecoder sessionHeaderDecoder)
+        {
+            return left.test(sessionHeaderDecoder) || right.test(sessionHeaderDecoder);
+        }
+    }
+
     static class HeaderMatches extends HeaderPredicate
     {
         final char[] expectedChars;
         final HeaderField headerField;
         final String value;
+        // The tag of the field, or NO_TAG if it is extracted by a custom function
+        final int tag;
 
         private final Function<SessionHeaderDecoder, char[]> charExtractor;
         private final ToIntFunction<SessionHeaderDecoder> lengthExtractor;
@@ -413,6 +685,7 @@ public final class FixMessagePredicates
         HeaderMatches(
             final String value,
             final HeaderField headerField,
+            final int tag,
             final boolean sessionConsistent,
             final Function<SessionHeaderDecoder, char[]> charExtractor,
             final ToIntFunction<SessionHeaderDecoder> lengthExtractor)
@@ -422,6 +695,7 @@ public final class FixMessagePredicates
 
             this.value = value;
             this.headerField = headerField;
+            this.tag = tag;
             this.charExtractor = charExtractor;
             this.lengthExtractor = lengthExtractor;
         }
@@ -450,12 +724,14 @@ public final class FixMessagePredicates
 
     static class WhereHeader implements FixMessagePredicate
     {
+        private final FixDictionary fixDictionary;
         private final Predicate<SessionHeaderDecoder> matches;
         private final SessionHeaderDecoder header;
         private final AsciiBuffer asciiBuffer;
 
         WhereHeader(final FixDictionary fixDictionary, final Predicate<SessionHeaderDecoder> matches)
         {
+            this.fixDictionary = fixDictionary;
             header = fixDictionary.makeHeaderDecoder();
             this.matches = matches;
             asciiBuffer = new MutableAsciiBuffer();
@@ -475,24 +751,54 @@ public final class FixMessagePredicates
         {
             return matches;
         }
+
+        FixDictionary fixDictionary()
+        {
+            return fixDictionary;
+        }
     }
 
-    // Applies a WhereHeader and caches the session ids
+    // Applies a WhereHeader, or a compiled predicate that matches the same raw header fields, and caches the
+    // session ids
     static class SessionConsistentWhereHeader extends WhereHeader
     {
         private final LongHashSet matchingIds = new LongHashSet();
         private final LongHashSet rejectedIds = new LongHashSet();
+        private final FixMessagePredicate compiledMatches;
 
         SessionConsistentWhereHeader(
             final FixDictionary fixDictionary, final Predicate<SessionHeaderDecoder> matches)
+        {
+            this(fixDictionary, matches, null);
+        }
+
+        private SessionConsistentWhereHeader(
+            final FixDictionary fixDictionary,
+            final Predicate<SessionHeaderDecoder> matches,
+            final FixMessagePredicate compiledMatches)
         {
             super(fixDictionary, matches);
+            this.compiledMatches = compiledMatches;
+        }
+
+        SessionConsistentWhereHeader withCompiledMatches(final FixMessagePredicate compiledMatches)
+        {
+            return new SessionConsistentWhereHeader(fixDictionary(), matches(), compiledMatches);
+        }
+
+        FixMessagePredicate compiledMatches()
+        {
+            return compiledMatches;
         }
 
         public void reset()
         {
             matchingIds.clear();
             rejectedIds.clear();
+            if (compiledMatches != null)
+            {
+                compiledMatches.reset();
+            }
         }
 
         public boolean test(final FixMessageDecoder message)
@@ -511,7 +817,7 @@ public final class FixMessagePredicates
                 return false;
             }
 
-            final boolean result = super.test(message);
+            final boolean result = compiledMatches != null ? compiledMatches.test(message) : super.test(message);
             if (result)
             {
                 matchingIds.add(sessionId);
@@ -532,7 +838,29 @@ public final class FixMessagePredicates
      */
     public static FixMessagePredicate sessionOf(final long sessionId)
     {
-        return (message) -> message.session() == sessionId;
+        return new SessionIdOf(sessionId);
+    }
+
+    static class SessionIdOf implements FixMessagePredicate
+    {
+        private final long sessionId;
+
+        SessionIdOf(final long sessionId)
+        {
+            this.sessionId = sessionId;
+        }
+
+        public boolean test(final FixMessageDecoder message)
+        {
+            return message.session() == sessionId;
+        }
+
+        public String toString()
+        {
+            return "SessionIdOf{" +
+                "sessionId=" + sessionId +
+                '}';
+        }
     }
 
     public static FixMessagePredicate bodyMatches(final Pattern pattern)
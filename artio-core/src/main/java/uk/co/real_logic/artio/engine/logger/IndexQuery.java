@@ -15,6 +15,10 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import org.agrona.collections.LongHashSet;
+
+import static uk.co.real_logic.artio.engine.logger.SecondaryIndexWriter.MESSAGE_TYPE_KIND;
+
 class IndexQuery
 {
     static final long NO_BEGIN = Long.MIN_VALUE;
@@ -22,6 +26,8 @@ class IndexQuery
 
     private long beginTimestampInclusive = Long.MIN_VALUE;
     private long endTimestampExclusive = Long.MAX_VALUE;
+    private LongHashSet secondaryKeys;
+    private int secondaryKeyKind;
 
     void from(final long beginTimestampInclusive)
     {
@@ -43,7 +49,25 @@ class IndexQuery
         }
     }
 
+    // Only a single set of keys is looked up, tag values are preferred as they're usually more selective.
+    void secondaryKeys(final LongHashSet secondaryKeys, final int secondaryKeyKind)
+    {
+        if (this.secondaryKeys == null ||
+            (secondaryKeyKind != MESSAGE_TYPE_KIND && this.secondaryKeyKind == MESSAGE_TYPE_KIND))
+        {
+            this.secondaryKeys = secondaryKeys;
+            this.secondaryKeyKind = secondaryKeyKind;
+        }
+    }
+
     boolean needed()
+    {
+        return beginTimestampInclusive != NO_BEGIN ||
+            endTimestampExclusive != NO_END ||
+            secondaryKeys != null;
+    }
+
+    boolean needsTimeIndex()
     {
         return beginTimestampInclusive != NO_BEGIN ||
             endTimestampExclusive != NO_END;
@@ -54,6 +78,8 @@ class IndexQuery
         return "IndexPlan{" +
             "beginTimestampInclusive=" + beginTimestampInclusive +
             ", endTimestampExclusive=" + endTimestampExclusive +
+            ", secondaryKeys=" + secondaryKeys +
+            ", secondaryKeyKind=" + secondaryKeyKind +
             '}';
     }
 
@@ -66,4 +92,14 @@ class IndexQuery
     {
         return endTimestampExclusive;
     }
+
+    public LongHashSet secondaryKeys()
+    {
+        return secondaryKeys;
+    }
+
+    public int secondaryKeyKind()
+    {
+        return secondaryKeyKind;
+    }
 }
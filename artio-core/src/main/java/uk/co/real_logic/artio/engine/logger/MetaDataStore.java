@@ -0,0 +1,388 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
+
+/**
+ * Memory mapped store of session meta data. Each session's sequence number index record refers to its meta data
+ * by the offset of its slot within the file.
+ * <p>
+ * Header: magic number, version, limit of the allocated slots, the head of the free list for each size class
+ * Slots: int capacity, int length, long session id, followed by capacity bytes of meta data
+ * <p>
+ * Slot capacities are powers of two so meta data is updated in place unless it outgrows its slot, in which case
+ * it's moved to a bigger slot and the old slot is put on the free list for its size class. Free slots are reused
+ * before the file is grown.
+ * <p>
+ * Each slot records the session that owns it, a slot is only read on behalf of its owner so a stale offset that
+ * refers to a slot that's been freed and reused by another session doesn't return that session's meta data.
+ * <p>
+ * There is a single writer, and readers may be on other threads, in the same manner as the sequence number index.
+ */
+final class MetaDataStore implements AutoCloseable
+{
+    static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private static final int VERSION_OFFSET = SIZE_OF_LONG;
+    private static final int LIMIT_OFFSET = VERSION_OFFSET + SIZE_OF_INT;
+    private static final int FREE_LIST_OFFSET = LIMIT_OFFSET + SIZE_OF_INT;
+    private static final int MIN_SLOT_CAPACITY = 16;
+    private static final int SIZE_CLASS_COUNT = 27;
+    static final int HEADER_LENGTH = BitUtil.align(FREE_LIST_OFFSET + SIZE_CLASS_COUNT * SIZE_OF_INT, SIZE_OF_LONG);
+
+    private static final int SLOT_CAPACITY_OFFSET = 0;
+    private static final int SLOT_LENGTH_OFFSET = SLOT_CAPACITY_OFFSET + SIZE_OF_INT;
+    private static final int SLOT_SESSION_ID_OFFSET = SLOT_LENGTH_OFFSET + SIZE_OF_INT;
+    private static final int SLOT_HEADER_LENGTH = SLOT_SESSION_ID_OFFSET + SIZE_OF_LONG;
+    private static final int FREE_SLOT = -1;
+    private static final int NO_SLOT = NO_META_DATA;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(0, 0);
+    private final File file;
+    private final boolean writable;
+    private MappedByteBuffer mappedBuffer;
+
+    static MetaDataStore openForWriting(final File file)
+    {
+        final boolean isNew = !file.exists() || file.length() == 0;
+        if (isNew)
+        {
+            setLength(file, INITIAL_CAPACITY);
+        }
+
+        final MetaDataStore store = new MetaDataStore(file, true);
+        if (isNew)
+        {
+            store.initialiseHeader();
+        }
+        else
+        {
+            store.validateHeader();
+        }
+        return store;
+    }
+
+    static MetaDataStore openForReading(final File file)
+    {
+        final MetaDataStore store = new MetaDataStore(file, false);
+        store.validateHeader();
+        return store;
+    }
+
+    private MetaDataStore(final File file, final boolean writable)
+    {
+        this.file = file;
+        this.writable = writable;
+        map();
+    }
+
+    /**
+     * Read the meta data in a slot into the provided buffer.
+     *
+     * @param slot the slot offset, as stored in the sequence number index.
+     * @param sessionId the id of the session that the meta data belongs to.
+     * @param dstBuffer the buffer to copy the meta data into.
+     * @param dstOffset the offset within the buffer to copy the meta data to.
+     * @return the length of the meta data or {@link SequenceNumberIndexDescriptor#NO_META_DATA} if the slot isn't
+     * valid or doesn't belong to the session.
+     */
+    int read(final int slot, final long sessionId, final MutableDirectBuffer dstBuffer, final int dstOffset)
+    {
+        final int length = length(slot, sessionId);
+        if (length != NO_META_DATA)
+        {
+            dstBuffer.putBytes(dstOffset, buffer, slot + SLOT_HEADER_LENGTH, length);
+        }
+        return length;
+    }
+
+    int length(final int slot, final long sessionId)
+    {
+        final int length = length(slot);
+        if (length == NO_META_DATA || buffer.getLong(slot + SLOT_SESSION_ID_OFFSET) != sessionId)
+        {
+            return NO_META_DATA;
+        }
+        return length;
+    }
+
+    private int length(final int slot)
+    {
+        if (!slotInFile(slot))
+        {
+            return NO_META_DATA;
+        }
+
+        final UnsafeBuffer buffer = this.buffer;
+        final int length = buffer.getIntVolatile(slot + SLOT_LENGTH_OFFSET);
+        if (length == FREE_SLOT || length > buffer.getInt(slot + SLOT_CAPACITY_OFFSET))
+        {
+            return NO_META_DATA;
+        }
+        return length;
+    }
+
+    /**
+     * Write meta data, or update part of the existing meta data, for a session.
+     *
+     * @param slot the session's current slot, or {@link SequenceNumberIndexDescriptor#NO_META_DATA} if it has none.
+     * @param sessionId the id of the session that the meta data belongs to.
+     * @param srcBuffer the buffer containing the meta data to write.
+     * @param srcOffset the offset of the meta data within the buffer.
+     * @param updateOffset the offset within the session's meta data to write at.
+     * @param updateLength the length of meta data to write.
+     * @return the slot that the meta data has been written to, which differs from the given slot if it has moved.
+     */
+    int write(
+        final int slot,
+        final long sessionId,
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int updateOffset,
+        final int updateLength)
+    {
+        final int requiredLength = updateOffset + updateLength;
+        final UnsafeBuffer buffer = this.buffer;
+        final int oldLength = length(slot, sessionId);
+
+        if (oldLength != NO_META_DATA && requiredLength <= buffer.getInt(slot + SLOT_CAPACITY_OFFSET))
+        {
+            final int dataOffset = slot + SLOT_HEADER_LENGTH;
+            if (updateOffset > oldLength)
+            {
+                buffer.setMemory(dataOffset + oldLength, updateOffset - oldLength, (byte)0);
+            }
+            buffer.putBytes(dataOffset + updateOffset, srcBuffer, srcOffset, updateLength);
+            if (requiredLength > oldLength)
+            {
+                buffer.putIntOrdered(slot + SLOT_LENGTH_OFFSET, requiredLength);
+            }
+            return slot;
+        }
+
+        final int newSlot = allocate(requiredLength);
+        final int dataOffset = newSlot + SLOT_HEADER_LENGTH;
+        if (oldLength != NO_META_DATA)
+        {
+            // Carry over the prefix of the old meta data that isn't being updated.
+            final int prefixLength = Math.min(oldLength, updateOffset);
+            buffer.putBytes(dataOffset, buffer, slot + SLOT_HEADER_LENGTH, prefixLength);
+            if (updateOffset > prefixLength)
+            {
+                buffer.setMemory(dataOffset + prefixLength, updateOffset - prefixLength, (byte)0);
+            }
+            free(slot, sessionId);
+        }
+        else if (updateOffset > 0)
+        {
+            buffer.setMemory(dataOffset, updateOffset, (byte)0);
+        }
+
+        buffer.putBytes(dataOffset + updateOffset, srcBuffer, srcOffset, updateLength);
+        buffer.putLong(newSlot + SLOT_SESSION_ID_OFFSET, sessionId);
+        buffer.putIntOrdered(newSlot + SLOT_LENGTH_OFFSET, requiredLength);
+        return newSlot;
+    }
+
+    void free(final int slot, final long sessionId)
+    {
+        if (length(slot, sessionId) == NO_META_DATA)
+        {
+            return;
+        }
+
+        final UnsafeBuffer buffer = this.buffer;
+        final int capacity = buffer.getInt(slot + SLOT_CAPACITY_OFFSET);
+        final int freeListHeadOffset = freeListHeadOffset(sizeClass(capacity));
+        buffer.putIntOrdered(slot + SLOT_LENGTH_OFFSET, FREE_SLOT);
+        buffer.putInt(slot + SLOT_HEADER_LENGTH, buffer.getInt(freeListHeadOffset));
+        buffer.putInt(freeListHeadOffset, slot);
+    }
+
+    /**
+     * Frees all the slots, for example when all the sequence numbers have been reset.
+     */
+    void reset()
+    {
+        buffer.setMemory(FREE_LIST_OFFSET, SIZE_CLASS_COUNT * SIZE_OF_INT, (byte)0xFF);
+        buffer.putIntOrdered(LIMIT_OFFSET, HEADER_LENGTH);
+    }
+
+    void force()
+    {
+        mappedBuffer.force();
+    }
+
+    public void close()
+    {
+        if (mappedBuffer != null)
+        {
+            if (writable)
+            {
+                mappedBuffer.force();
+            }
+            IoUtil.unmap(mappedBuffer);
+            mappedBuffer = null;
+        }
+    }
+
+    private int allocate(final int length)
+    {
+        final int capacity = slotCapacity(length);
+        final int freeListHeadOffset = freeListHeadOffset(sizeClass(capacity));
+        final int freeSlot = buffer.getInt(freeListHeadOffset);
+        if (freeSlot != NO_SLOT)
+        {
+            buffer.putInt(freeListHeadOffset, buffer.getInt(freeSlot + SLOT_HEADER_LENGTH));
+            return freeSlot;
+        }
+
+        final int slot = buffer.getInt(LIMIT_OFFSET);
+        final int newLimit = slot + SLOT_HEADER_LENGTH + capacity;
+        if (newLimit > buffer.capacity())
+        {
+            grow(newLimit);
+        }
+
+        buffer.putInt(slot + SLOT_CAPACITY_OFFSET, capacity);
+        buffer.putIntOrdered(slot + SLOT_LENGTH_OFFSET, FREE_SLOT);
+        buffer.putIntOrdered(LIMIT_OFFSET, newLimit);
+        return slot;
+    }
+
+    private void grow(final int requiredCapacity)
+    {
+        long newCapacity = buffer.capacity();
+        while (newCapacity < requiredCapacity)
+        {
+            newCapacity <<= 1;
+        }
+
+        if (newCapacity > Integer.MAX_VALUE)
+        {
+            throw new IllegalStateException("Meta data file can't grow beyond 2GB: " + file);
+        }
+
+        setLength(file, newCapacity);
+        map();
+    }
+
+    private boolean slotInFile(final int slot)
+    {
+        if (slot < HEADER_LENGTH)
+        {
+            return false;
+        }
+
+        if (slot + SLOT_HEADER_LENGTH > buffer.capacity() ||
+            slot + SLOT_HEADER_LENGTH + buffer.getInt(slot + SLOT_CAPACITY_OFFSET) > buffer.capacity())
+        {
+            // The writer may have grown the file since it was mapped.
+            if (writable || file.length() <= buffer.capacity())
+            {
+                return false;
+            }
+
+            map();
+            return slotInFile(slot);
+        }
+
+        return true;
+    }
+
+    private void map()
+    {
+        final MappedByteBuffer oldMappedBuffer = mappedBuffer;
+        mappedBuffer = IoUtil.mapExistingFile(
+            file, writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, "meta data");
+        buffer.wrap(mappedBuffer);
+        if (oldMappedBuffer != null)
+        {
+            IoUtil.unmap(oldMappedBuffer);
+        }
+    }
+
+    private void initialiseHeader()
+    {
+        buffer.putLong(0, META_DATA_MAGIC_NUMBER);
+        buffer.putInt(VERSION_OFFSET, META_DATA_FILE_VERSION);
+        reset();
+        force();
+    }
+
+    private void validateHeader()
+    {
+        if (buffer.capacity() < HEADER_LENGTH)
+        {
+            throw new IllegalStateException("Metadata file too short: " + file);
+        }
+
+        final long magicNumber = buffer.getLong(0);
+        if (magicNumber != META_DATA_MAGIC_NUMBER)
+        {
+            throw new IllegalStateException("Invalid magic number in metadata file: " + magicNumber);
+        }
+
+        final int fileVersion = buffer.getInt(VERSION_OFFSET);
+        if (fileVersion < READABLE_META_DATA_FILE_VERSION)
+        {
+            throw new IllegalStateException("Unreadable metadata file version: " + fileVersion);
+        }
+    }
+
+    private static int slotCapacity(final int length)
+    {
+        return Math.max(MIN_SLOT_CAPACITY, BitUtil.findNextPositivePowerOfTwo(length));
+    }
+
+    private static int sizeClass(final int capacity)
+    {
+        return Integer.numberOfTrailingZeros(capacity) - Integer.numberOfTrailingZeros(MIN_SLOT_CAPACITY);
+    }
+
+    private static int freeListHeadOffset(final int sizeClass)
+    {
+        return FREE_LIST_OFFSET + sizeClass * SIZE_OF_INT;
+    }
+
+    private static void setLength(final File file, final long length)
+    {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"))
+        {
+            randomAccessFile.setLength(length);
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+}
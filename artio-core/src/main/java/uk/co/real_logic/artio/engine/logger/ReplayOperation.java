@@ -32,6 +32,7 @@ import uk.co.real_logic.artio.util.CharFormatter;
 import java.util.List;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
 
 /**
  * A continuable replay operation that can retried.
@@ -84,6 +85,8 @@ public class ReplayOperation
     private final LogTag logTag;
     private final CountersReader countersReader;
     private final Subscription subscription;
+    private final ColdArchiveReader coldArchiveReader;
+    private final int coldReplayFragmentLimit;
 
     // fields reset for each recordingRange
     private int replayedMessages = 0;
@@ -92,6 +95,8 @@ public class ReplayOperation
     private long replaySessionId;
     private int aeronSessionId;
     private Image image;
+    private ColdArchiveReplay coldReplay;
+    private long coldEndPosition;
 
     private enum State
     {
@@ -111,9 +116,13 @@ public class ReplayOperation
         final Subscription subscription,
         final int archiveReplayStream,
         final LogTag logTag,
-        final MessageTracker messageTracker)
+        final MessageTracker messageTracker,
+        final ColdArchiveReader coldArchiveReader,
+        final int coldReplayFragmentLimit)
     {
         this.messageTracker = messageTracker;
+        this.coldArchiveReader = coldArchiveReader;
+        this.coldReplayFragmentLimit = coldReplayFragmentLimit;
         assembler = new ControlledFragmentAssembler(this.messageTracker);
 
         this.ranges = ranges;
@@ -153,6 +162,8 @@ public class ReplayOperation
         {
             case INIT_CLOSING:
             {
+                closeColdReplay();
+
                 if (replaySessionId != 0)
                 {
                     DebugLogger.log(logTag, INIT_CLOSING_FORMATTER.get(), replaySessionId);
@@ -266,7 +277,25 @@ public class ReplayOperation
             final long recordingId = recordingRange.recordingId;
             final int count = recordingRange.count;
 
-            if (archivingNotComplete(endPosition, recordingId))
+            final long coldEndPosition = coldArchiveReader == null ?
+                NULL_POSITION : coldArchiveReader.cachedEndPosition(recordingId);
+            if (beginPosition < coldEndPosition)
+            {
+                // The start of this range has been moved to the cold archive, so the archive won't have it.
+                ranges.remove(0);
+                this.coldEndPosition = coldEndPosition;
+                coldReplay = coldArchiveReader.replay(
+                    recordingId, beginPosition, Math.min(endPosition, coldEndPosition) - beginPosition);
+                if (coldReplay == null)
+                {
+                    errorHandler.onError(new IllegalStateException(
+                        "Missing cold archive for recording " + recordingId + " below position " + coldEndPosition));
+                    return true;
+                }
+                messageTracker.reset(count);
+                logStart(count);
+            }
+            else if (archivingNotComplete(endPosition, recordingId))
             {
                 DebugLogger.log(logTag, "Archiving not complete");
 
@@ -277,34 +306,20 @@ public class ReplayOperation
             else
             {
                 ranges.remove(0);
-            }
 
-            try
-            {
-                replaySessionId = aeronArchive.startReplay(
-                    recordingId,
-                    beginPosition,
-                    length,
-                    IPC_CHANNEL,
-                    archiveReplayStream);
-                aeronSessionId = (int)replaySessionId;
+                if (!startArchiveReplay(recordingId, beginPosition, length))
+                {
+                    return true;
+                }
 
                 messageTracker.reset(count);
-
                 logStart(count);
-
-                // reset the image if the new recordingRange requires it
-                if (image != null && aeronSessionId != image.sessionId())
-                {
-                    image = null;
-                }
             }
-            catch (final Throwable exception)
-            {
-                errorHandler.onError(exception);
+        }
 
-                return true;
-            }
+        if (coldReplay != null)
+        {
+            return pollColdReplay();
         }
 
         if (image == null)
@@ -342,6 +357,80 @@ public class ReplayOperation
         }
     }
 
+    private boolean startArchiveReplay(final long recordingId, final long beginPosition, final long length)
+    {
+        try
+        {
+            replaySessionId = aeronArchive.startReplay(
+                recordingId,
+                beginPosition,
+                length,
+                IPC_CHANNEL,
+                archiveReplayStream);
+            aeronSessionId = (int)replaySessionId;
+
+            // reset the image if the new recordingRange requires it
+            if (image != null && aeronSessionId != image.sessionId())
+            {
+                image = null;
+            }
+
+            return true;
+        }
+        catch (final Throwable exception)
+        {
+            errorHandler.onError(exception);
+
+            return false;
+        }
+    }
+
+    private boolean pollColdReplay()
+    {
+        final ColdArchiveReplay coldReplay = this.coldReplay;
+        coldReplay.controlledPoll(assembler, coldReplayFragmentLimit);
+
+        final int messageTrackerCount = messageTracker.count;
+        final int recordingRangeCount = recordingRange.count;
+        if (messageTrackerCount >= recordingRangeCount)
+        {
+            closeColdReplay();
+            return onReachedMessageReplayCount(messageTrackerCount, recordingRangeCount);
+        }
+
+        if (coldReplay.isEndOfStream())
+        {
+            closeColdReplay();
+
+            // Carry on with the rest of the range from the archive.
+            final long coldEndPosition = this.coldEndPosition;
+            if (endPosition > coldEndPosition)
+            {
+                if (!startArchiveReplay(recordingRange.recordingId, coldEndPosition, endPosition - coldEndPosition))
+                {
+                    return true;
+                }
+
+                return false;
+            }
+
+            replayedMessages += recordingRangeCount;
+            recordingRange = null;
+            return ranges.isEmpty();
+        }
+
+        return false;
+    }
+
+    private void closeColdReplay()
+    {
+        if (coldReplay != null)
+        {
+            coldReplay.close();
+            coldReplay = null;
+        }
+    }
+
     private boolean attemptAcquireImage()
     {
         if (DebugLogger.IS_REPLAY_ATTEMPT_ENABLED)
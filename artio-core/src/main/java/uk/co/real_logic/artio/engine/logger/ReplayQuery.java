@@ -76,6 +76,8 @@ public class ReplayQuery implements AutoCloseable
     private final int segmentSizeBitShift;
     private final int segmentCount;
     private final long indexFileSize;
+    private final ColdArchiveReader coldArchiveReader;
+    private final int coldReplayFragmentLimit;
 
     private Subscription replaySubscription;
 
@@ -91,7 +93,9 @@ public class ReplayQuery implements AutoCloseable
         final ReplayQueryListener replayQueryListener,
         final int archiveReplayStream,
         final int indexFileCapacity,
-        final int indexSegmentCapacity)
+        final int indexSegmentCapacity,
+        final ColdArchiveCuts coldArchiveCuts,
+        final int coldReplayFragmentLimit)
     {
         this.logFileDir = logFileDir;
         this.indexBufferFactory = indexBufferFactory;
@@ -101,6 +105,7 @@ public class ReplayQuery implements AutoCloseable
         this.errorHandler = errorHandler;
         this.replayQueryListener = replayQueryListener;
         this.archiveReplayStream = archiveReplayStream;
+        this.coldReplayFragmentLimit = coldReplayFragmentLimit;
 
         this.indexFileSize = ReplayIndexDescriptor.capacityToBytes(indexFileCapacity);
         this.segmentSize = ReplayIndexDescriptor.capacityToBytesInt(indexSegmentCapacity);
@@ -108,6 +113,7 @@ public class ReplayQuery implements AutoCloseable
         this.segmentCount = ReplayIndexDescriptor.segmentCount(indexFileCapacity, indexSegmentCapacity);
 
         logFileDirFile = new File(logFileDir);
+        coldArchiveReader = new ColdArchiveReader(logFileDir, coldArchiveCuts);
         fixSessionToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionQuery::close);
     }
 
@@ -388,7 +394,9 @@ public class ReplayQuery implements AutoCloseable
                 replaySubscription,
                 archiveReplayStream,
                 logTag,
-                messageTracker);
+                messageTracker,
+                coldArchiveReader,
+                coldReplayFragmentLimit);
         }
 
         private RecordingRange addRange(
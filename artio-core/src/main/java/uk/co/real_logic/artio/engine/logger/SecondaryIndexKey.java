@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.DirectBuffer;
+
+import static uk.co.real_logic.artio.util.AsciiBuffer.SEPARATOR;
+
+/**
+ * Computes the hashed keys stored in the secondary index and scans FIX messages for the tags that make them up.
+ *
+ * Keys are 64 bit hashes so a match in the index may be a collision, queries always re-test the predicate against
+ * the message that is read from the archive.
+ */
+final class SecondaryIndexKey
+{
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long MESSAGE_TYPE_SEED = 0x9E3779B97F4A7C15L;
+
+    private SecondaryIndexKey()
+    {
+    }
+
+    static long messageTypeKey(final long messageType)
+    {
+        return mix(messageType ^ MESSAGE_TYPE_SEED);
+    }
+
+    static long tagValueKey(final int tag, final DirectBuffer buffer, final int offset, final int length)
+    {
+        long hash = FNV_OFFSET_BASIS ^ tag;
+        for (int i = 0; i < length; i++)
+        {
+            hash ^= buffer.getByte(offset + i) & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    static long tagValueKey(final int tag, final CharSequence value)
+    {
+        long hash = FNV_OFFSET_BASIS ^ tag;
+        for (int i = 0, length = value.length(); i < length; i++)
+        {
+            hash ^= value.charAt(i) & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Walks the tag=value fields of a FIX message without allocating.
+     *
+     * @param buffer the buffer containing the FIX message.
+     * @param offset the offset at which the FIX message starts.
+     * @param length the length of the FIX message.
+     * @param handler the callback for each field, stops scanning once it returns false.
+     */
+    static void scanFields(
+        final DirectBuffer buffer, final int offset, final int length, final FieldHandler handler)
+    {
+        final int end = offset + length;
+        int position = offset;
+        while (position < end)
+        {
+            int tag = 0;
+            int equalsIndex = position;
+            for (; equalsIndex < end; equalsIndex++)
+            {
+                final int digit = buffer.getByte(equalsIndex) - '0';
+                if (digit < 0 || digit > 9)
+                {
+                    break;
+                }
+                tag = tag * 10 + digit;
+            }
+
+            if (equalsIndex >= end || buffer.getByte(equalsIndex) != '=')
+            {
+                // malformed field, don't try to interpret the rest of the message
+                return;
+            }
+
+            final int valueOffset = equalsIndex + 1;
+            int separatorIndex = valueOffset;
+            while (separatorIndex < end && buffer.getByte(separatorIndex) != SEPARATOR)
+            {
+                separatorIndex++;
+            }
+
+            if (!handler.onField(tag, buffer, valueOffset, separatorIndex - valueOffset))
+            {
+                return;
+            }
+
+            position = separatorIndex + 1;
+        }
+    }
+
+    static boolean valueEquals(
+        final DirectBuffer buffer, final int offset, final int length, final byte[] expected)
+    {
+        if (length != expected.length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++)
+        {
+            if (buffer.getByte(offset + i) != expected[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static long mix(final long value)
+    {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @FunctionalInterface
+    interface FieldHandler
+    {
+        boolean onField(int tag, DirectBuffer buffer, int valueOffset, int valueLength);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.storage.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.storage.messages.SecondaryIndexRecordDecoder;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static uk.co.real_logic.artio.engine.logger.IndexedPositionReader.UNKNOWN_POSITION;
+import static uk.co.real_logic.artio.engine.logger.SecondaryIndexWriter.*;
+
+/**
+ * Looks up the archive positions of messages that match a set of secondary index keys. Matches are returned as
+ * position ranges per recording, adjacent matches are coalesced in order to reduce the number of archive replays.
+ */
+class SecondaryIndexReader
+{
+    static final long COALESCE_GAP_IN_BYTES = 64 * 1024;
+
+    private static final long NO_UNINDEXED_SEGMENT = -1;
+
+    private static final Comparator<PositionRange> BY_START_POSITION =
+        Comparator.comparingLong(PositionRange::startPosition);
+
+    private final String logFileDir;
+    private final int streamId;
+
+    SecondaryIndexReader(final String logFileDir, final int streamId)
+    {
+        this.logFileDir = logFileDir;
+        this.streamId = streamId;
+    }
+
+    /**
+     * Find the position ranges of messages matching any of the keys.
+     *
+     * Only positions after a recording's indexed start position are covered by the index, so a range from the
+     * beginning of the recording up to the start position is included if the index started part way through.
+     * Similarly segments of the index that were written whilst the kind of key wasn't configured to be indexed are
+     * included in full. Positions after the writer's indexed position may not have had their records written out
+     * yet, so everything after the indexed position is included as well.
+     *
+     * @param keys the keys to lookup.
+     * @param kind the kind of the keys, either the tag or {@link SecondaryIndexWriter#MESSAGE_TYPE_KIND}.
+     * @param recordingIdToPositionRanges the output map of ranges, sorted by start position, for each recording
+     *                                    that has a secondary index.
+     * @return true if the log file directory could be read, false otherwise.
+     */
+    boolean findPositionRanges(
+        final LongHashSet keys,
+        final int kind,
+        final Long2ObjectHashMap<List<PositionRange>> recordingIdToPositionRanges)
+    {
+        final File logDir = new File(logFileDir);
+        final String fileNamePrefix = FILE_NAME + streamId + "-";
+        if (!logDir.exists() || !logDir.isDirectory())
+        {
+            return false;
+        }
+
+        final String[] files = logDir.list();
+        if (files == null)
+        {
+            return false;
+        }
+
+        final File positionFile = new File(positionPath(logFileDir, streamId));
+        final MappedByteBuffer positionByteBuffer = positionFile.exists() ?
+            LoggerUtil.mapExistingFile(positionFile) : null;
+        try
+        {
+            final IndexedPositionReader positionReader = positionByteBuffer == null ?
+                null : new IndexedPositionReader(new UnsafeBuffer(positionByteBuffer));
+
+            for (final String file : files)
+            {
+                if (file.startsWith(fileNamePrefix))
+                {
+                    final long recordingId = Long.parseLong(file.substring(fileNamePrefix.length()));
+                    final long indexedPosition = positionReader == null ?
+                        UNKNOWN_POSITION : positionReader.indexedPosition(recordingId);
+
+                    recordingIdToPositionRanges.put(
+                        recordingId, findPositionRanges(keys, kind, new File(logDir, file), indexedPosition));
+                }
+            }
+        }
+        finally
+        {
+            if (positionByteBuffer != null)
+            {
+                IoUtil.unmap(positionByteBuffer);
+            }
+        }
+
+        return true;
+    }
+
+    private List<PositionRange> findPositionRanges(
+        final LongHashSet keys, final int kind, final File file, final long indexedPosition)
+    {
+        final List<PositionRange> ranges = new ArrayList<>();
+        final MappedByteBuffer mappedByteBuffer = LoggerUtil.mapExistingFile(file);
+        try
+        {
+            findPositionRanges(keys, kind, new UnsafeBuffer(mappedByteBuffer), indexedPosition, ranges);
+        }
+        finally
+        {
+            IoUtil.unmap(mappedByteBuffer);
+        }
+
+        return coalesce(ranges);
+    }
+
+    static void findPositionRanges(
+        final LongHashSet keys,
+        final int kind,
+        final UnsafeBuffer buffer,
+        final long indexedPosition,
+        final List<PositionRange> ranges)
+    {
+        final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+        final SecondaryIndexRecordDecoder record = new SecondaryIndexRecordDecoder();
+        headerDecoder.wrap(buffer, 0);
+
+        final int blockLength = headerDecoder.blockLength();
+        final int version = headerDecoder.version();
+        final int capacity = buffer.capacity();
+
+        final long startPosition = buffer.getLong(START_POSITION_OFFSET);
+        if (startPosition > 0)
+        {
+            ranges.add(new PositionRange(0, startPosition));
+        }
+
+        long unindexedSegmentStart = NO_UNINDEXED_SEGMENT;
+        for (int offset = RECORDS_OFFSET; offset + RECORD_LENGTH <= capacity; offset += RECORD_LENGTH)
+        {
+            record.wrap(buffer, offset, blockLength, version);
+
+            final int length = record.length();
+            if (length == SEGMENT_START_LENGTH)
+            {
+                final long segmentStart = record.position();
+                if (unindexedSegmentStart != NO_UNINDEXED_SEGMENT)
+                {
+                    ranges.add(new PositionRange(unindexedSegmentStart, segmentStart));
+                }
+                // Assume that the kind isn't indexed until we see its kind record.
+                unindexedSegmentStart = segmentStart;
+            }
+            else if (length == KIND_LENGTH)
+            {
+                if (record.key() == kind)
+                {
+                    unindexedSegmentStart = NO_UNINDEXED_SEGMENT;
+                }
+            }
+            else if (unindexedSegmentStart == NO_UNINDEXED_SEGMENT && keys.contains(record.key()))
+            {
+                final long position = record.position();
+                ranges.add(new PositionRange(position, position + length));
+            }
+        }
+
+        // Nothing is known to be indexed if the writer hasn't recorded a position for this recording yet.
+        long unindexedTailStart = indexedPosition == UNKNOWN_POSITION ? startPosition : indexedPosition;
+        if (unindexedSegmentStart != NO_UNINDEXED_SEGMENT)
+        {
+            unindexedTailStart = Math.min(unindexedTailStart, unindexedSegmentStart);
+        }
+        ranges.add(new PositionRange(unindexedTailStart, Long.MAX_VALUE));
+    }
+
+    static List<PositionRange> coalesce(final List<PositionRange> ranges)
+    {
+        // Catchup after a restart can re-index messages, so ranges may overlap or be out of order.
+        ranges.sort(BY_START_POSITION);
+
+        final List<PositionRange> coalesced = new ArrayList<>();
+        PositionRange current = null;
+        for (final PositionRange range : ranges)
+        {
+            if (current == null)
+            {
+                current = range;
+            }
+            else if (range.startPosition() - COALESCE_GAP_IN_BYTES <= current.endPosition())
+            {
+                current = new PositionRange(
+                    current.startPosition(), Math.max(current.endPosition(), range.endPosition()));
+            }
+            else
+            {
+                coalesced.add(current);
+                current = range;
+            }
+        }
+
+        if (current != null)
+        {
+            coalesced.add(current);
+        }
+
+        return coalesced;
+    }
+}
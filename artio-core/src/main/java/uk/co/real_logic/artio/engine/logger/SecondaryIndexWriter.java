@@ -0,0 +1,572 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.Header;
+import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.collections.IntHashSet;
+import org.agrona.collections.Long2ObjectCache;
+import org.agrona.collections.LongArrayList;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+import uk.co.real_logic.artio.engine.framer.MessageTypeExtractor;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.storage.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.SecondaryIndexRecordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static io.aeron.archive.status.RecordingPos.NULL_RECORDING_ID;
+import static io.aeron.logbuffer.FrameDescriptor.*;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static uk.co.real_logic.artio.engine.logger.IndexedPositionReader.UNKNOWN_POSITION;
+import static uk.co.real_logic.artio.messages.FixMessageDecoder.*;
+
+/**
+ * Builds an optional secondary index of FIX messages by message type and by the values of a configurable set of
+ * tags, for example ClOrdID. This allows {@link FixArchiveScanner} queries that use
+ * {@link FixMessagePredicates#messageTypeOf(String...)} or {@link FixMessagePredicates#tagValueOf(int, String)}
+ * to replay only the matching messages from the archive rather than scanning every message.
+ *
+ * Each recording has its own append only file at {@link #fileLocation(String, int, long)}, consisting of:
+ *
+ * MessageHeader
+ * Start position of the index within the recording
+ * Multiple SecondaryIndexRecord entries
+ *
+ * Every time the file is opened a segment start record is written, followed by a record for each tag that is
+ * indexed, and one for message types if they're indexed. Queries for keys of a kind that isn't indexed within a
+ * segment scan the whole segment.
+ *
+ * Records are batched and written out on the duty cycle, indexed positions are only updated once the records that
+ * precede them have been written. Fragmented messages are reassembled before their keys are extracted.
+ *
+ * Open files are held in a cache sized by the logger cache configuration. If a file is reopened after messages have
+ * been missed, for example an eviction part way through a fragmented message, then a segment start without any kind
+ * records marks the missed range as unindexed. If writing to a file fails then the recording stops being indexed.
+ */
+public class SecondaryIndexWriter implements Index
+{
+    static final String FILE_NAME = "secondary-index-";
+    static final int START_POSITION_OFFSET = MessageHeaderEncoder.ENCODED_LENGTH;
+    static final int RECORDS_OFFSET = START_POSITION_OFFSET + BitUtil.SIZE_OF_LONG;
+    static final int RECORD_LENGTH = SecondaryIndexRecordEncoder.BLOCK_LENGTH;
+
+    // Marker records use a negative length, their key is the kind of key that is indexed: a tag or message type.
+    static final int SEGMENT_START_LENGTH = -1;
+    static final int KIND_LENGTH = -2;
+    static final int MESSAGE_TYPE_KIND = 0;
+
+    private static final int RECORDS_PER_BATCH = 256;
+    private static final long NO_PENDING_MESSAGE = -1;
+
+    static File fileLocation(final String logFileDir, final int streamId, final long recordingId)
+    {
+        return new File(logFileDir + File.separator + FILE_NAME + streamId + "-" + recordingId);
+    }
+
+    static String positionPath(final String logFileDir, final int streamId)
+    {
+        return logFileDir + File.separator + "secondary-index-positions-" + streamId;
+    }
+
+    public static UnsafeBuffer positionBuffer(final String logFileDir, final int streamId, final int bufferSize)
+    {
+        return new UnsafeBuffer(LoggerUtil.map(new File(positionPath(logFileDir, streamId)), bufferSize));
+    }
+
+    private final MessageHeaderDecoder frameHeaderDecoder = new MessageHeaderDecoder();
+    private final FixMessageDecoder messageFrame = new FixMessageDecoder();
+    private final SecondaryIndexRecordEncoder recordEncoder = new SecondaryIndexRecordEncoder();
+    private final LongHashSet failedRecordingIds = new LongHashSet();
+    private final LongArrayList messageKeys = new LongArrayList();
+    private final SecondaryIndexKey.FieldHandler onField = this::onField;
+    private final Long2ObjectCache<RecordingWriter> recordingIdToWriter;
+
+    private final String logFileDir;
+    private final int requiredStreamId;
+    private final boolean indexMessageTypes;
+    private final IntHashSet indexedTags;
+    private final AtomicBuffer positionBuffer;
+    private final IndexedPositionWriter positionWriter;
+    private final IndexedPositionReader positionReader;
+    private final RecordingIdLookup recordingIdLookup;
+    private final ErrorHandler errorHandler;
+
+    public SecondaryIndexWriter(
+        final String logFileDir,
+        final int requiredStreamId,
+        final int cacheNumSets,
+        final int cacheSetSize,
+        final boolean indexMessageTypes,
+        final int[] indexedTags,
+        final AtomicBuffer positionBuffer,
+        final RecordingIdLookup recordingIdLookup,
+        final ErrorHandler errorHandler,
+        final boolean indexChecksumEnabled)
+    {
+        this.logFileDir = logFileDir;
+        this.requiredStreamId = requiredStreamId;
+        this.indexMessageTypes = indexMessageTypes;
+        this.indexedTags = new IntHashSet();
+        for (final int tag : indexedTags)
+        {
+            this.indexedTags.add(tag);
+        }
+        this.positionBuffer = positionBuffer;
+        this.recordingIdLookup = recordingIdLookup;
+        this.errorHandler = errorHandler;
+
+        positionWriter = new IndexedPositionWriter(
+            positionBuffer,
+            errorHandler,
+            0,
+            positionPath(logFileDir, requiredStreamId),
+            recordingIdLookup,
+            indexChecksumEnabled);
+        positionReader = new IndexedPositionReader(positionBuffer);
+        recordingIdToWriter = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, RecordingWriter::close);
+    }
+
+    public void onFragment(
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final Header header)
+    {
+        if (header.streamId() == requiredStreamId)
+        {
+            onFragment(buffer, offset, length, header, NULL_RECORDING_ID);
+        }
+    }
+
+    public void onCatchup(
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final Header header,
+        final long recordingId)
+    {
+        onFragment(buffer, offset, length, header, recordingId);
+    }
+
+    private void onFragment(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int srcLength,
+        final Header header,
+        final long knownRecordingId)
+    {
+        final long endPosition = header.position();
+        final byte flags = header.flags();
+        final int aeronSessionId = header.sessionId();
+        final boolean beginMessage = (flags & BEGIN_FRAG_FLAG) == BEGIN_FRAG_FLAG;
+        final boolean endMessage = (flags & END_FRAG_FLAG) == END_FRAG_FLAG;
+
+        boolean isFixMessage = false;
+        if (beginMessage)
+        {
+            frameHeaderDecoder.wrap(srcBuffer, srcOffset);
+            isFixMessage = frameHeaderDecoder.templateId() == FixMessageDecoder.TEMPLATE_ID;
+        }
+
+        long recordingId = knownRecordingId;
+        if (recordingId == NULL_RECORDING_ID)
+        {
+            // Only block waiting for the recording to be setup if there's something to index.
+            recordingId = isFixMessage ?
+                recordingIdLookup.getRecordingId(aeronSessionId) : recordingIdLookup.findRecordingId(aeronSessionId);
+            if (recordingId == NULL_RECORDING_ID)
+            {
+                return;
+            }
+        }
+
+        final long beginPosition = endPosition - BitUtil.align(srcLength + HEADER_LENGTH, FRAME_ALIGNMENT);
+        final RecordingWriter writer = writer(recordingId, aeronSessionId, beginPosition, beginMessage);
+        if (writer == null)
+        {
+            return;
+        }
+
+        if (beginMessage)
+        {
+            // A new message means that any previous reassembly has been abandoned.
+            writer.stopReassembly();
+            if (isFixMessage)
+            {
+                if (endMessage)
+                {
+                    extractKeys(srcBuffer, srcOffset, srcLength);
+                    writer.onMessageBegin(messageKeys, beginPosition);
+                }
+                else
+                {
+                    writer.startReassembly(srcBuffer, srcOffset, srcLength, beginPosition);
+                }
+            }
+        }
+        else if (writer.isReassembling())
+        {
+            writer.appendFragment(srcBuffer, srcOffset, srcLength);
+            if (endMessage)
+            {
+                extractKeys(writer.reassemblyBuffer, 0, writer.reassemblyLength);
+                writer.onMessageBegin(messageKeys, writer.reassemblyBeginPosition);
+                writer.stopReassembly();
+            }
+        }
+
+        if (endMessage)
+        {
+            writer.onMessageEnd(endPosition);
+        }
+    }
+
+    private void extractKeys(final DirectBuffer srcBuffer, final int srcOffset, final int srcLength)
+    {
+        final MessageHeaderDecoder frameHeaderDecoder = this.frameHeaderDecoder;
+        final FixMessageDecoder messageFrame = this.messageFrame;
+        messageKeys.clear();
+        frameHeaderDecoder.wrap(srcBuffer, srcOffset);
+        final int blockLength = frameHeaderDecoder.blockLength();
+        final int version = frameHeaderDecoder.version();
+        int offset = srcOffset + MessageHeaderDecoder.ENCODED_LENGTH;
+
+        messageFrame.wrap(srcBuffer, offset, blockLength, version);
+        if (indexMessageTypes)
+        {
+            messageKeys.addLong(SecondaryIndexKey.messageTypeKey(MessageTypeExtractor.getMessageType(messageFrame)));
+        }
+
+        if (!indexedTags.isEmpty())
+        {
+            offset += blockLength;
+            if (version >= metaDataSinceVersion())
+            {
+                offset += metaDataHeaderLength() + messageFrame.metaDataLength();
+                messageFrame.skipMetaData();
+            }
+            final int bodyLength = messageFrame.bodyLength();
+            offset += bodyHeaderLength();
+
+            final int availableLength = Math.min(bodyLength, srcOffset + srcLength - offset);
+            SecondaryIndexKey.scanFields(srcBuffer, offset, availableLength, onField);
+        }
+    }
+
+    private boolean onField(final int tag, final DirectBuffer buffer, final int valueOffset, final int valueLength)
+    {
+        if (indexedTags.contains(tag))
+        {
+            messageKeys.addLong(SecondaryIndexKey.tagValueKey(tag, buffer, valueOffset, valueLength));
+        }
+
+        return true;
+    }
+
+    private RecordingWriter writer(
+        final long recordingId, final int aeronSessionId, final long startPosition, final boolean beginMessage)
+    {
+        if (failedRecordingIds.contains(recordingId))
+        {
+            return null;
+        }
+
+        RecordingWriter writer = recordingIdToWriter.get(recordingId);
+        if (writer == null)
+        {
+            // The start of the message has been missed, so leave it to be marked as unindexed when the file reopens.
+            if (!beginMessage)
+            {
+                return null;
+            }
+
+            final RandomAccessFile file = openFile(recordingId, startPosition);
+            if (file == null)
+            {
+                failedRecordingIds.add(recordingId);
+                return null;
+            }
+
+            writer = new RecordingWriter(recordingId, aeronSessionId, file);
+            recordingIdToWriter.put(recordingId, writer);
+        }
+        return writer;
+    }
+
+    private RandomAccessFile openFile(final long recordingId, final long startPosition)
+    {
+        final File file = fileLocation(logFileDir, requiredStreamId, recordingId);
+        RandomAccessFile raf = null;
+        try
+        {
+            final boolean exists = file.exists();
+            long indexedPosition = startPosition;
+            raf = new RandomAccessFile(file, "rw");
+            if (exists)
+            {
+                // Discard any partially written record.
+                final long length = raf.length();
+                final long completeLength = length - ((length - RECORDS_OFFSET) % RECORD_LENGTH);
+                raf.setLength(completeLength);
+                raf.seek(completeLength);
+
+                final long lastIndexedPosition = positionReader.indexedPosition(recordingId);
+                if (lastIndexedPosition != UNKNOWN_POSITION)
+                {
+                    indexedPosition = Math.min(lastIndexedPosition, startPosition);
+                }
+            }
+            else
+            {
+                final UnsafeBuffer headerBuffer = new UnsafeBuffer(new byte[RECORDS_OFFSET]);
+                recordEncoder.wrapAndApplyHeader(headerBuffer, 0, new MessageHeaderEncoder());
+                headerBuffer.putLong(START_POSITION_OFFSET, startPosition);
+                raf.write(headerBuffer.byteArray(), 0, RECORDS_OFFSET);
+            }
+            writeSegmentStart(raf, indexedPosition, startPosition);
+            return raf;
+        }
+        catch (final IOException e)
+        {
+            errorHandler.onError(e);
+            CloseHelper.quietClose(raf);
+            return null;
+        }
+    }
+
+    // The configuration can change between restarts, so record which kinds of key are indexed from this point on.
+    private void writeSegmentStart(
+        final RandomAccessFile raf, final long indexedPosition, final long startPosition) throws IOException
+    {
+        final boolean missedMessages = indexedPosition < startPosition;
+        final int recordCount = (missedMessages ? 2 : 1) + (indexMessageTypes ? 1 : 0) + indexedTags.size();
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[recordCount * RECORD_LENGTH]);
+        int offset = 0;
+        if (missedMessages)
+        {
+            // A segment without any kind records, so the missed messages are scanned.
+            recordEncoder.wrap(buffer, offset).key(0).position(indexedPosition).length(SEGMENT_START_LENGTH);
+            offset += RECORD_LENGTH;
+        }
+
+        recordEncoder.wrap(buffer, offset).key(0).position(startPosition).length(SEGMENT_START_LENGTH);
+        offset += RECORD_LENGTH;
+
+        if (indexMessageTypes)
+        {
+            recordEncoder.wrap(buffer, offset).key(MESSAGE_TYPE_KIND).position(startPosition).length(KIND_LENGTH);
+            offset += RECORD_LENGTH;
+        }
+
+        final IntHashSet.IntIterator tags = indexedTags.iterator();
+        while (tags.hasNext())
+        {
+            recordEncoder.wrap(buffer, offset).key(tags.nextValue()).position(startPosition).length(KIND_LENGTH);
+            offset += RECORD_LENGTH;
+        }
+
+        raf.write(buffer.byteArray(), 0, offset);
+    }
+
+    public int doWork()
+    {
+        int work = positionWriter.checkRecordings();
+        for (final RecordingWriter writer : recordingIdToWriter.values())
+        {
+            work += writer.flush();
+        }
+
+        if (work > 0)
+        {
+            positionWriter.updateChecksums();
+        }
+
+        return work;
+    }
+
+    public void close()
+    {
+        recordingIdToWriter.clear();
+
+        Exceptions.closeAll(positionWriter);
+        IoUtil.unmap(positionBuffer.byteBuffer());
+    }
+
+    public void readLastPosition(final IndexedPositionConsumer consumer)
+    {
+        positionReader.readLastPosition(consumer);
+    }
+
+    final class RecordingWriter
+    {
+        private final UnsafeBuffer batchBuffer = new UnsafeBuffer(new byte[RECORDS_PER_BATCH * RECORD_LENGTH]);
+        private final LongArrayList pendingKeys = new LongArrayList();
+        private final ExpandableArrayBuffer reassemblyBuffer = new ExpandableArrayBuffer();
+        private final long recordingId;
+        private final int aeronSessionId;
+        private final RandomAccessFile file;
+
+        private int batchOffset;
+        private long pendingBeginPosition = NO_PENDING_MESSAGE;
+        private long indexedPosition;
+        private long flushedPosition;
+        private int reassemblyLength;
+        private long reassemblyBeginPosition = NO_PENDING_MESSAGE;
+        private boolean failed;
+
+        RecordingWriter(final long recordingId, final int aeronSessionId, final RandomAccessFile file)
+        {
+            this.recordingId = recordingId;
+            this.aeronSessionId = aeronSessionId;
+            this.file = file;
+        }
+
+        boolean isReassembling()
+        {
+            return reassemblyBeginPosition != NO_PENDING_MESSAGE;
+        }
+
+        void startReassembly(
+            final DirectBuffer buffer, final int offset, final int length, final long beginPosition)
+        {
+            reassemblyBuffer.putBytes(0, buffer, offset, length);
+            reassemblyLength = length;
+            reassemblyBeginPosition = beginPosition;
+        }
+
+        void appendFragment(final DirectBuffer buffer, final int offset, final int length)
+        {
+            reassemblyBuffer.putBytes(reassemblyLength, buffer, offset, length);
+            reassemblyLength += length;
+        }
+
+        void stopReassembly()
+        {
+            reassemblyLength = 0;
+            reassemblyBeginPosition = NO_PENDING_MESSAGE;
+        }
+
+        void onMessageBegin(final LongArrayList keys, final long beginPosition)
+        {
+            final LongArrayList pendingKeys = this.pendingKeys;
+            pendingKeys.clear();
+            for (int i = 0, size = keys.size(); i < size; i++)
+            {
+                pendingKeys.addLong(keys.getLong(i));
+            }
+            pendingBeginPosition = beginPosition;
+        }
+
+        void onMessageEnd(final long endPosition)
+        {
+            final long beginPosition = pendingBeginPosition;
+            if (beginPosition != NO_PENDING_MESSAGE && !failed)
+            {
+                final int length = (int)(endPosition - beginPosition);
+                final LongArrayList pendingKeys = this.pendingKeys;
+                for (int i = 0, size = pendingKeys.size(); i < size; i++)
+                {
+                    putRecord(pendingKeys.getLong(i), beginPosition, length);
+                }
+                pendingKeys.clear();
+                pendingBeginPosition = NO_PENDING_MESSAGE;
+            }
+
+            indexedPosition = endPosition;
+        }
+
+        private void putRecord(final long key, final long position, final int length)
+        {
+            if (batchOffset + RECORD_LENGTH > batchBuffer.capacity())
+            {
+                writeBatch();
+            }
+
+            recordEncoder
+                .wrap(batchBuffer, batchOffset)
+                .key(key)
+                .position(position)
+                .length(length);
+            batchOffset += RECORD_LENGTH;
+        }
+
+        int flush()
+        {
+            final boolean wroteBatch = writeBatch();
+            final long indexedPosition = this.indexedPosition;
+            if (indexedPosition > flushedPosition && !failed)
+            {
+                positionWriter.indexedUpTo(aeronSessionId, recordingId, indexedPosition);
+                flushedPosition = indexedPosition;
+                return 1;
+            }
+
+            return wroteBatch ? 1 : 0;
+        }
+
+        private boolean writeBatch()
+        {
+            final int batchOffset = this.batchOffset;
+            if (batchOffset == 0 || failed)
+            {
+                return false;
+            }
+
+            try
+            {
+                file.write(batchBuffer.byteArray(), 0, batchOffset);
+            }
+            catch (final IOException e)
+            {
+                // The indexed position isn't advanced past the lost records, so they're scanned by queries.
+                errorHandler.onError(e);
+                failed = true;
+                failedRecordingIds.add(recordingId);
+            }
+            this.batchOffset = 0;
+            return true;
+        }
+
+        void close()
+        {
+            flush();
+            if (!failed)
+            {
+                try
+                {
+                    file.getFD().sync();
+                }
+                catch (final IOException e)
+                {
+                    errorHandler.onError(e);
+                }
+            }
+            Exceptions.closeAll(file);
+        }
+    }
+}
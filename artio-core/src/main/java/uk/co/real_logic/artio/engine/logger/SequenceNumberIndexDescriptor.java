@@ -24,6 +24,7 @@ import java.io.File;
 
 import static org.agrona.BitUtil.SIZE_OF_INT;
 import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static uk.co.real_logic.artio.engine.SectorFramer.FIRST_CHECKSUM_LOCATION;
 import static uk.co.real_logic.artio.engine.SectorFramer.SECTOR_SIZE;
 import static uk.co.real_logic.artio.engine.SectorFramer.nextSectorStart;
 
@@ -34,7 +35,7 @@ import static uk.co.real_logic.artio.engine.SectorFramer.nextSectorStart;
  * off-heap in a single-writer threadsafe manner.
  * <p>
  * Message Header
- * Series of LastKnownSequenceNumber records
+ * Series of LastKnownSequenceNumber records, with the reset count in the spare bytes at the end of the first sector
  * ...
  * Positions Table
  */
@@ -42,11 +43,16 @@ final class SequenceNumberIndexDescriptor
 {
     static final int HEADER_SIZE = MessageHeaderDecoder.ENCODED_LENGTH;
     static final int RECORD_SIZE = LastKnownSequenceNumberDecoder.BLOCK_LENGTH;
+    // Incremented whenever the index is reset so that readers know to rescan it from the start.
+    static final int RESET_COUNT_OFFSET = FIRST_CHECKSUM_LOCATION - SIZE_OF_INT;
 
     static final int NO_META_DATA = -1;
     static final long META_DATA_MAGIC_NUMBER = 0xBEEF;
-    static final int META_DATA_FILE_VERSION = 1;
+    static final int META_DATA_FILE_VERSION = 2;
     static final int READABLE_META_DATA_FILE_VERSION = META_DATA_FILE_VERSION;
+
+    // Version 1 meta data files were read and written with a RandomAccessFile and are migrated on startup.
+    static final int UNMAPPED_META_DATA_FILE_VERSION = 1;
     static final int META_DATA_FILE_HEADER_LENGTH = SIZE_OF_LONG + SIZE_OF_INT;
     static final int SIZE_OF_META_DATA_LENGTH = SIZE_OF_INT;
 
@@ -18,7 +18,9 @@ package uk.co.real_logic.artio.engine.logger;
 import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
-import org.agrona.LangUtil;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import uk.co.real_logic.artio.engine.SectorFramer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
@@ -26,11 +28,6 @@ import uk.co.real_logic.artio.messages.MetaDataStatus;
 import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberDecoder;
 import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.RandomAccessFile;
-
 import static io.aeron.archive.status.RecordingPos.NULL_RECORDING_ID;
 import static uk.co.real_logic.artio.engine.ConnectedSessionInfo.UNK_SESSION;
 import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
@@ -44,6 +41,8 @@ import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEnc
  */
 public class SequenceNumberIndexReader implements AutoCloseable
 {
+    private static final long MISSING_RECORD = -1L;
+
     private final MessageHeaderDecoder fileHeaderDecoder = new MessageHeaderDecoder();
     private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
     private final AtomicBuffer inMemoryBuffer;
@@ -51,7 +50,16 @@ public class SequenceNumberIndexReader implements AutoCloseable
     private final IndexedPositionReader positions;
     private final ErrorHandler errorHandler;
     private final RecordingIdLookup recordingIdLookup;
-    private final RandomAccessFile metaDataFile;
+    private final MetaDataStore metaDataStore;
+    private final ExpandableArrayBuffer metaDataCopyBuffer = new ExpandableArrayBuffer(0);
+
+    // Records are only ever appended by the writer, apart from when the whole index is reset, so the offsets of the
+    // records that have already been scanned are cached. A reset increments the index's reset count, which is
+    // when the cache is dropped and the index scanned from the start again.
+    private final Long2LongHashMap recordOffsets = new Long2LongHashMap(MISSING_RECORD);
+    private int scannedPosition = HEADER_SIZE;
+    private int resetCount;
+    private int metaDataLength;
 
     public SequenceNumberIndexReader(
         final AtomicBuffer inMemoryBuffer,
@@ -65,51 +73,81 @@ public class SequenceNumberIndexReader implements AutoCloseable
         final int positionTableOffset = positionTableOffset(inMemoryBuffer.capacity());
         sectorFramer = new SectorFramer(positionTableOffset);
         validateBuffer();
+        resetCount = inMemoryBuffer.getIntVolatile(RESET_COUNT_OFFSET);
         positions = new IndexedPositionReader(positionsBuffer(inMemoryBuffer, positionTableOffset));
-        metaDataFile = openMetaDataFile(metaDataDir);
+        metaDataStore = metaDataDir != null ? MetaDataStore.openForReading(metaDataFile(metaDataDir)) : null;
     }
 
-    private RandomAccessFile openMetaDataFile(final String metaDataDir)
+    public int lastKnownSequenceNumber(final long sessionId)
     {
-        if (metaDataDir != null)
-        {
-            final File metaDataFile = metaDataFile(metaDataDir);
+        return findRecord(sessionId) ? lastKnownDecoder.sequenceNumber() : UNK_SESSION;
+    }
 
-            try
-            {
-                return new RandomAccessFile(metaDataFile, "r");
-            }
-            catch (final FileNotFoundException e)
+    // Leaves the lastKnownDecoder wrapping the record if it has been found.
+    private boolean findRecord(final long sessionId)
+    {
+        final int resetCount = inMemoryBuffer.getIntVolatile(RESET_COUNT_OFFSET);
+        if (resetCount != this.resetCount)
+        {
+            this.resetCount = resetCount;
+            resetRecordOffsets();
+        }
+        else
+        {
+            final int cachedPosition = (int)recordOffsets.get(sessionId);
+            if (cachedPosition != MISSING_RECORD)
             {
-                LangUtil.rethrowUnchecked(e);
+                // Can only differ whilst a reset is in progress.
+                return sessionIdAt(cachedPosition) == sessionId;
             }
         }
-        return null;
+
+        return scanForRecord(sessionId);
     }
 
-    public int lastKnownSequenceNumber(final long sessionId)
+    private boolean scanForRecord(final long sessionId)
     {
-        int position = SequenceNumberIndexDescriptor.HEADER_SIZE;
+        final Long2LongHashMap recordOffsets = this.recordOffsets;
+        int position = scannedPosition;
         while (true)
         {
             position = sectorFramer.claim(position, RECORD_SIZE);
             if (position == OUT_OF_SPACE)
             {
-                return UNK_SESSION;
+                return false;
             }
 
-            lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
-
-            if (lastKnownDecoder.sessionId() == sessionId)
+            final long recordSessionId = sessionIdAt(position);
+            if (recordSessionId == 0)
             {
-                final int sequenceNumber = lastKnownDecoder.sequenceNumber();
-                return sequenceNumber;
+                // Not yet written, so carry on scanning from this record next time.
+                scannedPosition = position;
+                return false;
             }
 
+            recordOffsets.put(recordSessionId, position);
             position += RECORD_SIZE;
+            scannedPosition = position;
+
+            if (recordSessionId == sessionId)
+            {
+                return true;
+            }
         }
     }
 
+    private long sessionIdAt(final int position)
+    {
+        lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
+        return lastKnownDecoder.sessionId();
+    }
+
+    private void resetRecordOffsets()
+    {
+        recordOffsets.clear();
+        scannedPosition = HEADER_SIZE;
+    }
+
     public long indexedPosition(final int aeronSessionId)
     {
         if (recordingIdLookup == null)
@@ -134,46 +172,86 @@ public class SequenceNumberIndexReader implements AutoCloseable
             errorHandler);
     }
 
+    /**
+     * Read a session's meta data into a newly allocated buffer.
+     *
+     * @param sessionId the id of the session.
+     * @param buffer wrapped around a copy of the meta data if it's found, left untouched otherwise.
+     * @return the status of the read.
+     */
     public MetaDataStatus readMetaData(final long sessionId, final DirectBuffer buffer)
     {
-        if (metaDataFile == null)
+        final MetaDataStatus status = readMetaData(sessionId, metaDataCopyBuffer, 0);
+        if (status == MetaDataStatus.OK)
         {
-            return MetaDataStatus.FILE_ERROR;
+            final byte[] metaData = new byte[metaDataLength];
+            metaDataCopyBuffer.getBytes(0, metaData);
+            buffer.wrap(metaData);
         }
+        return status;
+    }
 
-        if (lastKnownSequenceNumber(sessionId) == UNK_SESSION)
+    /**
+     * Read a session's meta data into a buffer supplied by the caller, without allocating. The length of the meta
+     * data that has been read is available from {@link #metaDataLength()}.
+     *
+     * @param sessionId the id of the session.
+     * @param buffer the buffer to copy the meta data into, this needs to have enough capacity or be expandable.
+     * @param offset the offset within the buffer to copy the meta data to.
+     * @return the status of the read.
+     */
+    public MetaDataStatus readMetaData(final long sessionId, final MutableDirectBuffer buffer, final int offset)
+    {
+        metaDataLength = 0;
+        final MetaDataStatus status = metaDataStatus(sessionId);
+        if (status == MetaDataStatus.OK)
         {
-            return MetaDataStatus.UNKNOWN_SESSION;
+            final int metaDataLength = metaDataStore.read(
+                lastKnownDecoder.metaDataPosition(), sessionId, buffer, offset);
+            if (metaDataLength == NO_META_DATA)
+            {
+                return MetaDataStatus.NO_META_DATA;
+            }
+            this.metaDataLength = metaDataLength;
         }
+        return status;
+    }
+
+    /**
+     * Gets the length of the meta data read by the last call to
+     * {@link #readMetaData(long, MutableDirectBuffer, int)}.
+     *
+     * @return the length of the meta data read by the last call.
+     */
+    public int metaDataLength()
+    {
+        return metaDataLength;
+    }
 
-        final int metaDataPosition = lastKnownDecoder.metaDataPosition();
-        if (metaDataPosition == NO_META_DATA)
+    // Leaves the lastKnownDecoder wrapping the session's record if OK.
+    private MetaDataStatus metaDataStatus(final long sessionId)
+    {
+        if (metaDataStore == null)
         {
-            return MetaDataStatus.NO_META_DATA;
+            return MetaDataStatus.FILE_ERROR;
         }
 
-        try
+        if (!findRecord(sessionId))
         {
-            metaDataFile.seek(metaDataPosition);
-            final int metaDataLength = metaDataFile.readInt();
-
-            final byte[] metaDataValue = new byte[metaDataLength];
-            metaDataFile.read(metaDataValue);
-
-            buffer.wrap(metaDataValue);
-
-            return MetaDataStatus.OK;
+            return MetaDataStatus.UNKNOWN_SESSION;
         }
-        catch (final IOException e)
+
+        if (lastKnownDecoder.metaDataPosition() == NO_META_DATA)
         {
-            errorHandler.onError(e);
-            return MetaDataStatus.FILE_ERROR;
+            return MetaDataStatus.NO_META_DATA;
         }
+
+        return MetaDataStatus.OK;
     }
 
     public void close()
     {
-        CloseHelper.close(metaDataFile);
+        CloseHelper.close(metaDataStore);
     }
 
 }
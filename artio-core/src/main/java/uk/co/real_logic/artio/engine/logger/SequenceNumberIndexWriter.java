@@ -20,12 +20,14 @@ import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
 import org.agrona.LangUtil;
 import org.agrona.collections.CollectionUtil;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.ChecksumFramer;
 import uk.co.real_logic.artio.engine.MappedFile;
@@ -39,6 +41,7 @@ import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -90,9 +93,9 @@ public class SequenceNumberIndexWriter implements Index
     private final File metaDataLocation;
     private final List<WriteMetaDataResponse> responsesToResend = new ArrayList<>();
     private final Predicate<WriteMetaDataResponse> sendResponseFunc = this::sendResponse;
-    private final RandomAccessFile metaDataFile;
+    private final MetaDataStore metaDataStore;
     private final SequenceNumberIndexReader reader;
-    private byte[] metaDataWriteBuffer = new byte[0];
+    private final UnsafeBuffer metaDataBuffer = new UnsafeBuffer(0, 0);
     private final Long2ObjectHashMap<Long2LongHashMap> sessionIdToRedactPositions = new Long2ObjectHashMap<>();
 
     private final SequenceNumberExtractor sequenceNumberExtractor;
@@ -176,12 +179,12 @@ public class SequenceNumberIndexWriter implements Index
             if (metaDataDir != null)
             {
                 metaDataLocation = metaDataFile(metaDataDir);
-                metaDataFile = openMetaDataFile(metaDataLocation);
+                metaDataStore = openMetaDataStore(metaDataLocation);
             }
             else
             {
                 metaDataLocation = null;
-                metaDataFile = null;
+                metaDataStore = null;
             }
         }
         catch (final Exception e)
@@ -200,47 +203,159 @@ public class SequenceNumberIndexWriter implements Index
                 saveRecord(seqNum, uuid, endPosition, NO_REQUIRED_POSITION, possRetrans));
     }
 
-    private RandomAccessFile openMetaDataFile(final File metaDataLocation)
+    private MetaDataStore openMetaDataStore(final File metaDataLocation)
     {
-        RandomAccessFile file = null;
-        try
+        final byte[] unmappedMetaData = readUnmappedMetaDataFile(metaDataLocation);
+        if (unmappedMetaData == null)
+        {
+            return MetaDataStore.openForWriting(metaDataLocation);
+        }
+
+        final File migratingLocation = new File(metaDataLocation.getPath() + "-migrating");
+        if (!isMigrationPersisted(migratingLocation))
         {
-            file = new RandomAccessFile(metaDataLocation, "rw");
-            if (file.length() == 0)
+            IoUtil.deleteIfExists(migratingLocation);
+            final MetaDataStore migratingStore = MetaDataStore.openForWriting(migratingLocation);
+            try
             {
-                writeMetaDataFileHeader(file);
+                migrateMetaData(migratingStore, unmappedMetaData);
             }
-            else
+            finally
             {
-                final long magicNumber = file.readLong();
-                final int fileVersion = file.readInt();
+                migratingStore.close();
+            }
+
+            // Persist the migrated meta data positions before the migrated file replaces the old one, if we stop
+            // in between then the next startup finds the persisted positions in the migrated file and just moves it.
+            updateFile();
+        }
 
-                if (magicNumber != META_DATA_MAGIC_NUMBER)
+        try
+        {
+            Files.move(
+                migratingLocation.toPath(),
+                metaDataLocation.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+
+        return MetaDataStore.openForWriting(metaDataLocation);
+    }
+
+    // The index has been persisted with the migrated positions if they all refer to their session's slot.
+    private boolean isMigrationPersisted(final File migratingLocation)
+    {
+        if (!migratingLocation.exists() || migratingLocation.length() < MetaDataStore.HEADER_LENGTH)
+        {
+            return false;
+        }
+
+        try (MetaDataStore migratedStore = MetaDataStore.openForReading(migratingLocation))
+        {
+            int position = SequenceNumberIndexDescriptor.HEADER_SIZE;
+            while (true)
+            {
+                position = checksumFramer.claim(position, RECORD_SIZE);
+                if (position == OUT_OF_SPACE)
                 {
-                    throw new IllegalStateException("Invalid magic number in metadata file: " + magicNumber);
+                    return true;
                 }
 
-                if (fileVersion < READABLE_META_DATA_FILE_VERSION)
+                lastKnownDecoder.wrap(inMemoryBuffer, position, RECORD_SIZE, SCHEMA_VERSION);
+                final long sessionId = lastKnownDecoder.sessionId();
+                if (sessionId == 0)
                 {
-                    throw new IllegalStateException("Unreadable metadata file version: " + fileVersion);
+                    return true;
                 }
+
+                final int metaDataPosition = getMetaData(position);
+                if (metaDataPosition != NO_META_DATA &&
+                    migratedStore.length(metaDataPosition, sessionId) == NO_META_DATA)
+                {
+                    return false;
+                }
+
+                position += RECORD_SIZE;
             }
-            return file;
         }
-        catch (final IOException | IllegalStateException e)
+        catch (final IllegalStateException e)
         {
-            Exceptions.suppressingClose(file, e);
-            LangUtil.rethrowUnchecked(e);
+            // Invalid header, the migration didn't get as far as initialising the file
+            return false;
         }
+    }
+
+    // Returns the contents of a meta data file written before the meta data was memory mapped, or null otherwise.
+    private static byte[] readUnmappedMetaDataFile(final File metaDataLocation)
+    {
+        if (!metaDataLocation.exists() || metaDataLocation.length() < META_DATA_FILE_HEADER_LENGTH)
+        {
+            return null;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(metaDataLocation, "r"))
+        {
+            final long magicNumber = file.readLong();
+            final int fileVersion = file.readInt();
+            if (magicNumber != META_DATA_MAGIC_NUMBER || fileVersion != UNMAPPED_META_DATA_FILE_VERSION)
+            {
+                // Validated when the store is opened
+                return null;
+            }
 
-        return null;
+            final byte[] contents = new byte[(int)file.length()];
+            file.seek(0);
+            file.readFully(contents);
+            return contents;
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+            return null;
+        }
     }
 
-    private void writeMetaDataFileHeader(final RandomAccessFile file) throws IOException
+    // Copies each session's meta data into the store, the old file had big-endian lengths before each value.
+    private void migrateMetaData(final MetaDataStore store, final byte[] unmappedMetaData)
     {
-        file.writeLong(META_DATA_MAGIC_NUMBER);
-        file.writeInt(META_DATA_FILE_VERSION);
-        file.getFD().sync();
+        final UnsafeBuffer oldMetaData = new UnsafeBuffer(unmappedMetaData);
+        final int oldCapacity = unmappedMetaData.length;
+        int position = SequenceNumberIndexDescriptor.HEADER_SIZE;
+        while (true)
+        {
+            position = checksumFramer.claim(position, RECORD_SIZE);
+            if (position == OUT_OF_SPACE)
+            {
+                return;
+            }
+
+            lastKnownDecoder.wrap(inMemoryBuffer, position, RECORD_SIZE, SCHEMA_VERSION);
+            if (lastKnownDecoder.sessionId() == 0)
+            {
+                return;
+            }
+
+            final int oldMetaDataPosition = getMetaData(position);
+            if (oldMetaDataPosition != NO_META_DATA)
+            {
+                int newMetaDataPosition = NO_META_DATA;
+                final int dataOffset = oldMetaDataPosition + SIZE_OF_META_DATA_LENGTH;
+                if (oldMetaDataPosition >= META_DATA_FILE_HEADER_LENGTH && dataOffset <= oldCapacity)
+                {
+                    final int length = Math.min(
+                        oldMetaData.getInt(oldMetaDataPosition, ByteOrder.BIG_ENDIAN), oldCapacity - dataOffset);
+                    newMetaDataPosition = store.write(
+                        NO_META_DATA, lastKnownDecoder.sessionId(), oldMetaData, dataOffset, 0, length);
+                }
+                putMetaDataField(position, newMetaDataPosition);
+            }
+
+            position += RECORD_SIZE;
+        }
     }
 
     public void onCatchup(
@@ -473,8 +588,7 @@ public class SequenceNumberIndexWriter implements Index
         {
             metaDataLength = messageFrame.metaDataLength();
             metaDataOffset = messageFrame.metaDataUpdateOffset();
-            resizeMetaDataBuffer(metaDataOffset + metaDataLength);
-            messageFrame.getMetaData(metaDataWriteBuffer, metaDataOffset, metaDataLength);
+            messageFrame.wrapMetaData(metaDataBuffer);
 
             offset += FixMessageDecoder.metaDataHeaderLength() + metaDataLength;
         }
@@ -512,7 +626,7 @@ public class SequenceNumberIndexWriter implements Index
             final int position = saveRecord(msgSeqNum, sessionId, messagePosition, NO_REQUIRED_POSITION, false);
             if (metaDataLength > 0 && position > 0)
             {
-                writeMetaDataToFile(position, metaDataWriteBuffer, metaDataOffset, metaDataLength);
+                writeMetaDataToStore(position, sessionId, metaDataBuffer, metaDataOffset, metaDataLength);
             }
         }
         return true;
@@ -536,14 +650,6 @@ public class SequenceNumberIndexWriter implements Index
         return NO_SEQUENCE_NUMBER;
     }
 
-    private void resizeMetaDataBuffer(final int metaDataLength)
-    {
-        if (metaDataWriteBuffer.length < metaDataLength)
-        {
-            metaDataWriteBuffer = new byte[metaDataLength];
-        }
-    }
-
     private void onWriteMetaData()
     {
         final int libraryId = writeMetaData.libraryId();
@@ -551,7 +657,7 @@ public class SequenceNumberIndexWriter implements Index
         final long correlationId = writeMetaData.correlationId();
         final int metaDataOffset = writeMetaData.metaDataOffset();
 
-        if (framerContext == null || metaDataFile == null)
+        if (framerContext == null || metaDataStore == null)
         {
             writeMetaDataResponse(libraryId, correlationId, MetaDataStatus.FILE_ERROR);
 
@@ -567,59 +673,44 @@ public class SequenceNumberIndexWriter implements Index
         }
 
         final int metaDataLength = writeMetaData.metaDataLength();
-        resizeMetaDataBuffer(metaDataOffset + metaDataLength);
-        writeMetaData.getMetaData(metaDataWriteBuffer, metaDataOffset, metaDataLength);
+        writeMetaData.wrapMetaData(metaDataBuffer);
 
-        final MetaDataStatus status = writeMetaDataToFile(
-            sequenceNumberIndexFilePosition, metaDataWriteBuffer, metaDataOffset, metaDataLength);
+        final MetaDataStatus status = writeMetaDataToStore(
+            sequenceNumberIndexFilePosition, sessionId, metaDataBuffer, metaDataOffset, metaDataLength);
         writeMetaDataResponse(libraryId, correlationId, status);
     }
 
-    private MetaDataStatus writeMetaDataToFile(
+    private MetaDataStatus writeMetaDataToStore(
         final int sequenceNumberIndexFilePosition,
-        final byte[] metaDataValue,
+        final long sessionId,
+        final DirectBuffer metaDataValue,
         final int metaDataUpdateOffset,
         final int metaDataUpdateLength)
     {
+        if (metaDataStore == null)
+        {
+            return MetaDataStatus.FILE_ERROR;
+        }
+
         final int oldMetaDataPosition = getMetaData(sequenceNumberIndexFilePosition);
+        if (oldMetaDataPosition == NO_META_DATA && metaDataUpdateOffset != 0)
+        {
+            return MetaDataStatus.INVALID_OFFSET;
+        }
+
         try
         {
-            if (oldMetaDataPosition == NO_META_DATA)
+            final int newMetaDataPosition = metaDataStore.write(
+                oldMetaDataPosition, sessionId, metaDataValue, 0, metaDataUpdateOffset, metaDataUpdateLength);
+            if (newMetaDataPosition != oldMetaDataPosition)
             {
-                if (metaDataUpdateOffset != 0)
-                {
-                    return MetaDataStatus.INVALID_OFFSET;
-                }
-
-                allocateMetaDataSlot(sequenceNumberIndexFilePosition, metaDataValue, metaDataUpdateLength);
-            }
-            else
-            {
-                metaDataFile.seek(oldMetaDataPosition);
-                final int oldMetaDataLength = metaDataFile.readInt();
-                final int newMetaDataMinLength = metaDataUpdateOffset + metaDataUpdateLength;
-                // Is there space to replace?
-                if (newMetaDataMinLength <= oldMetaDataLength)
-                {
-                    metaDataFile.seek(oldMetaDataPosition + SIZE_OF_META_DATA_LENGTH + metaDataUpdateOffset);
-                    metaDataFile.write(metaDataValue, metaDataUpdateOffset, metaDataUpdateLength);
-                }
-                else
-                {
-                    // Pickup the old prefix that will be copied if it's an update
-                    if (metaDataUpdateOffset > 0)
-                    {
-                        // Already at the old metadata position
-                        metaDataFile.read(metaDataValue, 0, metaDataUpdateOffset);
-                    }
-
-                    allocateMetaDataSlot(sequenceNumberIndexFilePosition, metaDataValue, newMetaDataMinLength);
-                }
+                putMetaDataField(sequenceNumberIndexFilePosition, newMetaDataPosition);
             }
+            hasSavedRecordSinceFileUpdate = true;
 
             return MetaDataStatus.OK;
         }
-        catch (final IOException e)
+        catch (final Exception e)
         {
             errorHandler.onError(e);
 
@@ -627,25 +718,6 @@ public class SequenceNumberIndexWriter implements Index
         }
     }
 
-    private void allocateMetaDataSlot(
-        final int sequenceNumberIndexFilePosition,
-        final byte[] metaDataValue,
-        final int metaDataLength) throws IOException
-    {
-        final int metaDataFileInitialLength = (int)metaDataFile.length();
-        updateMetaDataFile(metaDataFileInitialLength, metaDataValue, metaDataLength);
-        putMetaDataField(sequenceNumberIndexFilePosition, metaDataFileInitialLength);
-        hasSavedRecordSinceFileUpdate = true;
-    }
-
-    private void updateMetaDataFile(
-        final int position, final byte[] metaDataValue, final int metaDataLength) throws IOException
-    {
-        metaDataFile.seek(position);
-        metaDataFile.writeInt(metaDataValue.length);
-        metaDataFile.write(metaDataValue, 0, metaDataLength);
-    }
-
     private void writeMetaDataResponse(final int libraryId, final long correlationId, final MetaDataStatus status)
     {
         final WriteMetaDataResponse response = new WriteMetaDataResponse(libraryId, correlationId, status);
@@ -684,26 +756,19 @@ public class SequenceNumberIndexWriter implements Index
 
     void resetSequenceNumbers()
     {
+        final int resetCount = inMemoryBuffer.getInt(RESET_COUNT_OFFSET);
         inMemoryBuffer.setMemory(0, indexedPositionsOffset, (byte)0);
         initialiseBlankBuffer();
+        inMemoryBuffer.putIntOrdered(RESET_COUNT_OFFSET, resetCount + 1);
         recordOffsets.clear();
         resetMetaDataFile();
     }
 
     private void resetMetaDataFile()
     {
-        if (metaDataLocation != null)
+        if (metaDataStore != null)
         {
-            try
-            {
-                metaDataFile.seek(0);
-                metaDataFile.setLength(META_DATA_FILE_HEADER_LENGTH);
-                writeMetaDataFileHeader(metaDataFile);
-            }
-            catch (final IOException e)
-            {
-                errorHandler.onError(e);
-            }
+            metaDataStore.reset();
         }
     }
 
@@ -744,16 +809,9 @@ public class SequenceNumberIndexWriter implements Index
 
     private void syncMetaDataFile()
     {
-        if (metaDataFile != null)
+        if (metaDataStore != null)
         {
-            try
-            {
-                metaDataFile.getFD().sync();
-            }
-            catch (final IOException e)
-            {
-                errorHandler.onError(e);
-            }
+            metaDataStore.force();
         }
     }
 
@@ -818,20 +876,7 @@ public class SequenceNumberIndexWriter implements Index
         }
         finally
         {
-            Exceptions.closeAll(indexFile, writableFile, reader, () ->
-            {
-                if (metaDataFile != null)
-                {
-                    try
-                    {
-                        metaDataFile.close();
-                    }
-                    catch (final IOException e)
-                    {
-                        errorHandler.onError(e);
-                    }
-                }
-            });
+            Exceptions.closeAll(indexFile, writableFile, reader, metaDataStore);
         }
     }
 
@@ -946,15 +991,9 @@ public class SequenceNumberIndexWriter implements Index
                 if (oldMetaDataPosition != NO_META_DATA)
                 {
                     putMetaDataField(recordOffset, NO_META_DATA);
-                    try
-                    {
-                        metaDataFile.seek(oldMetaDataPosition);
-                        final int metaDataLength = metaDataFile.readInt();
-                        updateMetaDataFile(oldMetaDataPosition, new byte[metaDataLength], metaDataLength);
-                    }
-                    catch (final IOException e)
+                    if (metaDataStore != null)
                     {
-                        errorHandler.onError(e);
+                        metaDataStore.free(oldMetaDataPosition, sessionId);
                     }
                 }
             }
@@ -20,35 +20,45 @@ import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
 import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.ArtioLogHeader;
 import uk.co.real_logic.artio.fixp.FixPMessageConsumer;
 import uk.co.real_logic.artio.messages.*;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-
 import static java.lang.Math.min;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.*;
 
+/**
+ * Merges the messages from several archived or live streams into timestamp order.
+ *
+ * Messages that can't be handed off immediately are copied into a ring buffer owned by the stream that they
+ * were read from. A primitive min-heap of every buffered message, keyed by timestamp and then by the order that
+ * messages were buffered in, is used to hand them off as soon as every other stream's low water mark has passed
+ * their timestamp. A stream's timestamps can go backwards, so a stream that has buffered messages uses the heap's
+ * minimum timestamp as its low water mark, which is never later than its own oldest buffered message.
+ * Each ring buffer grows on demand so there are no large compactions and the steady state is allocation free.
+ */
 public class StreamTimestampZipper implements AutoCloseable
 {
-    private static final TimestampComparator TIMESTAMP_COMPARATOR = new TimestampComparator();
-    private static final UnstableReverseTimestampComparator REVERSE_TIMESTAMP_COMPARATOR =
-        new UnstableReverseTimestampComparator();
-    private static final OffsetComparator OFFSET_COMPARATOR = new OffsetComparator();
+    static final int MAX_INITIAL_STREAM_BUFFER_CAPACITY = 64 * 1024;
+    static final int INITIAL_ENTRY_CAPACITY = 64;
 
     private final int maximumBufferSize;
     private final int compactionSize;
     private final StreamPoller[] pollers;
     private final FragmentAssembler fragmentAssembler;
     private final LogEntryHandler logEntryHandler;
-    private final ExpandableArrayBuffer reorderBuffer;
     private final boolean lazilyCompact;
 
-    private final ArrayList<BufferedPosition> positions = new ArrayList<>();
+    // Min-heap of buffered messages, ordered by timestamp and then by sequence, held as parallel primitive arrays.
+    private long[] heapTimestamps;
+    private long[] heapSequences;
+    private long[] heapEntryIds;
+    private int[] heapPollerIndexes;
+    private int heapSize;
 
-    private int reorderBufferOffset;
+    private long nextBufferedSequence;
+    private int bufferedBytes;
 
     public StreamTimestampZipper(
         final FixMessageConsumer fixMessageConsumer,
@@ -61,13 +71,14 @@ public class StreamTimestampZipper implements AutoCloseable
         this.maximumBufferSize = maximumBufferSize;
         this.lazilyCompact = lazilyCompact;
         this.compactionSize = compactionSize;
+        final int initialStreamBufferCapacity = min(compactionSize, MAX_INITIAL_STREAM_BUFFER_CAPACITY);
         this.pollers = new StreamPoller[pollers.length];
         for (int i = 0; i < pollers.length; i++)
         {
-            this.pollers[i] = new StreamPoller(pollers[i]);
+            this.pollers[i] = new StreamPoller(pollers[i], i, initialStreamBufferCapacity);
         }
 
-        reorderBuffer = new ExpandableArrayBuffer(compactionSize);
+        allocateHeap(INITIAL_ENTRY_CAPACITY);
         logEntryHandler = new LogEntryHandler(fixMessageConsumer, fixPMessageConsumer);
         fragmentAssembler = new FragmentAssembler(logEntryHandler);
     }
@@ -86,231 +97,229 @@ public class StreamTimestampZipper implements AutoCloseable
             }
         }
 
-        // Lazily compact: only process reorder buffer and compact when you hit the compaction size
+        // Lazily process: only hand off buffered messages once you hit the compaction size
         // Can generate a significant speed in batch archive scanning at the expense of greater latency
         // on handing off messages to the handler
-        if (read > 0 && (read <= fragmentLimit) && (!lazilyCompact || reorderBufferOffset > compactionSize))
+        if (read > 0 && (read <= fragmentLimit) && (!lazilyCompact || bufferedBytes > compactionSize))
         {
-            read += processReorderBuffer(pollers, fragmentLimit - read);
-
-            compact();
+            read += processBufferedMessages(pollers, fragmentLimit - read);
         }
 
         return read;
     }
 
-    private int processReorderBuffer(final StreamPoller[] pollers, final int fragmentLimit)
+    private int processBufferedMessages(final StreamPoller[] pollers, final int fragmentLimit)
     {
-        final ArrayList<BufferedPosition> positions = this.positions;
+        final LogEntryHandler logEntryHandler = this.logEntryHandler;
 
         int read = 0;
-        positions.sort(REVERSE_TIMESTAMP_COMPARATOR);
-
-        final int lastIndex = positions.size() - 1;
-        int i = lastIndex;
-        for (; i >= 0; i--)
+        while (heapSize > 0 && read < fragmentLimit)
         {
-            final BufferedPosition position = positions.get(i);
-            final long timestamp = position.timestamp;
-            final StreamPoller owner = position.owner;
-            final long timestampLowWaterMark = findMinLowWaterMark(pollers, owner);
-
-            if (timestamp <= timestampLowWaterMark)
-            {
-                owner.handledTimestamp(timestamp);
-                owner.elementsInBuffer--;
-                logEntryHandler.owner = owner;
-                logEntryHandler.onBufferedMessage(position.offset, position.length);
-                read++;
-
-                updateOwnerTimestamp(positions, i, owner);
-
-                if (read >= fragmentLimit)
-                {
-                    break;
-                }
-            }
-            else
+            final StreamPoller owner = pollers[heapPollerIndexes[0]];
+            if (heapTimestamps[0] > findMinLowWaterMark(pollers, owner))
             {
                 break;
             }
-        }
-
-        i++;
 
-        for (int j = lastIndex; j >= i; j--)
-        {
-            positions.remove(j);
+            handOffHeapTop(logEntryHandler, owner);
+            read++;
         }
 
         return read;
     }
 
-    private void updateOwnerTimestamp(
-        final ArrayList<BufferedPosition> positions, final int i, final StreamPoller owner)
+    private void handOffHeapTop(final LogEntryHandler logEntryHandler, final StreamPoller owner)
     {
-        // Find the next entry with the same owner and set the owner's timestamp to the next
-        // timestamp
-        for (int j = i - 1; j >= 0; j--)
+        final long entryId = heapEntryIds[0];
+        owner.handledTimestamp(heapTimestamps[0]);
+        removeHeapTop();
+
+        final int length = owner.entryLength(entryId);
+        logEntryHandler.owner = owner;
+        logEntryHandler.onBufferedMessage(owner.buffer, owner.entryOffset(entryId), length);
+        bufferedBytes -= length;
+
+        owner.remove(entryId);
+    }
+
+    private void allocateHeap(final int capacity)
+    {
+        heapTimestamps = new long[capacity];
+        heapSequences = new long[capacity];
+        heapEntryIds = new long[capacity];
+        heapPollerIndexes = new int[capacity];
+    }
+
+    private void insertIntoHeap(
+        final StreamPoller poller, final long entryId, final long timestamp, final long sequence)
+    {
+        if (heapSize == heapTimestamps.length)
+        {
+            final long[] oldTimestamps = heapTimestamps;
+            final long[] oldSequences = heapSequences;
+            final long[] oldEntryIds = heapEntryIds;
+            final int[] oldPollerIndexes = heapPollerIndexes;
+            allocateHeap(heapSize << 1);
+            System.arraycopy(oldTimestamps, 0, heapTimestamps, 0, heapSize);
+            System.arraycopy(oldSequences, 0, heapSequences, 0, heapSize);
+            System.arraycopy(oldEntryIds, 0, heapEntryIds, 0, heapSize);
+            System.arraycopy(oldPollerIndexes, 0, heapPollerIndexes, 0, heapSize);
+        }
+
+        final long[] heapTimestamps = this.heapTimestamps;
+        final long[] heapSequences = this.heapSequences;
+
+        int index = heapSize++;
+        while (index > 0)
         {
-            final BufferedPosition remainingPosition = positions.get(j);
-            if (remainingPosition.owner == owner)
+            final int parentIndex = (index - 1) >> 1;
+            if (!isAfter(heapTimestamps[parentIndex], heapSequences[parentIndex], timestamp, sequence))
             {
-                // don't go through method here because this might increase the min buffered timestamp.
-                owner.minBufferedTimestamp = remainingPosition.timestamp;
-                return;
+                break;
             }
+
+            moveHeapElement(parentIndex, index);
+            index = parentIndex;
         }
 
-        owner.nothingBuffered();
+        setHeapElement(index, timestamp, sequence, entryId, poller.index);
     }
 
-    private boolean compact()
+    private void removeHeapTop()
     {
-        if (reorderBufferOffset > compactionSize)
+        final int lastIndex = --heapSize;
+        if (lastIndex == 0)
         {
-            positions.sort(OFFSET_COMPARATOR);
-            int reorderBufferOffset = 0;
-            for (final BufferedPosition position : positions)
-            {
-                final int offset = position.offset;
-                // No compaction possible
-                if (offset == reorderBufferOffset)
-                {
-                    return false;
-                }
+            return;
+        }
 
-                final int length = position.length;
-                position.offset = reorderBufferOffset;
-                reorderBuffer.putBytes(reorderBufferOffset, reorderBuffer, offset, length);
+        final long[] heapTimestamps = this.heapTimestamps;
+        final long[] heapSequences = this.heapSequences;
+        final long timestamp = heapTimestamps[lastIndex];
+        final long sequence = heapSequences[lastIndex];
+        final long entryId = heapEntryIds[lastIndex];
+        final int pollerIndex = heapPollerIndexes[lastIndex];
+        final int heapSize = this.heapSize;
+
+        int index = 0;
+        final int halfSize = heapSize >> 1;
+        while (index < halfSize)
+        {
+            int childIndex = (index << 1) + 1;
+            final int rightIndex = childIndex + 1;
+            if (rightIndex < heapSize && isAfter(
+                heapTimestamps[childIndex], heapSequences[childIndex],
+                heapTimestamps[rightIndex], heapSequences[rightIndex]))
+            {
+                childIndex = rightIndex;
+            }
 
-                final int newReorderBufferOffset = reorderBufferOffset + length;
-                validateReorderBufferOffset(length, reorderBufferOffset, newReorderBufferOffset);
-                reorderBufferOffset = newReorderBufferOffset;
+            if (!isAfter(timestamp, sequence, heapTimestamps[childIndex], heapSequences[childIndex]))
+            {
+                break;
             }
-            this.reorderBufferOffset = reorderBufferOffset;
+
+            moveHeapElement(childIndex, index);
+            index = childIndex;
         }
 
-        return true;
+        setHeapElement(index, timestamp, sequence, entryId, pollerIndex);
     }
 
-    public int bufferPosition()
+    private void moveHeapElement(final int fromIndex, final int toIndex)
     {
-        return reorderBufferOffset;
+        setHeapElement(
+            toIndex,
+            heapTimestamps[fromIndex],
+            heapSequences[fromIndex],
+            heapEntryIds[fromIndex],
+            heapPollerIndexes[fromIndex]);
     }
 
-    public int bufferCapacity()
+    private void setHeapElement(
+        final int index, final long timestamp, final long sequence, final long entryId, final int pollerIndex)
     {
-        return reorderBuffer.capacity();
+        heapTimestamps[index] = timestamp;
+        heapSequences[index] = sequence;
+        heapEntryIds[index] = entryId;
+        heapPollerIndexes[index] = pollerIndex;
     }
 
-    private void dumpBuffer()
+    private static boolean isAfter(
+        final long timestamp, final long sequence, final long otherTimestamp, final long otherSequence)
     {
-        final LogEntryHandler logEntryHandler = this.logEntryHandler;
-        final List<BufferedPosition> positions = this.positions;
-        final int size = positions.size();
-
-        positions.sort(TIMESTAMP_COMPARATOR);
-
-        for (int i = 0; i < size; i++)
-        {
-            final BufferedPosition position = positions.get(i);
-            logEntryHandler.owner = position.owner;
-            logEntryHandler.onBufferedMessage(position.offset, position.length);
-        }
-
-        positions.clear();
-        for (final StreamPoller poller : pollers)
-        {
-            poller.elementsInBuffer = 0;
-        }
-        reorderBufferOffset = 0;
+        return timestamp > otherTimestamp || (timestamp == otherTimestamp && sequence > otherSequence);
     }
 
-    public void close()
+    public int bufferPosition()
     {
-        dumpBuffer();
+        return bufferedBytes;
+    }
 
+    public int bufferCapacity()
+    {
+        int capacity = 0;
         for (final StreamPoller poller : pollers)
         {
-            poller.close();
+            capacity += poller.buffer.capacity();
         }
+        return capacity;
     }
 
-    static class BufferedPosition
+    private void dumpBuffer()
     {
-        final StreamPoller owner;
-        final long timestamp;
-        int offset;
-        final int length;
-
-        BufferedPosition(final StreamPoller owner, final long timestamp, final int offset, final int length)
-        {
-            this.owner = owner;
-            this.timestamp = timestamp;
-            this.offset = offset;
-            this.length = length;
-        }
+        final LogEntryHandler logEntryHandler = this.logEntryHandler;
+        final StreamPoller[] pollers = this.pollers;
 
-        public String toString()
+        while (heapSize > 0)
         {
-            return "BufferedPosition{" +
-                "owner=" + owner.poller.streamId() +
-                ", timestamp=" + timestamp +
-                ", offset=" + offset +
-                ", length=" + length +
-                '}';
+            handOffHeapTop(logEntryHandler, pollers[heapPollerIndexes[0]]);
         }
-    }
 
-    static class TimestampComparator implements Comparator<BufferedPosition>
-    {
-        public int compare(final BufferedPosition o1, final BufferedPosition o2)
-        {
-            return Long.compare(o1.timestamp, o2.timestamp);
-        }
+        bufferedBytes = 0;
     }
 
-    static class UnstableReverseTimestampComparator implements Comparator<BufferedPosition>
+    public void close()
     {
-        public int compare(final BufferedPosition o1, final BufferedPosition o2)
-        {
-            final int timestampCompare = Long.compare(o2.timestamp, o1.timestamp);
-
-            // When we have two messages with an equal timestamp we don't want to have a stable sort, we want it to
-            // reverse the origin positions, so we then compare based upon the offset of the positions.
-            if (timestampCompare == 0)
-            {
-                return Long.compare(o2.offset, o1.offset);
-            }
-
-            return timestampCompare;
-        }
-    }
+        dumpBuffer();
 
-    static class OffsetComparator implements Comparator<BufferedPosition>
-    {
-        public int compare(final BufferedPosition o1, final BufferedPosition o2)
+        for (final StreamPoller poller : pollers)
         {
-            return Long.compare(o1.offset, o2.offset);
+            poller.close();
         }
     }
 
     class StreamPoller
     {
-        private static final long NOTHING_BUFFERED = -1;
-
         private final ArtioLogHeader header;
         private final Poller poller;
-        private long minBufferedTimestamp = NOTHING_BUFFERED;
+        private final int index;
         private long maxHandledTimestamp;
         private boolean isDrained = false;
+
+        // Buffered messages are stored in the order that they're read as a ring of contiguous messages within buffer,
+        // each message is described by an entry within the following primitive ring of arrays. Entries are
+        // identified by an ever increasing id, whose slot in the ring is the id masked by entryMask. Messages are
+        // handed off in timestamp order so an entry can be removed before older ones, its space is reclaimed once
+        // every older entry has been removed.
+        private UnsafeBuffer buffer;
+        private int tailOffset;
+
+        private int[] entryOffsets;
+        private int[] entryLengths;
+        private boolean[] entryRemoved;
+        private int entryMask;
+        private long headEntryId;
+        private long tailEntryId;
         private int elementsInBuffer = 0;
 
-        StreamPoller(final Poller poller)
+        StreamPoller(final Poller poller, final int index, final int initialBufferCapacity)
         {
             this.poller = poller;
+            this.index = index;
             header = new ArtioLogHeader(poller.streamId());
+            buffer = new UnsafeBuffer(new byte[initialBufferCapacity]);
+            allocateEntries(INITIAL_ENTRY_CAPACITY);
         }
 
         public int poll(
@@ -321,10 +330,11 @@ public class StreamTimestampZipper implements AutoCloseable
             return poller.poll(fragmentAssembler, fragmentLimit);
         }
 
-        // This is the position at which it is safe for other streams to emit below.
+        // This is the position at which it is safe for other streams to emit below. The heap's minimum is a lower
+        // bound on this stream's oldest buffered timestamp, and is what the heap hands messages off by.
         long timestampLowWaterMark()
         {
-            return minBufferedTimestamp == NOTHING_BUFFERED ? maxHandledTimestamp : minBufferedTimestamp;
+            return elementsInBuffer == 0 ? maxHandledTimestamp : heapTimestamps[0];
         }
 
         void handledTimestamp(final long timestamp)
@@ -332,21 +342,167 @@ public class StreamTimestampZipper implements AutoCloseable
             maxHandledTimestamp = Math.max(maxHandledTimestamp, timestamp);
         }
 
-        void bufferedTimestamp(final long timestamp)
+        int entryOffset(final long entryId)
+        {
+            return entryOffsets[(int)entryId & entryMask];
+        }
+
+        int entryLength(final long entryId)
         {
-            if (minBufferedTimestamp == NOTHING_BUFFERED)
+            return entryLengths[(int)entryId & entryMask];
+        }
+
+        /**
+         * Copies a message into the ring buffer for this stream.
+         *
+         * @return the id of the new entry.
+         */
+        long append(final DirectBuffer srcBuffer, final int srcOffset, final int length)
+        {
+            if (tailEntryId - headEntryId == entryOffsets.length)
             {
-                minBufferedTimestamp = timestamp;
+                growEntries();
             }
-            else
+
+            final int offset = claimOffset(length);
+            buffer.putBytes(offset, srcBuffer, srcOffset, length);
+            tailOffset = offset + length;
+
+            final long entryId = tailEntryId++;
+            final int entryIndex = (int)entryId & entryMask;
+            entryOffsets[entryIndex] = offset;
+            entryLengths[entryIndex] = length;
+            entryRemoved[entryIndex] = false;
+            elementsInBuffer++;
+
+            return entryId;
+        }
+
+        void remove(final long entryId)
+        {
+            final int entryMask = this.entryMask;
+            final boolean[] entryRemoved = this.entryRemoved;
+            entryRemoved[(int)entryId & entryMask] = true;
+
+            if (--elementsInBuffer == 0)
+            {
+                headEntryId = tailEntryId;
+                tailOffset = 0;
+                return;
+            }
+
+            long headEntryId = this.headEntryId;
+            while (entryRemoved[(int)headEntryId & entryMask])
+            {
+                headEntryId++;
+            }
+            this.headEntryId = headEntryId;
+        }
+
+        private int claimOffset(final int length)
+        {
+            if (elementsInBuffer == 0)
+            {
+                if (length > buffer.capacity())
+                {
+                    buffer = new UnsafeBuffer(new byte[newBufferCapacity(length)]);
+                }
+
+                return 0;
+            }
+
+            final int capacity = buffer.capacity();
+            final int headOffset = entryOffset(headEntryId);
+            final int tailOffset = this.tailOffset;
+            if (tailOffset > headOffset)
+            {
+                if (capacity - tailOffset >= length)
+                {
+                    return tailOffset;
+                }
+
+                // wrap around to the start of the buffer, the message must stay contiguous for decoding.
+                if (length < headOffset)
+                {
+                    return 0;
+                }
+            }
+            else if (headOffset - tailOffset > length)
             {
-                minBufferedTimestamp = min(minBufferedTimestamp, timestamp);
+                return tailOffset;
             }
+
+            return growBuffer(length);
         }
 
-        public void nothingBuffered()
+        // Only copies the entries that haven't been removed, removed entries between them are never read again.
+        private int growBuffer(final int length)
         {
-            minBufferedTimestamp = NOTHING_BUFFERED;
+            final int entryMask = this.entryMask;
+            final long tailEntryId = this.tailEntryId;
+
+            int usedBytes = 0;
+            for (long entryId = headEntryId; entryId < tailEntryId; entryId++)
+            {
+                final int entryIndex = (int)entryId & entryMask;
+                if (!entryRemoved[entryIndex])
+                {
+                    usedBytes += entryLengths[entryIndex];
+                }
+            }
+
+            final UnsafeBuffer oldBuffer = buffer;
+            final UnsafeBuffer newBuffer = new UnsafeBuffer(new byte[newBufferCapacity(usedBytes + length)]);
+            int newOffset = 0;
+            for (long entryId = headEntryId; entryId < tailEntryId; entryId++)
+            {
+                final int entryIndex = (int)entryId & entryMask;
+                if (!entryRemoved[entryIndex])
+                {
+                    final int entryLength = entryLengths[entryIndex];
+                    newBuffer.putBytes(newOffset, oldBuffer, entryOffsets[entryIndex], entryLength);
+                    entryOffsets[entryIndex] = newOffset;
+                    newOffset += entryLength;
+                }
+            }
+
+            buffer = newBuffer;
+            return newOffset;
+        }
+
+        private int newBufferCapacity(final int requiredCapacity)
+        {
+            final long newCapacity = Math.max((long)buffer.capacity() << 1, requiredCapacity);
+            validateBufferCapacity(requiredCapacity, newCapacity);
+            return (int)min(newCapacity, ExpandableArrayBuffer.MAX_ARRAY_LENGTH);
+        }
+
+        private void allocateEntries(final int capacity)
+        {
+            entryOffsets = new int[capacity];
+            entryLengths = new int[capacity];
+            entryRemoved = new boolean[capacity];
+            entryMask = capacity - 1;
+        }
+
+        // Entry ids are kept so that the heap's references stay valid, only their slots change.
+        private void growEntries()
+        {
+            final int[] oldOffsets = entryOffsets;
+            final int[] oldLengths = entryLengths;
+            final boolean[] oldRemoved = entryRemoved;
+            final int oldMask = entryMask;
+
+            allocateEntries(oldOffsets.length << 1);
+            final int entryMask = this.entryMask;
+            for (long entryId = headEntryId; entryId < tailEntryId; entryId++)
+            {
+                final int oldIndex = (int)entryId & oldMask;
+                final int newIndex = (int)entryId & entryMask;
+                entryOffsets[newIndex] = oldOffsets[oldIndex];
+                entryLengths[newIndex] = oldLengths[oldIndex];
+                entryRemoved[newIndex] = oldRemoved[oldIndex];
+            }
         }
 
         public String toString()
@@ -552,20 +708,19 @@ public class StreamTimestampZipper implements AutoCloseable
         private void putBufferedMessage(
             final DirectBuffer buffer, final int start, final int length, final long timestamp)
         {
-            if (reorderBufferOffset + length > maximumBufferSize)
+            final StreamPoller owner = this.owner;
+            if (bufferedBytes + length > maximumBufferSize)
             {
                 dumpBuffer();
+                this.owner = owner;
             }
 
-            final int reorderBufferOffset = StreamTimestampZipper.this.reorderBufferOffset;
-            owner.bufferedTimestamp(timestamp);
-            owner.elementsInBuffer++;
-            reorderBuffer.putBytes(reorderBufferOffset, buffer, start, length);
-            positions.add(new BufferedPosition(owner, timestamp, reorderBufferOffset, length));
+            final long entryId = owner.append(buffer, start, length);
+            insertIntoHeap(owner, entryId, timestamp, nextBufferedSequence++);
 
-            final int newReorderBufferOffset = reorderBufferOffset + length;
-            StreamTimestampZipper.this.reorderBufferOffset = newReorderBufferOffset;
-            validateReorderBufferOffset(length, reorderBufferOffset, newReorderBufferOffset);
+            final int newBufferedBytes = bufferedBytes + length;
+            validateBufferedBytes(length, bufferedBytes, newBufferedBytes);
+            bufferedBytes = newBufferedBytes;
         }
 
         void reset(final long minOtherTimestamp, final StreamPoller owner)
@@ -574,11 +729,10 @@ public class StreamTimestampZipper implements AutoCloseable
             this.owner = owner;
         }
 
-        public void onBufferedMessage(final int start, final int length)
+        void onBufferedMessage(final DirectBuffer buffer, final int start, final int length)
         {
             int offset = start;
 
-            final ExpandableArrayBuffer buffer = StreamTimestampZipper.this.reorderBuffer;
             final MessageHeaderDecoder messageHeader = this.messageHeader;
             messageHeader.wrap(buffer, offset);
             final int templateId = messageHeader.templateId();
@@ -638,13 +792,22 @@ public class StreamTimestampZipper implements AutoCloseable
         }
     }
 
-    private static void validateReorderBufferOffset(
-        final int length, final int reorderBufferOffset, final int newReorderBufferOffset)
+    private static void validateBufferedBytes(
+        final int length, final int bufferedBytes, final int newBufferedBytes)
+    {
+        if (newBufferedBytes < 0)
+        {
+            throw new IllegalStateException("Detected negative newBufferedBytes: " +
+                newBufferedBytes + ", bufferedBytes=" + bufferedBytes + ", length=" + length);
+        }
+    }
+
+    private static void validateBufferCapacity(final int requiredCapacity, final long newCapacity)
     {
-        if (newReorderBufferOffset < 0)
+        if (requiredCapacity < 0 || requiredCapacity > ExpandableArrayBuffer.MAX_ARRAY_LENGTH)
         {
-            throw new IllegalStateException("Detected negative newReorderBufferOffset: " +
-                newReorderBufferOffset + ", reorderBufferOffset=" + reorderBufferOffset + ", length=" + length);
+            throw new IllegalStateException("Unable to grow stream buffer to: " + requiredCapacity +
+                ", newCapacity=" + newCapacity);
         }
     }
 
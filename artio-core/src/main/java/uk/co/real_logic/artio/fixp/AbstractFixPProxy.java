@@ -17,6 +17,7 @@ package uk.co.real_logic.artio.fixp;
 
 import io.aeron.ExclusivePublication;
 import io.aeron.logbuffer.BufferClaim;
+import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.sbe.MessageEncoderFlyweight;
 import uk.co.real_logic.artio.messages.FixPMessageEncoder;
@@ -56,6 +57,14 @@ public abstract class AbstractFixPProxy
     {
         this.connectionId = connectionId;
         this.sessionId = sessionId;
+        encodeTemplates();
+    }
+
+    /**
+     * Re-encode any session message templates, called when the ids that are part of the templates change.
+     */
+    protected void encodeTemplates()
+    {
     }
 
     public abstract long sendSequence(
@@ -98,11 +107,77 @@ public abstract class AbstractFixPProxy
             return position;
         }
 
+        encodeHeaders(
+            bufferClaim.buffer(), bufferClaim.offset(), messageLength, message, timestamp, protocolHeaderLength,
+            protocolType);
+
+        return position;
+    }
+
+    /**
+     * Encode the headers of a session message whose fields only partly change between sends into a template, so
+     * that sending it only has to copy the template and then update the fields that have changed. The template's
+     * length is the artio header length plus the protocol header and message lengths. See
+     * {@link #claimTemplate(DirectBuffer, int, long)}.
+     *
+     * @param template the buffer to encode the template into.
+     * @param messageLength the length of the message body.
+     * @param message the encoder of the message, which is left wrapping the template's body.
+     * @param protocolHeaderLength the length of the framing and message headers of the protocol.
+     * @param protocolType the SOFH encoding type of the protocol.
+     */
+    protected void encodeTemplate(
+        final MutableDirectBuffer template,
+        final int messageLength,
+        final MessageEncoderFlyweight message,
+        final int protocolHeaderLength,
+        final short protocolType)
+    {
+        encodeHeaders(template, 0, messageLength, message, 0, protocolHeaderLength, protocolType);
+    }
+
+    /**
+     * Claim space for a message and copy a template that was encoded by
+     * {@link #encodeTemplate(MutableDirectBuffer, int, MessageEncoderFlyweight, int, short)} into it. The enqueue
+     * time is updated, other changing fields should be written by the caller before it commits the claim.
+     *
+     * @param template the encoded template.
+     * @param templateLength the total length of the template.
+     * @param timestamp the enqueue time of the message.
+     * @return the position of the claim or a negative error code from the publication.
+     */
+    protected long claimTemplate(final DirectBuffer template, final int templateLength, final long timestamp)
+    {
+        final BufferClaim bufferClaim = this.bufferClaim;
+        final long position = publication.tryClaim(templateLength, bufferClaim);
+        if (position < 0)
+        {
+            return position;
+        }
+
         final MutableDirectBuffer buffer = bufferClaim.buffer();
-        int offset = bufferClaim.offset();
+        final int offset = bufferClaim.offset();
+        buffer.putBytes(offset, template, 0, templateLength);
+        fixPMessage
+            .wrap(buffer, offset + MessageHeaderEncoder.ENCODED_LENGTH)
+            .enqueueTime(timestamp);
+
+        return position;
+    }
+
+    private void encodeHeaders(
+        final MutableDirectBuffer buffer,
+        final int claimOffset,
+        final int messageLength,
+        final MessageEncoderFlyweight message,
+        final long timestamp,
+        final int protocolHeaderLength,
+        final short protocolType)
+    {
+        int offset = claimOffset;
 
         fixPMessage
-            .wrapAndApplyHeader(buffer, bufferClaim.offset(), messageHeader)
+            .wrapAndApplyHeader(buffer, offset, messageHeader)
             .connection(connectionId)
             .sessionId(sessionId)
             .enqueueTime(timestamp);
@@ -115,8 +190,6 @@ public abstract class AbstractFixPProxy
         offset = applyHeader(message, buffer, offset);
 
         message.wrap(buffer, offset);
-
-        return position;
     }
 
     protected abstract int applyHeader(MessageEncoderFlyweight message, MutableDirectBuffer buffer, int offset);
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.messages.DisconnectReason;
+
+/**
+ * Callback that is invoked for sessions that a library has released to be engine-managed.
+ *
+ * The engine handles the admin level session protocol for these sessions, heartbeats, test requests, resend requests
+ * and sequence number checking, so only application messages are passed to the library.
+ *
+ * Application messages of any engine owned session that match one of the engine's
+ * {@link uk.co.real_logic.artio.engine.EngineConfiguration#messageRoute(String, int) message routes} to this library
+ * are passed to this handler as well, without an {@link #onDisconnect(long, DisconnectReason)} callback unless this
+ * library released the session.
+ *
+ * @see FixLibrary#releaseToEngineManagement(uk.co.real_logic.artio.session.Session, long)
+ * @see LibraryConfiguration#engineManagedSessionHandler(EngineManagedSessionHandler)
+ */
+public interface EngineManagedSessionHandler
+{
+    /**
+     * Invoked when an application message is received on an engine-managed session.
+     *
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the message within the buffer.
+     * @param length the length of the message.
+     * @param sessionId the identifying number of the session that received the message.
+     * @param sequenceIndex the sequence index of the message.
+     * @param messageType the packed message type of the message.
+     * @param timestampInNs the time that the message was received by the engine.
+     * @param position the position in the Aeron stream of the message.
+     * @return an action to indicate the correct back pressure behaviour.
+     */
+    Action onApplicationMessage(
+        DirectBuffer buffer,
+        int offset,
+        int length,
+        long sessionId,
+        int sequenceIndex,
+        long messageType,
+        long timestampInNs,
+        long position);
+
+    /**
+     * Invoked when an engine-managed session is disconnected. The library won't receive any further messages for
+     * the session unless it's released to engine management again.
+     *
+     * @param sessionId the identifying number of the session that was disconnected.
+     * @param reason the reason for the disconnect.
+     */
+    void onDisconnect(long sessionId, DisconnectReason reason);
+}
@@ -37,6 +37,7 @@ import uk.co.real_logic.artio.timing.LibraryTimers;
 import java.io.File;
 import java.util.List;
 
+import static java.util.Objects.requireNonNull;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.closeAll;
 
 /**
@@ -321,6 +322,30 @@ public class FixLibrary extends GatewayProcess
         return poller.releaseToGateway(session, timeoutInMs);
     }
 
+    /**
+     * Release this session object to the gateway to manage, whilst still receiving its application messages. The
+     * engine handles the admin level session protocol, heartbeats, test requests, resend requests and sequence number
+     * checking, so this library doesn't need to poll in order to keep the session alive. Inbound application messages
+     * are passed to the {@link EngineManagedSessionHandler} configured by
+     * {@link LibraryConfiguration#engineManagedSessionHandler(EngineManagedSessionHandler)}.
+     *
+     * Outbound messages are sent by the engine, so in order to send application messages the session needs to be
+     * acquired again using {@link #requestSession(long, int, int, long)}, which also stops it being engine-managed.
+     *
+     * Similar to {@link #releaseToGateway(Session, long)} this is a non-blocking operation that
+     * returns a reply object that indicates what has happened to its result.
+     *
+     * @param session the session to release
+     * @param timeoutInMs the timeout for this operation
+     * @return the result of this operation.
+     * @throws IllegalStateException if no engineManagedSessionHandler has been configured.
+     */
+    public Reply<SessionReplyStatus> releaseToEngineManagement(final Session session, final long timeoutInMs)
+    {
+        CommonConfiguration.validateTimeout(timeoutInMs);
+        return poller.releaseToEngineManagement(session, timeoutInMs);
+    }
+
     /**
      * Request a session be acquired from the Gateway. It returns a {@link LibraryReply} object.
      *
@@ -469,6 +494,50 @@ public class FixLibrary extends GatewayProcess
         return poller.writeMetaData(sessionId, metaDataUpdateOffset, buffer, offset, length);
     }
 
+    /**
+     * Write meta data associated with a session, notifying a callback of the outcome rather than returning a reply.
+     * This doesn't allocate in the steady state as the library reuses its internal reply objects.
+     *
+     * The data within the buffer should not be modified until the handler has been called.
+     *
+     * @param sessionId the session id of the session that meta data is written to.
+     * @param metaDataUpdateOffset the offset within the session's metadata buffer. <code>0</code> should be used for
+     *                       initialization.
+     * @param buffer the buffer where the meta data to be written is stored.
+     * @param offset the offset within the buffer
+     * @param length the length of the data within the buffer.
+     * @param handler the callback that is notified once the write has completed, errored or timed out.
+     * @see #writeMetaData(long, int, DirectBuffer, int, int)
+     */
+    public void writeMetaData(
+        final long sessionId,
+        final int metaDataUpdateOffset,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final WriteMetaDataHandler handler)
+    {
+        requireNonNull(handler, "handler");
+        poller.writeMetaData(sessionId, metaDataUpdateOffset, buffer, offset, length, handler);
+    }
+
+    /**
+     * Create a batch of {@link #requestSession(long, int, int, long)} and
+     * {@link #writeMetaData(long, int, DirectBuffer, int, int)} requests that are sent without waiting for each
+     * other's replies and that share a single completion callback.
+     *
+     * @param timeoutInMs the timeout for the requests in this batch that take a timeout.
+     * @param handler the callback that is invoked once all of the batch's replies are no longer executing.
+     * @return the new batch.
+     * @see ReplyBatch
+     */
+    public ReplyBatch newReplyBatch(final long timeoutInMs, final ReplyBatchHandler handler)
+    {
+        CommonConfiguration.validateTimeout(timeoutInMs);
+        requireNonNull(handler, "handler");
+        return new ReplyBatch(poller, timeoutInMs, handler);
+    }
+
     /**
      * Read the meta data associated with a session.
      *
@@ -45,7 +45,7 @@ class FixPFollowerSessionReply extends LibraryReply<Long>
         final long position = libraryPoller.saveFollowerSessionRequest(
             correlationId, protocolType, buffer, 0, buffer.capacity());
 
-        requiresResend = position < 0;
+        requiresResend(position < 0);
     }
 
     void onError(final GatewayError errorType, final String errorMessage)
@@ -55,6 +55,6 @@ class FollowerSessionReply extends LibraryReply<SessionWriter>
         final long position = libraryPoller.saveFollowerSessionRequest(
             correlationId, FixPProtocolType.NULL_VAL, buffer, offset, length);
 
-        requiresResend = position < 0;
+        requiresResend(position < 0);
     }
 }
@@ -42,7 +42,7 @@ class InitiateILink3ConnectionReply extends LibraryReply<ILink3Connection>
     {
         final long position = libraryPoller.saveInitiateILink(correlationId, configuration);
 
-        requiresResend = position < 0;
+        requiresResend(position < 0);
     }
 
     void onComplete(final ILink3Connection result)
@@ -65,7 +65,7 @@ class InitiateSessionReply extends LibraryReply<Session>
 
         final long position = libraryPoller.saveInitiateConnection(host, port, correlationId, configuration);
 
-        requiresResend = position < 0;
+        requiresResend(position < 0);
     }
 
     void onError(final GatewayError errorType, final String errorMessage)
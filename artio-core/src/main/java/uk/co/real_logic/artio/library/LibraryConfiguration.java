@@ -82,6 +82,8 @@ public final class LibraryConfiguration extends CommonConfiguration
     private SessionProxyFactory sessionProxyFactory = DEFAULT_SESSION_PROXY_FACTORY;
     private FixPConnectionExistsHandler fixPConnectionExistsHandler;
     private FixPConnectionAcquiredHandler fixPConnectionAcquiredHandler;
+    private EngineManagedSessionHandler engineManagedSessionHandler;
+    private boolean pooledReplies = false;
     private LibraryReproductionConfiguration reproductionConfiguration;
 
     /**
@@ -117,9 +119,45 @@ public final class LibraryConfiguration extends CommonConfiguration
         return this;
     }
 
+    /**
+     * Sets the handler that application messages of engine-managed sessions are passed to.
+     *
+     * Only needed if this library releases sessions with
+     * {@link FixLibrary#releaseToEngineManagement(uk.co.real_logic.artio.session.Session, long)}, or is the target of
+     * one of the engine's {@link uk.co.real_logic.artio.engine.EngineConfiguration#messageRoute(String, int) message
+     * routes}. Routed messages are dropped if this handler isn't set.
+     *
+     * @param engineManagedSessionHandler the handler for engine-managed sessions.
+     * @return this
+     */
+    public LibraryConfiguration engineManagedSessionHandler(
+        final EngineManagedSessionHandler engineManagedSessionHandler)
+    {
+        this.engineManagedSessionHandler = engineManagedSessionHandler;
+        return this;
+    }
+
+    /**
+     * Sets whether the replies of {@link FixLibrary#writeMetaData(long, int, org.agrona.DirectBuffer, int, int)} are
+     * taken from a pool rather than allocated for every request. Pooled replies must be handed back by calling
+     * {@link uk.co.real_logic.artio.Reply#release()} once their outcome has been read, after which they must not be
+     * accessed again. Replies that aren't released are simply garbage collected.
+     *
+     * @param pooledReplies true to pool replies, false by default.
+     * @return this
+     */
+    public LibraryConfiguration pooledReplies(final boolean pooledReplies)
+    {
+        this.pooledReplies = pooledReplies;
+        return this;
+    }
+
     /**
      * Sets the idle strategy for the FIX library instance.
      *
+     * {@link #adaptiveIdleStrategy()} can be used to busy spin while the library's poll is doing work and back off
+     * when it isn't.
+     *
      * @param libraryIdleStrategy the idle strategy for the FIX library instance.
      * @return this
      */
@@ -184,6 +222,16 @@ public final class LibraryConfiguration extends CommonConfiguration
         return sessionAcquireHandler;
     }
 
+    public EngineManagedSessionHandler engineManagedSessionHandler()
+    {
+        return engineManagedSessionHandler;
+    }
+
+    public boolean pooledReplies()
+    {
+        return pooledReplies;
+    }
+
     public int libraryId()
     {
         return libraryId;
@@ -64,6 +64,7 @@ import static java.util.Objects.requireNonNull;
 import static uk.co.real_logic.artio.GatewayProcess.NO_CONNECTION_ID;
 import static uk.co.real_logic.artio.GatewayProcess.NO_CORRELATION_ID;
 import static uk.co.real_logic.artio.LogTag.*;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.isAdminMessage;
 import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
 import static uk.co.real_logic.artio.library.SessionConfiguration.AUTOMATIC_INITIAL_SEQUENCE_NUMBER;
 import static uk.co.real_logic.artio.messages.ConnectionType.INITIATOR;
@@ -104,6 +105,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private static final int ENGINE_DISCONNECT = 5;
 
     private static final long NO_MESSAGE_TIMESTAMP = -1;
+    private static final long NO_ENGINE_MANAGED_SESSION_ID = -1;
 
     private static final InternalFixPConnection[] EMPTY_FIXP_CONNECTIONS = new InternalFixPConnection[0];
     private static final InternalSession[] EMPTY_SESSIONS = new InternalSession[0];
@@ -126,6 +128,10 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final Long2ObjectHashMap<FixPSubscription> connectionIdToFixPSubscription =
         new Long2ObjectHashMap<>();
 
+    // Sessions released to the engine whose application messages are still passed to this library
+    private final Long2LongHashMap engineManagedConnectionIdToSessionId =
+        new Long2LongHashMap(NO_ENGINE_MANAGED_SESSION_ID);
+
     // Used when checking the consistency of the session ids
     private final LongHashSet sessionIds = new LongHashSet();
     private final LongHashSet disconnectedSessionIds = new LongHashSet();
@@ -140,6 +146,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final Timer sessionTimer;
     private final Timer receiveTimer;
     private final SessionExistsHandler sessionExistsHandler;
+    private final EngineManagedSessionHandler engineManagedSessionHandler;
     private final boolean enginesAreClustered;
     private final ErrorHandler errorHandler;
     private final FixCounters fixCounters;
@@ -148,6 +155,10 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final ReproductionClock reproductionClock;
 
     private final Long2ObjectHashMap<LibraryReply<?>> correlationIdToReply = new Long2ObjectHashMap<>();
+    // Executing replies ordered by their timeout, so that polling only has to look at the ones that are expiring.
+    private final ReplyTimeouts replyTimeouts = new ReplyTimeouts();
+    private final ArrayList<LibraryReply<?>> repliesRequiringResend = new ArrayList<>();
+    private final ArrayList<WriteMetaDataReply> writeMetaDataReplyPool = new ArrayList<>();
     private final List<BooleanSupplier> tasks = new ArrayList<>();
     private final LibraryTransport transport;
     private final FixLibrary fixLibrary;
@@ -250,6 +261,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         this.configuration = configuration;
         this.sessionIdStrategy = configuration.sessionIdStrategy();
         this.sessionExistsHandler = configuration.sessionExistsHandler();
+        this.engineManagedSessionHandler = configuration.engineManagedSessionHandler();
         this.epochClock = epochClock;
         epochNanoClock = configuration.epochNanoClock();
         this.enginesAreClustered = configuration.libraryAeronChannels().size() > 1;
@@ -258,6 +270,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             epochClock, configuration.epochNanoClock(), configuration.sessionEpochFractionFormat());
         this.isReproductionEnabled = configuration.isReproductionEnabled();
         this.reproductionClock = isReproductionEnabled ? configuration.reproductionConfiguration().clock() : null;
+        this.outboundSubscription = new OtherLibraryMessageFilter(libraryId, new ControlledFragmentAssembler(
+            ProtocolSubscription.of(this, new LibraryProtocolSubscription(this))));
     }
 
     boolean isConnected()
@@ -313,7 +327,26 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         validateEndOfDay();
 
         return new ReleaseToGatewayReply(
-            this, timeInMs() + timeoutInMs, (InternalSession)session);
+            this, timeInMs() + timeoutInMs, (InternalSession)session, false);
+    }
+
+    Reply<SessionReplyStatus> releaseToEngineManagement(final Session session, final long timeoutInMs)
+    {
+        requireNonNull(session, "session");
+        validateEndOfDay();
+        if (engineManagedSessionHandler == null)
+        {
+            throw new IllegalStateException(
+                "An engineManagedSessionHandler must be configured in order to release engine-managed sessions");
+        }
+
+        return new ReleaseToGatewayReply(
+            this, timeInMs() + timeoutInMs, (InternalSession)session, true);
+    }
+
+    void onEngineManaged(final InternalSession session)
+    {
+        engineManagedConnectionIdToSessionId.put(session.connectionId(), session.id());
     }
 
     Reply<SessionReplyStatus> requestSession(
@@ -375,9 +408,16 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             throw new IllegalArgumentException("metaDataOffset should never be negative and is " + metaDataOffset);
         }
 
+        final long latestReplyArrivalTimeInMs = timeInMs() + configuration.replyTimeoutInMs();
+        if (configuration.pooledReplies())
+        {
+            return acquireWriteMetaDataReply().init(
+                latestReplyArrivalTimeInMs, sessionId, metaDataOffset, buffer, offset, length, null);
+        }
+
         return new WriteMetaDataReply(
             this,
-            timeInMs() + configuration.replyTimeoutInMs(),
+            latestReplyArrivalTimeInMs,
             sessionId,
             metaDataOffset,
             buffer,
@@ -385,6 +425,35 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             length);
     }
 
+    void writeMetaData(
+        final long sessionId,
+        final int metaDataOffset,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final WriteMetaDataHandler handler)
+    {
+        if (metaDataOffset < 0)
+        {
+            throw new IllegalArgumentException("metaDataOffset should never be negative and is " + metaDataOffset);
+        }
+
+        acquireWriteMetaDataReply().init(
+            timeInMs() + configuration.replyTimeoutInMs(), sessionId, metaDataOffset, buffer, offset, length, handler);
+    }
+
+    private WriteMetaDataReply acquireWriteMetaDataReply()
+    {
+        final ArrayList<WriteMetaDataReply> pool = this.writeMetaDataReplyPool;
+        final int size = pool.size();
+        return size == 0 ? new WriteMetaDataReply(this) : pool.remove(size - 1);
+    }
+
+    void returnWriteMetaDataReply(final WriteMetaDataReply reply)
+    {
+        writeMetaDataReplyPool.add(reply);
+    }
+
     public void readMetaData(final long sessionId, final MetadataHandler handler)
     {
         new ReadMetaDataReply(
@@ -871,14 +940,30 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private int checkReplies(final long timeInMs)
     {
         int count = 0;
-        final Long2ObjectHashMap<LibraryReply<?>>.ValueIterator iterator = correlationIdToReply.values().iterator();
-        while (iterator.hasNext())
+
+        final ArrayList<LibraryReply<?>> repliesRequiringResend = this.repliesRequiringResend;
+        for (int i = repliesRequiringResend.size() - 1; i >= 0; i--)
+        {
+            final LibraryReply<?> reply = repliesRequiringResend.get(i);
+            if (!isRegistered(reply) || !reply.pollResend())
+            {
+                ArrayListUtil.fastUnorderedRemove(repliesRequiringResend, i);
+            }
+        }
+
+        final ReplyTimeouts replyTimeouts = this.replyTimeouts;
+        LibraryReply<?> reply;
+        while ((reply = replyTimeouts.peek()) != null && timeInMs >= reply.latestReplyArrivalTimeInMs)
         {
-            final LibraryReply<?> reply = iterator.next();
-            if (reply.poll(timeInMs))
+            replyTimeouts.poll();
+            if (isRegistered(reply))
             {
-                iterator.remove();
-                count++;
+                final long correlationId = reply.correlationId;
+                if (reply.onTimeout())
+                {
+                    correlationIdToReply.remove(correlationId);
+                    count++;
+                }
             }
         }
 
@@ -887,13 +972,33 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         return count;
     }
 
+    // Called when a reply stops executing, so that only executing replies are held until their timeout.
+    void removeReplyTimeout(final LibraryReply<?> reply)
+    {
+        replyTimeouts.remove(reply);
+    }
+
     long register(final LibraryReply<?> reply)
     {
         final long correlationId = ++currentCorrelationId;
+        if (reply.timeoutIndex == ReplyTimeouts.NOT_QUEUED)
+        {
+            replyTimeouts.add(reply);
+        }
         correlationIdToReply.put(correlationId, reply);
         return correlationId;
     }
 
+    private boolean isRegistered(final LibraryReply<?> reply)
+    {
+        return correlationIdToReply.get(reply.correlationId) == reply;
+    }
+
+    void onReplyRequiresResend(final LibraryReply<?> reply)
+    {
+        repliesRequiringResend.add(reply);
+    }
+
     void deregister(final long correlationId)
     {
         correlationIdToReply.remove(correlationId);
@@ -903,8 +1008,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     //                     BEGIN EVENT HANDLERS
     // -----------------------------------------------------------------------
 
-    private final ControlledFragmentHandler outboundSubscription = new ControlledFragmentAssembler(
-        ProtocolSubscription.of(this, new LibraryProtocolSubscription(this)));
+    private final ControlledFragmentHandler outboundSubscription;
 
     public Action onManageSession(
         final int libraryId,
@@ -941,6 +1045,12 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     {
         if (state == CONNECTED)
         {
+            if (libraryId != ENGINE_LIBRARY_ID)
+            {
+                // A library, possibly this one, has acquired the session so it's no longer engine-managed.
+                engineManagedConnectionIdToSessionId.remove(connectionId);
+            }
+
             final FixDictionary fixDictionary = FixDictionary.of(fixDictionaryType);
             if (libraryId == ENGINE_LIBRARY_ID)
             {
@@ -1259,6 +1369,36 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     status,
                     header.position());
             }
+            else if (engineManagedSessionHandler != null && status == MessageStatus.OK && !isAdminMessage(messageType))
+            {
+                // Routed to this library from an engine owned session by the engine's message routes. Without an
+                // engineManagedSessionHandler they're dropped as the engine doesn't deliver them to the owner.
+                return engineManagedSessionHandler.onApplicationMessage(
+                    buffer,
+                    offset,
+                    length,
+                    sessionId,
+                    sequenceIndex,
+                    messageType,
+                    timestampInNs,
+                    header.position());
+            }
+        }
+        else if (libraryId == ENGINE_LIBRARY_ID && status == MessageStatus.OK && !isAdminMessage(messageType))
+        {
+            final long engineManagedSessionId = engineManagedConnectionIdToSessionId.get(connectionId);
+            if (engineManagedSessionId != NO_ENGINE_MANAGED_SESSION_ID)
+            {
+                return engineManagedSessionHandler.onApplicationMessage(
+                    buffer,
+                    offset,
+                    length,
+                    engineManagedSessionId,
+                    sequenceIndex,
+                    messageType,
+                    timestampInNs,
+                    header.position());
+            }
         }
 
         return CONTINUE;
@@ -1268,6 +1408,15 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         final int libraryId, final long connectionId, final DisconnectReason reason)
     {
         DebugLogger.log(GATEWAY_MESSAGE, onDisconnectFormatter, libraryId, connectionId, reason.name());
+        if (libraryId == ENGINE_LIBRARY_ID)
+        {
+            final long engineManagedSessionId = engineManagedConnectionIdToSessionId.remove(connectionId);
+            if (engineManagedSessionId != NO_ENGINE_MANAGED_SESSION_ID)
+            {
+                engineManagedSessionHandler.onDisconnect(engineManagedSessionId, reason);
+            }
+        }
+
         if (libraryId != this.libraryId)
         {
             return CONTINUE;
@@ -31,18 +31,42 @@ abstract class LibraryReply<T> implements Reply<T>
 {
     final LibraryPoller libraryPoller;
 
-    final long latestReplyArrivalTimeInMs;
+    long latestReplyArrivalTimeInMs;
 
-    boolean requiresResend;
     long correlationId;
 
+    // Index within the poller's timeout heap whilst the reply is executing.
+    int timeoutIndex = ReplyTimeouts.NOT_QUEUED;
+
+    private final boolean pooled;
+    private long generation;
+    private boolean released;
+    private boolean requiresResend;
     private Throwable error;
     private T result;
     private State state = State.EXECUTING;
+    private ReplyBatch batch;
 
     LibraryReply(final LibraryPoller libraryPoller, final long latestReplyArrivalTimeInMs)
     {
         this.libraryPoller = libraryPoller;
+        this.pooled = false;
+        start(latestReplyArrivalTimeInMs);
+    }
+
+    /**
+     * Constructor for pooled replies, these are started by calling {@link #start(long)} each time they're used.
+     *
+     * @param libraryPoller the poller that the reply is registered with.
+     */
+    LibraryReply(final LibraryPoller libraryPoller)
+    {
+        this.libraryPoller = libraryPoller;
+        this.pooled = true;
+    }
+
+    final void start(final long latestReplyArrivalTimeInMs)
+    {
         this.latestReplyArrivalTimeInMs = latestReplyArrivalTimeInMs;
 
         if (libraryPoller.isConnected())
@@ -57,6 +81,13 @@ abstract class LibraryReply<T> implements Reply<T>
 
     protected abstract void sendMessage();
 
+    /**
+     * Return a released reply to its pool, only called for pooled replies.
+     */
+    void returnToPool()
+    {
+    }
+
     protected void register()
     {
         correlationId = libraryPoller.register(this);
@@ -64,67 +95,150 @@ abstract class LibraryReply<T> implements Reply<T>
 
     public Throwable error()
     {
+        checkNotReleased();
         return error;
     }
 
     public T resultIfPresent()
     {
+        checkNotReleased();
         return result;
     }
 
     public State state()
     {
+        checkNotReleased();
         return state;
     }
 
+    public long generation()
+    {
+        return generation;
+    }
+
+    public void release()
+    {
+        if (!pooled)
+        {
+            return;
+        }
+
+        checkNotReleased();
+        if (state == State.EXECUTING)
+        {
+            throw new IllegalStateException("Unable to release a reply that is still executing: " + this);
+        }
+
+        released = true;
+        generation++;
+        returnToPool();
+    }
+
+    /**
+     * Clear the outcome of the previous use of a pooled reply before it's started again.
+     */
+    void reset()
+    {
+        released = false;
+        requiresResend = false;
+        error = null;
+        result = null;
+        state = State.EXECUTING;
+        batch = null;
+    }
+
+    private void checkNotReleased()
+    {
+        if (released)
+        {
+            throw new IllegalStateException("Reply has been released and may have been reused");
+        }
+    }
+
+    /**
+     * Record whether the last attempt to send this reply's message was back pressured, in which case it's
+     * resent on the next poll of the library.
+     *
+     * @param requiresResend true if the message needs to be sent again.
+     */
+    void requiresResend(final boolean requiresResend)
+    {
+        if (requiresResend && !this.requiresResend)
+        {
+            libraryPoller.onReplyRequiresResend(this);
+        }
+
+        this.requiresResend = requiresResend;
+    }
+
+    boolean requiresResend()
+    {
+        return requiresResend;
+    }
+
+    void batch(final ReplyBatch batch)
+    {
+        this.batch = batch;
+    }
+
     void onComplete(final T result)
     {
         this.result = result;
-        state = State.COMPLETED;
+        state(State.COMPLETED);
     }
 
     void onError(final Throwable error)
     {
         this.error = error;
-        state = State.ERRORED;
+        state(State.ERRORED);
     }
 
     void onError(final GatewayError errorType, final String errorMessage)
     {
     }
 
+    /**
+     * Called once the reply's timeout has passed without it having been removed from the lookup map.
+     *
+     * @return true if this reply should be removed from the lookup map.
+     */
     protected boolean onTimeout()
     {
-        state = State.TIMED_OUT;
+        state(State.TIMED_OUT);
 
         return true;
     }
 
     /**
-     * Poll the reply's duty cycle.
-     *
-     * @param timeInMs current time in milliseconds
+     * Resend the reply's message if the last attempt was back pressured.
      *
-     * @return true if this reply should be removed from the lookup map.
+     * @return true if the reply still needs to be resent.
      */
-    boolean poll(final long timeInMs)
+    boolean pollResend()
     {
         if (requiresResend)
         {
             sendMessage();
         }
 
-        if (timeInMs >= latestReplyArrivalTimeInMs)
+        return requiresResend;
+    }
+
+    private void state(final State state)
+    {
+        final boolean wasExecuting = this.state == State.EXECUTING;
+        this.state = state;
+
+        if (timeoutIndex != ReplyTimeouts.NOT_QUEUED)
         {
-            return onTimeout();
+            libraryPoller.removeReplyTimeout(this);
         }
 
-        if (!isExecuting())
+        final ReplyBatch batch = this.batch;
+        if (wasExecuting && batch != null)
         {
-            return false;
+            batch.onReplyDone();
         }
-
-        return false;
     }
 
     @Override
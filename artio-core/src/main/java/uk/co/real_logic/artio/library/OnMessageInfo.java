@@ -15,12 +15,17 @@
  */
 package uk.co.real_logic.artio.library;
 
+import uk.co.real_logic.artio.decoder.SessionHeaderDecoder;
 import uk.co.real_logic.artio.messages.MessageStatus;
 
 public class OnMessageInfo
 {
+    public static final int NO_BODY_OFFSET = -1;
+
     private MessageStatus status;
     private boolean isValid;
+    private SessionHeaderDecoder header;
+    private int bodyOffset = NO_BODY_OFFSET;
 
     public OnMessageInfo status(final MessageStatus status)
     {
@@ -34,6 +39,20 @@ public class OnMessageInfo
         return this;
     }
 
+    /**
+     * Set the header that the session decoded for this message.
+     *
+     * @param header the decoded header, or null if it wasn't decoded.
+     * @param bodyOffset the offset of the first field after the header, or {@link #NO_BODY_OFFSET}.
+     * @return this
+     */
+    public OnMessageInfo header(final SessionHeaderDecoder header, final int bodyOffset)
+    {
+        this.header = header;
+        this.bodyOffset = bodyOffset;
+        return this;
+    }
+
     public MessageStatus status()
     {
         return status;
@@ -43,4 +62,27 @@ public class OnMessageInfo
     {
         return isValid;
     }
+
+    /**
+     * Get the header of an application message that has already been decoded by the session. This can be passed
+     * to a generated decoder's <code>decodeBodyFrom()</code> method along with {@link #bodyOffset()} in order to
+     * avoid decoding the header again. The header is only valid during the callback.
+     *
+     * @return the decoded header or null if the header wasn't decoded for this message, for example for admin
+     * messages or catchup replays.
+     */
+    public SessionHeaderDecoder header()
+    {
+        return header;
+    }
+
+    /**
+     * Get the offset of the first field after the header of the message.
+     *
+     * @return the offset of the body or {@link #NO_BODY_OFFSET} if {@link #header()} is null.
+     */
+    public int bodyOffset()
+    {
+        return bodyOffset;
+    }
 }
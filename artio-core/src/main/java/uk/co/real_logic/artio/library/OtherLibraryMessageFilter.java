@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.ControlledFragmentAssembler;
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import static io.aeron.logbuffer.FrameDescriptor.BEGIN_FRAG_FLAG;
+import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
+
+/**
+ * Drops FIX messages that the engine has framed for other libraries before they're reassembled or decoded.
+ *
+ * Every library subscribes to the same inbound stream, so with many libraries most of the FIX messages that a library
+ * polls belong to someone else. Only the first fragment of a message is checked: a {@link ControlledFragmentAssembler}
+ * discards the remaining fragments of a message whose first fragment it hasn't been given.
+ */
+final class OtherLibraryMessageFilter implements ControlledFragmentHandler
+{
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+
+    private final int libraryId;
+    private final ControlledFragmentHandler delegate;
+
+    OtherLibraryMessageFilter(final int libraryId, final ControlledFragmentHandler delegate)
+    {
+        this.libraryId = libraryId;
+        this.delegate = delegate;
+    }
+
+    public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        if ((header.flags() & BEGIN_FRAG_FLAG) == BEGIN_FRAG_FLAG && isForOtherLibrary(buffer, offset))
+        {
+            return Action.CONTINUE;
+        }
+
+        return delegate.onFragment(buffer, offset, length, header);
+    }
+
+    private boolean isForOtherLibrary(final DirectBuffer buffer, final int offset)
+    {
+        final MessageHeaderDecoder messageHeader = this.messageHeader;
+        messageHeader.wrap(buffer, offset);
+        if (messageHeader.templateId() != FixMessageDecoder.TEMPLATE_ID)
+        {
+            return false;
+        }
+
+        fixMessage.wrap(
+            buffer, offset + MessageHeaderDecoder.ENCODED_LENGTH, messageHeader.blockLength(), messageHeader.version());
+        final int messageLibraryId = fixMessage.libraryId();
+        return messageLibraryId != libraryId && messageLibraryId != ENGINE_LIBRARY_ID;
+    }
+}
@@ -42,7 +42,7 @@ class ReadMetaDataReply extends LibraryReply<MetaDataStatus>
     {
         final long position = libraryPoller.saveReadMetaData(sessionId, correlationId);
 
-        requiresResend = position < 0;
+        requiresResend(position < 0);
     }
 
     void onComplete(final MetaDataStatus status, final DirectBuffer srcBuffer, final int srcOffset, final int srcLength)
@@ -24,12 +24,17 @@ import uk.co.real_logic.artio.session.InternalSession;
 class ReleaseToGatewayReply extends LibraryReply<SessionReplyStatus>
 {
     private final InternalSession session;
+    private final boolean engineManaged;
 
     ReleaseToGatewayReply(
-        final LibraryPoller libraryPoller, final long latestReplyArrivalTime, final InternalSession session)
+        final LibraryPoller libraryPoller,
+        final long latestReplyArrivalTime,
+        final InternalSession session,
+        final boolean engineManaged)
     {
         super(libraryPoller, latestReplyArrivalTime);
         this.session = session;
+        this.engineManaged = engineManaged;
         if (libraryPoller.isConnected())
         {
             sendMessage();
@@ -40,13 +45,17 @@ class ReleaseToGatewayReply extends LibraryReply<SessionReplyStatus>
     {
         final long position = libraryPoller.saveReleaseSession(session, correlationId);
 
-        requiresResend = position < 0;
+        requiresResend(position < 0);
     }
 
     void onComplete(final SessionReplyStatus result)
     {
         if (result == SessionReplyStatus.OK)
         {
+            if (engineManaged)
+            {
+                libraryPoller.onEngineManaged(session);
+            }
             libraryPoller.disableSession(session);
         }
 
@@ -60,6 +60,6 @@ class ReplayMessagesReply extends LibraryReply<ReplayMessagesStatus>
             replayToSequenceIndex,
             latestReplyArrivalTimeInMs);
 
-        requiresResend = position < 0;
+        requiresResend(position < 0);
     }
 }
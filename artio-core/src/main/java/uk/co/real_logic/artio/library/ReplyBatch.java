@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.Reply;
+import uk.co.real_logic.artio.messages.MetaDataStatus;
+import uk.co.real_logic.artio.messages.SessionReplyStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A batch of requests to the engine that are all sent without waiting for each other's replies and that share a
+ * single completion callback. This is useful for operations like acquiring thousands of sessions at the start of
+ * the day, where awaiting each reply in turn would be slow and tracking each reply individually is error prone.
+ *
+ * Once all of the requests have been added {@link #seal()} should be called, the batch's
+ * {@link ReplyBatchHandler} is then invoked once every reply has completed, errored or timed out.
+ *
+ * This class isn't threadsafe and should be used on the same thread as the FixLibrary instance.
+ *
+ * @see FixLibrary#newReplyBatch(long, ReplyBatchHandler)
+ */
+public final class ReplyBatch
+{
+    private final List<Reply<?>> replies = new ArrayList<>();
+    private final List<Reply<?>> unmodifiableReplies = Collections.unmodifiableList(replies);
+    private final LibraryPoller poller;
+    private final long timeoutInMs;
+    private final ReplyBatchHandler handler;
+
+    private int outstandingReplies;
+    private boolean sealed;
+    private boolean complete;
+
+    ReplyBatch(final LibraryPoller poller, final long timeoutInMs, final ReplyBatchHandler handler)
+    {
+        this.poller = poller;
+        this.timeoutInMs = timeoutInMs;
+        this.handler = handler;
+    }
+
+    /**
+     * Request a session be acquired from the Gateway as part of this batch.
+     *
+     * @param sessionId the id of the session to acquire.
+     * @param resendFromSequenceNumber the last received message sequence number that you know about.
+     * @param resendFromSequenceIndex the index of the sequence within which the resendFromSequenceNumber refers.
+     * @return the reply object representing the result of this request.
+     * @throws IllegalStateException if the batch has been sealed.
+     * @see FixLibrary#requestSession(long, int, int, long)
+     */
+    public Reply<SessionReplyStatus> requestSession(
+        final long sessionId,
+        final int resendFromSequenceNumber,
+        final int resendFromSequenceIndex)
+    {
+        checkNotSealed();
+        return add(poller.requestSession(sessionId, resendFromSequenceNumber, resendFromSequenceIndex, timeoutInMs));
+    }
+
+    /**
+     * Write meta data associated with a session as part of this batch.
+     *
+     * @param sessionId the session id of the session that meta data is written to.
+     * @param metaDataUpdateOffset the offset within the session's metadata buffer.
+     * @param buffer the buffer where the meta data to be written is stored.
+     * @param offset the offset within the buffer
+     * @param length the length of the data within the buffer.
+     * @return the reply object representing the result of this request.
+     * @throws IllegalStateException if the batch has been sealed.
+     * @see FixLibrary#writeMetaData(long, int, DirectBuffer, int, int)
+     */
+    public Reply<MetaDataStatus> writeMetaData(
+        final long sessionId,
+        final int metaDataUpdateOffset,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length)
+    {
+        checkNotSealed();
+        return add(poller.writeMetaData(sessionId, metaDataUpdateOffset, buffer, offset, length));
+    }
+
+    /**
+     * Indicate that no more requests will be added to this batch. The handler is invoked once all of the replies
+     * are no longer executing, which may be during this call if they've already finished.
+     */
+    public void seal()
+    {
+        sealed = true;
+        checkComplete();
+    }
+
+    /**
+     * Get the replies of the requests in this batch, in the order that they were added.
+     *
+     * @return the replies of the requests in this batch.
+     */
+    public List<Reply<?>> replies()
+    {
+        return unmodifiableReplies;
+    }
+
+    /**
+     * Get the number of replies that are still executing.
+     *
+     * @return the number of replies that are still executing.
+     */
+    public int outstandingReplies()
+    {
+        return outstandingReplies;
+    }
+
+    /**
+     * Check whether the batch has been sealed and all of its replies are no longer executing.
+     *
+     * @return true if the batch is complete, false otherwise.
+     */
+    public boolean isComplete()
+    {
+        return complete;
+    }
+
+    void onReplyDone()
+    {
+        outstandingReplies--;
+        checkComplete();
+    }
+
+    private <T> Reply<T> add(final Reply<T> reply)
+    {
+        replies.add(reply);
+        if (reply.isExecuting())
+        {
+            outstandingReplies++;
+            ((LibraryReply<T>)reply).batch(this);
+        }
+
+        return reply;
+    }
+
+    private void checkNotSealed()
+    {
+        if (sealed)
+        {
+            throw new IllegalStateException("Unable to add requests to a batch that has been sealed");
+        }
+    }
+
+    private void checkComplete()
+    {
+        if (sealed && outstandingReplies == 0 && !complete)
+        {
+            complete = true;
+            handler.onBatchComplete(this);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+/**
+ * Callback that is invoked once every request in a {@link ReplyBatch} has completed, errored or timed out.
+ *
+ * @see FixLibrary#newReplyBatch(long, ReplyBatchHandler)
+ */
+@FunctionalInterface
+public interface ReplyBatchHandler
+{
+    /**
+     * Invoked on the library's thread when all of the replies in the batch are no longer executing.
+     *
+     * @param batch the batch that has completed, its replies can be inspected for their individual results.
+     */
+    void onBatchComplete(ReplyBatch batch);
+}
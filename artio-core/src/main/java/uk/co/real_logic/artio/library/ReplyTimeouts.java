@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of executing replies ordered by their timeout. Each reply stores its index within the heap so that a
+ * reply that completes, errors or is released can be removed in O(log n) time rather than waiting for its timeout.
+ */
+final class ReplyTimeouts
+{
+    static final int NOT_QUEUED = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private LibraryReply<?>[] replies = new LibraryReply<?>[INITIAL_CAPACITY];
+    private int size;
+
+    void add(final LibraryReply<?> reply)
+    {
+        if (size == replies.length)
+        {
+            replies = Arrays.copyOf(replies, size * 2);
+        }
+
+        siftUp(size++, reply);
+    }
+
+    void remove(final LibraryReply<?> reply)
+    {
+        final int index = reply.timeoutIndex;
+        if (index == NOT_QUEUED)
+        {
+            return;
+        }
+
+        reply.timeoutIndex = NOT_QUEUED;
+        final int lastIndex = --size;
+        final LibraryReply<?> last = replies[lastIndex];
+        replies[lastIndex] = null;
+        if (index != lastIndex)
+        {
+            siftDown(index, last);
+            if (replies[index] == last)
+            {
+                siftUp(index, last);
+            }
+        }
+    }
+
+    LibraryReply<?> peek()
+    {
+        return size == 0 ? null : replies[0];
+    }
+
+    LibraryReply<?> poll()
+    {
+        final LibraryReply<?> reply = peek();
+        if (reply != null)
+        {
+            remove(reply);
+        }
+
+        return reply;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    private void siftUp(final int fromIndex, final LibraryReply<?> reply)
+    {
+        final LibraryReply<?>[] replies = this.replies;
+        final long timeInMs = reply.latestReplyArrivalTimeInMs;
+        int index = fromIndex;
+        while (index > 0)
+        {
+            final int parentIndex = (index - 1) >>> 1;
+            final LibraryReply<?> parent = replies[parentIndex];
+            if (timeInMs >= parent.latestReplyArrivalTimeInMs)
+            {
+                break;
+            }
+
+            place(index, parent);
+            index = parentIndex;
+        }
+
+        place(index, reply);
+    }
+
+    private void siftDown(final int fromIndex, final LibraryReply<?> reply)
+    {
+        final LibraryReply<?>[] replies = this.replies;
+        final int size = this.size;
+        final long timeInMs = reply.latestReplyArrivalTimeInMs;
+        final int half = size >>> 1;
+        int index = fromIndex;
+        while (index < half)
+        {
+            int childIndex = (index << 1) + 1;
+            LibraryReply<?> child = replies[childIndex];
+            final int rightIndex = childIndex + 1;
+            if (rightIndex < size && replies[rightIndex].latestReplyArrivalTimeInMs < child.latestReplyArrivalTimeInMs)
+            {
+                childIndex = rightIndex;
+                child = replies[rightIndex];
+            }
+
+            if (timeInMs <= child.latestReplyArrivalTimeInMs)
+            {
+                break;
+            }
+
+            place(index, child);
+            index = childIndex;
+        }
+
+        place(index, reply);
+    }
+
+    private void place(final int index, final LibraryReply<?> reply)
+    {
+        replies[index] = reply;
+        reply.timeoutIndex = index;
+    }
+}
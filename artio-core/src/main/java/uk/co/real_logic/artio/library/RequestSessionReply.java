@@ -48,7 +48,7 @@ class RequestSessionReply extends LibraryReply<SessionReplyStatus>
         final long position = libraryPoller.saveRequestSession(
             sessionId, correlationId, resendFromSequenceNumber, resendFromSequenceIndex);
 
-        requiresResend = position < 0;
+        requiresResend(position < 0);
     }
 
     void onComplete(final SessionReplyStatus result)
@@ -156,6 +156,7 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
                     }
 
                 case CATCHUP_REPLAY:
+                    info.header(null, OnMessageInfo.NO_BODY_OFFSET);
                     return handler.onMessage(
                         buffer,
                         offset,
@@ -48,6 +48,6 @@ class ThrottleConfigurationReply extends LibraryReply<ThrottleConfigurationStatu
         final long position = libraryPoller.saveThrottleConfiguration(
             correlationId, sessionId, throttleWindowInMs, throttleLimitOfMessages);
 
-        requiresResend = position < 0;
+        requiresResend(position < 0);
     }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import uk.co.real_logic.artio.Reply;
+import uk.co.real_logic.artio.messages.MetaDataStatus;
+
+/**
+ * Callback to indicate the outcome of a write of a session's metadata, used by
+ * {@link FixLibrary#writeMetaData(long, int, org.agrona.DirectBuffer, int, int, WriteMetaDataHandler)}.
+ */
+@FunctionalInterface
+public interface WriteMetaDataHandler
+{
+    /**
+     * Called once the write has completed, errored or timed out.
+     *
+     * @param sessionId the id of the session that the metadata was written to.
+     * @param state the final state of the request, never {@link Reply.State#EXECUTING}.
+     * @param status whether the write was successful if the state is {@link Reply.State#COMPLETED}, null otherwise.
+     */
+    void onWriteMetaData(long sessionId, Reply.State state, MetaDataStatus status);
+}
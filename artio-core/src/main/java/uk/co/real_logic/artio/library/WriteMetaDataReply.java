@@ -20,11 +20,12 @@ import uk.co.real_logic.artio.messages.MetaDataStatus;
 
 class WriteMetaDataReply extends LibraryReply<MetaDataStatus>
 {
-    private final long sessionId;
-    private final int metaDataOffset;
-    private final DirectBuffer buffer;
-    private final int offset;
-    private final int length;
+    private long sessionId;
+    private int metaDataOffset;
+    private DirectBuffer buffer;
+    private int offset;
+    private int length;
+    private WriteMetaDataHandler handler;
 
     WriteMetaDataReply(
         final LibraryPoller libraryPoller,
@@ -47,11 +48,80 @@ class WriteMetaDataReply extends LibraryReply<MetaDataStatus>
         }
     }
 
+    WriteMetaDataReply(final LibraryPoller libraryPoller)
+    {
+        super(libraryPoller);
+    }
+
+    WriteMetaDataReply init(
+        final long latestReplyArrivalTime,
+        final long sessionId,
+        final int metaDataOffset,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final WriteMetaDataHandler handler)
+    {
+        reset();
+        this.sessionId = sessionId;
+        this.metaDataOffset = metaDataOffset;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.handler = handler;
+        start(latestReplyArrivalTime);
+        if (libraryPoller.isConnected())
+        {
+            sendMessage();
+        }
+        return this;
+    }
+
     protected void sendMessage()
     {
         final long position = libraryPoller.saveWriteMetaData(
             sessionId, metaDataOffset, buffer, offset, length, correlationId);
 
-        requiresResend = position < 0;
+        requiresResend(position < 0);
+    }
+
+    void onComplete(final MetaDataStatus result)
+    {
+        super.onComplete(result);
+        onHandlerResult(State.COMPLETED, result);
+    }
+
+    void onError(final Throwable error)
+    {
+        super.onError(error);
+        onHandlerResult(State.ERRORED, null);
+    }
+
+    protected boolean onTimeout()
+    {
+        super.onTimeout();
+        // deregister before the handler is called as it may reuse this reply for another request
+        libraryPoller.deregister(correlationId);
+        onHandlerResult(State.TIMED_OUT, null);
+        return true;
+    }
+
+    void returnToPool()
+    {
+        libraryPoller.returnWriteMetaDataReply(this);
+    }
+
+    // Replies with a handler are never handed out, so they're released as soon as the handler has been called.
+    private void onHandlerResult(final State state, final MetaDataStatus status)
+    {
+        final WriteMetaDataHandler handler = this.handler;
+        if (handler != null)
+        {
+            final long sessionId = this.sessionId;
+            this.handler = null;
+            buffer = null;
+            release();
+            handler.onWriteMetaData(sessionId, state, status);
+        }
     }
 }
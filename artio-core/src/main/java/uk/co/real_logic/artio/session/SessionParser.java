@@ -40,6 +40,7 @@ import static uk.co.real_logic.artio.builder.Validation.isValidMsgType;
 import static uk.co.real_logic.artio.dictionary.SessionConstants.*;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_LONG;
+import static uk.co.real_logic.artio.library.OnMessageInfo.NO_BODY_OFFSET;
 import static uk.co.real_logic.artio.messages.SessionState.AWAITING_LOGOUT;
 import static uk.co.real_logic.artio.messages.SessionState.DISCONNECTED;
 import static uk.co.real_logic.artio.session.Session.UNKNOWN;
@@ -140,6 +141,7 @@ public class SessionParser
         final long position)
     {
         asciiBuffer.wrap(buffer);
+        messageInfo.header(null, NO_BODY_OFFSET);
 
         final Action action;
 
@@ -334,7 +336,7 @@ public class SessionParser
     {
         final SessionHeaderDecoder header = this.header;
         header.reset();
-        header.decode(asciiBuffer, offset, length);
+        final int headerLength = header.decode(asciiBuffer, offset, length);
 
         final char[] msgType = header.msgType();
         final int msgTypeLength = header.msgTypeLength();
@@ -352,6 +354,8 @@ public class SessionParser
         }
         else
         {
+            // Expose the decoded header so that the handler doesn't have to decode it again
+            messageInfo.header(header, offset + headerLength);
             return onMessage(header, position);
         }
 
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.AdaptiveIdleStrategy.PARKING;
+import static uk.co.real_logic.artio.AdaptiveIdleStrategy.SPINNING;
+import static uk.co.real_logic.artio.AdaptiveIdleStrategy.YIELDING;
+
+public class AdaptiveIdleStrategyTest
+{
+    private static final long BUSY_SPIN_PERIOD_IN_NS = 1_000;
+    private static final int MAX_YIELDS = 2;
+    private static final long MIN_PARK_PERIOD_IN_NS = 1;
+    private static final long MAX_PARK_PERIOD_IN_NS = 4;
+
+    private long timeInNs = 1_000_000;
+
+    private final AdaptiveIdleStrategy idleStrategy = new AdaptiveIdleStrategy(
+        BUSY_SPIN_PERIOD_IN_NS, MAX_YIELDS, MIN_PARK_PERIOD_IN_NS, MAX_PARK_PERIOD_IN_NS, () -> timeInNs);
+
+    @Test
+    public void shouldSpinWhilstWorkIsArriving()
+    {
+        for (int i = 0; i < 10; i++)
+        {
+            idleStrategy.idle(1);
+            timeInNs += BUSY_SPIN_PERIOD_IN_NS - 1;
+            idleStrategy.idle(0);
+
+            assertEquals(SPINNING, idleStrategy.state());
+        }
+    }
+
+    @Test
+    public void shouldBackOffOnceNoWorkHasBeenDoneForBusySpinPeriod()
+    {
+        idleStrategy.idle(1);
+        idleStrategy.idle(0);
+        assertEquals(SPINNING, idleStrategy.state());
+
+        timeInNs += BUSY_SPIN_PERIOD_IN_NS;
+        idleStrategy.idle(0);
+        assertEquals(YIELDING, idleStrategy.state());
+        idleStrategy.idle(0);
+        assertEquals(YIELDING, idleStrategy.state());
+
+        idleStrategy.idle(0);
+        assertEquals(PARKING, idleStrategy.state());
+        assertEquals(2, idleStrategy.parkPeriodInNs());
+
+        idleStrategy.idle(0);
+        assertEquals(4, idleStrategy.parkPeriodInNs());
+        idleStrategy.idle(0);
+        assertEquals(MAX_PARK_PERIOD_IN_NS, idleStrategy.parkPeriodInNs());
+    }
+
+    @Test
+    public void shouldSpinAgainOnceWorkIsDone()
+    {
+        backOffToParking();
+
+        idleStrategy.idle(1);
+        assertEquals(SPINNING, idleStrategy.state());
+
+        idleStrategy.idle(0);
+        assertEquals(SPINNING, idleStrategy.state());
+    }
+
+    @Test
+    public void shouldSpinAgainWhenReset()
+    {
+        backOffToParking();
+
+        idleStrategy.reset();
+        idleStrategy.idle();
+
+        assertEquals(SPINNING, idleStrategy.state());
+    }
+
+    @Test
+    public void shouldTimeBusySpinPeriodFromLastWork()
+    {
+        idleStrategy.idle(1);
+        idleStrategy.idle(0);
+
+        timeInNs += BUSY_SPIN_PERIOD_IN_NS / 2;
+        idleStrategy.idle(1);
+        idleStrategy.idle(0);
+
+        timeInNs += BUSY_SPIN_PERIOD_IN_NS / 2;
+        idleStrategy.idle(0);
+
+        assertEquals(SPINNING, idleStrategy.state());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldValidateParkPeriods()
+    {
+        new AdaptiveIdleStrategy(BUSY_SPIN_PERIOD_IN_NS, MAX_YIELDS, 10, 1);
+    }
+
+    private void backOffToParking()
+    {
+        idleStrategy.idle(0);
+        timeInNs += BUSY_SPIN_PERIOD_IN_NS;
+        for (int i = 0; i <= MAX_YIELDS; i++)
+        {
+            idleStrategy.idle(0);
+        }
+        assertEquals(PARKING, idleStrategy.state());
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.AbstractDebugAppender.ThreadLocalAppender;
+import uk.co.real_logic.artio.util.CharFormatter;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryDebugAppenderTest
+{
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final File logDir = new File(IoUtil.tmpDirName(), "binary-debug-appender-test");
+    private final File logFile = new File(logDir, "debug.log");
+    private final List<String> lines = new ArrayList<>();
+
+    private BinaryDebugAppender appender;
+    private ThreadLocalAppender localAppender;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(logDir, true);
+        assertTrue(logDir.mkdirs());
+
+        appender = new BinaryDebugAppender(logFile.getPath(), 64 * 1024);
+        localAppender = appender.makeLocalAppender();
+    }
+
+    @After
+    public void tearDown()
+    {
+        appender.close();
+        IoUtil.delete(logDir, true);
+    }
+
+    @Test
+    public void shouldDecodeFormatterWithoutFormattingOnLoggingThread()
+    {
+        final CharFormatter formatter = new CharFormatter("Session %s at seq %s");
+        formatter.clear().with("ABC").with(42L);
+
+        assertTrue(localAppender.logFormatter(LogTag.FIX_MESSAGE, formatter, null, 0, 0));
+
+        assertDecodesTo("[FIX_MESSAGE]Session ABC at seq 42" + NEWLINE);
+    }
+
+    @Test
+    public void shouldDecodeFormatterWithFinalBufferValue()
+    {
+        final CharFormatter formatter = new CharFormatter("%s:%s");
+        formatter.clear().with(7);
+        final UnsafeBuffer buffer = new UnsafeBuffer("xx8=FIX.4.4".getBytes(US_ASCII));
+
+        assertTrue(localAppender.logFormatter(LogTag.FIX_MESSAGE, formatter, buffer, 2, 9));
+
+        assertDecodesTo("[FIX_MESSAGE]7:8=FIX.4.4" + NEWLINE);
+    }
+
+    @Test
+    public void shouldDecodeAsciiMessages()
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer("8=FIX.4.4\0019=5\001".getBytes(US_ASCII));
+
+        assertTrue(localAppender.logAscii(LogTag.FIX_MESSAGE_TCP, "Read     ", buffer, 0, buffer.capacity()));
+        assertTrue(localAppender.logAscii(LogTag.FIX_MESSAGE_TCP, "Written  ", buffer, 0, 9));
+
+        assertDecodesTo(
+            "[FIX_MESSAGE_TCP]Read     8=FIX.4.4\0019=5\001" + NEWLINE,
+            "[FIX_MESSAGE_TCP]Written  8=FIX.4.4" + NEWLINE);
+    }
+
+    @Test
+    public void shouldDecodeBytesWithoutChangingBufferPosition()
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(new byte[]{ 0, 1, 2, -1 });
+
+        assertTrue(localAppender.logBytes(LogTag.FIX_MESSAGE_TCP, "Read     ", buffer, 1, 3));
+        assertEquals(0, buffer.position());
+
+        assertDecodesTo("[FIX_MESSAGE_TCP]Read     {1, 2, -1}" + NEWLINE);
+    }
+
+    @Test
+    public void shouldDecodePreformattedText()
+    {
+        final StringBuilder builder = new StringBuilder("Some text").append(NEWLINE);
+
+        localAppender.log(LogTag.STATE_CLEANUP, builder);
+
+        assertDecodesTo("[STATE_CLEANUP]Some text" + NEWLINE);
+    }
+
+    @Test
+    public void shouldIncludeTimestampAndThreadName()
+    {
+        final long timeBeforeInMs = System.currentTimeMillis();
+        localAppender.log(LogTag.STATE_CLEANUP, new StringBuilder("x"));
+
+        decode();
+
+        assertThat(lines, hasSize(1));
+        final String line = lines.get(0);
+        final int separator = line.indexOf(':');
+        assertTrue(Long.parseLong(line.substring(0, separator)) >= timeBeforeInMs);
+        assertThat(line, endsWith(":" + Thread.currentThread().getName() + "[STATE_CLEANUP]x"));
+    }
+
+    @Test
+    public void shouldCarryOnAppendingAfterRestart()
+    {
+        localAppender.log(LogTag.STATE_CLEANUP, new StringBuilder("first" + NEWLINE));
+        appender.close();
+
+        appender = new BinaryDebugAppender(logFile.getPath(), 64 * 1024);
+        localAppender = appender.makeLocalAppender();
+        localAppender.log(LogTag.STATE_CLEANUP, new StringBuilder("second" + NEWLINE));
+
+        assertDecodesTo("[STATE_CLEANUP]first" + NEWLINE, "[STATE_CLEANUP]second" + NEWLINE);
+    }
+
+    @Test
+    public void shouldDrainRecordsLeftInTheRingBufferByAPreviousProcess()
+    {
+        appender.close();
+        final File ringBufferFile = new File(logFile.getPath() + BinaryDebugAppender.RING_BUFFER_FILE_SUFFIX);
+        final MappedByteBuffer mappedBuffer = IoUtil.mapExistingFile(ringBufferFile, "ring buffer");
+        try
+        {
+            final ManyToOneRingBuffer ringBuffer = new ManyToOneRingBuffer(new UnsafeBuffer(mappedBuffer));
+            final byte[] threadName = "crashed".getBytes(US_ASCII);
+            final UnsafeBuffer record = new UnsafeBuffer(new byte[64]);
+            record.putInt(0, 99);
+            record.putBytes(SIZE_OF_INT, threadName);
+            assertTrue(ringBuffer.write(
+                BinaryDebugAppender.STRING_DEFINITION, record, 0, SIZE_OF_INT + threadName.length));
+
+            record.putLong(BinaryDebugAppender.TIMESTAMP_OFFSET, System.currentTimeMillis());
+            record.putInt(BinaryDebugAppender.THREAD_NAME_ID_OFFSET, 99);
+            record.putInt(BinaryDebugAppender.LOG_TAG_OFFSET, LogTag.STATE_CLEANUP.ordinal());
+            final int textLength = record.putStringWithoutLengthAscii(
+                BinaryDebugAppender.RECORD_HEADER_LENGTH, "undrained" + NEWLINE);
+            assertTrue(ringBuffer.write(
+                BinaryDebugAppender.TEXT, record, 0, BinaryDebugAppender.RECORD_HEADER_LENGTH + textLength));
+        }
+        finally
+        {
+            IoUtil.unmap(mappedBuffer);
+        }
+
+        appender = new BinaryDebugAppender(logFile.getPath(), 64 * 1024);
+
+        assertDecodesTo(":crashed[STATE_CLEANUP]undrained" + NEWLINE);
+    }
+
+    private void assertDecodesTo(final String... expectedSuffixes)
+    {
+        decode();
+
+        assertThat(lines, hasSize(expectedSuffixes.length));
+        for (int i = 0; i < expectedSuffixes.length; i++)
+        {
+            assertThat(lines.get(i), endsWith(expectedSuffixes[i]));
+        }
+    }
+
+    private void decode()
+    {
+        appender.close();
+        BinaryDebugLogDecoder.decode(logFile, line -> lines.add(line.toString()));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.admin;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.junit.Test;
+import uk.co.real_logic.artio.FixCounters.FixCountersId;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static uk.co.real_logic.artio.FixCounters.CONNECTION_ID_KEY_OFFSET;
+import static uk.co.real_logic.artio.FixCounters.FixCountersId.*;
+
+public class FixSessionStatisticsTest
+{
+    private static final long CONNECTION_ID = 3;
+    private static final long OTHER_CONNECTION_ID = 2;
+    private static final long SESSION_ID = 7;
+
+    private final CountersManager countersManager = new CountersManager(
+        new UnsafeBuffer(new byte[64 * 1024]), new UnsafeBuffer(new byte[16 * 1024]));
+
+    @Test
+    public void shouldGroupCountersByConnection()
+    {
+        allocateStatistics(CONNECTION_ID, SESSION_ID, 100);
+        allocateStatistics(OTHER_CONNECTION_ID, SESSION_ID + 1, 200);
+
+        final List<FixSessionStatistics> allStatistics = FixSessionStatistics.readAll(countersManager);
+
+        assertEquals(2, allStatistics.size());
+        assertStatistics(allStatistics.get(0), OTHER_CONNECTION_ID, SESSION_ID + 1, 200);
+        assertStatistics(allStatistics.get(1), CONNECTION_ID, SESSION_ID, 100);
+    }
+
+    @Test
+    public void shouldIgnoreConnectionsWithoutSessionStatistics()
+    {
+        allocate(MESSAGES_READ_TYPE_ID, CONNECTION_ID, 1);
+        allocate(FAILED_INBOUND_TYPE_ID, CONNECTION_ID, 1);
+
+        assertTrue(FixSessionStatistics.readAll(countersManager).isEmpty());
+    }
+
+    private void allocateStatistics(final long connectionId, final long sessionId, final long base)
+    {
+        allocate(SESSION_ID_TYPE_ID, connectionId, sessionId);
+        allocate(MESSAGES_READ_TYPE_ID, connectionId, base + 1);
+        allocate(BYTES_READ_TYPE_ID, connectionId, base + 2);
+        allocate(BYTES_WRITTEN_TYPE_ID, connectionId, base + 3);
+        allocate(MESSAGES_WRITTEN_TYPE_ID, connectionId, base + 4);
+        allocate(THROTTLE_REJECTS_TYPE_ID, connectionId, base + 5);
+        allocate(SLOW_CONSUMER_TIME_TYPE_ID, connectionId, base + 6);
+        allocate(RESEND_REQUESTS_SERVED_TYPE_ID, connectionId, base + 7);
+        allocate(LAST_RECEIVED_TIME_TYPE_ID, connectionId, base + 8);
+        allocate(LAST_SENT_TIME_TYPE_ID, connectionId, base + 9);
+    }
+
+    private void allocate(final FixCountersId typeId, final long connectionId, final long value)
+    {
+        final int counterId = countersManager.allocate(
+            typeId.name(), typeId.id(), keyBuffer -> keyBuffer.putLong(CONNECTION_ID_KEY_OFFSET, connectionId));
+        countersManager.setCounterValue(counterId, value);
+    }
+
+    private void assertStatistics(
+        final FixSessionStatistics statistics, final long connectionId, final long sessionId, final long base)
+    {
+        assertEquals(connectionId, statistics.connectionId());
+        assertEquals(sessionId, statistics.sessionId());
+        assertEquals(base + 1, statistics.messagesRead());
+        assertEquals(base + 2, statistics.bytesRead());
+        assertEquals(base + 3, statistics.bytesWritten());
+        assertEquals(base + 4, statistics.messagesWritten());
+        assertEquals(base + 5, statistics.throttleRejects());
+        assertEquals(base + 6, statistics.slowConsumerTime());
+        assertEquals(base + 7, statistics.resendRequestsServed());
+        assertEquals(base + 8, statistics.lastReceivedTime());
+        assertEquals(base + 9, statistics.lastSentTime());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.engine.framer.MessageRouter.NO_ROUTE;
+import static uk.co.real_logic.artio.util.MessageTypeEncoding.packMessageType;
+
+public class MessageRouterTest
+{
+    private static final int ORDER_LIBRARY_ID = 2;
+    private static final int MARKET_DATA_LIBRARY_ID = 3;
+    private static final int CME_LIBRARY_ID = 4;
+    private static final int SECURITY_EXCHANGE = 207;
+
+    private static final long NEW_ORDER_SINGLE = packMessageType("D");
+    private static final long MARKET_DATA_REQUEST = packMessageType("V");
+    private static final long HEARTBEAT = packMessageType("0");
+
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[1024]);
+    private final EngineConfiguration configuration = new EngineConfiguration();
+
+    @Test
+    public void shouldNotCreateRouterWithoutRoutes()
+    {
+        assertNull(MessageRouter.of(configuration));
+    }
+
+    @Test
+    public void shouldRouteByMessageType()
+    {
+        configuration
+            .messageRoute("D", ORDER_LIBRARY_ID)
+            .messageRoute("V", MARKET_DATA_LIBRARY_ID);
+        final MessageRouter router = MessageRouter.of(configuration);
+
+        assertEquals(ORDER_LIBRARY_ID, route(router, NEW_ORDER_SINGLE, "35=D\u000155=ABC\u0001"));
+        assertEquals(MARKET_DATA_LIBRARY_ID, route(router, MARKET_DATA_REQUEST, "35=V\u0001262=1\u0001"));
+        assertEquals(NO_ROUTE, route(router, packMessageType("F"), "35=F\u000155=ABC\u0001"));
+    }
+
+    @Test
+    public void shouldPreferTagValueRoutesToMessageTypeRoutes()
+    {
+        configuration
+            .messageRoute("D", ORDER_LIBRARY_ID)
+            .messageRoute("D", SECURITY_EXCHANGE, "XCME", CME_LIBRARY_ID);
+        final MessageRouter router = MessageRouter.of(configuration);
+
+        assertEquals(CME_LIBRARY_ID, route(router, NEW_ORDER_SINGLE, "35=D\u000155=ABC\u0001207=XCME\u0001"));
+        assertEquals(ORDER_LIBRARY_ID, route(router, NEW_ORDER_SINGLE, "35=D\u000155=ABC\u0001207=XLON\u0001"));
+        assertEquals(ORDER_LIBRARY_ID, route(router, NEW_ORDER_SINGLE, "35=D\u000155=ABC\u0001"));
+    }
+
+    @Test
+    public void shouldUseFirstConfiguredMatchingTagValueRoute()
+    {
+        configuration
+            .messageRoute("D", 55, "ABC", ORDER_LIBRARY_ID)
+            .messageRoute(null, SECURITY_EXCHANGE, "XCME", CME_LIBRARY_ID);
+        final MessageRouter router = MessageRouter.of(configuration);
+
+        assertEquals(ORDER_LIBRARY_ID, route(router, NEW_ORDER_SINGLE, "35=D\u0001207=XCME\u000155=ABC\u0001"));
+        assertEquals(CME_LIBRARY_ID, route(router, NEW_ORDER_SINGLE, "35=D\u0001207=XCME\u000155=DEF\u0001"));
+        assertEquals(CME_LIBRARY_ID, route(router, MARKET_DATA_REQUEST, "35=V\u0001207=XCME\u0001"));
+    }
+
+    @Test
+    public void shouldNotRouteAdminMessages()
+    {
+        configuration.messageRoute(null, 112, "ABC", ORDER_LIBRARY_ID);
+        final MessageRouter router = MessageRouter.of(configuration);
+
+        assertEquals(NO_ROUTE, route(router, HEARTBEAT, "35=0\u0001112=ABC\u0001"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotConfigureRoutesOfAdminMessages()
+    {
+        configuration.messageRoute("A", ORDER_LIBRARY_ID);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotConfigureRoutesOfUserRequests()
+    {
+        configuration.messageRoute("BE", 553, "user", ORDER_LIBRARY_ID);
+    }
+
+    private int route(final MessageRouter router, final long messageType, final String fields)
+    {
+        final String body = "8=FIX.4.4\u00019=" + fields.length() + "\u0001" + fields;
+        final int length = buffer.putAscii(0, body + "10=" + checksum(body) + "\u0001");
+        return router.route(messageType, buffer, 0, length);
+    }
+
+    private static String checksum(final String body)
+    {
+        int total = 0;
+        for (int i = 0; i < body.length(); i++)
+        {
+            total += body.charAt(i);
+        }
+        return String.format("%03d", total & 0xFF);
+    }
+}
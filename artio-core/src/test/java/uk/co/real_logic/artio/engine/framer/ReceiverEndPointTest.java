@@ -316,6 +316,34 @@ class ReceiverEndPointTest
         sessionReceivesOneMessage();
     }
 
+    @Test
+    void shouldFrameFixMessageReceivedOverManyReads()
+    {
+        final int chunkSize = 10;
+        for (int offset = 0; offset < MSG_LEN; offset += chunkSize)
+        {
+            theEndpointReceives(EG_MESSAGE, offset, Math.min(chunkSize, MSG_LEN - offset));
+            endPoint.poll();
+        }
+
+        savesAFramedMessage();
+
+        sessionReceivesOneMessage();
+    }
+
+    @Test
+    void invalidChecksumOfSplitMessageRecorded()
+    {
+        theEndpointReceives(INVALID_CHECKSUM_MSG, 0, INVALID_CHECKSUM_LEN - 8);
+        endPoint.poll();
+
+        theEndpointReceives(INVALID_CHECKSUM_MSG, INVALID_CHECKSUM_LEN - 8, 8);
+        endPoint.poll();
+
+        savesInvalidChecksumMessage(times(1));
+        nothingMoreSaved();
+    }
+
     @Test
     void shouldFrameTwoCompleteFixMessagesInOnePacket()
     {
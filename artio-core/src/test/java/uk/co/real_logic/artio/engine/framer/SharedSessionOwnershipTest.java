@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.junit.After;
+import org.junit.Test;
+import uk.co.real_logic.artio.session.CompositeKey;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class SharedSessionOwnershipTest
+{
+    private static final File DIRECTORY = new File(IoUtil.tmpDirName(), "shared-session-ownership-test");
+
+    private final SessionIdStrategy idStrategy = SessionIdStrategy.senderAndTarget();
+    private final CompositeKey aSession = idStrategy.onInitiateLogon("a", null, null, "b", null, null);
+    private final CompositeKey bSession = idStrategy.onInitiateLogon("b", null, null, "a", null, null);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+
+    private final SharedSessionOwnership engine = new SharedSessionOwnership(DIRECTORY, errorHandler);
+    private final SharedSessionOwnership otherEngine = new SharedSessionOwnership(DIRECTORY, errorHandler);
+
+    @After
+    public void teardown()
+    {
+        engine.release(1);
+        engine.release(2);
+        otherEngine.release(1);
+        otherEngine.release(2);
+        IoUtil.delete(DIRECTORY, true);
+        verifyNoInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldOnlyLetOneEngineAcquireSession()
+    {
+        assertTrue(engine.tryAcquire(1, aSession));
+        assertFalse(otherEngine.tryAcquire(2, aSession));
+        assertTrue(otherEngine.tryAcquire(2, bSession));
+    }
+
+    @Test
+    public void shouldLetOtherEngineAcquireReleasedSession()
+    {
+        assertTrue(engine.tryAcquire(1, aSession));
+        engine.release(1);
+
+        assertTrue(otherEngine.tryAcquire(2, aSession));
+        assertFalse(engine.tryAcquire(1, aSession));
+    }
+
+    @Test
+    public void shouldReleaseLockedSessionsOnClose()
+    {
+        assertTrue(engine.tryAcquire(1, aSession));
+        engine.close();
+
+        final SharedSessionOwnership restartedEngine = new SharedSessionOwnership(DIRECTORY, errorHandler);
+        assertTrue(restartedEngine.tryAcquire(1, aSession));
+        restartedEngine.close();
+    }
+
+    @Test
+    public void shouldNotConfuseKeysWhoseFieldsRunTogether()
+    {
+        final CompositeKey first = idStrategy.onInitiateLogon("a,b", null, null, "c", null, null);
+        final CompositeKey second = idStrategy.onInitiateLogon("a", null, null, "b,c", null, null);
+
+        assertNotEquals(SharedSessionOwnership.lockFileName(first), SharedSessionOwnership.lockFileName(second));
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.util.MessageTypeEncoding.packMessageType;
+
+public class TokenBucketThrottleTest
+{
+    private static final int WINDOW_IN_MS = 100;
+    private static final int LIMIT = 4;
+    private static final long INTERVAL_IN_NS = MILLISECONDS.toNanos(WINDOW_IN_MS) / LIMIT;
+    private static final long START_IN_NS = MILLISECONDS.toNanos(1_000);
+
+    private static final long NEW_ORDER_SINGLE = packMessageType("D");
+    private static final long MASS_QUOTE = packMessageType("i");
+    private static final long HEARTBEAT = packMessageType("0");
+
+    private final EngineConfiguration configuration = new EngineConfiguration()
+        .tokenBucketMessageThrottle(true);
+
+    private final TokenBucket sessionBucket = new TokenBucket(WINDOW_IN_MS, LIMIT);
+
+    @Test
+    public void shouldNotCreateThrottleUnlessEnabled()
+    {
+        assertNull(TokenBucketThrottle.of(new EngineConfiguration()));
+        assertNotNull(TokenBucketThrottle.of(configuration));
+    }
+
+    @Test
+    public void shouldAllowBurstUpToLimit()
+    {
+        final TokenBucketThrottle throttle = new TokenBucketThrottle(configuration);
+
+        assertAccepts(throttle, sessionBucket, null, LIMIT, START_IN_NS);
+        assertTrue(throttle.shouldThrottle(sessionBucket, null, NEW_ORDER_SINGLE, START_IN_NS));
+    }
+
+    @Test
+    public void shouldRefillTokensOverTime()
+    {
+        final TokenBucketThrottle throttle = new TokenBucketThrottle(configuration);
+
+        assertAccepts(throttle, sessionBucket, null, LIMIT, START_IN_NS);
+        assertTrue(throttle.shouldThrottle(sessionBucket, null, NEW_ORDER_SINGLE, START_IN_NS + INTERVAL_IN_NS - 1));
+
+        assertAccepts(throttle, sessionBucket, null, 1, START_IN_NS + INTERVAL_IN_NS);
+        assertTrue(throttle.shouldThrottle(sessionBucket, null, NEW_ORDER_SINGLE, START_IN_NS + INTERVAL_IN_NS));
+
+        final long afterWindowInNs = START_IN_NS + MILLISECONDS.toNanos(WINDOW_IN_MS * 2);
+        assertAccepts(throttle, sessionBucket, null, LIMIT, afterWindowInNs);
+        assertTrue(throttle.shouldThrottle(sessionBucket, null, NEW_ORDER_SINGLE, afterWindowInNs));
+    }
+
+    @Test
+    public void shouldNotTakeTokensForThrottledMessages()
+    {
+        final TokenBucketThrottle throttle = new TokenBucketThrottle(configuration);
+
+        assertAccepts(throttle, sessionBucket, null, LIMIT, START_IN_NS);
+        for (int i = 0; i < 10; i++)
+        {
+            assertTrue(throttle.shouldThrottle(sessionBucket, null, NEW_ORDER_SINGLE, START_IN_NS));
+        }
+
+        assertAccepts(throttle, sessionBucket, null, 1, START_IN_NS + INTERVAL_IN_NS);
+    }
+
+    @Test
+    public void shouldWeightMessagesByType()
+    {
+        configuration
+            .messageThrottleWeight("i", LIMIT / 2)
+            .messageThrottleWeight("0", 0);
+        final TokenBucketThrottle throttle = new TokenBucketThrottle(configuration);
+
+        assertFalse(throttle.shouldThrottle(sessionBucket, null, MASS_QUOTE, START_IN_NS));
+        assertFalse(throttle.shouldThrottle(sessionBucket, null, MASS_QUOTE, START_IN_NS));
+        assertTrue(throttle.shouldThrottle(sessionBucket, null, NEW_ORDER_SINGLE, START_IN_NS));
+
+        assertFalse(throttle.shouldThrottle(sessionBucket, null, HEARTBEAT, START_IN_NS));
+
+        // A single token isn't enough for a heavier message
+        assertTrue(throttle.shouldThrottle(sessionBucket, null, MASS_QUOTE, START_IN_NS + INTERVAL_IN_NS));
+        assertAccepts(throttle, sessionBucket, null, 1, START_IN_NS + INTERVAL_IN_NS);
+    }
+
+    @Test
+    public void shouldShareCompIdGroupLimitBetweenSessions()
+    {
+        configuration.compIdGroupMessageThrottle(WINDOW_IN_MS, LIMIT);
+        final TokenBucketThrottle throttle = new TokenBucketThrottle(configuration);
+        final TokenBucket otherSessionBucket = new TokenBucket(WINDOW_IN_MS, LIMIT);
+
+        final TokenBucket groupBucket = throttle.acquireCompIdGroupBucket("firm");
+        assertSame(groupBucket, throttle.acquireCompIdGroupBucket("firm"));
+        assertNotSame(groupBucket, throttle.acquireCompIdGroupBucket("other firm"));
+        assertNull(throttle.acquireCompIdGroupBucket(null));
+
+        assertAccepts(throttle, sessionBucket, groupBucket, LIMIT / 2, START_IN_NS);
+        assertAccepts(throttle, otherSessionBucket, groupBucket, LIMIT / 2, START_IN_NS);
+        assertTrue(throttle.shouldThrottle(otherSessionBucket, groupBucket, NEW_ORDER_SINGLE, START_IN_NS));
+
+        // A session with a different comp id isn't affected
+        final TokenBucket otherGroupBucket = throttle.acquireCompIdGroupBucket("other firm");
+        assertAccepts(throttle, new TokenBucket(WINDOW_IN_MS, LIMIT), otherGroupBucket, LIMIT, START_IN_NS);
+    }
+
+    @Test
+    public void shouldRemoveCompIdGroupOnceAllSessionsHaveReleasedIt()
+    {
+        configuration.compIdGroupMessageThrottle(WINDOW_IN_MS, LIMIT);
+        final TokenBucketThrottle throttle = new TokenBucketThrottle(configuration);
+
+        final TokenBucket groupBucket = throttle.acquireCompIdGroupBucket("firm");
+        assertSame(groupBucket, throttle.acquireCompIdGroupBucket("firm"));
+
+        throttle.releaseCompIdGroupBucket("firm");
+        assertEquals(1, throttle.compIdGroupCount());
+
+        throttle.releaseCompIdGroupBucket("firm");
+        assertEquals(0, throttle.compIdGroupCount());
+        assertNotSame(groupBucket, throttle.acquireCompIdGroupBucket("firm"));
+    }
+
+    @Test
+    public void shouldApplyGroupAndEngineLimitsWithoutASessionLimit()
+    {
+        configuration
+            .compIdGroupMessageThrottle(WINDOW_IN_MS, LIMIT)
+            .engineMessageThrottle(WINDOW_IN_MS, LIMIT + 1);
+        final TokenBucketThrottle throttle = new TokenBucketThrottle(configuration);
+
+        final TokenBucket groupBucket = throttle.acquireCompIdGroupBucket("firm");
+        assertAccepts(throttle, null, groupBucket, LIMIT, START_IN_NS);
+        assertTrue(throttle.shouldThrottle(null, groupBucket, NEW_ORDER_SINGLE, START_IN_NS));
+
+        assertAccepts(throttle, null, null, 1, START_IN_NS);
+        assertTrue(throttle.shouldThrottle(null, null, NEW_ORDER_SINGLE, START_IN_NS));
+    }
+
+    @Test
+    public void shouldNotCreateCompIdGroupBucketsWithoutGroupLimit()
+    {
+        final TokenBucketThrottle throttle = new TokenBucketThrottle(configuration);
+
+        assertNull(throttle.acquireCompIdGroupBucket("firm"));
+    }
+
+    @Test
+    public void shouldApplyEngineLimitToAllSessions()
+    {
+        configuration.engineMessageThrottle(WINDOW_IN_MS, LIMIT + 1);
+        final TokenBucketThrottle throttle = new TokenBucketThrottle(configuration);
+        final TokenBucket otherSessionBucket = new TokenBucket(WINDOW_IN_MS, LIMIT);
+
+        assertAccepts(throttle, sessionBucket, null, LIMIT, START_IN_NS);
+        assertAccepts(throttle, otherSessionBucket, null, 1, START_IN_NS);
+        assertTrue(throttle.shouldThrottle(otherSessionBucket, null, NEW_ORDER_SINGLE, START_IN_NS));
+    }
+
+    @Test
+    public void shouldKeepUsedTokensWhenReconfigured()
+    {
+        final TokenBucketThrottle throttle = new TokenBucketThrottle(configuration);
+
+        assertAccepts(throttle, sessionBucket, null, LIMIT, START_IN_NS);
+        sessionBucket.configure(WINDOW_IN_MS, LIMIT * 2);
+        assertTrue(throttle.shouldThrottle(sessionBucket, null, NEW_ORDER_SINGLE, START_IN_NS));
+
+        assertAccepts(throttle, sessionBucket, null, 1, START_IN_NS + INTERVAL_IN_NS / 2);
+        assertTrue(throttle.shouldThrottle(sessionBucket, null, NEW_ORDER_SINGLE, START_IN_NS + INTERVAL_IN_NS / 2));
+    }
+
+    private static void assertAccepts(
+        final TokenBucketThrottle throttle,
+        final TokenBucket sessionBucket,
+        final TokenBucket groupBucket,
+        final int messages,
+        final long timeInNs)
+    {
+        for (int i = 0; i < messages; i++)
+        {
+            assertFalse("Throttled message " + i,
+                throttle.shouldThrottle(sessionBucket, groupBucket, NEW_ORDER_SINGLE, timeInNs));
+        }
+    }
+}
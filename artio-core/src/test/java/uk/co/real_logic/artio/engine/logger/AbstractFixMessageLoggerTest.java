@@ -231,6 +231,36 @@ public abstract class AbstractFixMessageLoggerTest
         assertThat(timestamps, contains(1603800578520566892L, 1603800581079423921L, 1603800586520278849L));
     }
 
+    @Test
+    public void shouldHandOffMessagesWhenAStreamsTimestampsGoBackwards()
+    {
+        onMessage(inboundPublication, 5);
+        onMessage(inboundPublication, 3);
+        assertEventuallyReads(2);
+        assertNoTimestamps();
+
+        onMessage(outboundPublication, 4);
+        onReplayerTimestamp(replayPublication, 10);
+        assertTimestampCountEventually(3);
+        assertThat(timestamps, contains(3L, 4L, 5L));
+    }
+
+    @Test
+    public void shouldDumpBufferedMessagesInTimestampOrderWhenAStreamsTimestampsGoBackwards()
+    {
+        onMessage(inboundPublication, 5);
+        onMessage(inboundPublication, 3);
+        assertEventuallyReads(2);
+
+        onMessage(outboundPublication, 4);
+        assertEventuallyReads(1);
+        assertNoTimestamps();
+
+        logger.onClose();
+        assertThat(timestamps, contains(3L, 4L, 5L));
+        assertEquals(0, logger.bufferPosition());
+    }
+
     void assertEventuallyReceives(final int messageCount)
     {
         assertEventuallyTrue(
@@ -46,4 +46,30 @@ public class ArchiveScanPlannerTest
         assertEquals(epochStartTimeInNs, indexQuery.beginTimestampInclusive());
         assertEquals(epochEndTimeInNs, indexQuery.endTimestampExclusive());
     }
+
+    @Test
+    public void shouldPreferTagValueKeysOverMessageTypeKeys()
+    {
+        final FixMessageConsumer consumer = (message, buffer, offset, length, header) ->
+        {
+        };
+        final FixMessagePredicate predicate = messageTypeOf("D").and(tagValueOf(11, "order-1"));
+
+        final IndexQuery indexQuery = ArchiveScanPlanner.extractIndexQuery(filterBy(consumer, predicate));
+        assertFalse(indexQuery.needsTimeIndex());
+        assertEquals(11, indexQuery.secondaryKeyKind());
+        assertEquals(1, indexQuery.secondaryKeys().size());
+        assertTrue(indexQuery.secondaryKeys().contains(SecondaryIndexKey.tagValueKey(11, "order-1")));
+    }
+
+    @Test
+    public void shouldNotUseSecondaryIndexForDisjunctions()
+    {
+        final FixMessageConsumer consumer = (message, buffer, offset, length, header) ->
+        {
+        };
+        final FixMessagePredicate predicate = messageTypeOf("D").or(tagValueOf(11, "order-1"));
+
+        assertNull(ArchiveScanPlanner.extractIndexQuery(filterBy(consumer, predicate)));
+    }
 }
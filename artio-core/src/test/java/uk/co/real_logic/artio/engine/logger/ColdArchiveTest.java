@@ -0,0 +1,227 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.IoUtil;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOG_FILE_DIR;
+
+public class ColdArchiveTest
+{
+    private static final long RECORDING_ID = 1;
+    private static final int TERM_LENGTH = 64 * 1024;
+    private static final int FRAME_LENGTH = 64;
+    private static final int FRAME_COUNT = 10;
+    private static final int BLOCK_SIZE = 4 * FRAME_LENGTH;
+    private static final int SESSION_ID = 42;
+    private static final int STREAM_ID = 2;
+
+    private final UnsafeBuffer termBuffer = new UnsafeBuffer(new byte[TERM_LENGTH]);
+    private final DataHeaderFlyweight dataHeader = new DataHeaderFlyweight();
+    private final IntArrayList values = new IntArrayList();
+    private final LongArrayList positions = new LongArrayList();
+    private final ColdArchiveReader reader = new ColdArchiveReader(DEFAULT_LOG_FILE_DIR);
+
+    private ColdArchiveWriter writer;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        final File logFileDir = new File(DEFAULT_LOG_FILE_DIR);
+        if (logFileDir.exists())
+        {
+            IoUtil.delete(logFileDir, false);
+        }
+        assertTrue(logFileDir.mkdirs());
+
+        for (int i = 0; i < 2 * FRAME_COUNT; i++)
+        {
+            putFrame(i);
+        }
+
+        writer = newWriter();
+    }
+
+    @After
+    public void tearDown()
+    {
+        writer.close();
+    }
+
+    @Test
+    public void shouldReplayAllFrames() throws IOException
+    {
+        appendFrames(0, FRAME_COUNT);
+        writer.force();
+
+        assertEquals(0, reader.startPosition(RECORDING_ID));
+        assertEquals(FRAME_COUNT * FRAME_LENGTH, reader.endPosition(RECORDING_ID));
+
+        pollAll(reader.replay(RECORDING_ID, 0, FRAME_COUNT * FRAME_LENGTH));
+
+        assertValues(0, FRAME_COUNT);
+    }
+
+    @Test
+    public void shouldReplayFromTheMiddleOfABlock() throws IOException
+    {
+        appendFrames(0, FRAME_COUNT);
+        writer.force();
+
+        pollAll(reader.replay(RECORDING_ID, 5 * FRAME_LENGTH, 3 * FRAME_LENGTH));
+
+        assertValues(5, 8);
+    }
+
+    @Test
+    public void shouldNotAdvancePastAbortedFragments() throws IOException
+    {
+        appendFrames(0, FRAME_COUNT);
+        writer.force();
+
+        final ColdArchiveReplay replay = reader.replay(RECORDING_ID, 0, FRAME_COUNT * FRAME_LENGTH);
+        assertEquals(0, replay.controlledPoll((buffer, offset, length, header) -> Action.ABORT, 10));
+        assertEquals(0, replay.position());
+
+        assertEquals(1, replay.controlledPoll(
+            (buffer, offset, length, header) ->
+            {
+                values.addInt(buffer.getInt(offset));
+                return Action.BREAK;
+            },
+            10));
+        assertEquals(FRAME_LENGTH, replay.position());
+
+        replay.close();
+        assertEquals(1, values.size());
+        assertEquals(0, values.getInt(0));
+    }
+
+    @Test
+    public void shouldCarryOnAppendingAfterReopening() throws IOException
+    {
+        appendFrames(0, 3);
+        writer.force();
+        writer.close();
+
+        writer = newWriter();
+        assertEquals(3 * FRAME_LENGTH, writer.endPosition());
+        appendFrames(3, FRAME_COUNT);
+        writer.force();
+
+        pollAll(reader.replay(RECORDING_ID, 0, FRAME_COUNT * FRAME_LENGTH));
+
+        assertValues(0, FRAME_COUNT);
+    }
+
+    @Test
+    public void shouldSkipGapsBetweenBlocks() throws IOException
+    {
+        appendFrames(0, 2);
+        appendFrames(FRAME_COUNT, FRAME_COUNT + 2);
+        writer.force();
+
+        pollAll(reader.replay(RECORDING_ID, 0, (FRAME_COUNT + 2) * FRAME_LENGTH));
+
+        assertEquals(4, values.size());
+        assertEquals(1, values.getInt(1));
+        assertEquals(FRAME_COUNT, values.getInt(2));
+        assertEquals((FRAME_COUNT + 1) * FRAME_LENGTH, positions.getLong(2));
+    }
+
+    @Test
+    public void shouldHaveNoPositionsForUnknownRecording()
+    {
+        assertEquals(NULL_POSITION, reader.endPosition(RECORDING_ID + 1));
+        assertNull(reader.replay(RECORDING_ID + 1, 0, FRAME_LENGTH));
+    }
+
+    private ColdArchiveWriter newWriter() throws IOException
+    {
+        return new ColdArchiveWriter(DEFAULT_LOG_FILE_DIR, RECORDING_ID, 0, TERM_LENGTH, BLOCK_SIZE);
+    }
+
+    private void putFrame(final int index)
+    {
+        final int offset = index * FRAME_LENGTH;
+        dataHeader.wrap(termBuffer, offset, FRAME_LENGTH);
+        dataHeader
+            .frameLength(FRAME_LENGTH)
+            .version(DataHeaderFlyweight.CURRENT_VERSION)
+            .flags(DataHeaderFlyweight.BEGIN_AND_END_FLAGS)
+            .headerType(DataHeaderFlyweight.HDR_TYPE_DATA);
+        dataHeader
+            .termOffset(offset)
+            .sessionId(SESSION_ID)
+            .streamId(STREAM_ID)
+            .termId(0);
+        termBuffer.putInt(offset + HEADER_LENGTH, index);
+    }
+
+    private void appendFrames(final int fromIndex, final int toIndex) throws IOException
+    {
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            if (writer.remainingCapacity() < FRAME_LENGTH)
+            {
+                writer.flushBlock();
+            }
+
+            final int offset = i * FRAME_LENGTH;
+            writer.append(termBuffer, offset, FRAME_LENGTH, offset);
+        }
+    }
+
+    private void pollAll(final ColdArchiveReplay replay)
+    {
+        while (!replay.isEndOfStream())
+        {
+            replay.poll(
+                (buffer, offset, length, header) ->
+                {
+                    assertEquals(SESSION_ID, header.sessionId());
+                    assertEquals(FRAME_LENGTH - HEADER_LENGTH, length);
+                    values.addInt(buffer.getInt(offset));
+                    positions.addLong(header.position());
+                },
+                3);
+        }
+    }
+
+    private void assertValues(final int fromIndex, final int toIndex)
+    {
+        assertEquals(values.toString(), toIndex - fromIndex, values.size());
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            assertEquals(i, values.getInt(i - fromIndex));
+            assertEquals((i + 1) * FRAME_LENGTH, positions.getLong(i - fromIndex));
+        }
+    }
+}
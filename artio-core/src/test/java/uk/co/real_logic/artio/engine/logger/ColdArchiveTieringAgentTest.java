@@ -0,0 +1,288 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.RecordingDescriptorConsumer;
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.RawBlockHandler;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.BitUtil;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.LogTag;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.logbuffer.FrameDescriptor.isPaddingFrame;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOG_FILE_DIR;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_REPLAY_FRAGMENT_LIMIT;
+import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
+
+public class ColdArchiveTieringAgentTest
+{
+    private static final long RECORDING_ID = 1;
+    private static final int TERM_LENGTH = 64 * 1024;
+    private static final int MTU_LENGTH = 8 * 1024;
+    private static final int FRAME_LENGTH = 1024;
+    private static final int FRAME_COUNT = 60;
+    private static final int PADDING_LENGTH = TERM_LENGTH - FRAME_COUNT * FRAME_LENGTH;
+    private static final int SESSION_ID = 42;
+    private static final int STREAM_ID = 2;
+    private static final int TIERING_STREAM = 3;
+    private static final int REPLAY_STREAM = 4;
+    private static final long REPLAY_SESSION_ID = 5;
+
+    private final UnsafeBuffer termBuffer = new UnsafeBuffer(new byte[TERM_LENGTH]);
+    private final DataHeaderFlyweight dataHeader = new DataHeaderFlyweight();
+    private final IntArrayList values = new IntArrayList();
+    private final ColdArchiveCuts cuts = new ColdArchiveCuts();
+    private final ColdArchiveReader reader = new ColdArchiveReader(DEFAULT_LOG_FILE_DIR, cuts);
+
+    private final AeronArchive aeronArchive = mock(AeronArchive.class);
+    private final AeronArchive.Context archiveContext = mock(AeronArchive.Context.class);
+    private final Aeron aeron = mock(Aeron.class);
+    private final Subscription subscription = mock(Subscription.class);
+    private final Image image = mock(Image.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+
+    private ColdArchiveTieringAgent agent;
+    private int replayedOffset;
+
+    @Before
+    public void setUp()
+    {
+        final File logFileDir = new File(DEFAULT_LOG_FILE_DIR);
+        if (logFileDir.exists())
+        {
+            IoUtil.delete(logFileDir, false);
+        }
+        assertTrue(logFileDir.mkdirs());
+
+        for (int i = 0; i < FRAME_COUNT; i++)
+        {
+            putFrame(i * FRAME_LENGTH, FRAME_LENGTH, DataHeaderFlyweight.HDR_TYPE_DATA);
+            termBuffer.putInt(i * FRAME_LENGTH + HEADER_LENGTH, i);
+        }
+        putFrame(FRAME_COUNT * FRAME_LENGTH, PADDING_LENGTH, DataHeaderFlyweight.HDR_TYPE_PAD);
+
+        when(aeronArchive.context()).thenReturn(archiveContext);
+        when(archiveContext.aeron()).thenReturn(aeron);
+        when(aeron.countersReader()).thenReturn(mock(CountersReader.class));
+        when(aeron.addSubscription(IPC_CHANNEL, TIERING_STREAM)).thenReturn(subscription);
+        when(aeronArchive.listRecording(eq(RECORDING_ID), any())).thenAnswer(invocation ->
+        {
+            final RecordingDescriptorConsumer consumer = invocation.getArgument(1);
+            consumer.onRecordingDescriptor(
+                0, 0, RECORDING_ID, 0, 0, 0, 2 * TERM_LENGTH, 0, TERM_LENGTH, TERM_LENGTH, MTU_LENGTH, SESSION_ID,
+                STREAM_ID, IPC_CHANNEL, IPC_CHANNEL, "");
+            return 1;
+        });
+        when(aeronArchive.startReplay(RECORDING_ID, 0, TERM_LENGTH, IPC_CHANNEL, TIERING_STREAM))
+            .thenReturn(REPLAY_SESSION_ID);
+        when(subscription.imageBySessionId((int)REPLAY_SESSION_ID)).thenReturn(image);
+        when(image.initialTermId()).thenReturn(0);
+        when(image.positionBitsToShift()).thenReturn(Integer.numberOfTrailingZeros(TERM_LENGTH));
+        when(image.position()).thenAnswer(invocation -> (long)replayedOffset);
+        when(image.rawPoll(any(), anyInt())).thenAnswer(invocation ->
+            rawPoll(invocation.getArgument(0), invocation.getArgument(1)));
+
+        agent = new ColdArchiveTieringAgent(
+            aeronArchive,
+            DEFAULT_LOG_FILE_DIR,
+            new int[0],
+            1,
+            1,
+            4 * FRAME_LENGTH,
+            TIERING_STREAM,
+            () -> 0,
+            errorHandler,
+            cuts,
+            "");
+    }
+
+    @After
+    public void tearDown()
+    {
+        agent.onClose();
+        verifyNoInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldMoveWholeSegmentsToTheColdArchive()
+    {
+        tierFirstSegment();
+
+        verify(aeronArchive).purgeSegments(RECORDING_ID, TERM_LENGTH);
+        assertEquals(0, reader.startPosition(RECORDING_ID));
+        assertEquals(TERM_LENGTH, reader.endPosition(RECORDING_ID));
+
+        final ColdArchiveReplay replay = reader.replay(RECORDING_ID, 0, TERM_LENGTH);
+        while (!replay.isEndOfStream())
+        {
+            replay.poll((buffer, offset, length, header) -> values.addInt(buffer.getInt(offset)), 10);
+        }
+        assertEquals(TERM_LENGTH, replay.position());
+
+        assertEquals(values.toString(), FRAME_COUNT, values.size());
+        for (int i = 0; i < FRAME_COUNT; i++)
+        {
+            assertEquals(i, values.getInt(i));
+        }
+    }
+
+    @Test
+    public void shouldCarryOnReplayingFromTheArchiveWhereTheColdArchiveEnds()
+    {
+        tierFirstSegment();
+
+        final long beginPosition = 5 * FRAME_LENGTH;
+        final long endPosition = TERM_LENGTH + FRAME_LENGTH;
+        final ReplayOperation operation = newReplayOperation(beginPosition, endPosition, reader, errorHandler);
+
+        for (int i = 0; i < 10; i++)
+        {
+            operation.pollReplay();
+        }
+
+        verify(aeronArchive).startReplay(
+            RECORDING_ID, TERM_LENGTH, endPosition - TERM_LENGTH, IPC_CHANNEL, REPLAY_STREAM);
+    }
+
+    @Test
+    public void shouldCacheTheColdArchiveEndPositionUntilTheNextCut()
+    {
+        assertEquals(NULL_POSITION, reader.cachedEndPosition(RECORDING_ID));
+
+        tierFirstSegment();
+
+        assertEquals(TERM_LENGTH, reader.cachedEndPosition(RECORDING_ID));
+    }
+
+    @Test
+    public void shouldFailReplayWhenTheColdArchiveIsMissing()
+    {
+        final ColdArchiveReader missingReader = mock(ColdArchiveReader.class);
+        when(missingReader.cachedEndPosition(RECORDING_ID)).thenReturn((long)TERM_LENGTH);
+        final ErrorHandler replayErrorHandler = mock(ErrorHandler.class);
+
+        final ReplayOperation operation = newReplayOperation(
+            5 * FRAME_LENGTH, TERM_LENGTH + FRAME_LENGTH, missingReader, replayErrorHandler);
+
+        assertTrue(operation.pollReplay());
+        verify(replayErrorHandler).onError(any(IllegalStateException.class));
+        verify(aeronArchive, never()).startReplay(anyLong(), anyLong(), anyLong(), anyString(), anyInt());
+    }
+
+    private ReplayOperation newReplayOperation(
+        final long beginPosition,
+        final long endPosition,
+        final ColdArchiveReader coldArchiveReader,
+        final ErrorHandler errorHandler)
+    {
+        final RecordingRange range = new RecordingRange(RECORDING_ID, UNK_SESSION);
+        range.add(beginPosition, (int)(endPosition - beginPosition));
+        range.count = 1;
+        final List<RecordingRange> ranges = new ArrayList<>();
+        ranges.add(range);
+
+        return new ReplayOperation(
+            ranges,
+            aeronArchive,
+            errorHandler,
+            mock(Subscription.class),
+            REPLAY_STREAM,
+            LogTag.REPLAY,
+            new FixMessageTracker(LogTag.REPLAY, mock(ControlledFragmentHandler.class), UNK_SESSION),
+            coldArchiveReader,
+            DEFAULT_REPLAY_FRAGMENT_LIMIT);
+    }
+
+    private void tierFirstSegment()
+    {
+        agent.findTask(RECORDING_ID, TERM_LENGTH + FRAME_LENGTH);
+
+        for (int i = 0; i < 100 && replayedOffset < TERM_LENGTH; i++)
+        {
+            agent.doWork();
+        }
+        agent.doWork();
+    }
+
+    private void putFrame(final int offset, final int length, final int type)
+    {
+        dataHeader.wrap(termBuffer, offset, HEADER_LENGTH);
+        dataHeader
+            .frameLength(length)
+            .version(DataHeaderFlyweight.CURRENT_VERSION)
+            .flags(DataHeaderFlyweight.BEGIN_AND_END_FLAGS)
+            .headerType(type);
+        dataHeader
+            .termOffset(offset)
+            .sessionId(SESSION_ID)
+            .streamId(STREAM_ID)
+            .termId(0);
+    }
+
+    // Behaves like the Aeron term block scanner: whole frames up to the limit and padding frames on their own.
+    private int rawPoll(final RawBlockHandler handler, final int blockLengthLimit)
+    {
+        final int termOffset = replayedOffset;
+        int length = 0;
+        while (termOffset + length < TERM_LENGTH)
+        {
+            final int frameOffset = termOffset + length;
+            final int frameLength = BitUtil.align(termBuffer.getInt(frameOffset), FRAME_ALIGNMENT);
+            final boolean padding = isPaddingFrame(termBuffer, frameOffset);
+            if (length + frameLength > blockLengthLimit || (padding && length > 0))
+            {
+                break;
+            }
+
+            length += frameLength;
+            if (padding)
+            {
+                break;
+            }
+        }
+
+        if (length > 0)
+        {
+            handler.onBlock(null, termOffset, termBuffer, termOffset, length, SESSION_ID, 0);
+            replayedOffset += length;
+        }
+
+        return length;
+    }
+}
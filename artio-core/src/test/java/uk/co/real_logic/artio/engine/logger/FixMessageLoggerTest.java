@@ -28,6 +28,7 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.stream.Collectors.joining;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
 
 public class FixMessageLoggerTest extends AbstractFixMessageLoggerTest
 {
@@ -108,4 +109,24 @@ public class FixMessageLoggerTest extends AbstractFixMessageLoggerTest
         assertThat(timestamps, contains(1L, 1L));
         assertThat(sequenceNumbers, contains(1, 2));
     }
+
+    @Test
+    public void shouldMergeMessagesBufferedBeyondInitialStreamBufferCapacity()
+    {
+        // Enough messages to wrap and grow the inbound stream's buffer, but less than the maximum buffer size
+        final int messageCount = 30;
+        for (int i = 0; i < messageCount; i++)
+        {
+            onMessage(inboundPublication, 2 * i + 2);
+            onMessage(outboundPublication, 2 * i + 1);
+        }
+
+        onReplayerTimestamp(replayPublication, 2 * messageCount + 1);
+
+        assertEventuallyReceives(2 * messageCount);
+        for (int i = 0; i < 2 * messageCount; i++)
+        {
+            assertEquals(i + 1, timestamps.getLong(i));
+        }
+    }
 }
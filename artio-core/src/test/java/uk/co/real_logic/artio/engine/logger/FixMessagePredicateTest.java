@@ -17,16 +17,19 @@ package uk.co.real_logic.artio.engine.logger;
 
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Test;
+import uk.co.real_logic.artio.decoder.SessionHeaderDecoder;
 import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.FixMessageEncoder;
 
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
-import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.targetCompIdOf;
-import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.whereHeader;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.*;
 
 public class FixMessagePredicateTest
 {
@@ -42,6 +45,7 @@ public class FixMessagePredicateTest
     private final FixMessageDecoder decoder = new FixMessageDecoder()
         .wrap(buffer, 0, encoder.sbeBlockLength(), encoder.sbeSchemaVersion());
 
+    private final FixDictionary fixDictionary = FixDictionary.of(FixDictionary.findDefault());
     private final FixMessagePredicate middleAbc = FixMessagePredicates.bodyMatches(Pattern.compile(".*ABC.*"));
     private final FixMessagePredicate starts123 = FixMessagePredicates.bodyMatches(Pattern.compile("123.*"));
     private final FixMessagePredicate startsAbc = FixMessagePredicates.bodyMatches(Pattern.compile("abc.*"));
@@ -79,10 +83,67 @@ public class FixMessagePredicateTest
         assertTargetCompId("acceptor2", false);
     }
 
+    @Test
+    public void shouldMatchCompiledHeaderWithoutDecodingIt()
+    {
+        encoder.body(HEADER_EG);
+
+        assertCompiledHeader(targetCompIdOf("acceptor"), true);
+        assertCompiledHeader(targetCompIdOf("accept"), false);
+        assertCompiledHeader(senderCompIdOf("initiator").and(targetCompIdOf("acceptor")), true);
+        assertCompiledHeader(senderCompIdOf("initiator").and(targetCompIdOf("initiator")), false);
+        assertCompiledHeader(senderCompIdOf("acceptor").or(targetCompIdOf("acceptor")), true);
+        assertCompiledHeader(senderSubIdOf("sub"), false);
+    }
+
+    @Test
+    public void shouldNotCompileCustomHeaderMatches()
+    {
+        final FixMessagePredicate predicate = whereHeader(fixDictionary,
+            headerMatches("acceptor", SessionHeaderDecoder::targetCompID, SessionHeaderDecoder::targetCompIDLength));
+
+        assertThat(compile(predicate), instanceOf(FixMessagePredicates.WhereHeader.class));
+    }
+
+    @Test
+    public void shouldEvaluateCheapestOperandsFirst()
+    {
+        encoder.timestamp(10).session(1).body(COMPOSITION_EG);
+
+        final FixMessagePredicate predicate = compile(
+            middleAbc.and(whereHeader(fixDictionary, targetCompIdOf("acceptor"))).and(from(5)).and(sessionOf(1)));
+
+        final CompositeFixMessagePredicate first = (CompositeFixMessagePredicate)predicate;
+        assertThat(first.left(), instanceOf(FixMessagePredicates.From.class));
+        final CompositeFixMessagePredicate second = (CompositeFixMessagePredicate)first.right();
+        assertThat(second.left(), instanceOf(FixMessagePredicates.SessionIdOf.class));
+        final CompositeFixMessagePredicate third = (CompositeFixMessagePredicate)second.right();
+        assertThat(third.left(), instanceOf(FixMessagePredicates.SessionConsistentWhereHeader.class));
+        assertEquals(middleAbc, third.right());
+    }
+
+    @Test
+    public void shouldMatchTheSameMessagesWhenCompiled()
+    {
+        encoder.timestamp(10).session(1).body(COMPOSITION_EG);
+
+        final FixMessagePredicate predicate = starts123.and(from(20).or(sessionOf(1)));
+
+        assertEquals(predicate.test(decoder), compile(predicate).test(decoder));
+        assertTrue(compile(predicate).test(decoder));
+    }
+
+    private void assertCompiledHeader(final Predicate<SessionHeaderDecoder> header, final boolean expected)
+    {
+        final FixMessagePredicate compiled = compile(whereHeader(fixDictionary, header));
+        assertThat(compiled, instanceOf(FixMessagePredicates.SessionConsistentWhereHeader.class));
+        assertEquals(expected, compiled.test(decoder));
+        assertEquals(expected, whereHeader(fixDictionary, header).test(decoder));
+    }
+
     private void assertTargetCompId(final String targetCompIdOf, final boolean expected)
     {
-        final FixMessagePredicate predicate =
-            whereHeader(FixDictionary.of(FixDictionary.findDefault()), targetCompIdOf(targetCompIdOf));
+        final FixMessagePredicate predicate = whereHeader(fixDictionary, targetCompIdOf(targetCompIdOf));
         assertEquals(expected, predicate.test(decoder));
     }
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.CloseHelper;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.NO_META_DATA;
+
+public class MetaDataStoreTest
+{
+    private static final long SESSION_ID = 1;
+    private static final long OTHER_SESSION_ID = 2;
+
+    private final File file = new File(IoUtil.tmpDirName(), "MetaDataStoreTest");
+    private final ExpandableArrayBuffer readBuffer = new ExpandableArrayBuffer();
+
+    private MetaDataStore writer;
+    private MetaDataStore reader;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.deleteIfExists(file);
+        writer = MetaDataStore.openForWriting(file);
+        reader = MetaDataStore.openForReading(file);
+    }
+
+    @After
+    public void tearDown()
+    {
+        CloseHelper.closeAll(reader, writer);
+        IoUtil.deleteIfExists(file);
+    }
+
+    @Test
+    public void shouldReadWrittenMetaData()
+    {
+        final int slot = writer.write(NO_META_DATA, SESSION_ID, bytes(1, 2, 3), 0, 0, 3);
+
+        assertRead(slot, 1, 2, 3);
+    }
+
+    @Test
+    public void shouldUpdateMetaDataInPlaceWhenItFitsWithinTheSlot()
+    {
+        final int slot = writer.write(NO_META_DATA, SESSION_ID, bytes(1, 2, 3), 0, 0, 3);
+
+        assertEquals(slot, writer.write(slot, SESSION_ID, bytes(4, 5), 0, 2, 2));
+
+        assertRead(slot, 1, 2, 4, 5);
+    }
+
+    @Test
+    public void shouldMoveMetaDataThatOutgrowsItsSlot()
+    {
+        final int slot = writer.write(NO_META_DATA, SESSION_ID, bytes(1, 2, 3), 0, 0, 3);
+        final UnsafeBuffer bigUpdate = new UnsafeBuffer(new byte[32]);
+        bigUpdate.setMemory(0, 32, (byte)7);
+
+        final int newSlot = writer.write(slot, SESSION_ID, bigUpdate, 0, 2, 32);
+
+        assertNotEquals(slot, newSlot);
+        assertEquals(34, reader.read(newSlot, SESSION_ID, readBuffer, 0));
+        assertEquals(1, readBuffer.getByte(0));
+        assertEquals(2, readBuffer.getByte(1));
+        assertEquals(7, readBuffer.getByte(33));
+        assertEquals(NO_META_DATA, reader.read(slot, SESSION_ID, readBuffer, 0));
+    }
+
+    @Test
+    public void shouldFreeTheOldSlotWhenMetaDataOutgrowsIt()
+    {
+        final int slot = writer.write(NO_META_DATA, SESSION_ID, bytes(1, 2, 3), 0, 0, 3);
+        final UnsafeBuffer bigValue = new UnsafeBuffer(new byte[64]);
+
+        final int newSlot = writer.write(slot, SESSION_ID, bigValue, 0, 0, 64);
+
+        assertNotEquals(slot, newSlot);
+        assertEquals(NO_META_DATA, reader.read(slot, SESSION_ID, readBuffer, 0));
+        assertEquals(slot, writer.write(NO_META_DATA, OTHER_SESSION_ID, bytes(4), 0, 0, 1));
+        assertEquals(64, reader.read(newSlot, SESSION_ID, readBuffer, 0));
+    }
+
+    @Test
+    public void shouldReuseFreedSlots()
+    {
+        final int slot = writer.write(NO_META_DATA, SESSION_ID, bytes(1, 2, 3), 0, 0, 3);
+        writer.free(slot, SESSION_ID);
+
+        assertEquals(NO_META_DATA, reader.read(slot, SESSION_ID, readBuffer, 0));
+        assertEquals(slot, writer.write(NO_META_DATA, SESSION_ID, bytes(4, 5), 0, 0, 2));
+        assertRead(slot, 4, 5);
+    }
+
+    @Test
+    public void shouldNotReuseSlotsAfterDoubleFree()
+    {
+        final int slot = writer.write(NO_META_DATA, SESSION_ID, bytes(1), 0, 0, 1);
+        writer.free(slot, SESSION_ID);
+        writer.free(slot, SESSION_ID);
+
+        assertEquals(slot, writer.write(NO_META_DATA, SESSION_ID, bytes(2), 0, 0, 1));
+        assertNotEquals(slot, writer.write(NO_META_DATA, SESSION_ID, bytes(3), 0, 0, 1));
+    }
+
+    @Test
+    public void shouldReadMetaDataAfterFileHasGrown()
+    {
+        final int length = 8 * 1024;
+        final UnsafeBuffer value = new UnsafeBuffer(new byte[length]);
+        int lastSlot = NO_META_DATA;
+        for (int i = 0; i < 3 * MetaDataStore.INITIAL_CAPACITY / length; i++)
+        {
+            value.putInt(0, i);
+            lastSlot = writer.write(NO_META_DATA, SESSION_ID, value, 0, 0, length);
+        }
+
+        assertEquals(length, reader.read(lastSlot, SESSION_ID, readBuffer, 0));
+        assertEquals(3 * MetaDataStore.INITIAL_CAPACITY / length - 1, readBuffer.getInt(0));
+    }
+
+    @Test
+    public void shouldReadMetaDataAfterReopening()
+    {
+        final int slot = writer.write(NO_META_DATA, SESSION_ID, bytes(1, 2, 3), 0, 0, 3);
+        CloseHelper.closeAll(reader, writer);
+
+        writer = MetaDataStore.openForWriting(file);
+        reader = MetaDataStore.openForReading(file);
+
+        assertRead(slot, 1, 2, 3);
+        assertNotEquals(slot, writer.write(NO_META_DATA, SESSION_ID, bytes(4), 0, 0, 1));
+    }
+
+    @Test
+    public void shouldAllocateFromTheStartAfterReset()
+    {
+        final int slot = writer.write(NO_META_DATA, SESSION_ID, bytes(1, 2, 3), 0, 0, 3);
+        writer.write(NO_META_DATA, SESSION_ID, bytes(4, 5, 6), 0, 0, 3);
+
+        writer.reset();
+
+        assertEquals(slot, writer.write(NO_META_DATA, SESSION_ID, bytes(7), 0, 0, 1));
+        assertRead(slot, 7);
+    }
+
+    @Test
+    public void shouldNotReadAFreedSlotThatHasBeenReusedByAnotherSession()
+    {
+        final int slot = writer.write(NO_META_DATA, SESSION_ID, bytes(1, 2, 3), 0, 0, 3);
+        writer.free(slot, SESSION_ID);
+
+        assertEquals(slot, writer.write(NO_META_DATA, OTHER_SESSION_ID, bytes(4, 5), 0, 0, 2));
+
+        assertEquals(NO_META_DATA, reader.read(slot, SESSION_ID, readBuffer, 0));
+        assertEquals(2, reader.read(slot, OTHER_SESSION_ID, readBuffer, 0));
+    }
+
+    @Test
+    public void shouldNotUpdateOrFreeASlotOwnedByAnotherSession()
+    {
+        final int slot = writer.write(NO_META_DATA, OTHER_SESSION_ID, bytes(1, 2, 3), 0, 0, 3);
+
+        assertNotEquals(slot, writer.write(slot, SESSION_ID, bytes(4), 0, 0, 1));
+        writer.free(slot, SESSION_ID);
+
+        assertEquals(3, reader.read(slot, OTHER_SESSION_ID, readBuffer, 0));
+        assertEquals(1, readBuffer.getByte(0));
+    }
+
+    private void assertRead(final int slot, final int... expected)
+    {
+        assertEquals(expected.length, reader.read(slot, SESSION_ID, readBuffer, 0));
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals(expected[i], readBuffer.getByte(i));
+        }
+    }
+
+    private static UnsafeBuffer bytes(final int... values)
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[values.length]);
+        for (int i = 0; i < values.length; i++)
+        {
+            buffer.putByte(i, (byte)values[i]);
+        }
+        return buffer;
+    }
+}
@@ -160,7 +160,9 @@ public class ReplayIndexTest extends AbstractLogTest
             NoOpReplayQueryListener.INSTANCE,
             DEFAULT_ARCHIVE_REPLAY_STREAM,
             DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
-            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY);
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            new ColdArchiveCuts(),
+            DEFAULT_REPLAY_FRAGMENT_LIMIT);
     }
 
     @After
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import uk.co.real_logic.artio.storage.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.SecondaryIndexRecordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.engine.logger.IndexedPositionReader.UNKNOWN_POSITION;
+import static uk.co.real_logic.artio.engine.logger.SecondaryIndexReader.COALESCE_GAP_IN_BYTES;
+import static uk.co.real_logic.artio.engine.logger.SecondaryIndexWriter.*;
+
+public class SecondaryIndexReaderTest
+{
+    private static final int CL_ORD_ID = 11;
+    private static final long ORDER_KEY = SecondaryIndexKey.tagValueKey(CL_ORD_ID, "order-1");
+    private static final long OTHER_ORDER_KEY = SecondaryIndexKey.tagValueKey(CL_ORD_ID, "order-2");
+    private static final long MESSAGE_GAP = 10 * COALESCE_GAP_IN_BYTES;
+    private static final long INDEXED_POSITION = 10 * MESSAGE_GAP;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[RECORDS_OFFSET + 20 * RECORD_LENGTH]);
+    private final SecondaryIndexRecordEncoder encoder = new SecondaryIndexRecordEncoder();
+    private final LongHashSet keys = new LongHashSet();
+    private final List<PositionRange> ranges = new ArrayList<>();
+
+    private int offset = RECORDS_OFFSET;
+    private long indexedPosition = INDEXED_POSITION;
+
+    @Test
+    public void shouldOnlyFindMatchingMessages()
+    {
+        writeHeader(0);
+        writeSegmentStart(0, CL_ORD_ID);
+        writeRecord(ORDER_KEY, 0);
+        writeRecord(OTHER_ORDER_KEY, MESSAGE_GAP);
+        writeRecord(ORDER_KEY, 2 * MESSAGE_GAP);
+
+        findRangesOf(ORDER_KEY, CL_ORD_ID);
+
+        assertRanges(ranges, 0, 100, 2 * MESSAGE_GAP, 2 * MESSAGE_GAP + 100, INDEXED_POSITION, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldScanPositionsBeforeTheIndexStarted()
+    {
+        writeHeader(MESSAGE_GAP);
+        writeSegmentStart(MESSAGE_GAP, CL_ORD_ID);
+        writeRecord(ORDER_KEY, 2 * MESSAGE_GAP);
+
+        findRangesOf(ORDER_KEY, CL_ORD_ID);
+
+        assertRanges(ranges,
+            0, MESSAGE_GAP,
+            2 * MESSAGE_GAP, 2 * MESSAGE_GAP + 100,
+            INDEXED_POSITION, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldScanPositionsAfterTheIndexedPosition()
+    {
+        indexedPosition = 2 * MESSAGE_GAP;
+        writeHeader(0);
+        writeSegmentStart(0, CL_ORD_ID);
+        writeRecord(ORDER_KEY, MESSAGE_GAP);
+        // Written out ahead of the indexed position being updated.
+        writeRecord(ORDER_KEY, 3 * MESSAGE_GAP);
+
+        findRangesOf(ORDER_KEY, CL_ORD_ID);
+
+        assertRanges(ranges,
+            MESSAGE_GAP, MESSAGE_GAP + 100,
+            3 * MESSAGE_GAP, 3 * MESSAGE_GAP + 100,
+            2 * MESSAGE_GAP, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldScanTheWholeRecordingWithoutAnIndexedPosition()
+    {
+        indexedPosition = UNKNOWN_POSITION;
+        writeHeader(MESSAGE_GAP);
+        writeSegmentStart(MESSAGE_GAP, CL_ORD_ID);
+        writeRecord(ORDER_KEY, 2 * MESSAGE_GAP);
+
+        findRangesOf(ORDER_KEY, CL_ORD_ID);
+
+        assertRanges(SecondaryIndexReader.coalesce(ranges), 0, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldScanSegmentsWhereTheTagWasNotIndexed()
+    {
+        writeHeader(0);
+        writeSegmentStart(0, MESSAGE_TYPE_KIND);
+        writeSegmentStart(MESSAGE_GAP, CL_ORD_ID);
+        writeRecord(ORDER_KEY, 2 * MESSAGE_GAP);
+        writeSegmentStart(4 * MESSAGE_GAP, MESSAGE_TYPE_KIND);
+
+        findRangesOf(ORDER_KEY, CL_ORD_ID);
+
+        assertRanges(ranges,
+            0, MESSAGE_GAP,
+            2 * MESSAGE_GAP, 2 * MESSAGE_GAP + 100,
+            4 * MESSAGE_GAP, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldCoalesceNearbyAndOverlappingRanges()
+    {
+        final List<PositionRange> ranges = new ArrayList<>();
+        ranges.add(range(MESSAGE_GAP, MESSAGE_GAP + 100));
+        ranges.add(range(0, 100));
+        ranges.add(range(200, 300));
+        ranges.add(range(250, 400));
+        ranges.add(range(MESSAGE_GAP + 50, Long.MAX_VALUE));
+
+        final List<PositionRange> coalesced = SecondaryIndexReader.coalesce(ranges);
+
+        assertRanges(coalesced, 0, 400, MESSAGE_GAP, Long.MAX_VALUE);
+    }
+
+    private void findRangesOf(final long key, final int kind)
+    {
+        keys.add(key);
+        SecondaryIndexReader.findPositionRanges(
+            keys, kind, new UnsafeBuffer(buffer, 0, offset), indexedPosition, ranges);
+    }
+
+    private static void assertRanges(final List<PositionRange> ranges, final long... startAndEndPositions)
+    {
+        assertEquals(ranges.toString(), startAndEndPositions.length / 2, ranges.size());
+        for (int i = 0; i < ranges.size(); i++)
+        {
+            final PositionRange range = ranges.get(i);
+            assertEquals(startAndEndPositions[2 * i], range.startPosition());
+            assertEquals(startAndEndPositions[2 * i + 1], range.endPosition());
+        }
+    }
+
+    private void writeHeader(final long startPosition)
+    {
+        encoder.wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+        buffer.putLong(START_POSITION_OFFSET, startPosition);
+    }
+
+    private void writeSegmentStart(final long position, final int kind)
+    {
+        writeRecord(0, position, SEGMENT_START_LENGTH);
+        writeRecord(kind, position, KIND_LENGTH);
+    }
+
+    private void writeRecord(final long key, final long position)
+    {
+        writeRecord(key, position, 100);
+    }
+
+    private void writeRecord(final long key, final long position, final int length)
+    {
+        encoder.wrap(buffer, offset).key(key).position(position).length(length);
+        offset += RECORD_LENGTH;
+    }
+
+    private static PositionRange range(final long startPosition, final long endPosition)
+    {
+        return new PositionRange(startPosition, endPosition);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.Header;
+import org.agrona.BitUtil;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+
+import java.io.File;
+import java.util.List;
+
+import static io.aeron.logbuffer.FrameDescriptor.*;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.logger.SecondaryIndexReader.COALESCE_GAP_IN_BYTES;
+
+public class SecondaryIndexWriterTest
+{
+    private static final int STREAM_ID = 1;
+    private static final int AERON_SESSION_ID = 2;
+    private static final long RECORDING_ID = 3;
+    private static final long OTHER_RECORDING_ID = 4;
+    private static final int CL_ORD_ID = 11;
+    private static final long MESSAGE_GAP = 10 * COALESCE_GAP_IN_BYTES;
+    private static final String FILLER = "58=" + new String(new char[256]).replace('\0', 'x') + "\u0001";
+
+    private final File logFileDir = new File(IoUtil.tmpDirName(), "SecondaryIndexWriterTest");
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[1024]);
+    private final MessageHeaderEncoder messageHeader = new MessageHeaderEncoder();
+    private final FixMessageEncoder fixMessage = new FixMessageEncoder();
+    private final Header header = mock(Header.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+
+    private SecondaryIndexWriter writer;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(logFileDir, true);
+        IoUtil.ensureDirectoryExists(logFileDir, logFileDir.getName());
+
+        when(header.sessionId()).thenReturn(AERON_SESSION_ID);
+        writer = new SecondaryIndexWriter(
+            logFileDir.getAbsolutePath(),
+            STREAM_ID,
+            1,
+            1,
+            false,
+            new int[]{ CL_ORD_ID },
+            SecondaryIndexWriter.positionBuffer(logFileDir.getAbsolutePath(), STREAM_ID, 64 * 1024),
+            mock(RecordingIdLookup.class),
+            errorHandler,
+            true);
+    }
+
+    @After
+    public void tearDown()
+    {
+        writer.close();
+        IoUtil.delete(logFileDir, true);
+        verifyNoInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldFindIndexedMessages()
+    {
+        final long firstEnd = writeMessage(0, "11=order-1\u0001");
+        writeMessage(MESSAGE_GAP, "11=order-2\u0001");
+        final long fragmentedEnd = writeFragmentedMessage(2 * MESSAGE_GAP, FILLER + "11=order-1\u0001");
+        final long indexedPosition = writeMessage(4 * MESSAGE_GAP, "11=order-2\u0001");
+        writer.doWork();
+        // Not yet written out, so only found by scanning past the indexed position.
+        writeMessage(6 * MESSAGE_GAP, "11=order-1\u0001");
+
+        assertRanges(findRangesOf("order-1"),
+            0, firstEnd,
+            2 * MESSAGE_GAP, fragmentedEnd,
+            indexedPosition, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldScanMessagesMissedWhenAFileIsEvicted()
+    {
+        final long firstEnd = writeMessage(0, "11=order-1\u0001");
+        final int length = encodeMessage(FILLER + "11=order-2\u0001");
+        final long endOfFirstFragment = onFragment(RECORDING_ID, MESSAGE_GAP, 0, length / 2, BEGIN_FRAG_FLAG);
+
+        // Only one file is cached, so this evicts the first recording's file part way through the message.
+        onFragment(OTHER_RECORDING_ID, 0, 0, length, UNFRAGMENTED);
+
+        onFragment(RECORDING_ID, endOfFirstFragment, length / 2, length - length / 2, END_FRAG_FLAG);
+        final long reopenedStart = 3 * MESSAGE_GAP;
+        writeMessage(reopenedStart, "11=order-1\u0001");
+        final long indexedPosition = writeMessage(6 * MESSAGE_GAP, "11=order-1\u0001");
+        writer.doWork();
+
+        assertRanges(findRangesOf("order-2"),
+            firstEnd, reopenedStart,
+            indexedPosition, Long.MAX_VALUE);
+    }
+
+    private List<PositionRange> findRangesOf(final String clOrdId)
+    {
+        final LongHashSet keys = new LongHashSet();
+        keys.add(SecondaryIndexKey.tagValueKey(CL_ORD_ID, clOrdId));
+        final Long2ObjectHashMap<List<PositionRange>> recordingIdToPositionRanges = new Long2ObjectHashMap<>();
+
+        final SecondaryIndexReader reader = new SecondaryIndexReader(logFileDir.getAbsolutePath(), STREAM_ID);
+        assertTrue(reader.findPositionRanges(keys, CL_ORD_ID, recordingIdToPositionRanges));
+
+        return recordingIdToPositionRanges.get(RECORDING_ID);
+    }
+
+    private long writeMessage(final long beginPosition, final String body)
+    {
+        final int length = encodeMessage(body);
+        return onFragment(RECORDING_ID, beginPosition, 0, length, UNFRAGMENTED);
+    }
+
+    private long writeFragmentedMessage(final long beginPosition, final String body)
+    {
+        final int length = encodeMessage(body);
+        final int firstLength = length / 2;
+        final long endOfFirstFragment = onFragment(RECORDING_ID, beginPosition, 0, firstLength, BEGIN_FRAG_FLAG);
+        return onFragment(RECORDING_ID, endOfFirstFragment, firstLength, length - firstLength, END_FRAG_FLAG);
+    }
+
+    private int encodeMessage(final String body)
+    {
+        final byte[] bodyBytes = ("8=FIX.4.4\u00019=0\u000135=D\u0001" + body).getBytes(US_ASCII);
+        fixMessage
+            .wrapAndApplyHeader(buffer, 0, messageHeader)
+            .putMetaData(new byte[0], 0, 0)
+            .putBody(bodyBytes, 0, bodyBytes.length);
+        return MessageHeaderEncoder.ENCODED_LENGTH + fixMessage.encodedLength();
+    }
+
+    private long onFragment(
+        final long recordingId, final long beginPosition, final int offset, final int length, final byte flags)
+    {
+        final long endPosition = beginPosition + BitUtil.align(length + HEADER_LENGTH, FRAME_ALIGNMENT);
+        when(header.position()).thenReturn(endPosition);
+        when(header.flags()).thenReturn(flags);
+        writer.onCatchup(buffer, offset, length, header, recordingId);
+        return endPosition;
+    }
+
+    private static void assertRanges(final List<PositionRange> ranges, final long... startAndEndPositions)
+    {
+        assertEquals(ranges.toString(), startAndEndPositions.length / 2, ranges.size());
+        for (int i = 0; i < ranges.size(); i++)
+        {
+            final PositionRange range = ranges.get(i);
+            assertEquals(startAndEndPositions[2 * i], range.startPosition());
+            assertEquals(startAndEndPositions[2 * i + 1], range.endPosition());
+        }
+    }
+}
@@ -421,6 +421,79 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         assertUnknownSession();
     }
 
+    @Test
+    public void shouldLookupSessionsIndexedAfterEarlierLookups()
+    {
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, UNK_SESSION);
+
+        bufferContainsExampleMessage(true, SESSION_ID_2, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+        indexRecord();
+
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 1);
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+    }
+
+    @Test
+    public void shouldLookupSessionsAgainAfterSequenceNumbersReset()
+    {
+        indexFixMessage();
+        bufferContainsExampleMessage(true, SESSION_ID_2, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+        indexRecord();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 1);
+
+        writer.resetSequenceNumbers();
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, UNK_SESSION);
+
+        // Re-indexed in a different order, so the records are at different offsets to before
+        bufferContainsExampleMessage(true, SESSION_ID_2, SEQUENCE_NUMBER + 2, SEQUENCE_INDEX);
+        indexRecord();
+        indexFixMessage();
+
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 2);
+    }
+
+    @Test
+    public void shouldLookupNewSessionsIndexedBelowTheScannedPositionAfterSequenceNumbersReset()
+    {
+        final long newSessionId = SESSION_ID_2 + 1;
+        indexFixMessage();
+        bufferContainsExampleMessage(true, SESSION_ID_2, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+        indexRecord();
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 1);
+
+        writer.resetSequenceNumbers();
+
+        bufferContainsExampleMessage(true, newSessionId, SEQUENCE_NUMBER + 2, SEQUENCE_INDEX);
+        indexRecord();
+
+        assertLastKnownSequenceNumberIs(newSessionId, SEQUENCE_NUMBER + 2);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, UNK_SESSION);
+    }
+
+    @Test
+    public void shouldKeepTheResetCountClearOfRecords()
+    {
+        final int recordsOverlappingABlock = SECTOR_SIZE / RECORD_SIZE + 1;
+        for (int i = 1; i <= recordsOverlappingABlock; i++)
+        {
+            bufferContainsExampleMessage(true, i, i, SEQUENCE_INDEX);
+            indexRecord();
+        }
+
+        assertLastKnownSequenceNumberIs(recordsOverlappingABlock, recordsOverlappingABlock);
+        assertEquals(0, inMemoryBuffer.getInt(RESET_COUNT_OFFSET));
+
+        writer.resetSequenceNumbers();
+
+        assertEquals(1, inMemoryBuffer.getInt(RESET_COUNT_OFFSET));
+        assertLastKnownSequenceNumberIs(1, UNK_SESSION);
+        assertLastKnownSequenceNumberIs(recordsOverlappingABlock, UNK_SESSION);
+    }
+
     @Test
     public void shouldResetSequenceNumberForSessionAfterRestart()
     {
@@ -161,7 +161,9 @@ public class SmallReplayIndexTest extends AbstractLogTest implements ReplayQuery
             this,
             DEFAULT_ARCHIVE_REPLAY_STREAM,
             INDEX_CAPACITY,
-            INDEX_SEGMENT_CAPACITY);
+            INDEX_SEGMENT_CAPACITY,
+            new ColdArchiveCuts(),
+            DEFAULT_REPLAY_FRAGMENT_LIMIT);
     }
 
     @After
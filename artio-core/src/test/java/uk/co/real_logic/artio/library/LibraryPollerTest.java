@@ -16,6 +16,8 @@
 package uk.co.real_logic.artio.library;
 
 import io.aeron.Subscription;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
@@ -27,6 +29,7 @@ import org.mockito.stubbing.Answer;
 import org.mockito.stubbing.OngoingStubbing;
 import org.mockito.verification.VerificationMode;
 import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.Reply;
 import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.engine.framer.FakeEpochClock;
 import uk.co.real_logic.artio.messages.*;
@@ -41,9 +44,15 @@ import java.util.List;
 import static io.aeron.CommonContext.IPC_CHANNEL;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.HEARTBEAT_MESSAGE_TYPE;
+import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
+import static uk.co.real_logic.artio.library.FixLibrary.NO_MESSAGE_REPLAY;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_REPLY_TIMEOUT_IN_MS;
 import static uk.co.real_logic.artio.LivenessDetector.SEND_INTERVAL_FRACTION;
 import static uk.co.real_logic.artio.library.SessionConfiguration.*;
@@ -68,11 +77,17 @@ public class LibraryPollerTest
     private static final String LEADER_CHANNEL = "2";
     private static final List<String> CLUSTER_CHANNELS = asList(FIRST_CHANNEL, LEADER_CHANNEL, "3");
     private static final int SEQUENCE_INDEX = 0;
+    private static final long NEW_ORDER_SINGLE_MESSAGE_TYPE = 'D';
+    private static final long BACK_PRESSURED = -2;
 
     private final ArgumentCaptor<Session> session = ArgumentCaptor.forClass(Session.class);
     private final LibraryConnectHandler connectHandler = mock(LibraryConnectHandler.class);
     private final SessionHandler sessionHandler = mock(SessionHandler.class);
     private final SessionAcquireHandler sessionAcquireHandler = mock(SessionAcquireHandler.class);
+    private final EngineManagedSessionHandler engineManagedSessionHandler = mock(EngineManagedSessionHandler.class);
+    private final Header header = mock(Header.class);
+    private final DirectBuffer buffer = new UnsafeBuffer(new byte[16]);
+    private boolean pooledReplies = false;
     private final GatewayPublication outboundPublication = mock(GatewayPublication.class);
     private final Subscription inboundSubscription = mock(Subscription.class);
     private final LibraryTransport transport = mock(LibraryTransport.class);
@@ -121,6 +136,191 @@ public class LibraryPollerTest
         verify(sessionHandler).onTimeout(libraryId(), firstSession);
     }
 
+    @Test
+    public void shouldPassApplicationMessagesOfEngineManagedSessionsToHandler()
+    {
+        connectToSingleEngine();
+        manageConnection(CONNECTION_ID, SESSION_ID);
+
+        releaseToEngineManagement();
+
+        receiveEngineMessage(CONNECTION_ID, NEW_ORDER_SINGLE_MESSAGE_TYPE);
+        receiveEngineMessage(CONNECTION_ID, HEARTBEAT_MESSAGE_TYPE);
+        receiveEngineMessage(OTHER_CONNECTION_ID, NEW_ORDER_SINGLE_MESSAGE_TYPE);
+
+        verify(engineManagedSessionHandler).onApplicationMessage(
+            eq(buffer), anyInt(), anyInt(), eq(SESSION_ID), eq(SEQUENCE_INDEX), eq(NEW_ORDER_SINGLE_MESSAGE_TYPE),
+            anyLong(), anyLong());
+        verifyNoMoreInteractions(engineManagedSessionHandler);
+    }
+
+    @Test
+    public void shouldNotifyHandlerOfEngineManagedSessionDisconnect()
+    {
+        connectToSingleEngine();
+        manageConnection(CONNECTION_ID, SESSION_ID);
+
+        releaseToEngineManagement();
+
+        library.onDisconnect(ENGINE_LIBRARY_ID, CONNECTION_ID, DisconnectReason.REMOTE_DISCONNECT);
+        receiveEngineMessage(CONNECTION_ID, NEW_ORDER_SINGLE_MESSAGE_TYPE);
+
+        verify(engineManagedSessionHandler).onDisconnect(SESSION_ID, DisconnectReason.REMOTE_DISCONNECT);
+        verifyNoMoreInteractions(engineManagedSessionHandler);
+    }
+
+    @Test
+    public void shouldStopPassingMessagesOnceEngineManagedSessionIsAcquired()
+    {
+        connectToSingleEngine();
+        manageConnection(CONNECTION_ID, SESSION_ID);
+
+        releaseToEngineManagement();
+        manageConnection(CONNECTION_ID, SESSION_ID);
+
+        receiveEngineMessage(CONNECTION_ID, NEW_ORDER_SINGLE_MESSAGE_TYPE);
+
+        verifyNoInteractions(engineManagedSessionHandler);
+    }
+
+    @Test
+    public void shouldPassMessagesRoutedByTheEngineToHandler()
+    {
+        connectToSingleEngine();
+
+        receiveMessage(libraryId(), OTHER_CONNECTION_ID, NEW_ORDER_SINGLE_MESSAGE_TYPE);
+        receiveMessage(libraryId(), OTHER_CONNECTION_ID, HEARTBEAT_MESSAGE_TYPE);
+
+        verify(engineManagedSessionHandler).onApplicationMessage(
+            eq(buffer), anyInt(), anyInt(), eq(SESSION_ID), eq(SEQUENCE_INDEX), eq(NEW_ORDER_SINGLE_MESSAGE_TYPE),
+            anyLong(), anyLong());
+        verifyNoMoreInteractions(engineManagedSessionHandler);
+    }
+
+    @Test
+    public void shouldOnlyTimeoutRepliesWhoseTimeoutHasPassed()
+    {
+        connectToSingleEngine();
+
+        final Reply<SessionReplyStatus> laterReply = library.requestSession(
+            OTHER_SESSION_ID, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY, 1_000);
+        final Reply<SessionReplyStatus> earlierReply = library.requestSession(
+            SESSION_ID, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY, 10);
+
+        clock.advanceMilliSeconds(100);
+        poll();
+
+        assertTrue(earlierReply.hasTimedOut());
+        assertTrue(laterReply.isExecuting());
+
+        clock.advanceMilliSeconds(1_000);
+        poll();
+
+        assertTrue(laterReply.hasTimedOut());
+    }
+
+    @Test
+    public void shouldResendBackPressuredRequestsUntilSent()
+    {
+        connectToSingleEngine();
+        when(outboundPublication.saveRequestSession(anyInt(), anyLong(), anyLong(), anyInt(), anyInt()))
+            .thenReturn(BACK_PRESSURED, BACK_PRESSURED, 1L);
+
+        library.requestSession(SESSION_ID, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY, DEFAULT_REPLY_TIMEOUT_IN_MS);
+        poll();
+        poll();
+        poll();
+
+        verify(outboundPublication, times(3)).saveRequestSession(
+            eq(libraryId()), eq(SESSION_ID), anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldNotifyReplyBatchOnceAllRepliesHaveFinished()
+    {
+        connectToSingleEngine();
+        final ReplyBatchHandler batchHandler = mock(ReplyBatchHandler.class);
+        final ReplyBatch batch = new ReplyBatch(library, 10, batchHandler);
+
+        final Reply<SessionReplyStatus> reply = batch.requestSession(
+            SESSION_ID, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY);
+        final Reply<SessionReplyStatus> timedOutReply = batch.requestSession(
+            OTHER_SESSION_ID, NO_MESSAGE_REPLAY, NO_MESSAGE_REPLAY);
+        batch.seal();
+
+        final ArgumentCaptor<Long> correlationId = ArgumentCaptor.forClass(Long.class);
+        verify(outboundPublication).saveRequestSession(
+            eq(libraryId()), eq(SESSION_ID), correlationId.capture(), anyInt(), anyInt());
+        library.onRequestSessionReply(libraryId(), correlationId.getValue(), SessionReplyStatus.OK);
+
+        assertTrue(reply.hasCompleted());
+        assertEquals(1, batch.outstandingReplies());
+        verifyNoInteractions(batchHandler);
+
+        clock.advanceMilliSeconds(100);
+        poll();
+
+        assertTrue(timedOutReply.hasTimedOut());
+        assertTrue(batch.isComplete());
+        verify(batchHandler).onBatchComplete(batch);
+    }
+
+    @Test
+    public void shouldNotifyWriteMetaDataHandlerOfCompletionAndTimeout()
+    {
+        connectToSingleEngine();
+        final WriteMetaDataHandler handler = mock(WriteMetaDataHandler.class);
+
+        library.writeMetaData(SESSION_ID, 0, buffer, 0, 4, handler);
+        final ArgumentCaptor<Long> correlationId = ArgumentCaptor.forClass(Long.class);
+        verify(outboundPublication).saveWriteMetaData(
+            eq(libraryId()), eq(SESSION_ID), eq(0), correlationId.capture(), eq(buffer), eq(0), eq(4));
+        library.onWriteMetaDataReply(libraryId(), correlationId.getValue(), MetaDataStatus.OK);
+
+        verify(handler).onWriteMetaData(SESSION_ID, Reply.State.COMPLETED, MetaDataStatus.OK);
+
+        // a duplicate reply to the same correlation id is ignored
+        library.onWriteMetaDataReply(libraryId(), correlationId.getValue(), MetaDataStatus.OK);
+        verifyNoMoreInteractions(handler);
+
+        library.writeMetaData(OTHER_SESSION_ID, 0, buffer, 0, 4, handler);
+        clock.advanceMilliSeconds(DEFAULT_REPLY_TIMEOUT_IN_MS + 1);
+        poll();
+
+        verify(handler).onWriteMetaData(OTHER_SESSION_ID, Reply.State.TIMED_OUT, null);
+    }
+
+    @Test
+    public void shouldReusePooledRepliesOnceReleased()
+    {
+        pooledReplies = true;
+        connectToSingleEngine();
+        final Reply<MetaDataStatus> reply = library.writeMetaData(SESSION_ID, 0, buffer, 0, 4);
+        assertEquals(0, reply.generation());
+
+        final Reply<MetaDataStatus> outstandingReply = library.writeMetaData(SESSION_ID, 0, buffer, 0, 4);
+        assertNotSame(reply, outstandingReply);
+
+        // completed replies are reused as soon as they're released, without waiting for their timeout
+        for (int i = 1; i <= 3; i++)
+        {
+            library.onWriteMetaDataReply(libraryId(), correlationIdOf(reply), MetaDataStatus.OK);
+            assertEquals(MetaDataStatus.OK, reply.resultIfPresent());
+            reply.release();
+            assertEquals(i, reply.generation());
+
+            final Reply<MetaDataStatus> reusedReply = library.writeMetaData(SESSION_ID, 0, buffer, 0, 4);
+            assertSame(reply, reusedReply);
+            assertTrue(reusedReply.isExecuting());
+        }
+
+        clock.advanceMilliSeconds(DEFAULT_REPLY_TIMEOUT_IN_MS + 1);
+        poll();
+
+        assertTrue(reply.hasTimedOut());
+        assertTrue(outstandingReply.hasTimedOut());
+    }
+
     @Test
     public void shouldDisconnectSingleEngineAfterTimeout()
     {
@@ -215,6 +415,48 @@ public class LibraryPollerTest
         doesNotAttemptConnectTo(LEADER_CHANNEL);
     }
 
+    private void releaseToEngineManagement()
+    {
+        final ArgumentCaptor<Long> correlationId = ArgumentCaptor.forClass(Long.class);
+        final Reply<SessionReplyStatus> reply = library.releaseToEngineManagement(
+            session.getValue(), DEFAULT_REPLY_TIMEOUT_IN_MS);
+        verify(outboundPublication).saveReleaseSession(
+            eq(libraryId()), eq(CONNECTION_ID), eq(SESSION_ID), correlationId.capture(), any(), anyBoolean(),
+            anyLong(), anyInt(), anyInt(), any(), any());
+
+        library.onReleaseSessionReply(libraryId(), correlationId.getValue(), SessionReplyStatus.OK);
+
+        assertEquals(SessionReplyStatus.OK, reply.resultIfPresent());
+    }
+
+    private void receiveEngineMessage(final long connectionId, final long messageType)
+    {
+        receiveMessage(ENGINE_LIBRARY_ID, connectionId, messageType);
+    }
+
+    private void receiveMessage(final int libraryId, final long connectionId, final long messageType)
+    {
+        library.onMessage(
+            buffer,
+            0,
+            buffer.capacity(),
+            libraryId,
+            connectionId,
+            SESSION_ID,
+            SEQUENCE_INDEX,
+            messageType,
+            0,
+            MessageStatus.OK,
+            LAST_RECEIVED_SEQUENCE_NUMBER + 1,
+            header,
+            0);
+    }
+
+    private long correlationIdOf(final Reply<?> reply)
+    {
+        return ((LibraryReply<?>)reply).correlationId;
+    }
+
     private void sendsLibraryConnect(final VerificationMode times)
     {
         verify(outboundPublication, times)
@@ -333,6 +575,8 @@ public class LibraryPollerTest
             new LibraryConfiguration()
                 .libraryAeronChannels(libraryAeronChannels)
                 .sessionAcquireHandler(sessionAcquireHandler)
+                .engineManagedSessionHandler(engineManagedSessionHandler)
+                .pooledReplies(pooledReplies)
                 .libraryConnectHandler(connectHandler)
                 .conclude(),
             new LibraryTimers(clock::time, mock(AtomicCounter.class)),
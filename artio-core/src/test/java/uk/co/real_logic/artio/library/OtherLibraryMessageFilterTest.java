@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.ReleaseSessionReplyEncoder;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.logbuffer.FrameDescriptor.END_FRAG_FLAG;
+import static io.aeron.logbuffer.FrameDescriptor.UNFRAGMENTED;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
+
+public class OtherLibraryMessageFilterTest
+{
+    private static final int LIBRARY_ID = 2;
+    private static final int OTHER_LIBRARY_ID = 3;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[1024]);
+    private final MessageHeaderEncoder messageHeader = new MessageHeaderEncoder();
+    private final ControlledFragmentHandler delegate = mock(ControlledFragmentHandler.class);
+    private final Header header = mock(Header.class);
+
+    private final OtherLibraryMessageFilter filter = new OtherLibraryMessageFilter(LIBRARY_ID, delegate);
+
+    @Before
+    public void setUp()
+    {
+        when(header.flags()).thenReturn(UNFRAGMENTED);
+    }
+
+    @Test
+    public void shouldPassOnMessagesForThisLibrary()
+    {
+        final int length = putFixMessage(LIBRARY_ID);
+
+        filter.onFragment(buffer, 0, length, header);
+
+        verify(delegate).onFragment(buffer, 0, length, header);
+    }
+
+    @Test
+    public void shouldPassOnMessagesForTheEngine()
+    {
+        final int length = putFixMessage(ENGINE_LIBRARY_ID);
+
+        filter.onFragment(buffer, 0, length, header);
+
+        verify(delegate).onFragment(buffer, 0, length, header);
+    }
+
+    @Test
+    public void shouldDropMessagesForOtherLibraries()
+    {
+        final int length = putFixMessage(OTHER_LIBRARY_ID);
+
+        assertEquals(CONTINUE, filter.onFragment(buffer, 0, length, header));
+
+        verify(delegate, never()).onFragment(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldPassOnLaterFragmentsToTheAssembler()
+    {
+        final int length = putFixMessage(OTHER_LIBRARY_ID);
+        when(header.flags()).thenReturn(END_FRAG_FLAG);
+
+        filter.onFragment(buffer, 0, length, header);
+
+        verify(delegate).onFragment(buffer, 0, length, header);
+    }
+
+    @Test
+    public void shouldPassOnOtherMessageTypes()
+    {
+        final ReleaseSessionReplyEncoder releaseSessionReply = new ReleaseSessionReplyEncoder();
+        releaseSessionReply.wrapAndApplyHeader(buffer, 0, messageHeader).libraryId(OTHER_LIBRARY_ID);
+        final int length = MessageHeaderEncoder.ENCODED_LENGTH + releaseSessionReply.encodedLength();
+
+        filter.onFragment(buffer, 0, length, header);
+
+        verify(delegate).onFragment(buffer, 0, length, header);
+    }
+
+    private int putFixMessage(final int libraryId)
+    {
+        final FixMessageEncoder fixMessage = new FixMessageEncoder();
+        fixMessage.wrapAndApplyHeader(buffer, 0, messageHeader).libraryId(libraryId).putMetaData(new byte[0], 0, 0);
+        return MessageHeaderEncoder.ENCODED_LENGTH + fixMessage.encodedLength();
+    }
+}
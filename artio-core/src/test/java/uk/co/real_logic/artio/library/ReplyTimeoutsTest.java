@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.*;
+
+public class ReplyTimeoutsTest
+{
+    private final ReplyTimeouts replyTimeouts = new ReplyTimeouts();
+
+    @Test
+    public void shouldPollRepliesInTimeoutOrder()
+    {
+        final List<LibraryReply<?>> replies = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+        {
+            final LibraryReply<?> reply = newReply(ThreadLocalRandom.current().nextLong(1_000));
+            replies.add(reply);
+            replyTimeouts.add(reply);
+        }
+
+        // Remove some replies from the middle of the heap, as completed replies are.
+        for (int i = 0; i < replies.size(); i += 3)
+        {
+            replyTimeouts.remove(replies.get(i));
+            assertEquals(ReplyTimeouts.NOT_QUEUED, replies.get(i).timeoutIndex);
+        }
+        assertEquals(66, replyTimeouts.size());
+
+        long lastTimeInMs = Long.MIN_VALUE;
+        LibraryReply<?> reply;
+        while ((reply = replyTimeouts.poll()) != null)
+        {
+            assertTrue(reply.latestReplyArrivalTimeInMs >= lastTimeInMs);
+            assertEquals(ReplyTimeouts.NOT_QUEUED, reply.timeoutIndex);
+            lastTimeInMs = reply.latestReplyArrivalTimeInMs;
+        }
+        assertEquals(0, replyTimeouts.size());
+    }
+
+    @Test
+    public void shouldIgnoreRemovalOfReplyThatIsNotQueued()
+    {
+        final LibraryReply<?> queued = newReply(10);
+        replyTimeouts.add(queued);
+
+        replyTimeouts.remove(newReply(5));
+
+        assertEquals(1, replyTimeouts.size());
+        assertSame(queued, replyTimeouts.peek());
+    }
+
+    private static LibraryReply<?> newReply(final long latestReplyArrivalTimeInMs)
+    {
+        final LibraryReply<Void> reply = new LibraryReply<Void>(null)
+        {
+            protected void sendMessage()
+            {
+            }
+        };
+        reply.latestReplyArrivalTimeInMs = latestReplyArrivalTimeInMs;
+        return reply;
+    }
+}
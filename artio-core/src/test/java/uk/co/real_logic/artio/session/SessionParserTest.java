@@ -103,6 +103,20 @@ public class SessionParserTest
         verify(mockSession, never()).onInvalidMessageType(anyInt(), any(), anyInt(), eq(POSITION));
     }
 
+    @Test
+    public void shouldExposeDecodedHeaderOfApplicationMessages()
+    {
+        final String message =
+            "8=FIX.4.2\0019=145\00135=D\00134=4\00149=abc\001" +
+            "52=20090323-15:40:29\00156=das\001115=XYZ\00111=NF 0542/03232009\00154=1\00138=100\001" +
+            "55=CVS\00140=1\00159=0\00147=A\00160=20090323-15:40:29\00121=1\001207=N\00110=194\001";
+        final UnsafeBuffer buffer = bufferOf(message);
+
+        parser.onMessage(buffer, 0, buffer.capacity(), 'D', POSITION);
+
+        verify(messageInfo).header(isNotNull(), eq(message.indexOf("\00111=") + 1));
+    }
+
     @Test
     public void shouldGetCancelOnDisconnectFromMessage()
     {
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import iLinkBinary.*;
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.fixp.FixPConnection;
+import uk.co.real_logic.artio.fixp.FixPMessageHeader;
+import uk.co.real_logic.artio.ilink.ILink3Connection;
+import uk.co.real_logic.artio.ilink.ILink3ConnectionConfiguration;
+import uk.co.real_logic.artio.ilink.ILink3ConnectionHandler;
+import uk.co.real_logic.artio.ilink.ILink3Proxy;
+import uk.co.real_logic.artio.ilink.Ilink3Protocol;
+import uk.co.real_logic.artio.messages.DisconnectReason;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static uk.co.real_logic.artio.fixp.SimpleOpenFramingHeader.SOFH_LENGTH;
+import static uk.co.real_logic.artio.fixp.SimpleOpenFramingHeader.writeILinkSofh;
+import static uk.co.real_logic.artio.ilink.ILink3Connection.NOT_AWAITING_RETRANSMIT;
+
+/**
+ * Fills a gap in the sequence numbers received by an iLink3 connection, as happens when CME retransmits after a
+ * gateway failover. The gap is detected by a live message, then the retransmitted messages arrive interleaved with
+ * further live messages, which are queued until the gap has been filled.
+ *
+ * Gaps over the retransmit request message limit are requested in several batches. Run with <code>-prof gc</code>
+ * to see the allocation rate of the fill.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ILink3RetransmitBenchmark
+{
+    private static final long CONNECTION_ID = 3;
+    private static final long LAST_UUID = 4;
+    private static final long UUID = 5;
+    private static final int LIVE_MESSAGE_INTERVAL = 2;
+    private static final int MESSAGE_OFFSET = SOFH_LENGTH + MessageHeaderEncoder.ENCODED_LENGTH;
+    private static final int TOTAL_LENGTH = MESSAGE_OFFSET + ExecutionReportStatus532Encoder.BLOCK_LENGTH;
+
+    @Param({"100", "2500", "10000"})
+    public int gapSize;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[TOTAL_LENGTH]);
+    private final ExecutionReportStatus532Encoder executionReport = new ExecutionReportStatus532Encoder();
+    private final CountingHandler handler = new CountingHandler();
+    private InternalILink3Connection connection;
+
+    @Setup
+    public void setup()
+    {
+        final EpochNanoClock clock = System::nanoTime;
+        final ILink3ConnectionConfiguration configuration = new ILink3ConnectionConfiguration.Builder()
+            .host("localhost")
+            .port(123)
+            .handler(handler)
+            .firmId("DEFGH")
+            .userKey("somethingprivate")
+            .accessKeyId("12345678901234567890")
+            .sessionId("ABC")
+            .build();
+
+        final ILink3Proxy proxy = new ILink3Proxy(new Ilink3Protocol(), CONNECTION_ID, null, null, clock)
+        {
+            public long sendRetransmitRequest(
+                final long uuid,
+                final long lastUuid,
+                final long requestTimestamp,
+                final long fromSeqNo,
+                final int msgCount)
+            {
+                return 1;
+            }
+        };
+
+        connection = new InternalILink3Connection(
+            configuration,
+            CONNECTION_ID,
+            null,
+            null,
+            null,
+            2,
+            null,
+            UUID,
+            0,
+            0,
+            false,
+            LAST_UUID,
+            clock,
+            proxy,
+            null);
+        connection.state(ILink3Connection.State.ESTABLISHED);
+
+        encodeExecutionReport();
+    }
+
+    @Benchmark
+    public int fillGap()
+    {
+        final InternalILink3Connection connection = this.connection;
+        final long gapStartSeqNo = connection.nextRecvSeqNo();
+        final long gapEndSeqNo = gapStartSeqNo + gapSize - 1;
+        long liveSeqNo = gapEndSeqNo + 1;
+
+        onExecutionReport(liveSeqNo++, false);
+        for (long seqNo = gapStartSeqNo; seqNo <= gapEndSeqNo; seqNo++)
+        {
+            onExecutionReport(seqNo, true);
+            if (seqNo % LIVE_MESSAGE_INTERVAL == 0 && seqNo != gapEndSeqNo)
+            {
+                onExecutionReport(liveSeqNo++, false);
+            }
+        }
+
+        if (connection.retransmitFillSeqNo() != NOT_AWAITING_RETRANSMIT || connection.nextRecvSeqNo() != liveSeqNo)
+        {
+            throw new IllegalStateException("Gap wasn't filled: " + connection);
+        }
+
+        return handler.messageCount;
+    }
+
+    private void onExecutionReport(final long seqNo, final boolean possRetrans)
+    {
+        executionReport
+            .seqNum(seqNo)
+            .possRetransFlag(possRetrans ? BooleanFlag.True : BooleanFlag.False);
+
+        final Action action = connection.onMessage(
+            buffer,
+            MESSAGE_OFFSET,
+            ExecutionReportStatus532Encoder.TEMPLATE_ID,
+            ExecutionReportStatus532Encoder.BLOCK_LENGTH,
+            ExecutionReportStatus532Encoder.SCHEMA_VERSION,
+            TOTAL_LENGTH);
+
+        if (action != CONTINUE)
+        {
+            throw new IllegalStateException("Unexpected action: " + action);
+        }
+    }
+
+    private void encodeExecutionReport()
+    {
+        final UnsafeBuffer buffer = this.buffer;
+        writeILinkSofh(buffer, 0, TOTAL_LENGTH);
+        executionReport
+            .wrapAndApplyHeader(buffer, SOFH_LENGTH, new MessageHeaderEncoder())
+            .uUID(UUID)
+            .text("")
+            .execID("123")
+            .senderID("DEFGH")
+            .clOrdID("123")
+            .partyDetailsListReqID(1)
+            .orderID(1)
+            .transactTime(1)
+            .sendingTimeEpoch(1)
+            .orderRequestID(1)
+            .location("LONDO")
+            .securityID(1)
+            .orderQty(1)
+            .cumQty(1)
+            .leavesQty(1)
+            .expireDate(1)
+            .ordStatus(OrderStatus.Filled)
+            .side(SideReq.Buy)
+            .timeInForce(TimeInForce.Day)
+            .shortSaleType(ShortSaleType.LongSell);
+    }
+
+    static final class CountingHandler implements ILink3ConnectionHandler
+    {
+        int messageCount;
+
+        public Action onBusinessMessage(
+            final FixPConnection connection,
+            final int templateId,
+            final DirectBuffer buffer,
+            final int offset,
+            final int blockLength,
+            final int version,
+            final boolean possRetrans,
+            final FixPMessageHeader messageHeader)
+        {
+            messageCount++;
+            return CONTINUE;
+        }
+
+        public Action onNotApplied(
+            final FixPConnection connection,
+            final long fromSequenceNumber,
+            final long msgCount,
+            final NotAppliedResponse response)
+        {
+            return CONTINUE;
+        }
+
+        public Action onRetransmitReject(
+            final FixPConnection connection,
+            final String reason,
+            final long requestTimestamp,
+            final int errorCodes)
+        {
+            return CONTINUE;
+        }
+
+        public Action onRetransmitTimeout(final FixPConnection connection)
+        {
+            return CONTINUE;
+        }
+
+        public Action onSequence(final FixPConnection connection, final long nextSeqNo)
+        {
+            return CONTINUE;
+        }
+
+        public Action onError(final FixPConnection connection, final Exception ex)
+        {
+            return CONTINUE;
+        }
+
+        public Action onDisconnect(final FixPConnection connection, final DisconnectReason reason)
+        {
+            return CONTINUE;
+        }
+    }
+}
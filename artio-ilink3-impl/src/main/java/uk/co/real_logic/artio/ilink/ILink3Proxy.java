@@ -35,6 +35,7 @@ public class ILink3Proxy extends AbstractFixPProxy
     public static final int ILINK_HEADER_LENGTH = SOFH_LENGTH + iLinkBinary.MessageHeaderEncoder.ENCODED_LENGTH;
 
     private static final int ILINK_MESSAGE_HEADER = ARTIO_HEADER_LENGTH + ILINK_HEADER_LENGTH;
+    private static final int SEQUENCE_TEMPLATE_LENGTH = ILINK_MESSAGE_HEADER + Sequence506Encoder.BLOCK_LENGTH;
 
     private static final UnsafeBuffer NO_BUFFER = new UnsafeBuffer(new byte[0]);
 
@@ -58,6 +59,8 @@ public class ILink3Proxy extends AbstractFixPProxy
     private final Consumer<StringBuilder> sequenceAppendTo = sequence::appendTo;
     private final Consumer<StringBuilder> retransmitRequestAppendTo = retransmitRequest::appendTo;
 
+    // Headers of the Sequence keepalive message, only its body is written for each send
+    private final UnsafeBuffer sequenceTemplate = new UnsafeBuffer(new byte[SEQUENCE_TEMPLATE_LENGTH]);
     private final EpochNanoClock epochNanoClock;
 
     public ILink3Proxy(
@@ -70,6 +73,14 @@ public class ILink3Proxy extends AbstractFixPProxy
         super(protocol, dissector, connectionId, publication);
         this.connectionId = connectionId;
         this.epochNanoClock = epochNanoClock;
+        encodeTemplates();
+    }
+
+    protected void encodeTemplates()
+    {
+        encodeTemplate(
+            sequenceTemplate, Sequence506Encoder.BLOCK_LENGTH, sequence, ILINK_HEADER_LENGTH,
+            SimpleOpenFramingHeader.CME_ENCODING_TYPE);
     }
 
     public long sendNegotiate(
@@ -181,13 +192,14 @@ public class ILink3Proxy extends AbstractFixPProxy
     {
         final Sequence506Encoder sequence = this.sequence;
 
-        final long position = claimMessage(Sequence506Encoder.BLOCK_LENGTH, sequence, timestamp());
+        final long position = claimTemplate(sequenceTemplate, SEQUENCE_TEMPLATE_LENGTH, timestamp());
         if (position < 0)
         {
             return position;
         }
 
         sequence
+            .wrap(bufferClaim.buffer(), bufferClaim.offset() + ILINK_MESSAGE_HEADER)
             .uUID(uuid)
             .nextSeqNo(nextSentSeqNo)
             .faultToleranceIndicator(fti)
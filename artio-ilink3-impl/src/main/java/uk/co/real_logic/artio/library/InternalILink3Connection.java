@@ -146,7 +146,7 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
     private static final int HEADER_LENGTH = SOFH_LENGTH + MessageHeaderEncoder.ENCODED_LENGTH;
 
     private final NotAppliedResponse response = new NotAppliedResponse();
-    private final Deque<RetransmitRequest> retransmitRequests = new ArrayDeque<>();
+    private final RetransmitRequestQueue retransmitRequests = new RetransmitRequestQueue();
     private final CharFormatter unknownMessage = new CharFormatter(
         "Unknown Message,templateId=%s,blockLength=%s,version=%s,seqNum=%s,possRetrans=%s%n");
     private final CharFormatter checkSeqNum = new CharFormatter("Checking msgSeqNum=%s,nextRecvSeqNo=%s%n");
@@ -163,6 +163,7 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
     private final int maxRetransmitQueueSize;
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
     private final ExpandableArrayBuffer retransmitQueue = new ExpandableArrayBuffer();
+    private final RetransmitQueueIndex retransmitQueueIndex = new RetransmitQueueIndex();
 
     private final ILink3Proxy proxy;
     private final ILink3Offsets offsets;
@@ -1202,24 +1203,14 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
             // We've hit the maximum size of the retransmit queue, at this point we need to make sure that we don't
             // drop the messages but we can't enqueue them, so we enqueue another retransmit request.
 
-            final RetransmitRequest retransmitRequest = retransmitRequests.peekFirst();
-            if (retransmitRequest == null)
+            final RetransmitRequestQueue retransmitRequests = this.retransmitRequests;
+            if (retransmitRequests.isEmpty())
             {
-                addRetransmitRequest(lastUUIDNullValue(), seqNum, 1);
+                retransmitRequests.add(lastUUIDNullValue(), seqNum, 1);
             }
-            else
+            else if (!retransmitRequests.extendFirst(seqNum))
             {
-                final long fromSeqNo = retransmitRequest.fromSeqNo;
-                final int msgCount = retransmitRequest.msgCount;
-                // last message of the retransmit = fromSeqNo + msgCount - 1 and this is the next message
-                if (seqNum == (fromSeqNo + msgCount))
-                {
-                    retransmitRequest.msgCount++;
-                }
-                else
-                {
-                    addRetransmitRequest(retransmitRequest.lastUuid, seqNum, 1);
-                }
+                retransmitRequests.add(retransmitRequests.firstLastUuid(), seqNum, 1);
             }
 
             return;
@@ -1286,7 +1277,7 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
             final long position = sendRetransmitRequest(lastUuid, fromSeqNo, msgCount, requestTimestamp);
             if (!Pressure.isBackPressured(position))
             {
-                addRemainingRetransmitRequests(lastUuid, fromSeqNo, msgCount, totalMsgCount);
+                retransmitRequests.add(lastUuid, fromSeqNo + msgCount, totalMsgCount - msgCount);
                 nextRecvSeqNoForCurrentUuid(newNextRecvSeqNo, lastUuid);
                 retransmitUuid(lastUuid);
                 nextRetransmitSeqNo = fromSeqNo;
@@ -1301,8 +1292,7 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
         }
         else
         {
-            addRetransmitRequest(lastUuid, fromSeqNo, msgCount);
-            addRemainingRetransmitRequests(lastUuid, fromSeqNo, msgCount, totalMsgCount);
+            retransmitRequests.add(lastUuid, fromSeqNo, totalMsgCount);
             nextRecvSeqNoForCurrentUuid(newNextRecvSeqNo, lastUuid);
 
             return CONTINUE;
@@ -1327,8 +1317,8 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
     {
         processRetransmitQueue();
 
-        final RetransmitRequest retransmitRequest = retransmitRequests.peekFirst();
-        if (retransmitRequest == null)
+        final RetransmitRequestQueue retransmitRequests = this.retransmitRequests;
+        if (retransmitRequests.isEmpty())
         {
             DebugLogger.log(FIXP_SESSION, retransmitFilled, retransmitFillSeqNo);
             final long nextSeqNoAfterRetransmit = retransmitFillSeqNo + 1;
@@ -1343,9 +1333,9 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
         }
         else
         {
-            final long lastUuid = retransmitRequest.lastUuid;
-            final long fromSeqNo = retransmitRequest.fromSeqNo;
-            final int msgCount = retransmitRequest.msgCount;
+            final long lastUuid = retransmitRequests.firstLastUuid();
+            final long fromSeqNo = retransmitRequests.firstFromSeqNo();
+            final int msgCount = retransmitRequests.firstMsgCount(configuration.retransmitRequestMessageLimit());
             final long requestTimestamp = requestTimestampInNs();
             final long position = sendRetransmitRequest(
                 lastUuid, fromSeqNo, msgCount, requestTimestamp);
@@ -1363,7 +1353,7 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
                         .with(msgCount);
                     DebugLogger.log(FIXP_SESSION, retransmitFilledNext);
                 }
-                retransmitRequests.pollFirst();
+                retransmitRequests.removeFirst(msgCount);
                 retransmitFillTimeoutInNs(requestTimestamp);
                 retransmitUuid(lastUuid);
                 nextRetransmitSeqNo = fromSeqNo;
@@ -1403,7 +1393,8 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
         // A retransmit within a retransmit happened - messages might be out of order and need sorting.
         final ExpandableArrayBuffer retransmitQueue = this.retransmitQueue;
         final MessageHeaderDecoder headerDecoder = this.headerDecoder;
-        final SortedSet<RetransmitQueueEntry> entries = new TreeSet<>();
+        final RetransmitQueueIndex entries = this.retransmitQueueIndex;
+        entries.clear();
         long retransmitContiguousSeqNo = this.retransmitContiguousSeqNo;
 
         int offset = 0;
@@ -1435,15 +1426,17 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
             }
             else
             {
-                entries.add(new RetransmitQueueEntry(messageUuid, seqNum, offset));
+                entries.add(messageUuid, seqNum, offset);
             }
 
             offset += length;
         }
 
-        for (final RetransmitQueueEntry entry : entries)
+        entries.sort();
+        final int entryCount = entries.size();
+        for (int i = 0; i < entryCount; i++)
         {
-            final int entryOffset = entry.offset;
+            final int entryOffset = entries.offset(i);
             final int messageSize = readSofhMessageSize(retransmitQueue, entryOffset);
             final int headerOffset = entryOffset + SOFH_LENGTH;
             headerDecoder.wrap(retransmitQueue, headerOffset);
@@ -1534,32 +1527,6 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
         retransmitMaxSeqNo = NOT_AWAITING_RETRANSMIT;
     }
 
-    private void addRemainingRetransmitRequests(
-        final long lastUuid,
-        final long initialFromSeqNo,
-        final int initialMessagesRequested,
-        final int totalMessageCount)
-    {
-        final int retransmitRequestMsgLimit = configuration.retransmitRequestMessageLimit();
-
-        long fromSeqNo = initialFromSeqNo + initialMessagesRequested;
-        int messagesRequested = initialMessagesRequested;
-
-        while (messagesRequested < totalMessageCount)
-        {
-            final int msgCount = Math.min(totalMessageCount - messagesRequested, retransmitRequestMsgLimit);
-            addRetransmitRequest(lastUuid, fromSeqNo, msgCount);
-
-            messagesRequested += msgCount;
-            fromSeqNo += msgCount;
-        }
-    }
-
-    private void addRetransmitRequest(final long lastUuid, final long fromSeqNo, final int msgCount)
-    {
-        retransmitRequests.offerLast(new RetransmitRequest(lastUuid, fromSeqNo, msgCount));
-    }
-
     private long sendRetransmitRequest(
         final long lastUuid, final long fromSeqNo, final int msgCount, final long requestTimestamp)
     {
@@ -1573,56 +1540,6 @@ public final class InternalILink3Connection extends InternalFixPConnection imple
         return CONTINUE;
     }
 
-    static final class RetransmitRequest
-    {
-        final long lastUuid;
-        final long fromSeqNo;
-        int msgCount;
-
-        RetransmitRequest(final long lastUuid, final long fromSeqNo, final int msgCount)
-        {
-            this.lastUuid = lastUuid;
-            this.fromSeqNo = fromSeqNo;
-            this.msgCount = msgCount;
-        }
-
-        public String toString()
-        {
-            return "RetransmitRequest{" +
-                "lastUuid=" + lastUuid +
-                ", fromSeqNo=" + fromSeqNo +
-                ", msgCount=" + msgCount +
-                '}';
-        }
-    }
-
-    static final class RetransmitQueueEntry implements Comparable<RetransmitQueueEntry>
-    {
-        final long uuid;
-        final long seqNum;
-        final int offset;
-
-        RetransmitQueueEntry(final long uuid, final long seqNum, final int offset)
-        {
-            this.uuid = uuid;
-            this.seqNum = seqNum;
-            this.offset = offset;
-        }
-
-        public int compareTo(final RetransmitQueueEntry o)
-        {
-            final int uuidCompare = Long.compare(uuid, o.uuid);
-            if (uuidCompare == 0)
-            {
-                return Long.compare(seqNum, o.seqNum);
-            }
-            else
-            {
-                return uuidCompare;
-            }
-        }
-    }
-
     public Action onRetransmitReject(
         final String reason, final long uuid, final long lastUuid, final long requestTimestamp, final int errorCodes)
     {
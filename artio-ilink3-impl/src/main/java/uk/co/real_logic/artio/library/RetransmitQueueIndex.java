@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import java.util.Arrays;
+
+/**
+ * Index of the messages within the retransmit queue that need reordering, sorted by uuid and then sequence number.
+ *
+ * Entries are held in primitive arrays that are reused between retransmits, so reordering the queue after a large
+ * gap doesn't allocate per message. Duplicate messages are dropped, keeping the one that was added first.
+ */
+final class RetransmitQueueIndex
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] uuids = new long[INITIAL_CAPACITY];
+    private long[] seqNums = new long[INITIAL_CAPACITY];
+    // Offsets increase with the order that messages are added, so they also break ties between duplicates.
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int size;
+
+    void add(final long uuid, final long seqNum, final int offset)
+    {
+        final int size = this.size;
+        if (size == offsets.length)
+        {
+            final int newCapacity = size << 1;
+            uuids = Arrays.copyOf(uuids, newCapacity);
+            seqNums = Arrays.copyOf(seqNums, newCapacity);
+            offsets = Arrays.copyOf(offsets, newCapacity);
+        }
+
+        uuids[size] = uuid;
+        seqNums[size] = seqNum;
+        offsets[size] = offset;
+        this.size = size + 1;
+    }
+
+    /**
+     * Sort the entries in place and remove any duplicates.
+     */
+    void sort()
+    {
+        final int size = this.size;
+
+        // heap sort, in place and without allocation
+        for (int i = (size >>> 1) - 1; i >= 0; i--)
+        {
+            siftDown(i, size);
+        }
+
+        for (int end = size - 1; end > 0; end--)
+        {
+            swap(0, end);
+            siftDown(0, end);
+        }
+
+        if (size > 1)
+        {
+            final long[] uuids = this.uuids;
+            final long[] seqNums = this.seqNums;
+            final int[] offsets = this.offsets;
+            int newSize = 1;
+            for (int i = 1; i < size; i++)
+            {
+                final int last = newSize - 1;
+                if (uuids[i] != uuids[last] || seqNums[i] != seqNums[last])
+                {
+                    uuids[newSize] = uuids[i];
+                    seqNums[newSize] = seqNums[i];
+                    offsets[newSize] = offsets[i];
+                    newSize++;
+                }
+            }
+            this.size = newSize;
+        }
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    int offset(final int index)
+    {
+        return offsets[index];
+    }
+
+    void clear()
+    {
+        size = 0;
+    }
+
+    private void siftDown(final int start, final int end)
+    {
+        int root = start;
+        int child;
+        while ((child = (root << 1) + 1) < end)
+        {
+            if (child + 1 < end && compare(child, child + 1) < 0)
+            {
+                child++;
+            }
+
+            if (compare(root, child) >= 0)
+            {
+                return;
+            }
+
+            swap(root, child);
+            root = child;
+        }
+    }
+
+    private int compare(final int i, final int j)
+    {
+        final int uuidCompare = Long.compare(uuids[i], uuids[j]);
+        if (uuidCompare != 0)
+        {
+            return uuidCompare;
+        }
+
+        final int seqNumCompare = Long.compare(seqNums[i], seqNums[j]);
+        if (seqNumCompare != 0)
+        {
+            return seqNumCompare;
+        }
+
+        return Integer.compare(offsets[i], offsets[j]);
+    }
+
+    private void swap(final int i, final int j)
+    {
+        final long[] uuids = this.uuids;
+        final long uuid = uuids[i];
+        uuids[i] = uuids[j];
+        uuids[j] = uuid;
+
+        final long[] seqNums = this.seqNums;
+        final long seqNum = seqNums[i];
+        seqNums[i] = seqNums[j];
+        seqNums[j] = seqNum;
+
+        final int[] offsets = this.offsets;
+        final int offset = offsets[i];
+        offsets[i] = offsets[j];
+        offsets[j] = offset;
+    }
+}
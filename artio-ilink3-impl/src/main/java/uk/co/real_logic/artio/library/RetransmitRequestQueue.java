@@ -0,0 +1,181 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+/**
+ * Ranges of sequence numbers that are waiting to be requested with a RetransmitRequest, in the order that they
+ * should be requested.
+ *
+ * A range that overlaps or directly follows the last range for the same uuid is merged into it, so a gap is only
+ * ever requested once. Ranges aren't bounded by the retransmit request message limit, instead the first range is
+ * requested in limit sized chunks. Ranges are held in primitive arrays so adding them doesn't allocate.
+ */
+final class RetransmitRequestQueue
+{
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] lastUuids = new long[INITIAL_CAPACITY];
+    private long[] fromSeqNos = new long[INITIAL_CAPACITY];
+    private long[] msgCounts = new long[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    void add(final long lastUuid, final long fromSeqNo, final long msgCount)
+    {
+        if (msgCount <= 0)
+        {
+            return;
+        }
+
+        if (size > 0)
+        {
+            final int tail = index(size - 1);
+            final long tailFromSeqNo = fromSeqNos[tail];
+            final long tailEndSeqNo = tailFromSeqNo + msgCounts[tail];
+            if (lastUuids[tail] == lastUuid && fromSeqNo >= tailFromSeqNo && fromSeqNo <= tailEndSeqNo)
+            {
+                msgCounts[tail] = Math.max(tailEndSeqNo, fromSeqNo + msgCount) - tailFromSeqNo;
+                return;
+            }
+        }
+
+        if (size == lastUuids.length)
+        {
+            grow();
+        }
+
+        final int index = index(size);
+        lastUuids[index] = lastUuid;
+        fromSeqNos[index] = fromSeqNo;
+        msgCounts[index] = msgCount;
+        size++;
+    }
+
+    /**
+     * Extend the first range by a message if it's the one directly after it.
+     *
+     * @param seqNum the sequence number of the message.
+     * @return true if the first range has been extended.
+     */
+    boolean extendFirst(final long seqNum)
+    {
+        if (size == 0)
+        {
+            return false;
+        }
+
+        final int head = this.head;
+        if (seqNum == fromSeqNos[head] + msgCounts[head])
+        {
+            msgCounts[head]++;
+            return true;
+        }
+
+        return false;
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    long firstLastUuid()
+    {
+        return lastUuids[head];
+    }
+
+    long firstFromSeqNo()
+    {
+        return fromSeqNos[head];
+    }
+
+    /**
+     * Gets the number of messages to request for the next chunk of the first range.
+     *
+     * @param messageLimit the maximum number of messages within a single RetransmitRequest.
+     * @return the number of messages to request.
+     */
+    int firstMsgCount(final int messageLimit)
+    {
+        return (int)Math.min(msgCounts[head], messageLimit);
+    }
+
+    /**
+     * Remove a chunk from the start of the first range once it has been requested.
+     *
+     * @param msgCount the number of messages that have been requested.
+     */
+    void removeFirst(final int msgCount)
+    {
+        final int head = this.head;
+        final long remaining = msgCounts[head] - msgCount;
+        if (remaining > 0)
+        {
+            fromSeqNos[head] += msgCount;
+            msgCounts[head] = remaining;
+        }
+        else
+        {
+            this.head = index(1);
+            size--;
+        }
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    private int index(final int offset)
+    {
+        return (head + offset) & (lastUuids.length - 1);
+    }
+
+    private void grow()
+    {
+        final int capacity = lastUuids.length;
+        final int newCapacity = capacity << 1;
+        lastUuids = unwrap(lastUuids, newCapacity);
+        fromSeqNos = unwrap(fromSeqNos, newCapacity);
+        msgCounts = unwrap(msgCounts, newCapacity);
+        head = 0;
+    }
+
+    private long[] unwrap(final long[] values, final int newCapacity)
+    {
+        final long[] newValues = new long[newCapacity];
+        final int firstPartLength = values.length - head;
+        System.arraycopy(values, head, newValues, 0, firstPartLength);
+        System.arraycopy(values, 0, newValues, firstPartLength, head);
+        return newValues;
+    }
+
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder("RetransmitRequestQueue{");
+        for (int i = 0; i < size; i++)
+        {
+            final int index = index(i);
+            builder
+                .append(i == 0 ? "" : ", ")
+                .append("[lastUuid=").append(lastUuids[index])
+                .append(", fromSeqNo=").append(fromSeqNos[index])
+                .append(", msgCount=").append(msgCounts[index])
+                .append(']');
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RetransmitQueueIndexTest
+{
+    private final RetransmitQueueIndex index = new RetransmitQueueIndex();
+
+    @Test
+    public void shouldSortByUuidThenSequenceNumber()
+    {
+        index.add(2, 1, 0);
+        index.add(1, 3, 10);
+        index.add(1, 2, 20);
+        index.add(2, 0, 30);
+
+        index.sort();
+
+        assertOffsets(20, 10, 30, 0);
+    }
+
+    @Test
+    public void shouldKeepFirstOfDuplicateMessages()
+    {
+        index.add(1, 2, 0);
+        index.add(1, 1, 10);
+        index.add(1, 2, 20);
+        index.add(1, 1, 30);
+
+        index.sort();
+
+        assertOffsets(10, 0);
+    }
+
+    @Test
+    public void shouldGrowBeyondInitialCapacityAndBeReusable()
+    {
+        final int count = 1000;
+        for (int i = 0; i < count; i++)
+        {
+            index.add(1, count - i, i);
+        }
+
+        index.sort();
+
+        assertEquals(count, index.size());
+        for (int i = 0; i < count; i++)
+        {
+            assertEquals(count - 1 - i, index.offset(i));
+        }
+
+        index.clear();
+        index.add(1, 1, 5);
+        index.sort();
+        assertOffsets(5);
+    }
+
+    private void assertOffsets(final int... offsets)
+    {
+        assertEquals(offsets.length, index.size());
+        for (int i = 0; i < offsets.length; i++)
+        {
+            assertEquals("wrong offset at " + i, offsets[i], index.offset(i));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetransmitRequestQueueTest
+{
+    private static final int MESSAGE_LIMIT = 2500;
+    private static final long UUID = 1;
+    private static final long OTHER_UUID = 2;
+
+    private final RetransmitRequestQueue queue = new RetransmitRequestQueue();
+
+    @Test
+    public void shouldRequestLargeGapsInLimitSizedChunks()
+    {
+        queue.add(UUID, 1, 6000);
+
+        assertNextRequest(UUID, 1, 2500);
+        assertNextRequest(UUID, 2501, 2500);
+        assertNextRequest(UUID, 5001, 1000);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldMergeOverlappingAndAdjacentGaps()
+    {
+        queue.add(UUID, 10, 5);
+        queue.add(UUID, 12, 5);
+        queue.add(UUID, 17, 1);
+        queue.add(UUID, 11, 2);
+
+        assertEquals(1, queue.size());
+        assertNextRequest(UUID, 10, 8);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldNotMergeGapsForDifferentUuidsOrEarlierGaps()
+    {
+        queue.add(UUID, 10, 5);
+        queue.add(OTHER_UUID, 15, 5);
+        queue.add(OTHER_UUID, 1, 5);
+
+        assertEquals(3, queue.size());
+        assertNextRequest(UUID, 10, 5);
+        assertNextRequest(OTHER_UUID, 15, 5);
+        assertNextRequest(OTHER_UUID, 1, 5);
+    }
+
+    @Test
+    public void shouldExtendFirstGapWithNextMessage()
+    {
+        assertFalse(queue.extendFirst(5));
+
+        queue.add(UUID, 5, 1);
+        assertTrue(queue.extendFirst(6));
+        assertFalse(queue.extendFirst(8));
+
+        assertNextRequest(UUID, 5, 2);
+    }
+
+    @Test
+    public void shouldKeepOrderWhenGrowing()
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            queue.add(UUID, i * 10, 1);
+            if (i % 3 == 0)
+            {
+                assertNextRequest(UUID, (i / 3) * 10, 1);
+            }
+        }
+
+        for (int i = 7; i < 20; i++)
+        {
+            assertNextRequest(UUID, i * 10, 1);
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    private void assertNextRequest(final long lastUuid, final long fromSeqNo, final int msgCount)
+    {
+        assertFalse(queue.isEmpty());
+        assertEquals(lastUuid, queue.firstLastUuid());
+        assertEquals(fromSeqNo, queue.firstFromSeqNo());
+        assertEquals(msgCount, queue.firstMsgCount(MESSAGE_LIMIT));
+        queue.removeFirst(msgCount);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import io.aeron.Aeron;
+import io.aeron.CommonContext;
+import io.aeron.ExclusivePublication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.OffsetEpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.agrona.concurrent.status.AtomicCounter;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_OUTBOUND_MAX_CLAIM_ATTEMPTS;
+
+/**
+ * An embedded media driver for component benchmarks that publish to Aeron over IPC, without an engine or sockets.
+ *
+ * Every publication has a subscription that is drained with {@link #drain()}, so benchmarks aren't back pressured.
+ */
+public final class IpcAeron implements AutoCloseable
+{
+    public static final String IPC_CHANNEL = "aeron:ipc";
+
+    private static final int BENCHMARK_COUNTER_TYPE_ID = 10_000;
+    private static final int TERM_BUFFER_LENGTH = 16 * 1024 * 1024;
+
+    private final Int2ObjectHashMap<Subscription> streamIdToSubscription = new Int2ObjectHashMap<>();
+    private final FragmentHandler drainHandler = (buffer, offset, length, header) -> {};
+    private final EpochNanoClock clock = new OffsetEpochNanoClock();
+    private final MediaDriver mediaDriver;
+    private final Aeron aeron;
+
+    private UnsafeBuffer copiedFrame;
+    private Header copiedHeader;
+
+    public IpcAeron()
+    {
+        final String aeronDirectoryName = CommonContext.generateRandomDirName();
+        mediaDriver = MediaDriver.launch(new MediaDriver.Context()
+            .aeronDirectoryName(aeronDirectoryName)
+            .threadingMode(ThreadingMode.SHARED)
+            .sharedIdleStrategy(new YieldingIdleStrategy())
+            .ipcTermBufferLength(TERM_BUFFER_LENGTH)
+            .dirDeleteOnStart(true)
+            .dirDeleteOnShutdown(true)
+            .warnIfDirectoryExists(false));
+        aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(aeronDirectoryName));
+    }
+
+    public EpochNanoClock clock()
+    {
+        return clock;
+    }
+
+    public AtomicCounter addCounter(final String label)
+    {
+        return aeron.addCounter(BENCHMARK_COUNTER_TYPE_ID, label);
+    }
+
+    public ExclusivePublication addPublication(final int streamId)
+    {
+        streamIdToSubscription.computeIfAbsent(streamId, (id) -> aeron.addSubscription(IPC_CHANNEL, id));
+        final ExclusivePublication publication = aeron.addExclusivePublication(IPC_CHANNEL, streamId);
+        while (!publication.isConnected())
+        {
+            Thread.yield();
+        }
+
+        return publication;
+    }
+
+    public GatewayPublication addGatewayPublication(final int streamId)
+    {
+        return new GatewayPublication(
+            addPublication(streamId),
+            addCounter("fails-" + streamId),
+            new YieldingIdleStrategy(),
+            clock,
+            DEFAULT_OUTBOUND_MAX_CLAIM_ATTEMPTS);
+    }
+
+    /**
+     * Poll all subscriptions, discarding the fragments.
+     *
+     * @return the number of fragments drained.
+     */
+    public int drain()
+    {
+        int fragments = 0;
+        for (final Subscription subscription : streamIdToSubscription.values())
+        {
+            fragments += subscription.poll(drainHandler, Integer.MAX_VALUE);
+        }
+
+        return fragments;
+    }
+
+    /**
+     * Copy the next fragment on a stream, including its data header, so that it can be passed to a fragment handler
+     * repeatedly. The fragment's payload starts at {@link io.aeron.protocol.DataHeaderFlyweight#HEADER_LENGTH} in
+     * the returned header's buffer.
+     *
+     * @param streamId the stream to copy from, which must have been published to with this class.
+     * @return a header that wraps the copied frame.
+     */
+    public Header copyNextFragment(final int streamId)
+    {
+        final Subscription subscription = streamIdToSubscription.get(streamId);
+        copiedHeader = null;
+        while (copiedHeader == null)
+        {
+            subscription.poll(this::copyFragment, 1);
+        }
+
+        return copiedHeader;
+    }
+
+    private void copyFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        final int frameLength = length + HEADER_LENGTH;
+        copiedFrame = new UnsafeBuffer(new byte[frameLength]);
+        copiedFrame.putBytes(0, buffer, offset - HEADER_LENGTH, frameLength);
+
+        copiedHeader = new Header(header.initialTermId(), header.positionBitsToShift());
+        copiedHeader.buffer(copiedFrame);
+        copiedHeader.offset(0);
+    }
+
+    public void close()
+    {
+        CloseHelper.closeAll(aeron, mediaDriver);
+    }
+}
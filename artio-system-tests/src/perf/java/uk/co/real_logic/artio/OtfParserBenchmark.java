@@ -37,6 +37,7 @@ public class OtfParserBenchmark
     private OtfParser blackholeParser;
     private OtfParser noBlackholeParser;
     private OtfParser inlinableParser;
+    private OtfParser stopEarlyParser;
 
     @Setup
     public void setup(final Blackhole bh)
@@ -44,6 +45,9 @@ public class OtfParserBenchmark
         blackholeParser = new OtfParser(new OtfBlackHoleAcceptor(bh), new LongDictionary());
         noBlackholeParser = new OtfParser(new OtfNoBlackHoleAcceptor(), new LongDictionary());
         inlinableParser = new OtfParser(new OtfInlineableAcceptor(), new LongDictionary());
+        stopEarlyParser = new OtfParser(new OtfBlackHoleAcceptor(bh), new LongDictionary());
+        // Routing style lookup of a few fields from the start of the message
+        stopEarlyParser.stopAfterTags(35, 49, 56, 11);
     }
 
     @Benchmark
@@ -63,4 +67,10 @@ public class OtfParserBenchmark
     {
         inlinableParser.onMessage(buffer, 0, buffer.capacity());
     }
+
+    @Benchmark
+    public void newOrderSingleStopEarly()
+    {
+        stopEarlyParser.onMessage(buffer, 0, buffer.capacity());
+    }
 }
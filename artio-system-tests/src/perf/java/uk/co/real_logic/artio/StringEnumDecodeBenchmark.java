@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.dictionary.CharArrayMap;
+import uk.co.real_logic.artio.dictionary.CharArrayWrapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generated switch based decoding of String enums against the hash map lookup that it replaced,
+ * using the session dictionary's MsgType, which has a mix of one and two character values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StringEnumDecodeBenchmark
+{
+    private static final String[] REPRESENTATIONS = { "0", "D", "8", "BE", "A", "ZZ" };
+
+    private final char[][] values = new char[REPRESENTATIONS.length][];
+    private final CharArrayWrapper wrapper = new CharArrayWrapper();
+    private CharArrayMap<MsgType> charMap;
+
+    @Setup
+    public void setup()
+    {
+        for (int i = 0; i < REPRESENTATIONS.length; i++)
+        {
+            // Pad the values to represent decoding out of a larger reused field buffer
+            values[i] = (REPRESENTATIONS[i] + "   ").toCharArray();
+        }
+
+        final Map<String, MsgType> stringMap = new HashMap<>();
+        for (final MsgType msgType : MsgType.values())
+        {
+            if (msgType != MsgType.NULL_VAL && msgType != MsgType.ARTIO_UNKNOWN)
+            {
+                stringMap.put(msgType.representation(), msgType);
+            }
+        }
+        charMap = new CharArrayMap<>(stringMap);
+    }
+
+    @Benchmark
+    public void switchDecode(final Blackhole bh)
+    {
+        final char[][] values = this.values;
+        for (int i = 0; i < values.length; i++)
+        {
+            bh.consume(MsgType.decode(values[i], 0, REPRESENTATIONS[i].length()));
+        }
+    }
+
+    @Benchmark
+    public void charArrayMapDecode(final Blackhole bh)
+    {
+        final char[][] values = this.values;
+        final CharArrayWrapper wrapper = this.wrapper;
+        for (int i = 0; i < values.length; i++)
+        {
+            wrapper.wrap(values[i], REPRESENTATIONS[i].length());
+            final MsgType value = charMap.get(wrapper);
+            bh.consume(value == null ? MsgType.ARTIO_UNKNOWN : value);
+        }
+    }
+}
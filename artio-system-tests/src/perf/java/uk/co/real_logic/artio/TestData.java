@@ -23,9 +23,15 @@ import java.nio.charset.StandardCharsets;
 public final class TestData
 {
     public static final UnsafeBuffer NEW_ORDER_SINGLE = new UnsafeBuffer(
-        ("8=FIX.4.2\0019=145\00135=D\00134=4\00149=ABC_DEFG01\001" +
+        ("8=FIX.4.2\0019=146\00135=D\00134=4\00149=ABC_DEFG01\001" +
         "52=20090323-15:40:29\00156=CCG\001115=XYZ\00111=NF 0542/03232009\00154=1\00138=100\00155=CVS\00140=1" +
-        "\00159=0\00147=A\00160=20090323-15:40:29\00121=1\001207=N\00110=194\001").getBytes(StandardCharsets.US_ASCII));
+        "\00159=0\00147=A\00160=20090323-15:40:29\00121=1\001207=N\00110=195\001").getBytes(StandardCharsets.US_ASCII));
+
+    public static final UnsafeBuffer NEW_ORDER_SINGLE_POSS_DUP = new UnsafeBuffer(
+        ("8=FIX.4.2\0019=173\00135=D\00134=4\00143=N\00149=ABC_DEFG01\001" +
+        "52=20090323-15:40:29\00156=CCG\001115=XYZ\001122=20090323-15:40:29\00111=NF 0542/03232009\00154=1" +
+        "\00138=100\00155=CVS\00140=1\00159=0\00147=A\00160=20090323-15:40:29\00121=1\001207=N\00110=242\001")
+        .getBytes(StandardCharsets.US_ASCII));
 
     public static final UnsafeBuffer LOGON = new UnsafeBuffer(
         ("8=FIX.4.4\0019=0103\00135=A\00149=ABC_DEFG01\00156=CCG\00134=10\001" +
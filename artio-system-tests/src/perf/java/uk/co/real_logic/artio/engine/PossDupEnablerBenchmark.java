@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import io.aeron.ExclusivePublication;
+import io.aeron.logbuffer.BufferClaim;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.IpcAeron;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static uk.co.real_logic.artio.engine.framer.CatchupReplayer.FRAME_LENGTH;
+import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataHeaderLength;
+
+/**
+ * Rewrites archived messages as possible duplicates onto an IPC stream, as the replayer does when answering a resend
+ * request. A message without the PossDupFlag or OrigSendingTime fields has them added, whereas one with both only
+ * has them updated in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PossDupEnablerBenchmark
+{
+    private static final int ARCHIVE_STREAM_ID = 1;
+    private static final int REPLAY_STREAM_ID = 2;
+    private static final long SESSION_ID = 2;
+    private static final long CONNECTION_ID = 3;
+    private static final int LIBRARY_ID = 4;
+    private static final int SEQUENCE_NUMBER = 4;
+    private static final long NEW_ORDER_SINGLE_MESSAGE_TYPE = 'D';
+
+    private IpcAeron ipcAeron;
+    private ExclusivePublication replayPublication;
+    private PossDupEnabler possDupEnabler;
+
+    private DirectBuffer addFieldsBuffer;
+    private int addFieldsLength;
+    private DirectBuffer sameLengthBuffer;
+    private int sameLengthLength;
+
+    @Setup
+    public void setup()
+    {
+        ipcAeron = new IpcAeron();
+
+        final GatewayPublication archivePublication = ipcAeron.addGatewayPublication(ARCHIVE_STREAM_ID);
+        final Header addFieldsHeader = archivedFragment(archivePublication, TestData.NEW_ORDER_SINGLE);
+        addFieldsBuffer = addFieldsHeader.buffer();
+        addFieldsLength = addFieldsHeader.frameLength() - HEADER_LENGTH;
+
+        final Header sameLengthHeader = archivedFragment(archivePublication, TestData.NEW_ORDER_SINGLE_POSS_DUP);
+        sameLengthBuffer = sameLengthHeader.buffer();
+        sameLengthLength = sameLengthHeader.frameLength() - HEADER_LENGTH;
+
+        replayPublication = ipcAeron.addPublication(REPLAY_STREAM_ID);
+        final BufferClaim bufferClaim = new BufferClaim();
+        possDupEnabler = new PossDupEnabler(
+            new UtcTimestampEncoder(EpochFractionFormat.MILLISECONDS),
+            bufferClaim,
+            (totalLength, messageLength) -> replayPublication.tryClaim(totalLength, bufferClaim) > 0,
+            (buffer, offset) -> {},
+            (message) -> {},
+            Throwable::printStackTrace,
+            ipcAeron.clock(),
+            replayPublication.maxPayloadLength());
+    }
+
+    private Header archivedFragment(final GatewayPublication archivePublication, final DirectBuffer message)
+    {
+        archivePublication.saveMessage(
+            message, 0, message.capacity(), LIBRARY_ID, NEW_ORDER_SINGLE_MESSAGE_TYPE, SESSION_ID, 0,
+            CONNECTION_ID, MessageStatus.OK, SEQUENCE_NUMBER);
+        return ipcAeron.copyNextFragment(ARCHIVE_STREAM_ID);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        ipcAeron.close();
+    }
+
+    @Benchmark
+    public void addFields()
+    {
+        enablePossDupFlag(addFieldsBuffer, addFieldsLength);
+    }
+
+    @Benchmark
+    public void sameLength()
+    {
+        enablePossDupFlag(sameLengthBuffer, sameLengthLength);
+    }
+
+    private void enablePossDupFlag(final DirectBuffer buffer, final int length)
+    {
+        final int messageOffset = HEADER_LENGTH + FRAME_LENGTH;
+        possDupEnabler.enablePossDupFlag(
+            buffer,
+            messageOffset,
+            length - FRAME_LENGTH,
+            HEADER_LENGTH,
+            length,
+            metaDataHeaderLength(),
+            NEW_ORDER_SINGLE_MESSAGE_TYPE);
+        ipcAeron.drain();
+    }
+}
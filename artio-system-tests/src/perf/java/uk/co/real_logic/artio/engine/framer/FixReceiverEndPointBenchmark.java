@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.SystemEpochClock;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.IpcAeron;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.dictionary.FixDictionary;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.MappedFile;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
+import uk.co.real_logic.artio.messages.ConnectionType;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.CompositeKey;
+import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_INBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_RECEIVER_BUFFER_SIZE;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.NO_THROTTLE_WINDOW;
+
+/**
+ * Frames messages read from an in memory channel and publishes them to an IPC stream, as the framer does for a
+ * library owned session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FixReceiverEndPointBenchmark
+{
+    private static final long CONNECTION_ID = 1;
+    private static final int LIBRARY_ID = 2;
+
+    @Param({"1", "10"})
+    public int messagesPerRead;
+
+    private IpcAeron ipcAeron;
+    private File contextsFile;
+    private FixReceiverEndPoint receiverEndPoint;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        ipcAeron = new IpcAeron();
+
+        final ErrorHandler errorHandler = Throwable::printStackTrace;
+        final EngineConfiguration configuration = new EngineConfiguration();
+        final SessionIdStrategy sessionIdStrategy = SessionIdStrategy.senderAndTarget();
+        final FixDictionary fixDictionary = FixDictionary.of(FixDictionary.findDefault());
+        final GatewayPublication inboundPublication = ipcAeron.addGatewayPublication(DEFAULT_INBOUND_LIBRARY_STREAM);
+        final GatewayPublication outboundPublication = ipcAeron.addGatewayPublication(
+            DEFAULT_OUTBOUND_LIBRARY_STREAM);
+
+        contextsFile = File.createTempFile("receiver-end-point-benchmark", ".contexts");
+        final FixContexts fixContexts = new FixContexts(
+            MappedFile.map(contextsFile, 64 * 1024), sessionIdStrategy, 1, errorHandler, false);
+        final FixGatewaySessions gatewaySessions = new FixGatewaySessions(
+            new SystemEpochClock(),
+            inboundPublication,
+            outboundPublication,
+            sessionIdStrategy,
+            SessionCustomisationStrategy.none(),
+            null,
+            configuration,
+            errorHandler,
+            fixContexts,
+            null,
+            null,
+            null,
+            EpochFractionFormat.MILLISECONDS);
+
+        final CompositeKey sessionKey = sessionIdStrategy.onInitiateLogon(
+            "CCG", null, null, "ABC_DEFG01", null, null);
+        final SessionContext sessionContext = fixContexts.onLogon(sessionKey, fixDictionary);
+
+        receiverEndPoint = new FixReceiverEndPoint(
+            new InMemoryTcpChannel(TestData.NEW_ORDER_SINGLE, messagesPerRead),
+            DEFAULT_RECEIVER_BUFFER_SIZE,
+            inboundPublication,
+            CONNECTION_ID,
+            sessionContext.sessionId(),
+            1,
+            fixContexts,
+            ipcAeron.addCounter("messages-read"),
+            null,
+            errorHandler,
+            LIBRARY_ID,
+            gatewaySessions,
+            ipcAeron.clock(),
+            null,
+            new FixReceiverEndPoint.FixReceiverEndPointFormatters(),
+            NO_THROTTLE_WINDOW,
+            0,
+            false);
+
+        receiverEndPoint.gatewaySession(new FixGatewaySession(
+            CONNECTION_ID,
+            sessionContext,
+            "127.0.0.1:9999",
+            ConnectionType.ACCEPTOR,
+            sessionKey,
+            receiverEndPoint,
+            null,
+            null,
+            configuration.acceptedSessionClosedResendInterval(),
+            configuration.acceptedSessionResendRequestChunkSize(),
+            configuration.acceptedSessionSendRedundantResendRequests(),
+            configuration.acceptedEnableLastMsgSeqNumProcessed(),
+            fixDictionary,
+            configuration));
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        ipcAeron.close();
+        IoUtil.delete(contextsFile, true);
+    }
+
+    @Benchmark
+    public int pollAndFrame()
+    {
+        final int bytesRead = receiverEndPoint.poll();
+        ipcAeron.drain();
+        return bytesRead;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.IpcAeron;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.engine.ReplayerCommandQueue;
+import uk.co.real_logic.artio.engine.SenderSequenceNumbers;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_INBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SENDER_MAX_BYTES_IN_BUFFER;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
+
+/**
+ * Writes outbound messages from a library to an in memory channel, as the framer does when it polls the outbound
+ * stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FixSenderEndPointBenchmark
+{
+    private static final long CONNECTION_ID = 1;
+    private static final int LIBRARY_ID = 2;
+    private static final long NEW_ORDER_SINGLE_MESSAGE_TYPE = 'D';
+
+    // Deliberately not static/final
+    private final UnsafeBuffer buffer = TestData.NEW_ORDER_SINGLE;
+
+    private IpcAeron ipcAeron;
+    private FixSenderEndPoint senderEndPoint;
+    private int sequenceNumber;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        ipcAeron = new IpcAeron();
+
+        final AtomicCounter bytesInBuffer = ipcAeron.addCounter("bytes-in-buffer");
+        final SenderSequenceNumbers senderSequenceNumbers = new SenderSequenceNumbers(
+            new ReplayerCommandQueue(new YieldingIdleStrategy()));
+
+        senderEndPoint = new FixSenderEndPoint(
+            CONNECTION_ID,
+            LIBRARY_ID,
+            ipcAeron.addPublication(DEFAULT_INBOUND_LIBRARY_STREAM),
+            null,
+            new InMemoryTcpChannel(buffer, 1),
+            bytesInBuffer,
+            ipcAeron.addCounter("invalid-library-attempts"),
+            Throwable::printStackTrace,
+            null,
+            DEFAULT_SENDER_MAX_BYTES_IN_BUFFER,
+            DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
+            System.currentTimeMillis(),
+            senderSequenceNumbers.onNewSender(CONNECTION_ID, bytesInBuffer),
+            null,
+            null,
+            new FixSenderEndPoint.Formatters());
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        ipcAeron.close();
+    }
+
+    @Benchmark
+    public void onOutboundMessage()
+    {
+        senderEndPoint.onOutboundMessage(
+            LIBRARY_ID,
+            buffer,
+            0,
+            buffer.capacity(),
+            ++sequenceNumber,
+            0,
+            NEW_ORDER_SINGLE_MESSAGE_TYPE,
+            System.currentTimeMillis(),
+            0);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.DirectBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * A channel with no socket behind it: reads repeat a fixed message and writes accept everything they're given.
+ */
+public class InMemoryTcpChannel extends TcpChannel
+{
+    private final DirectBuffer message;
+    private final int messagesPerRead;
+
+    private long bytesWritten;
+
+    public InMemoryTcpChannel(final DirectBuffer message, final int messagesPerRead) throws IOException
+    {
+        super("127.0.0.1:9999");
+        this.message = message;
+        this.messagesPerRead = messagesPerRead;
+    }
+
+    public SelectionKey register(final Selector sel, final int ops, final Object att)
+    {
+        return null;
+    }
+
+    public int write(final ByteBuffer src, final int seqNum, final boolean replay)
+    {
+        final int written = src.remaining();
+        src.position(src.limit());
+        bytesWritten += written;
+        return written;
+    }
+
+    public int read(final ByteBuffer dst)
+    {
+        final DirectBuffer message = this.message;
+        final int messageLength = message.capacity();
+        int read = 0;
+        for (int i = 0; i < messagesPerRead && dst.remaining() >= messageLength; i++)
+        {
+            final int position = dst.position();
+            message.getBytes(0, dst, position, messageLength);
+            dst.position(position + messageLength);
+            read += messageLength;
+        }
+
+        return read;
+    }
+
+    public long bytesWritten()
+    {
+        return bytesWritten;
+    }
+
+    public void close()
+    {
+    }
+
+    public void onReplayComplete(final long correlationId)
+    {
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.SystemEpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.IpcAeron;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.engine.MappedFile;
+import uk.co.real_logic.artio.engine.SequenceNumberExtractor;
+import uk.co.real_logic.artio.messages.FixPProtocolType;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.session.Session;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.*;
+
+/**
+ * Indexes an archived FIX message, as the indexer does for every fragment on the inbound and outbound streams.
+ *
+ * The recording id is passed in, as it is when the indexer is catching up, so no archive is needed to look it up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IndexBenchmark
+{
+    private static final int STREAM_ID = 1;
+    private static final long RECORDING_ID = 1;
+    private static final long SESSION_ID = 2;
+    private static final long CONNECTION_ID = 3;
+    private static final int LIBRARY_ID = 4;
+    private static final int SEQUENCE_NUMBER = 4;
+    private static final long NEW_ORDER_SINGLE_MESSAGE_TYPE = 'D';
+
+    private File logFileDir;
+    private ReplayIndex replayIndex;
+    private SequenceNumberIndexWriter sequenceNumberIndexWriter;
+
+    private Header header;
+    private DirectBuffer fragmentBuffer;
+    private int fragmentLength;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        logFileDir = Files.createTempDirectory("index-benchmark").toFile();
+
+        try (IpcAeron ipcAeron = new IpcAeron())
+        {
+            final UnsafeBuffer message = TestData.NEW_ORDER_SINGLE;
+            ipcAeron.addGatewayPublication(STREAM_ID).saveMessage(
+                message, 0, message.capacity(), LIBRARY_ID, NEW_ORDER_SINGLE_MESSAGE_TYPE, SESSION_ID, 0,
+                CONNECTION_ID, MessageStatus.OK, SEQUENCE_NUMBER);
+            header = ipcAeron.copyNextFragment(STREAM_ID);
+        }
+
+        fragmentBuffer = header.buffer();
+        fragmentLength = header.frameLength() - HEADER_LENGTH;
+
+        final ErrorHandler errorHandler = Throwable::printStackTrace;
+        // Never used to look up recording ids as they're already known
+        final RecordingIdLookup recordingIdLookup = new RecordingIdLookup(
+            Aeron.NULL_VALUE, new YieldingIdleStrategy(), null);
+
+        replayIndex = new ReplayIndex(
+            new SequenceNumberExtractor(),
+            logFileDir.getAbsolutePath(),
+            STREAM_ID,
+            DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            LoggerUtil::map,
+            new UnsafeBuffer(new byte[DEFAULT_REPLAY_POSITION_BUFFER_SIZE]),
+            errorHandler,
+            recordingIdLookup,
+            new Long2LongHashMap(Session.UNKNOWN),
+            FixPProtocolType.ILINK_3,
+            null,
+            DEFAULT_TIME_INDEX_FLUSH_INTERVAL_IN_NS,
+            DEFAULT_INDEX_CHECKSUM_ENABLED,
+            new ReplayEvictionHandler(errorHandler));
+
+        sequenceNumberIndexWriter = new SequenceNumberIndexWriter(
+            new SequenceNumberExtractor(),
+            new UnsafeBuffer(new byte[DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE]),
+            MappedFile.map(new File(logFileDir, "sequence-number-index"), DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE),
+            errorHandler,
+            STREAM_ID,
+            recordingIdLookup,
+            DEFAULT_INDEX_FILE_STATE_FLUSH_TIMEOUT_IN_MS,
+            new SystemEpochClock(),
+            null,
+            new Long2LongHashMap(Session.UNKNOWN),
+            FixPProtocolType.ILINK_3,
+            DEFAULT_INDEX_CHECKSUM_ENABLED,
+            true);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        replayIndex.close();
+        sequenceNumberIndexWriter.close();
+        IoUtil.delete(logFileDir, true);
+    }
+
+    @Benchmark
+    public void replayIndex()
+    {
+        replayIndex.onFragment(fragmentBuffer, HEADER_LENGTH, fragmentLength, header, RECORDING_ID);
+    }
+
+    @Benchmark
+    public void sequenceNumberIndex()
+    {
+        sequenceNumberIndexWriter.onCatchup(fragmentBuffer, HEADER_LENGTH, fragmentLength, header, RECORDING_ID);
+    }
+}
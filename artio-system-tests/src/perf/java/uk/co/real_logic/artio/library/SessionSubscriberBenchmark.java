@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.SystemEpochClock;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.IpcAeron;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.dictionary.FixDictionary;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
+import uk.co.real_logic.artio.messages.ConnectionType;
+import uk.co.real_logic.artio.messages.DisconnectReason;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.messages.SessionState;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.*;
+import uk.co.real_logic.artio.timing.Timer;
+import uk.co.real_logic.artio.util.EpochFractionClocks;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+import uk.co.real_logic.artio.validation.MessageValidationStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static uk.co.real_logic.artio.CommonConfiguration.*;
+
+/**
+ * Dispatches an inbound message to a library session and its handler, which is the per session work that the
+ * library poller does for every FIX message it receives from the engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SessionSubscriberBenchmark
+{
+    private static final long CONNECTION_ID = 1;
+    private static final int LIBRARY_ID = 2;
+    private static final int SEQUENCE_NUMBER = 4;
+    private static final long NEW_ORDER_SINGLE_MESSAGE_TYPE = 'D';
+    // The test message's sending time is a long time ago
+    private static final long SENDING_TIME_WINDOW_IN_MS = TimeUnit.DAYS.toMillis(365 * 100);
+
+    // Deliberately not static/final
+    private final DirectBuffer buffer = TestData.NEW_ORDER_SINGLE;
+
+    private IpcAeron ipcAeron;
+    private InternalSession session;
+    private SessionSubscriber subscriber;
+    private long position;
+
+    @Setup
+    public void setup()
+    {
+        ipcAeron = new IpcAeron();
+
+        final ErrorHandler errorHandler = Throwable::printStackTrace;
+        final EpochNanoClock clock = ipcAeron.clock();
+        final SessionIdStrategy sessionIdStrategy = SessionIdStrategy.senderAndTarget();
+        final FixDictionary fixDictionary = FixDictionary.of(FixDictionary.findDefault());
+        final GatewayPublication inboundPublication = ipcAeron.addGatewayPublication(DEFAULT_INBOUND_LIBRARY_STREAM);
+        final GatewayPublication outboundPublication = ipcAeron.addGatewayPublication(
+            DEFAULT_OUTBOUND_LIBRARY_STREAM);
+        final OnMessageInfo messageInfo = new OnMessageInfo();
+
+        session = new InternalSession(
+            DEFAULT_HEARTBEAT_INTERVAL_IN_S,
+            CONNECTION_ID,
+            clock,
+            SessionState.ACTIVE,
+            false,
+            new DirectSessionProxy(
+                DEFAULT_SESSION_BUFFER_SIZE,
+                outboundPublication,
+                sessionIdStrategy,
+                SessionCustomisationStrategy.none(),
+                clock,
+                CONNECTION_ID,
+                LIBRARY_ID,
+                errorHandler,
+                EpochFractionFormat.MILLISECONDS),
+            inboundPublication,
+            outboundPublication,
+            sessionIdStrategy,
+            SENDING_TIME_WINDOW_IN_MS,
+            ipcAeron.addCounter("received-msg-seq-no"),
+            ipcAeron.addCounter("sent-msg-seq-no"),
+            LIBRARY_ID,
+            1,
+            0,
+            DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS,
+            new MutableAsciiBuffer(new byte[DEFAULT_SESSION_BUFFER_SIZE]),
+            false,
+            SessionCustomisationStrategy.none(),
+            messageInfo,
+            EpochFractionClocks.create(new SystemEpochClock(), clock, EpochFractionFormat.MILLISECONDS),
+            ConnectionType.ACCEPTOR,
+            DEFAULT_RESEND_REQUEST_CONTROLLER,
+            NO_FORCED_HEARTBEAT_INTERVAL,
+            false,
+            true,
+            new InternalSession.Formatters());
+        session.fixDictionary(fixDictionary);
+
+        final CompositeKey sessionKey = sessionIdStrategy.onInitiateLogon(
+            "CCG", null, null, "ABC_DEFG01", null, null);
+        final SessionParser parser = new SessionParser(
+            session, MessageValidationStrategy.none(), errorHandler, true, false, messageInfo, sessionIdStrategy);
+        parser.sessionKey(sessionKey);
+        parser.fixDictionary(fixDictionary);
+
+        final Timer timer = new Timer(clock, "benchmark", 0, ipcAeron.addCounter("negative-timestamps"));
+        subscriber = new SessionSubscriber(
+            messageInfo, parser, session, timer, timer, null, DEFAULT_REPLY_TIMEOUT_IN_MS, errorHandler);
+        subscriber.handler(new CountingSessionHandler());
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        ipcAeron.close();
+    }
+
+    @Benchmark
+    public Action onMessage()
+    {
+        // Keep the same message in sequence
+        session.lastReceivedMsgSeqNumOnly(SEQUENCE_NUMBER - 1);
+
+        position += buffer.capacity();
+        return subscriber.onMessage(
+            buffer,
+            0,
+            buffer.capacity(),
+            LIBRARY_ID,
+            0,
+            NEW_ORDER_SINGLE_MESSAGE_TYPE,
+            0,
+            MessageStatus.OK,
+            position);
+    }
+
+    static final class CountingSessionHandler implements SessionHandler
+    {
+        long messages;
+
+        public Action onMessage(
+            final DirectBuffer buffer,
+            final int offset,
+            final int length,
+            final int libraryId,
+            final Session session,
+            final int sequenceIndex,
+            final long messageType,
+            final long timestampInNs,
+            final long position,
+            final OnMessageInfo messageInfo)
+        {
+            messages++;
+            return CONTINUE;
+        }
+
+        public void onTimeout(final int libraryId, final Session session)
+        {
+        }
+
+        public void onSlowStatus(final int libraryId, final Session session, final boolean hasBecomeSlow)
+        {
+        }
+
+        public Action onDisconnect(final int libraryId, final Session session, final DisconnectReason reason)
+        {
+            return CONTINUE;
+        }
+
+        public void onSessionStart(final Session session)
+        {
+        }
+    }
+}
@@ -75,6 +75,7 @@ public abstract class AbstractBenchmarkClient
     {
         final LogonEncoder logon = new LogonEncoder();
         logon.heartBtInt(heartBtInt);
+        logon.password(VALID_PASSWORD);
         setupHeader(initiatorId, logon.header())
             .msgSeqNum(1);
 
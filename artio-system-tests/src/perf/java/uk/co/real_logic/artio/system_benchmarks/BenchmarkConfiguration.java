@@ -42,6 +42,18 @@ public final class BenchmarkConfiguration
     public static final int NUMBER_OF_SESSIONS = Integer.getInteger("fix.benchmark.num_sessions", 25);
     public static final long LOGOUT_LINGER_TIMEOUT_IN_MS = Long.getLong(
         "fix.benchmark.logout_linger_timeout", TimeUnit.SECONDS.toMillis(2));
+    public static final int HARNESS_CLIENTS = Integer.getInteger("fix.benchmark.harness.clients", 4);
+    public static final int HARNESS_SEND_RATE_PER_SECOND = Integer.getInteger(
+        "fix.benchmark.harness.send_rate_sec", 50_000);
+    public static final int HARNESS_WARMUP_IN_S = Integer.getInteger("fix.benchmark.harness.warmup_sec", 10);
+    public static final int HARNESS_DURATION_IN_S = Integer.getInteger("fix.benchmark.harness.duration_sec", 60);
+    public static final String HARNESS_OUTPUT_DIR = System.getProperty(
+        "fix.benchmark.harness.output_dir", "benchmark-results");
+    public static final String HARNESS_BASELINE = System.getProperty("fix.benchmark.harness.baseline");
+    public static final double HARNESS_MAX_REGRESSION_PERCENT = Double.parseDouble(System.getProperty(
+        "fix.benchmark.harness.max_regression_percent", "10"));
+    public static final long HARNESS_MAX_P99_IN_US = Long.getLong("fix.benchmark.harness.max_p99_us", 0);
+    public static final long HARNESS_MAX_P9999_IN_US = Long.getLong("fix.benchmark.harness.max_p9999_us", 0);
     public static final String VALID_PASSWORD = "password";
     public static final char[] VALID_PASSWORD_CHARS = VALID_PASSWORD.toCharArray();
 
@@ -35,6 +35,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import static java.util.Collections.singletonList;
 import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
@@ -42,6 +43,16 @@ import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
 public final class FixBenchmarkServer
 {
     public static void main(final String[] args)
+    {
+        run(() -> true);
+    }
+
+    /**
+     * Run the server until it is told to stop, so that it can share a JVM with benchmark clients.
+     *
+     * @param isRunning checked on each duty cycle of the library, the server is closed once it returns false.
+     */
+    static void run(final BooleanSupplier isRunning)
     {
         final EngineConfiguration configuration = engineConfiguration();
 
@@ -51,7 +62,7 @@ public final class FixBenchmarkServer
         {
             final IdleStrategy idleStrategy = idleStrategy();
             System.out.printf("Using %s idle strategy%n", idleStrategy.getClass().getSimpleName());
-            while (true)
+            while (isRunning.getAsBoolean())
             {
                 final boolean notConnected = !library.isConnected();
 
@@ -63,7 +74,7 @@ public final class FixBenchmarkServer
                 }
             }
 
-            while (true)
+            while (isRunning.getAsBoolean())
             {
                 idleStrategy.idle(library.poll(10));
             }
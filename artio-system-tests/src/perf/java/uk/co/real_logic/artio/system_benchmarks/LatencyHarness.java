@@ -0,0 +1,313 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
+
+/**
+ * Runs the benchmark server and a number of clients in one JVM, sending at a fixed aggregate rate, and reports
+ * latency percentiles that are corrected for coordinated omission.
+ *
+ * Interval histograms are written as tagged HdrHistogram logs to the output directory: corrected.hlog and
+ * uncorrected.hlog, along with a summary.txt report. The process exits with a non-zero status if the corrected p99
+ * or p99.99 exceeds the configured limits or regresses too far compared to the corrected.hlog of a baseline run,
+ * so that it can gate upgrades.
+ */
+public final class LatencyHarness
+{
+    private static final long NANOS_PER_MICRO = 1_000;
+    private static final long REPORT_INTERVAL_IN_MS = 1_000;
+    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+
+    private static final int PASSED = 0;
+    private static final int REGRESSED = 1;
+    private static final int FAILED = 2;
+
+    private final List<LatencyHarnessClient> clients = new ArrayList<>();
+    private final Histogram correctedTotal = new Histogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    private final Histogram uncorrectedTotal = new Histogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    private final List<Histogram> correctedByClient = new ArrayList<>();
+    private final File outputDir = new File(HARNESS_OUTPUT_DIR);
+
+    private HistogramLogWriter correctedLog;
+    private HistogramLogWriter uncorrectedLog;
+
+    public static void main(final String[] args) throws Exception
+    {
+        System.exit(new LatencyHarness().run());
+    }
+
+    private int run() throws Exception
+    {
+        if (!outputDir.exists() && !outputDir.mkdirs())
+        {
+            throw new IOException("Unable to create " + outputDir);
+        }
+
+        final AtomicBoolean serverRunning = new AtomicBoolean(true);
+        final Thread server = new Thread(() -> FixBenchmarkServer.run(serverRunning::get), "benchmark-server");
+        server.start();
+
+        final List<Thread> clientThreads = startClients();
+        try
+        {
+            Thread.sleep(SECONDS.toMillis(HARNESS_WARMUP_IN_S));
+            discardWarmup();
+            openLogs();
+
+            boolean running = true;
+            while (running)
+            {
+                Thread.sleep(REPORT_INTERVAL_IN_MS);
+
+                running = false;
+                for (final Thread clientThread : clientThreads)
+                {
+                    running |= clientThread.isAlive();
+                }
+
+                recordIntervals();
+            }
+        }
+        finally
+        {
+            closeLogs();
+            serverRunning.set(false);
+            server.join();
+        }
+
+        for (final LatencyHarnessClient client : clients)
+        {
+            if (client.hasFailed())
+            {
+                System.err.println("Client " + client.initiatorId() + " failed, see its stack trace");
+                return FAILED;
+            }
+        }
+
+        return report();
+    }
+
+    private List<Thread> startClients()
+    {
+        final long sendIntervalInNs = SECONDS.toNanos(1) * HARNESS_CLIENTS / HARNESS_SEND_RATE_PER_SECOND;
+        final long startTimeInNs = System.nanoTime();
+        final long endTimeInNs = startTimeInNs + SECONDS.toNanos(HARNESS_WARMUP_IN_S + HARNESS_DURATION_IN_S);
+
+        final List<Thread> clientThreads = new ArrayList<>();
+        for (int i = 0; i < HARNESS_CLIENTS; i++)
+        {
+            // Stagger the clients' schedules so that the aggregate rate is smooth
+            final LatencyHarnessClient client = new LatencyHarnessClient(
+                INITIATOR_ID + i,
+                sendIntervalInNs,
+                startTimeInNs + (i * sendIntervalInNs) / HARNESS_CLIENTS,
+                endTimeInNs);
+            clients.add(client);
+            correctedByClient.add(new Histogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS));
+
+            final Thread clientThread = new Thread(client, "benchmark-client-" + i);
+            clientThread.start();
+            clientThreads.add(clientThread);
+        }
+
+        return clientThreads;
+    }
+
+    private void discardWarmup()
+    {
+        for (final LatencyHarnessClient client : clients)
+        {
+            client.correctedRecorder().reset();
+            client.uncorrectedRecorder().reset();
+        }
+    }
+
+    private void openLogs() throws IOException
+    {
+        final long startTimeInMs = System.currentTimeMillis();
+        correctedLog = openLog("corrected.hlog", startTimeInMs);
+        uncorrectedLog = openLog("uncorrected.hlog", startTimeInMs);
+    }
+
+    private HistogramLogWriter openLog(final String fileName, final long startTimeInMs) throws IOException
+    {
+        final HistogramLogWriter log = new HistogramLogWriter(new File(outputDir, fileName));
+        log.outputComment(String.format(
+            "clients=%d, send_rate_sec=%d, units=ns", HARNESS_CLIENTS, HARNESS_SEND_RATE_PER_SECOND));
+        log.outputLogFormatVersion();
+        log.outputStartTime(startTimeInMs);
+        log.setBaseTime(startTimeInMs);
+        log.outputLegend();
+        return log;
+    }
+
+    private void recordIntervals()
+    {
+        for (int i = 0; i < clients.size(); i++)
+        {
+            final LatencyHarnessClient client = clients.get(i);
+            final Histogram corrected = recordInterval(client, client.correctedRecorder(), correctedLog);
+            correctedTotal.add(corrected);
+            correctedByClient.get(i).add(corrected);
+            uncorrectedTotal.add(recordInterval(client, client.uncorrectedRecorder(), uncorrectedLog));
+        }
+    }
+
+    private static Histogram recordInterval(
+        final LatencyHarnessClient client, final SingleWriterRecorder recorder, final HistogramLogWriter log)
+    {
+        final Histogram interval = recorder.getIntervalHistogram();
+        interval.setTag(client.initiatorId());
+        log.outputIntervalHistogram(interval);
+        return interval;
+    }
+
+    private void closeLogs()
+    {
+        if (correctedLog != null)
+        {
+            correctedLog.close();
+            uncorrectedLog.close();
+        }
+    }
+
+    private int report() throws IOException
+    {
+        final List<String> regressions = new ArrayList<>();
+        checkLimit(regressions, "p99", 99, HARNESS_MAX_P99_IN_US);
+        checkLimit(regressions, "p99.99", 99.99, HARNESS_MAX_P9999_IN_US);
+
+        final Histogram baseline = HARNESS_BASELINE == null ? null : readLog(HARNESS_BASELINE);
+        if (baseline != null)
+        {
+            checkBaseline(regressions, "p99", 99, baseline);
+            checkBaseline(regressions, "p99.99", 99.99, baseline);
+        }
+
+        final File summaryFile = new File(outputDir, "summary.txt");
+        try (PrintStream summary = new PrintStream(summaryFile, StandardCharsets.US_ASCII.name()))
+        {
+            printSummary(summary, baseline, regressions);
+        }
+        printSummary(System.out, baseline, regressions);
+
+        return regressions.isEmpty() ? PASSED : REGRESSED;
+    }
+
+    private void printSummary(final PrintStream out, final Histogram baseline, final List<String> regressions)
+    {
+        out.printf("clients = %d, send rate = %d msg/s, warmup = %ds, duration = %ds%n",
+            HARNESS_CLIENTS, HARNESS_SEND_RATE_PER_SECOND, HARNESS_WARMUP_IN_S, HARNESS_DURATION_IN_S);
+        out.printf("achieved rate = %.0f msg/s%n", (double)correctedTotal.getTotalCount() / HARNESS_DURATION_IN_S);
+        out.printf("%-20s %10s %10s %10s %10s %10s %10s %10s%n",
+            "latency (us)", "count", "p50", "p90", "p99", "p99.9", "p99.99", "max");
+        printRow(out, "corrected", correctedTotal);
+        printRow(out, "uncorrected", uncorrectedTotal);
+        if (baseline != null)
+        {
+            printRow(out, "baseline corrected", baseline);
+        }
+        for (int i = 0; i < clients.size(); i++)
+        {
+            printRow(out, clients.get(i).initiatorId() + " corrected", correctedByClient.get(i));
+        }
+
+        if (regressions.isEmpty())
+        {
+            out.println("PASSED");
+        }
+        else
+        {
+            regressions.forEach((regression) -> out.println("REGRESSED: " + regression));
+        }
+    }
+
+    private static void printRow(final PrintStream out, final String name, final Histogram histogram)
+    {
+        out.printf("%-20s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+            name,
+            histogram.getTotalCount(),
+            micros(histogram, 50),
+            micros(histogram, 90),
+            micros(histogram, 99),
+            micros(histogram, 99.9),
+            micros(histogram, 99.99),
+            micros(histogram, 100));
+    }
+
+    private void checkLimit(
+        final List<String> regressions, final String name, final double percentile, final long limitInUs)
+    {
+        final double valueInUs = micros(correctedTotal, percentile);
+        if (limitInUs > 0 && valueInUs > limitInUs)
+        {
+            regressions.add(String.format("%s of %.1fus is above the limit of %dus", name, valueInUs, limitInUs));
+        }
+    }
+
+    private void checkBaseline(
+        final List<String> regressions, final String name, final double percentile, final Histogram baseline)
+    {
+        final double valueInUs = micros(correctedTotal, percentile);
+        final double baselineInUs = micros(baseline, percentile);
+        final double limitInUs = baselineInUs * (1 + HARNESS_MAX_REGRESSION_PERCENT / 100);
+        if (valueInUs > limitInUs)
+        {
+            regressions.add(String.format("%s of %.1fus is more than %.0f%% above the baseline of %.1fus",
+                name, valueInUs, HARNESS_MAX_REGRESSION_PERCENT, baselineInUs));
+        }
+    }
+
+    private static Histogram readLog(final String fileName) throws IOException
+    {
+        final Histogram total = new Histogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+        final org.HdrHistogram.HistogramLogReader reader = new org.HdrHistogram.HistogramLogReader(fileName);
+        try
+        {
+            EncodableHistogram interval;
+            while ((interval = reader.nextIntervalHistogram()) != null)
+            {
+                total.add((Histogram)interval);
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        return total;
+    }
+
+    private static double micros(final Histogram histogram, final double percentile)
+    {
+        return (double)histogram.getValueAtPercentile(percentile) / NANOS_PER_MICRO;
+    }
+}
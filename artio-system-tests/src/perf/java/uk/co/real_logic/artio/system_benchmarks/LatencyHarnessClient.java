@@ -0,0 +1,197 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import org.HdrHistogram.SingleWriterRecorder;
+import uk.co.real_logic.artio.builder.HeaderEncoder;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends test requests at a fixed schedule and records the round trip time of their heartbeat replies.
+ *
+ * Latencies are recorded twice: from when each message was actually sent and from when the schedule intended it to
+ * be sent. When the client falls behind, because a reply or the socket stalled it, the intended send times keep
+ * advancing, so the second recording includes the time that later messages waited to be sent. This corrects for
+ * coordinated omission.
+ */
+final class LatencyHarnessClient extends AbstractBenchmarkClient implements Runnable
+{
+    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+    private static final int MAX_IN_FLIGHT = 64 * 1024;
+    private static final int IN_FLIGHT_MASK = MAX_IN_FLIGHT - 1;
+    // Only replies to test requests are expected while the benchmark runs
+    private static final int HEARTBEAT_INTERVAL_IN_S = (int)TimeUnit.HOURS.toSeconds(1);
+    private static final long CONNECT_TIMEOUT_IN_NS = TimeUnit.SECONDS.toNanos(30);
+    private static final long REPLY_TIMEOUT_IN_NS = TimeUnit.SECONDS.toNanos(10);
+
+    private final SingleWriterRecorder correctedRecorder = new SingleWriterRecorder(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    private final SingleWriterRecorder uncorrectedRecorder =
+        new SingleWriterRecorder(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    private final long[] intendedSendTimes = new long[MAX_IN_FLIGHT];
+    private final long[] actualSendTimes = new long[MAX_IN_FLIGHT];
+
+    private final String initiatorId;
+    private final long sendIntervalInNs;
+    private final long startTimeInNs;
+    private final long endTimeInNs;
+
+    private volatile boolean failed;
+    private volatile long messagesReceived;
+
+    LatencyHarnessClient(
+        final String initiatorId,
+        final long sendIntervalInNs,
+        final long startTimeInNs,
+        final long endTimeInNs)
+    {
+        this.initiatorId = initiatorId;
+        this.sendIntervalInNs = sendIntervalInNs;
+        this.startTimeInNs = startTimeInNs;
+        this.endTimeInNs = endTimeInNs;
+    }
+
+    public void run()
+    {
+        try (SocketChannel socketChannel = connect())
+        {
+            logon(socketChannel, initiatorId, HEARTBEAT_INTERVAL_IN_S);
+            exchangeMessages(socketChannel);
+        }
+        catch (final Exception ex)
+        {
+            failed = true;
+            ex.printStackTrace();
+        }
+    }
+
+    private SocketChannel connect() throws IOException, InterruptedException
+    {
+        final long deadlineInNs = System.nanoTime() + CONNECT_TIMEOUT_IN_NS;
+        while (true)
+        {
+            try
+            {
+                return open();
+            }
+            catch (final ConnectException ex)
+            {
+                // The engine may not have bound yet
+                if (System.nanoTime() > deadlineInNs)
+                {
+                    throw ex;
+                }
+
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private void exchangeMessages(final SocketChannel socketChannel) throws IOException
+    {
+        final TestRequestEncoder testRequest = setupTestRequest(initiatorId);
+        final HeaderEncoder header = testRequest.header();
+        final long[] intendedSendTimes = this.intendedSendTimes;
+        final long[] actualSendTimes = this.actualSendTimes;
+        final long sendIntervalInNs = this.sendIntervalInNs;
+        final long endTimeInNs = this.endTimeInNs;
+
+        long nextSendTimeInNs = Math.max(startTimeInNs, System.nanoTime());
+        long sent = 0;
+        long received = 0;
+        int seqNum = 2;
+
+        while (true)
+        {
+            long timeInNs = System.nanoTime();
+            final boolean sending = nextSendTimeInNs < endTimeInNs;
+            if (sending && timeInNs >= nextSendTimeInNs && sent - received < MAX_IN_FLIGHT)
+            {
+                final int index = (int)(sent & IN_FLIGHT_MASK);
+                intendedSendTimes[index] = nextSendTimeInNs;
+                write(socketChannel, encode(testRequest, header, seqNum));
+                actualSendTimes[index] = System.nanoTime();
+
+                seqNum++;
+                sent++;
+                nextSendTimeInNs += sendIntervalInNs;
+            }
+            else if (!sending)
+            {
+                if (received >= sent)
+                {
+                    break;
+                }
+
+                if (timeInNs > endTimeInNs + REPLY_TIMEOUT_IN_NS)
+                {
+                    throw new IOException("Timed out awaiting " + (sent - received) + " replies");
+                }
+            }
+
+            readBuffer.clear();
+            final int length = socketChannel.read(readBuffer);
+            if (length < 0)
+            {
+                throw new IOException("Disconnected by the server after " + received + " replies");
+            }
+
+            final int replies = scanForReceivesMessages(readFlyweight, length);
+            if (replies > 0)
+            {
+                timeInNs = System.nanoTime();
+                for (int i = 0; i < replies; i++)
+                {
+                    final int index = (int)(received & IN_FLIGHT_MASK);
+                    correctedRecorder.recordValue(timeInNs - intendedSendTimes[index]);
+                    uncorrectedRecorder.recordValue(timeInNs - actualSendTimes[index]);
+                    received++;
+                }
+
+                messagesReceived = received;
+            }
+        }
+    }
+
+    String initiatorId()
+    {
+        return initiatorId;
+    }
+
+    SingleWriterRecorder correctedRecorder()
+    {
+        return correctedRecorder;
+    }
+
+    SingleWriterRecorder uncorrectedRecorder()
+    {
+        return uncorrectedRecorder;
+    }
+
+    long messagesReceived()
+    {
+        return messagesReceived;
+    }
+
+    boolean hasFailed()
+    {
+        return failed;
+    }
+}
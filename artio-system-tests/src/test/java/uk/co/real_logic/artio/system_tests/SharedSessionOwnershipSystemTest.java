@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_tests;
+
+import org.agrona.IoUtil;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.FixEngine;
+
+import java.io.File;
+
+import static uk.co.real_logic.artio.Constants.LOGOUT_MESSAGE_AS_STR;
+import static uk.co.real_logic.artio.TestFixtures.launchMediaDriver;
+import static uk.co.real_logic.artio.system_tests.SystemTestUtil.*;
+
+public class SharedSessionOwnershipSystemTest extends AbstractGatewayToGatewaySystemTest
+{
+    private static final File SHARED_SESSION_OWNERSHIP_DIR =
+        new File(IoUtil.tmpDirName(), "shared-session-ownership-system-test");
+
+    @Before
+    public void launch()
+    {
+        mediaDriver = launchMediaDriver();
+        delete(ACCEPTOR_LOGS);
+        IoUtil.delete(SHARED_SESSION_OWNERSHIP_DIR, true);
+
+        launchAcceptingEngine();
+        initiatingEngine = launchInitiatingEngine(libraryAeronPort, nanoClock);
+
+        acceptingLibrary = newAcceptingLibrary(acceptingHandler, nanoClock);
+        initiatingLibrary = newInitiatingLibrary(libraryAeronPort, initiatingHandler, nanoClock);
+        testSystem = new TestSystem(acceptingLibrary, initiatingLibrary);
+
+        connectSessions();
+    }
+
+    @Override
+    void launchAcceptingEngine()
+    {
+        acceptingEngine = FixEngine.launch(acceptingConfig(port, ACCEPTOR_ID, INITIATOR_ID, nanoClock)
+            .sharedSessionOwnershipDir(SHARED_SESSION_OWNERSHIP_DIR.getAbsolutePath()));
+    }
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void shouldLogonAgainAfterEngineClosedWithSessionLoggedOn()
+    {
+        messagesCanBeExchanged();
+
+        testSystem.close(acceptingLibrary);
+        acceptingEngine.close();
+        testSystem.awaitMessageOf(initiatingOtfAcceptor, LOGOUT_MESSAGE_AS_STR);
+        clearMessages();
+
+        launchAcceptingEngine();
+        acceptingLibrary = testSystem.add(newAcceptingLibrary(acceptingHandler, nanoClock));
+
+        wireSessions();
+        messagesCanBeExchanged();
+    }
+}
@@ -0,0 +1,16 @@
+#!/bin/sh
+
+# Runs the server and clients on localhost, eg to compare against a previous run:
+# ./latency-harness.sh -Dfix.benchmark.harness.baseline=previous-results/corrected.hlog
+
+set -eu
+
+java \
+  -cp artio-system-tests-*-benchmarks.jar \
+  -Dfix.codecs.no_validation=true \
+  -Dfix.benchmark.engine_idle=noop \
+  -Dfix.benchmark.harness.clients=4 \
+  -Dfix.benchmark.harness.send_rate_sec=50000 \
+  -Dfix.benchmark.harness.output_dir=benchmark-results \
+  "$@" \
+  uk.co.real_logic.artio.system_benchmarks.LatencyHarness